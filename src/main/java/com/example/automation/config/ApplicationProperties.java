@@ -4,6 +4,8 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.net.URI;
+
 @Configuration
 @ConfigurationProperties(prefix = "")
 @Data
@@ -12,4 +14,57 @@ public class ApplicationProperties {
     private String baseUrl;
     private boolean headless;
     private int defaultWaitTimeout;
+    private Auth auth = new Auth();
+    private Snapshot snapshot = new Snapshot();
+    private Preseed preseed = new Preseed();
+
+    /**
+     * Returns the configured auth API URL, or the origin of the base URL when none is configured.
+     */
+    public String getAuthApiUrl() {
+        if (auth.getApiUrl() != null && !auth.getApiUrl().isBlank()) {
+            return auth.getApiUrl().trim();
+        }
+        URI uri = URI.create(baseUrl);
+        return uri.getScheme() + "://" + uri.getAuthority();
+    }
+
+    /**
+     * Settings for authenticating over HTTP instead of through the login UI.
+     */
+    @Data
+    public static class Auth {
+        private String apiUrl;
+        private String loginPath = "/api/v1/auth/login";
+        private String otpPath = "/api/v1/auth/verify-otp";
+        private String probePath = "/api/v1/auth/me";
+        private String otpRequiredField = "otpRequired";
+        private String otpTokenField = "otpToken";
+        private String tokenField = "token";
+        private String tokenStorageKey = "token";
+        private int timeoutSeconds = 10;
+    }
+
+    /**
+     * Settings for reusable browser storage-state snapshots.
+     */
+    @Data
+    public static class Snapshot {
+        private String dir = "target/storage-state";
+        private int maxAgeMinutes = 720;
+        private int probeIntervalSeconds = 60;
+    }
+
+    /**
+     * Settings for seeding UI state (T&C consent, theme) before the first page load instead of clicking through it.
+     * Consent is only seeded when its storage key is configured.
+     */
+    @Data
+    public static class Preseed {
+        private boolean enabled = true;
+        private String consentStorageKey;
+        private String consentStorageValue = "true";
+        private String themeStorageKey = "chakra-ui-color-mode";
+        private String theme = "dark";
+    }
 }
@@ -9,7 +9,8 @@ import java.util.concurrent.ConcurrentHashMap;
 
 public class Config {
 
-    private static final ThreadLocal<String> ENV_THREAD_LOCAL = new ThreadLocal<>();
+    // One environment per run: set on the thread that starts the Spring context, read by every test thread
+    private static volatile String environment;
     private static final ConcurrentHashMap<String, String> BASE_URLS = new ConcurrentHashMap<>();
     private static final Properties properties = new Properties();  // Define properties object
 
@@ -19,9 +20,9 @@ public class Config {
     }
 
     /**
-     * Sets the environment and loads the corresponding environment-specific properties.
+     * Sets the environment of the whole run and loads the corresponding environment-specific properties.
      */
-    public static void setEnvironment() {
+    public static synchronized void setEnvironment() {
         // Retrieve the active Spring profile directly from the system property
         String env = System.getProperty("spring.profiles.active");
 
@@ -29,39 +30,53 @@ public class Config {
             throw new IllegalArgumentException("Environment cannot be null or empty");
         }
 
-        // Set the environment in the ThreadLocal variable
-        ENV_THREAD_LOCAL.set(env.toLowerCase());
-
         // Load the corresponding environment-specific properties file
         String propertiesFile = "application-" + env.toLowerCase() + ".properties"; // Assuming environment-specific properties
         loadProperties(propertiesFile); // Load the environment-specific properties file
 
+        // Publish the environment only once its base URL is known
+        environment = env.toLowerCase();
+
         // Log the environment set for debugging purposes
         System.out.println("Environment set to: " + env);
     }
 
     /**
-     * Returns the current environment.
+     * Returns the current environment, on any thread. If it was not set yet, it is set from spring.profiles.active.
      * @return The current environment.
      */
     public static String getEnvironment() {
-        String env = ENV_THREAD_LOCAL.get();
+        String env = environment;
         if (env == null) {
-            throw new IllegalStateException("Environment not set. Call setEnvironment() first.");
+            if (System.getProperty("spring.profiles.active") == null) {
+                throw new IllegalStateException("Environment not set. Call setEnvironment() first.");
+            }
+            setEnvironment();
+            env = environment;
         }
         return env;
     }
 
+    /**
+     * Returns the current environment like {@link #getEnvironment()}, or a fallback in runs without one.
+     * @param fallback The environment to return when none was set and spring.profiles.active is missing.
+     * @return The current environment, or the fallback.
+     */
+    public static String getEnvironment(String fallback) {
+        if (environment == null && System.getProperty("spring.profiles.active") == null) {
+            return fallback;
+        }
+        return getEnvironment();
+    }
+
     /**
      * Returns the base URL for the current environment.
      * @return The base URL for the environment.
      */
     public static String getBaseUrl() {
-        String env = ENV_THREAD_LOCAL.get();
-        if (env == null) {
-            throw new IllegalStateException("Environment not set. Call setEnvironment() first.");
-        }
-        return BASE_URLS.getOrDefault(env, throwUrlNotFoundError(env));
+        String env = getEnvironment();
+        String baseUrl = BASE_URLS.get(env);
+        return baseUrl != null ? baseUrl : throwUrlNotFoundError(env);
     }
 
     /**
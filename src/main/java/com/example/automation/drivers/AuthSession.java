@@ -0,0 +1,16 @@
+package com.example.automation.drivers;
+
+import org.openqa.selenium.Cookie;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Browser state of an authenticated user: the cookies and web storage entries the app expects after login.
+ *
+ * @param cookies        Cookies to add to the browser.
+ * @param localStorage   Entries to put into localStorage of the app origin.
+ * @param sessionStorage Entries to put into sessionStorage of the app origin.
+ */
+public record AuthSession(List<Cookie> cookies, Map<String, String> localStorage, Map<String, String> sessionStorage) {
+}
@@ -0,0 +1,274 @@
+package com.example.automation.drivers;
+
+import com.example.automation.utils.PropertiesLoader;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Buffers what a Chromium browser reports over DevTools while a test runs: console messages, uncaught JS errors,
+ * browser log entries and the recent network requests. Events are only kept in bounded in-memory buffers; they are
+ * turned into JSON and a HAR-like log when a test fails and the buffers are read.
+ */
+@Slf4j
+public class BrowserEventLog {
+
+    /**
+     * Browser event log settings.
+     *
+     * @param enabled           Whether sessions buffer their browser events.
+     * @param maxConsoleEntries How many console messages, JS errors and log entries are kept.
+     * @param maxNetworkEntries How many network requests are kept.
+     */
+    public record Settings(boolean enabled, int maxConsoleEntries, int maxNetworkEntries) {
+
+        public static Settings fromProperties() {
+            return new Settings(
+                    Boolean.parseBoolean(PropertiesLoader.getOverridableProperty("failures.browserLog.enabled", "true").trim()),
+                    Integer.parseInt(PropertiesLoader.getProperty("failures.console.maxEntries", "200").trim()),
+                    Integer.parseInt(PropertiesLoader.getProperty("failures.network.maxEntries", "300").trim()));
+        }
+    }
+
+    private static final List<String> EVENTS = List.of("Runtime.consoleAPICalled", "Runtime.exceptionThrown", "Log.entryAdded",
+            "Network.requestWillBeSent", "Network.responseReceived", "Network.loadingFinished", "Network.loadingFailed");
+
+    /**
+     * A network request, filled in as its events arrive. Times are the browser's monotonic seconds.
+     */
+    private static final class Request {
+        private String method;
+        private String url;
+        private String resourceType;
+        private double wallTime;
+        private double startTime;
+        private double endTime;
+        private int status;
+        private String statusText;
+        private String mimeType;
+        private String protocol;
+        private long encodedBytes = -1;
+        private String errorText;
+    }
+
+    private final Settings settings;
+    private final ArrayDeque<Map<String, Object>> console = new ArrayDeque<>();
+    private final LinkedHashMap<String, Request> requests;
+    private DevTools devTools;
+
+    /**
+     * Constructor for BrowserEventLog. Events are added with {@link #onEvent}; see {@link #start} to listen to a browser.
+     *
+     * @param settings The event log settings.
+     */
+    public BrowserEventLog(Settings settings) {
+        this.settings = settings;
+        this.requests = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Request> eldest) {
+                return size() > settings.maxNetworkEntries();
+            }
+        };
+    }
+
+    /**
+     * Starts buffering a browser's console, JS errors and network events.
+     *
+     * @param driver   The browser.
+     * @param settings The event log settings.
+     * @return The event log, or null if the browser has no DevTools or the domains could not be enabled.
+     */
+    public static BrowserEventLog start(WebDriver driver, Settings settings) {
+        if (!(driver instanceof HasDevTools hasDevTools)) {
+            log.info("Browser event log needs a Chromium browser, not buffering console and network events");
+            return null;
+        }
+        BrowserEventLog eventLog = new BrowserEventLog(settings);
+        try {
+            DevTools devTools = hasDevTools.getDevTools();
+            devTools.createSessionIfThereIsNotOne();
+            for (String event : EVENTS) {
+                devTools.addListener(new Event<Map<String, Object>>(event, input -> input.read(Json.MAP_TYPE)),
+                        params -> eventLog.onEvent(event, params));
+            }
+            devTools.send(new Command<Void>("Runtime.enable", Map.of()));
+            devTools.send(new Command<Void>("Log.enable", Map.of()));
+            NetworkDomain.enable(devTools);
+            eventLog.devTools = devTools;
+            return eventLog;
+        } catch (RuntimeException e) {
+            log.warn("Failed to start the browser event log: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Records a DevTools event. Called on the DevTools connection thread, so it only updates the buffers.
+     *
+     * @param event  The event name, e.g. "Network.responseReceived".
+     * @param params The event parameters.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized void onEvent(String event, Map<String, Object> params) {
+        switch (event) {
+            case "Runtime.consoleAPICalled" -> {
+                StringBuilder text = new StringBuilder();
+                for (Map<String, Object> arg : (List<Map<String, Object>>) params.getOrDefault("args", List.of())) {
+                    Object value = arg.containsKey("value") ? arg.get("value") : arg.getOrDefault("description", arg.get("type"));
+                    text.append(text.isEmpty() ? "" : " ").append(value);
+                }
+                addConsole("console." + params.get("type"), text.toString(), null, number(params.get("timestamp")));
+            }
+            case "Runtime.exceptionThrown" -> {
+                Map<String, Object> details = (Map<String, Object>) params.getOrDefault("exceptionDetails", Map.of());
+                Map<String, Object> exception = (Map<String, Object>) details.get("exception");
+                String text = exception != null && exception.get("description") != null
+                        ? String.valueOf(exception.get("description")) : String.valueOf(details.get("text"));
+                String source = details.get("url") == null ? null
+                        : details.get("url") + ":" + (number(details.get("lineNumber")).longValue() + 1);
+                addConsole("exception", text, source, number(params.get("timestamp")));
+            }
+            case "Log.entryAdded" -> {
+                Map<String, Object> entry = (Map<String, Object>) params.getOrDefault("entry", Map.of());
+                addConsole("log." + entry.get("level"), String.valueOf(entry.get("text")), (String) entry.get("url"),
+                        number(entry.get("timestamp")));
+            }
+            case "Network.requestWillBeSent" -> {
+                Map<String, Object> request = (Map<String, Object>) params.getOrDefault("request", Map.of());
+                Request entry = new Request();
+                entry.method = (String) request.get("method");
+                entry.url = (String) request.get("url");
+                entry.resourceType = (String) params.get("type");
+                entry.wallTime = number(params.get("wallTime")).doubleValue();
+                entry.startTime = number(params.get("timestamp")).doubleValue();
+                // A redirect reuses the request id; the redirected request replaces the original
+                requests.remove((String) params.get("requestId"));
+                requests.put((String) params.get("requestId"), entry);
+            }
+            case "Network.responseReceived" -> {
+                Request entry = requests.get((String) params.get("requestId"));
+                Map<String, Object> response = (Map<String, Object>) params.getOrDefault("response", Map.of());
+                if (entry != null) {
+                    entry.status = number(response.get("status")).intValue();
+                    entry.statusText = (String) response.get("statusText");
+                    entry.mimeType = (String) response.get("mimeType");
+                    entry.protocol = (String) response.get("protocol");
+                }
+            }
+            case "Network.loadingFinished" -> {
+                Request entry = requests.get((String) params.get("requestId"));
+                if (entry != null) {
+                    entry.endTime = number(params.get("timestamp")).doubleValue();
+                    entry.encodedBytes = number(params.get("encodedDataLength")).longValue();
+                }
+            }
+            case "Network.loadingFailed" -> {
+                Request entry = requests.get((String) params.get("requestId"));
+                if (entry != null) {
+                    entry.endTime = number(params.get("timestamp")).doubleValue();
+                    entry.errorText = (String) params.get("errorText");
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Returns the buffered console messages, JS errors and browser log entries, oldest first.
+     */
+    public synchronized List<Map<String, Object>> consoleEntries() {
+        return new ArrayList<>(console);
+    }
+
+    /**
+     * Returns how many network requests are buffered.
+     */
+    public synchronized int requestCount() {
+        return requests.size();
+    }
+
+    /**
+     * Returns the buffered network requests as a HAR 1.2 log. Requests still in flight have a time of -1;
+     * failed ones carry the browser's error text in _error.
+     */
+    public synchronized Map<String, Object> toHar() {
+        List<Map<String, Object>> entries = new ArrayList<>(requests.size());
+        for (Request request : requests.values()) {
+            double millis = request.endTime > 0 ? (request.endTime - request.startTime) * 1000 : -1;
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("startedDateTime", Instant.ofEpochMilli((long) (request.wallTime * 1000)).toString());
+            entry.put("time", Math.round(millis));
+            entry.put("request", Map.of(
+                    "method", String.valueOf(request.method),
+                    "url", String.valueOf(request.url),
+                    "httpVersion", request.protocol == null ? "" : request.protocol,
+                    "headers", List.of(), "queryString", List.of(), "cookies", List.of(), "headersSize", -1, "bodySize", -1));
+            entry.put("response", Map.of(
+                    "status", request.status,
+                    "statusText", request.statusText == null ? "" : request.statusText,
+                    "httpVersion", request.protocol == null ? "" : request.protocol,
+                    "content", Map.of("size", -1, "mimeType", request.mimeType == null ? "" : request.mimeType),
+                    "headers", List.of(), "cookies", List.of(), "redirectURL", "", "headersSize", -1,
+                    "bodySize", request.encodedBytes));
+            entry.put("cache", Map.of());
+            entry.put("timings", Map.of("send", 0, "wait", Math.round(millis), "receive", 0));
+            entry.put("_resourceType", request.resourceType == null ? "" : request.resourceType);
+            if (request.errorText != null) {
+                entry.put("_error", request.errorText);
+            }
+            entries.add(entry);
+        }
+        return Map.of("log", Map.of(
+                "version", "1.2",
+                "creator", Map.of("name", "automation-framework", "version", "1.0"),
+                "entries", entries));
+    }
+
+    /**
+     * Stops listening to the browser. The events already buffered are kept.
+     */
+    public void stop() {
+        if (devTools == null) {
+            return;
+        }
+        try {
+            NetworkDomain.disable(devTools);
+        } catch (RuntimeException e) {
+            log.debug("Failed to stop the browser event log: {}", e.getMessage());
+        }
+        devTools = null;
+    }
+
+    private void addConsole(String level, String text, String source, Number timestamp) {
+        if (settings.maxConsoleEntries() <= 0) {
+            return;
+        }
+        if (console.size() >= settings.maxConsoleEntries()) {
+            console.removeFirst();
+        }
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("time", Instant.ofEpochMilli(timestamp.longValue()).toString());
+        entry.put("level", level);
+        entry.put("text", text);
+        if (source != null) {
+            entry.put("source", source);
+        }
+        console.addLast(entry);
+    }
+
+    private static Number number(Object value) {
+        return value instanceof Number number ? number : 0;
+    }
+}
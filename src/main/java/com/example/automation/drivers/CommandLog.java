@@ -0,0 +1,167 @@
+package com.example.automation.drivers;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the last WebDriver calls of a session, with their duration and error, in a fixed-size ring. Registered on
+ * the session's driver through an EventFiringDecorator. Only references are kept per call; the arguments are turned
+ * into text when the log is read after a failure. Arguments are logged in full only for calls that cannot carry
+ * secrets, such as locators, URLs and timeouts. Text typed with sendKeys is logged as its length. Other calls, e.g.
+ * executeScript, executeCdpCommand and addCookie, are logged as their argument types and lengths.
+ */
+public class CommandLog implements WebDriverListener {
+
+    private static final int MAX_ARGUMENT_LENGTH = 120;
+    // Calls whose arguments are locators, URLs, attribute names, window handles or timeouts
+    private static final Set<String> LOGGED_IN_FULL = Set.of("get", "to", "findElement", "findElements", "getAttribute",
+            "getDomAttribute", "getDomProperty", "getCssValue", "getCookieNamed", "deleteCookieNamed", "frame", "window",
+            "newWindow", "implicitlyWait", "pageLoadTimeout", "scriptTimeout", "setSize", "setPosition");
+
+    private record Call(long epochMillis, long nanos, Object target, Method method, Object[] args, Throwable error) {
+    }
+
+    private final Call[] ring;
+    private final ThreadLocal<long[]> started = ThreadLocal.withInitial(() -> new long[2]);
+    private int next;
+    private int size;
+
+    /**
+     * Constructor for CommandLog.
+     *
+     * @param capacity How many calls are kept; older calls are dropped first.
+     */
+    public CommandLog(int capacity) {
+        this.ring = new Call[Math.max(1, capacity)];
+    }
+
+    @Override
+    public void beforeAnyCall(Object target, Method method, Object[] args) {
+        long[] start = started.get();
+        start[0] = System.currentTimeMillis();
+        start[1] = System.nanoTime();
+    }
+
+    @Override
+    public void afterAnyCall(Object target, Method method, Object[] args, Object result) {
+        add(target, method, args, null);
+    }
+
+    @Override
+    public void onError(Object target, Method method, Object[] args, InvocationTargetException e) {
+        add(target, method, args, e.getTargetException());
+    }
+
+    /**
+     * Returns the logged calls, oldest first, one line each: start time, duration, call and error, if any.
+     */
+    public List<String> lines() {
+        List<Call> calls = new ArrayList<>();
+        synchronized (this) {
+            for (int i = 0; i < size; i++) {
+                calls.add(ring[(next - size + i + ring.length) % ring.length]);
+            }
+        }
+        List<String> lines = new ArrayList<>(calls.size());
+        for (Call call : calls) {
+            StringBuilder line = new StringBuilder()
+                    .append(Instant.ofEpochMilli(call.epochMillis())).append("  ")
+                    .append(String.format("%6d ms  ", TimeUnit.NANOSECONDS.toMillis(call.nanos())))
+                    .append(targetName(call.target())).append('.').append(call.method().getName()).append('(');
+            appendArguments(line, call.method(), call.args());
+            line.append(')');
+            if (call.error() != null) {
+                String message = String.valueOf(call.error().getMessage()).lines().findFirst().orElse("");
+                line.append("  ! ").append(call.error().getClass().getSimpleName()).append(": ").append(message);
+            }
+            lines.add(line.toString());
+        }
+        return lines;
+    }
+
+    private void add(Object target, Method method, Object[] args, Throwable error) {
+        long[] start = started.get();
+        Call call = new Call(start[0], System.nanoTime() - start[1], target, method, args, error);
+        synchronized (this) {
+            ring[next] = call;
+            next = (next + 1) % ring.length;
+            size = Math.min(size + 1, ring.length);
+        }
+    }
+
+    private static String targetName(Object target) {
+        if (target instanceof WebDriver) {
+            return "driver";
+        }
+        if (target instanceof WebElement) {
+            return "element";
+        }
+        // Navigation, Options, Window and the other driver parts
+        Class<?>[] interfaces = target.getClass().getInterfaces();
+        return interfaces.length > 0 ? interfaces[0].getSimpleName() : target.getClass().getSimpleName();
+    }
+
+    private static void appendArguments(StringBuilder line, Method method, Object[] args) {
+        if (args == null) {
+            return;
+        }
+        if (method.getName().equals("sendKeys")) {
+            int length = 0;
+            for (Object arg : args) {
+                if (arg instanceof CharSequence[] keys) {
+                    for (CharSequence key : keys) {
+                        length += key == null ? 0 : key.length();
+                    }
+                } else if (arg instanceof CharSequence text) {
+                    length += text.length(); // Alert.sendKeys
+                }
+            }
+            line.append('<').append(length).append(" chars>");
+            return;
+        }
+        if (!LOGGED_IN_FULL.contains(method.getName())) {
+            for (int i = 0; i < args.length; i++) {
+                line.append(i == 0 ? "" : ", ").append(describe(args[i]));
+            }
+            return;
+        }
+        for (int i = 0; i < args.length; i++) {
+            String text = String.valueOf(args[i] instanceof Object[] array ? Arrays.asList(array) : args[i]);
+            line.append(i == 0 ? "" : ", ")
+                    .append(text.length() > MAX_ARGUMENT_LENGTH ? text.substring(0, MAX_ARGUMENT_LENGTH) + "..." : text);
+        }
+    }
+
+    // The type and length of an argument, without its value
+    private static String describe(Object arg) {
+        if (arg == null) {
+            return "null";
+        }
+        String type = arg.getClass().getSimpleName();
+        if (arg instanceof CharSequence text) {
+            return "<" + type + " " + text.length() + " chars>";
+        }
+        if (arg instanceof Object[] array) {
+            return "<" + type + " " + array.length + " items>";
+        }
+        if (arg instanceof Collection<?> collection) {
+            return "<Collection " + collection.size() + " items>";
+        }
+        if (arg instanceof Map<?, ?> map) {
+            return "<Map " + map.size() + " entries>";
+        }
+        return "<" + type + ">";
+    }
+}
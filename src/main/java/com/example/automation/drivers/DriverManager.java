@@ -1,22 +1,40 @@
 package com.example.automation.drivers;
 
 import com.example.automation.config.ApplicationProperties;
+import com.example.automation.utils.PageReadiness;
+import com.example.automation.utils.PropertiesLoader;
+import com.example.automation.utils.ToggleTheme;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.bonigarcia.wdm.WebDriverManager;
 import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.InvalidCookieDomainException;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.chromium.HasCdp;
 import org.openqa.selenium.edge.EdgeDriver;
 import org.openqa.selenium.edge.EdgeOptions;
 import org.openqa.selenium.firefox.FirefoxDriver;
 import org.openqa.selenium.firefox.FirefoxOptions;
 import org.openqa.selenium.safari.SafariDriver;
+import org.openqa.selenium.support.events.EventFiringDecorator;
 import org.openqa.selenium.support.ui.WebDriverWait;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.net.URI;
+import java.time.Duration;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Component
 @Slf4j
@@ -24,7 +42,55 @@ public class DriverManager {
 
     private static final ThreadLocal<WebDriver> driverThreadLocal = new ThreadLocal<>();
     private static final ThreadLocal<WebDriverWait> waitThreadLocal = new ThreadLocal<>();
+    // Drivers not quit yet, so a driver kept open by one thread can be quit from another
+    private static final Set<WebDriver> ACTIVE_DRIVERS = ConcurrentHashMap.newKeySet();
+    // Screencasts of the drivers recording one (screencast.enabled)
+    private static final Map<WebDriver, ScreencastRecorder> SCREENCASTS = new ConcurrentHashMap<>();
+    // Console, JS error and network buffers, and recent WebDriver calls, read when a test fails
+    private static final Map<WebDriver, BrowserEventLog> EVENT_LOGS = new ConcurrentHashMap<>();
+    private static final Map<WebDriver, CommandLog> COMMAND_LOGS = new ConcurrentHashMap<>();
     private static final ConcurrentHashMap<String, String> BRAVE_PATHS = new ConcurrentHashMap<>();
+    private static final AtomicInteger SEED_SCRIPT_COUNTER = new AtomicInteger();
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final String INDEXED_DB_RESTORE_SCRIPT =
+            "var done = arguments[arguments.length - 1];" +
+            "var dbs = JSON.parse(arguments[0]);" +
+            "function restore(dump) {" +
+            "  return new Promise(function (resolve, reject) {" +
+            "    var open = indexedDB.open(dump.name, dump.version || 1);" +
+            "    open.onupgradeneeded = function () {" +
+            "      var db = open.result;" +
+            "      dump.stores.forEach(function (s) {" +
+            "        if (db.objectStoreNames.contains(s.name)) { return; }" +
+            "        var options = { autoIncrement: s.autoIncrement };" +
+            "        if (s.keyPath !== null) { options.keyPath = s.keyPath; }" +
+            "        var store = db.createObjectStore(s.name, options);" +
+            "        (s.indexes || []).forEach(function (i) {" +
+            "          store.createIndex(i.name, i.keyPath, { unique: i.unique, multiEntry: i.multiEntry });" +
+            "        });" +
+            "      });" +
+            "    };" +
+            "    open.onerror = function () { reject(open.error); };" +
+            "    open.onsuccess = function () {" +
+            "      var db = open.result;" +
+            "      var names = dump.stores.map(function (s) { return s.name; })" +
+            "          .filter(function (n) { return db.objectStoreNames.contains(n); });" +
+            "      if (!names.length) { db.close(); resolve(); return; }" +
+            "      var tx = db.transaction(names, 'readwrite');" +
+            "      dump.stores.forEach(function (s) {" +
+            "        if (names.indexOf(s.name) < 0) { return; }" +
+            "        var store = tx.objectStore(s.name);" +
+            "        s.records.forEach(function (r) {" +
+            "          if (store.keyPath === null) { store.put(r.value, r.key); } else { store.put(r.value); }" +
+            "        });" +
+            "      });" +
+            "      tx.oncomplete = function () { db.close(); resolve(); };" +
+            "      tx.onerror = function () { reject(tx.error); };" +
+            "    };" +
+            "  });" +
+            "}" +
+            "dbs.reduce(function (p, d) { return p.then(function () { return restore(d); }); }, Promise.resolve())" +
+            "  .then(function () { done(null); }, function (e) { done(String(e)); });";
 
     static {
         BRAVE_PATHS.put("win", "C:\\Program Files\\BraveSoftware\\Brave-Browser\\Application\\brave.exe");
@@ -62,8 +128,38 @@ public class DriverManager {
             default -> driver = initializeChromeDriver();
         }
 
+        CommandLog commandLog = null;
+        int commandLogSize = Integer.parseInt(PropertiesLoader.getProperty("failures.commandLog.size", "100").trim());
+        if (commandLogSize > 0) {
+            commandLog = new CommandLog(commandLogSize);
+            driver = new EventFiringDecorator<>(commandLog).decorate(driver);
+        }
+
         driver.manage().window().maximize();
         driverThreadLocal.set(driver);
+        ACTIVE_DRIVERS.add(driver);
+
+        ScreencastRecorder.Settings screencast = ScreencastRecorder.Settings.fromProperties();
+        if (screencast.enabled()) {
+            ScreencastRecorder recorder = ScreencastRecorder.start(driver, screencast);
+            if (recorder != null) {
+                SCREENCASTS.put(driver, recorder);
+            }
+        }
+        if (commandLog != null) {
+            COMMAND_LOGS.put(driver, commandLog);
+        }
+        BrowserEventLog.Settings browserLog = BrowserEventLog.Settings.fromProperties();
+        if (browserLog.enabled()) {
+            BrowserEventLog eventLog = BrowserEventLog.start(driver, browserLog);
+            if (eventLog != null) {
+                EVENT_LOGS.put(driver, eventLog);
+            }
+        }
+        PageReadiness.Settings readiness = PageReadiness.Settings.fromProperties();
+        if (readiness.enabled()) {
+            NetworkActivity.start(driver, readiness);
+        }
     }
 
     /**
@@ -76,6 +172,36 @@ public class DriverManager {
         return driverThreadLocal.get();
     }
 
+    /**
+     * Returns the screencast of the current thread's browser.
+     *
+     * @return The recorder, or null if the browser records no screencast.
+     */
+    public ScreencastRecorder getScreencast() {
+        WebDriver driver = driverThreadLocal.get();
+        return driver == null ? null : SCREENCASTS.get(driver);
+    }
+
+    /**
+     * Returns the console, JS error and network events buffered for the current thread's browser.
+     *
+     * @return The event log, or null if the browser buffers no events.
+     */
+    public BrowserEventLog getBrowserEventLog() {
+        WebDriver driver = driverThreadLocal.get();
+        return driver == null ? null : EVENT_LOGS.get(driver);
+    }
+
+    /**
+     * Returns the recent WebDriver calls of the current thread's browser.
+     *
+     * @return The command log, or null if failures.commandLog.size is 0.
+     */
+    public CommandLog getCommandLog() {
+        WebDriver driver = driverThreadLocal.get();
+        return driver == null ? null : COMMAND_LOGS.get(driver);
+    }
+
     /**
      * Quits the WebDriver and removes it from ThreadLocal.
      */
@@ -84,9 +210,7 @@ public class DriverManager {
         if (driver != null) {
             log.info("Quitting WebDriver for the current thread.");
             try {
-                driver.quit();
-            } catch (Exception e) {
-                log.warn("Error while quitting WebDriver: {}", e.getMessage());
+                quitDriver(driver);
             } finally {
                 driverThreadLocal.remove();
                 waitThreadLocal.remove();
@@ -97,6 +221,34 @@ public class DriverManager {
         }
     }
 
+    /**
+     * Quits a driver created by any thread, e.g. a browser a parallel worker kept open for its next test.
+     * Does nothing if the driver was already quit. The owning thread's ThreadLocal is cleared on its next
+     * initializeDriver() or quitDriver().
+     *
+     * @param driver The driver to quit.
+     */
+    public void quitDriver(WebDriver driver) {
+        if (!ACTIVE_DRIVERS.remove(driver)) {
+            return;
+        }
+        ScreencastRecorder screencast = SCREENCASTS.remove(driver);
+        if (screencast != null) {
+            screencast.stop();
+        }
+        BrowserEventLog eventLog = EVENT_LOGS.remove(driver);
+        if (eventLog != null) {
+            eventLog.stop();
+        }
+        COMMAND_LOGS.remove(driver);
+        NetworkActivity.stop(driver);
+        try {
+            driver.quit();
+        } catch (Exception e) {
+            log.warn("Error while quitting WebDriver: {}", e.getMessage());
+        }
+    }
+
     /**
      * Returns the WebDriverWait instance for the current thread.
      */
@@ -107,6 +259,201 @@ public class DriverManager {
         return waitThreadLocal.get();
     }
 
+    /**
+     * Seeds an authenticated session's cookies and storage before the first navigation.
+     *
+     * @param session The session state to inject.
+     * @param baseUrl The app URL the state belongs to.
+     */
+    public void seedSession(AuthSession session, String baseUrl) {
+        seedCookies(session.cookies(), baseUrl);
+        seedStorage(baseUrl, session.localStorage(), session.sessionStorage());
+    }
+
+    /**
+     * Adds cookies to the current session. Chromium browsers use CDP so no page has to be loaded;
+     * other browsers open a lightweight page on the app origin first.
+     *
+     * @param cookies The cookies to add.
+     * @param baseUrl The app URL the cookies belong to.
+     */
+    public void seedCookies(List<Cookie> cookies, String baseUrl) {
+        WebDriver driver = getDriver();
+        String origin = getOrigin(baseUrl);
+
+        if (driver instanceof HasCdp chromium) {
+            for (Cookie cookie : cookies) {
+                chromium.executeCdpCommand("Network.setCookie", toCdpCookie(cookie, origin));
+            }
+        } else {
+            openOrigin(driver, origin);
+            for (Cookie cookie : cookies) {
+                try {
+                    driver.manage().addCookie(cookie);
+                } catch (InvalidCookieDomainException e) {
+                    log.warn("Skipping cookie '{}' for domain {}: {}", cookie.getName(), cookie.getDomain(), e.getMessage());
+                }
+            }
+        }
+        log.info("Seeded {} cookie(s) for {}", cookies.size(), origin);
+    }
+
+    /**
+     * Puts entries into localStorage and sessionStorage of the app origin. Chromium browsers register a CDP
+     * script that runs before any page script of the first matching document; other browsers set them directly.
+     *
+     * @param baseUrl        The app URL the entries belong to.
+     * @param localStorage   Entries for localStorage.
+     * @param sessionStorage Entries for sessionStorage.
+     */
+    public void seedStorage(String baseUrl, Map<String, String> localStorage, Map<String, String> sessionStorage) {
+        if (localStorage.isEmpty() && sessionStorage.isEmpty()) {
+            return;
+        }
+        WebDriver driver = getDriver();
+        String origin = getOrigin(baseUrl);
+        String script = buildStorageSeedScript(origin, localStorage, sessionStorage);
+
+        if (driver instanceof HasCdp chromium) {
+            chromium.executeCdpCommand("Page.addScriptToEvaluateOnNewDocument", Map.of("source", script));
+        } else {
+            openOrigin(driver, origin);
+            ((JavascriptExecutor) driver).executeScript(script);
+        }
+        log.info("Seeded {} localStorage and {} sessionStorage entr(ies) for {}", localStorage.size(), sessionStorage.size(), origin);
+    }
+
+    /**
+     * Seeds the T&C consent flag into localStorage so the consent popup never opens.
+     *
+     * @param baseUrl The app URL.
+     * @return True if consent was seeded, false if no consent storage key is configured.
+     */
+    public boolean seedConsent(String baseUrl) {
+        ApplicationProperties.Preseed preseed = appProps.getPreseed();
+        if (preseed.getConsentStorageKey() == null || preseed.getConsentStorageKey().isBlank()) {
+            return false;
+        }
+        seedStorage(baseUrl, Map.of(preseed.getConsentStorageKey().trim(), preseed.getConsentStorageValue()), Map.of());
+        return true;
+    }
+
+    /**
+     * Seeds the theme preference into localStorage and, on Chromium browsers, emulates the matching
+     * prefers-color-scheme media feature so the app boots in that theme.
+     *
+     * @param baseUrl The app URL.
+     * @return True if the theme was seeded, false if no theme storage key is configured.
+     */
+    public boolean seedTheme(String baseUrl) {
+        ApplicationProperties.Preseed preseed = appProps.getPreseed();
+        if (preseed.getThemeStorageKey() == null || preseed.getThemeStorageKey().isBlank()) {
+            return false;
+        }
+        seedStorage(baseUrl, Map.of(preseed.getThemeStorageKey().trim(), preseed.getTheme()), Map.of());
+        if (getDriver() instanceof HasCdp chromium) {
+            chromium.executeCdpCommand("Emulation.setEmulatedMedia", Map.of("features",
+                    List.of(Map.of("name", "prefers-color-scheme", "value", preseed.getTheme()))));
+        }
+        return true;
+    }
+
+    /**
+     * Checks, after the first page load, that a seeded theme took effect: localStorage still holds the seeded
+     * preference and the page is rendered in that theme within a few seconds.
+     *
+     * @return True if the seeded theme is applied.
+     */
+    public boolean isSeededThemeApplied() {
+        ApplicationProperties.Preseed preseed = appProps.getPreseed();
+        WebDriver driver = getDriver();
+        Object stored = ((JavascriptExecutor) driver).executeScript(
+                "return window.localStorage.getItem(arguments[0]);", preseed.getThemeStorageKey().trim());
+        if (!preseed.getTheme().equals(stored)) {
+            log.warn("Seeded theme '{}' was not kept, localStorage holds '{}'", preseed.getTheme(), stored);
+            return false;
+        }
+        try {
+            new WebDriverWait(driver, Duration.ofSeconds(5))
+                    .until(d -> preseed.getTheme().equals(ToggleTheme.getCurrentTheme(d)));
+            return true;
+        } catch (TimeoutException e) {
+            log.warn("Seeded theme '{}' was stored but the page is rendered in '{}'", preseed.getTheme(),
+                    ToggleTheme.getCurrentTheme(driver));
+            return false;
+        }
+    }
+
+    /**
+     * Recreates IndexedDB databases dumped by {@link StorageStateManager} on the app origin.
+     * IndexedDB writes are asynchronous, so the origin is opened and the script waits for every transaction.
+     *
+     * @param baseUrl  The app URL the databases belong to.
+     * @param dumpJson The databases as JSON.
+     */
+    public void seedIndexedDb(String baseUrl, String dumpJson) {
+        WebDriver driver = getDriver();
+        String origin = getOrigin(baseUrl);
+        openOrigin(driver, origin);
+        Object error = ((JavascriptExecutor) driver).executeAsyncScript(INDEXED_DB_RESTORE_SCRIPT, dumpJson);
+        if (error != null) {
+            throw new RuntimeException("Failed to restore IndexedDB for " + origin + ": " + error);
+        }
+        log.info("Seeded IndexedDB for {}", origin);
+    }
+
+    private static String getOrigin(String baseUrl) {
+        URI uri = URI.create(baseUrl);
+        return uri.getScheme() + "://" + uri.getAuthority();
+    }
+
+    private static void openOrigin(WebDriver driver, String origin) {
+        String currentUrl = driver.getCurrentUrl();
+        if (currentUrl == null || !currentUrl.startsWith(origin)) {
+            driver.get(origin + "/robots.txt");
+        }
+    }
+
+    private static Map<String, Object> toCdpCookie(Cookie cookie, String origin) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("name", cookie.getName());
+        params.put("value", cookie.getValue());
+        params.put("path", cookie.getPath() != null ? cookie.getPath() : "/");
+        params.put("secure", cookie.isSecure());
+        params.put("httpOnly", cookie.isHttpOnly());
+        if (cookie.getDomain() != null) {
+            params.put("domain", cookie.getDomain());
+        } else {
+            params.put("url", origin);
+        }
+        if (cookie.getExpiry() != null) {
+            params.put("expires", cookie.getExpiry().getTime() / 1000.0);
+        }
+        return params;
+    }
+
+    /**
+     * Builds a script that writes the entries once per tab, only on the given origin.
+     */
+    private static String buildStorageSeedScript(String origin, Map<String, String> localStorage, Map<String, String> sessionStorage) {
+        try {
+            String marker = "__automationSeeded" + SEED_SCRIPT_COUNTER.incrementAndGet();
+            return "(function () {" +
+                    "  if (window.location.origin !== " + JSON.writeValueAsString(origin) + ") { return; }" +
+                    "  try {" +
+                    "    if (window.sessionStorage.getItem('" + marker + "')) { return; }" +
+                    "    var local = " + JSON.writeValueAsString(localStorage) + ";" +
+                    "    var session = " + JSON.writeValueAsString(sessionStorage) + ";" +
+                    "    Object.keys(local).forEach(function (k) { window.localStorage.setItem(k, local[k]); });" +
+                    "    Object.keys(session).forEach(function (k) { window.sessionStorage.setItem(k, session[k]); });" +
+                    "    window.sessionStorage.setItem('" + marker + "', '1');" +
+                    "  } catch (e) { }" +
+                    "})();";
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialise storage seed entries", e);
+        }
+    }
+
     private boolean isHeadless() {
         return appProps.isHeadless();
     }
@@ -0,0 +1,140 @@
+package com.example.automation.drivers;
+
+import com.example.automation.utils.PageReadiness;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Counts a Chromium browser's in-flight requests from DevTools Network events, for {@link PageReadiness}.
+ * WebSocket and EventSource connections, URLs matching readiness.ignoreUrls (e.g. analytics beacons) and requests
+ * open for longer than readiness.longRequestMs (long polling) do not count as in flight. Every request that starts
+ * or ends counts as network activity. Trackers are registered per browser, so page objects can find theirs.
+ */
+@Slf4j
+public class NetworkActivity {
+
+    private static final Map<WebDriver, NetworkActivity> ACTIVE = new ConcurrentHashMap<>();
+
+    private final Pattern ignoredUrls;
+    private final long longRequestNanos;
+    // Request id to the System.nanoTime() it started at
+    private final Map<String, Long> inFlight = new ConcurrentHashMap<>();
+    private volatile long lastActivityNanos = System.nanoTime();
+
+    /**
+     * Constructor for NetworkActivity. Events are added with {@link #onEvent}; see {@link #start} to track a browser.
+     *
+     * @param ignoredUrls   Requests whose URL matches are not tracked, or null.
+     * @param longRequestMs How long a request may be open before it no longer counts as in flight.
+     */
+    public NetworkActivity(Pattern ignoredUrls, long longRequestMs) {
+        this.ignoredUrls = ignoredUrls;
+        this.longRequestNanos = TimeUnit.MILLISECONDS.toNanos(longRequestMs);
+    }
+
+    /**
+     * Starts tracking a browser's requests and registers the tracker for {@link #of(WebDriver)}.
+     *
+     * @param driver   The browser.
+     * @param settings The readiness settings.
+     * @return The tracker, or null if the browser has no DevTools or the Network domain could not be enabled.
+     */
+    public static NetworkActivity start(WebDriver driver, PageReadiness.Settings settings) {
+        if (!(driver instanceof HasDevTools hasDevTools)) {
+            log.info("Network activity tracking needs a Chromium browser, page readiness falls back to the page's own counters");
+            return null;
+        }
+        NetworkActivity activity = new NetworkActivity(
+                settings.ignoreUrls().isEmpty() ? null : Pattern.compile(settings.ignoreUrls()), settings.longRequestMs());
+        try {
+            DevTools devTools = hasDevTools.getDevTools();
+            devTools.createSessionIfThereIsNotOne();
+            for (String event : new String[]{"Network.requestWillBeSent", "Network.loadingFinished", "Network.loadingFailed"}) {
+                devTools.addListener(new Event<Map<String, Object>>(event, input -> input.read(Json.MAP_TYPE)),
+                        params -> activity.onEvent(event, params));
+            }
+            NetworkDomain.enable(devTools);
+        } catch (RuntimeException e) {
+            log.warn("Failed to start network activity tracking: {}", e.getMessage());
+            return null;
+        }
+        ACTIVE.put(driver, activity);
+        return activity;
+    }
+
+    /**
+     * Returns the tracker of a browser.
+     *
+     * @param driver The browser.
+     * @return The tracker, or null if the browser's requests are not tracked.
+     */
+    public static NetworkActivity of(WebDriver driver) {
+        return ACTIVE.get(driver);
+    }
+
+    /**
+     * Forgets the tracker of a browser that is quit.
+     *
+     * @param driver The browser.
+     */
+    public static void stop(WebDriver driver) {
+        ACTIVE.remove(driver);
+    }
+
+    /**
+     * Records a DevTools Network event. Called on the DevTools connection thread.
+     *
+     * @param event  The event name, e.g. "Network.loadingFinished".
+     * @param params The event parameters.
+     */
+    @SuppressWarnings("unchecked")
+    public void onEvent(String event, Map<String, Object> params) {
+        String requestId = (String) params.get("requestId");
+        if (requestId == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (event.equals("Network.requestWillBeSent")) {
+            String type = String.valueOf(params.get("type"));
+            String url = String.valueOf(((Map<String, Object>) params.getOrDefault("request", Map.of())).get("url"));
+            if (type.equals("WebSocket") || type.equals("EventSource") || (ignoredUrls != null && ignoredUrls.matcher(url).find())) {
+                return;
+            }
+            // A redirect reuses the id of the request it continues
+            inFlight.put(requestId, now);
+            lastActivityNanos = now;
+        } else if (inFlight.remove(requestId) != null) {
+            lastActivityNanos = now;
+        }
+    }
+
+    /**
+     * Returns how many tracked requests are in flight, leaving out those open for longer than readiness.longRequestMs.
+     */
+    public int inFlight() {
+        long cutoff = System.nanoTime() - longRequestNanos;
+        int count = 0;
+        for (long started : inFlight.values()) {
+            if (started - cutoff > 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns when a tracked request last started or ended, in System.nanoTime().
+     */
+    public long lastActivityNanos() {
+        return lastActivityNanos;
+    }
+}
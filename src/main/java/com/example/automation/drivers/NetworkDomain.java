@@ -0,0 +1,52 @@
+package com.example.automation.drivers;
+
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Enables the DevTools Network domain of a browser once, for everything that listens to its events
+ * ({@link BrowserEventLog}, {@link NetworkActivity}). Response bodies are never read, so the browser is told not to
+ * keep them; a second Network.enable with other parameters would replace that setting.
+ */
+final class NetworkDomain {
+
+    private static final Map<String, Object> ENABLE_PARAMS = Map.of("maxTotalBufferSize", 0, "maxResourceBufferSize", 0);
+
+    // DevTools sessions the Network domain is enabled on
+    private static final Set<DevTools> ENABLED = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    private NetworkDomain() {
+    }
+
+    /**
+     * Enables the Network domain, unless it already is.
+     *
+     * @param devTools The browser's DevTools session.
+     */
+    static void enable(DevTools devTools) {
+        if (!ENABLED.add(devTools)) {
+            return;
+        }
+        try {
+            devTools.send(new Command<Void>("Network.enable", ENABLE_PARAMS));
+        } catch (RuntimeException e) {
+            ENABLED.remove(devTools);
+            throw e;
+        }
+    }
+
+    /**
+     * Disables the Network domain, e.g. when the browser is quit.
+     *
+     * @param devTools The browser's DevTools session.
+     */
+    static void disable(DevTools devTools) {
+        ENABLED.remove(devTools);
+        devTools.send(new Command<Void>("Network.disable", Map.of()));
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.automation.drivers;
+
+import com.example.automation.utils.PropertiesLoader;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.JsonInput;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the last seconds of a Chromium session's screencast in memory, to be written as an animated GIF only when
+ * a test fails. The browser streams downscaled JPEG frames (Page.startScreencast); each is kept as received, still
+ * base64-encoded, in a fixed-size ring, so a passing test costs one small copy per frame and no disk or decoding.
+ */
+@Slf4j
+public class ScreencastRecorder {
+
+    /**
+     * Screencast settings.
+     *
+     * @param enabled   Whether sessions record a screencast.
+     * @param seconds   How many seconds of frames to keep.
+     * @param maxFrames Size of the ring; older frames are dropped first.
+     * @param quality   JPEG quality 0-100 of the frames.
+     * @param maxWidth  Maximum frame width; the browser downscales larger viewports.
+     */
+    public record Settings(boolean enabled, int seconds, int maxFrames, int quality, int maxWidth) {
+
+        public static Settings fromProperties() {
+            return new Settings(
+                    Boolean.parseBoolean(PropertiesLoader.getOverridableProperty("screencast.enabled", "false").trim()),
+                    Integer.parseInt(PropertiesLoader.getProperty("screencast.seconds", "10").trim()),
+                    Integer.parseInt(PropertiesLoader.getProperty("screencast.maxFrames", "60").trim()),
+                    Integer.parseInt(PropertiesLoader.getProperty("screencast.quality", "50").trim()),
+                    Integer.parseInt(PropertiesLoader.getProperty("screencast.maxWidth", "800").trim()));
+        }
+    }
+
+    private record Frame(String base64Jpeg, long receivedNanos) {
+    }
+
+    private record ScreencastFrame(String data, int sessionId) {
+    }
+
+    private final Settings settings;
+    private final Frame[] ring;
+    private int next;
+    private int size;
+    private DevTools devTools;
+    private volatile boolean stopped;
+
+    /**
+     * Constructor for ScreencastRecorder. Frames are added with {@link #addFrame}; see {@link #start} to record a browser.
+     *
+     * @param settings The screencast settings.
+     */
+    public ScreencastRecorder(Settings settings) {
+        this.settings = settings;
+        this.ring = new Frame[Math.max(1, settings.maxFrames())];
+    }
+
+    /**
+     * Starts recording a browser's screencast into a new ring.
+     *
+     * @param driver   The browser.
+     * @param settings The screencast settings.
+     * @return The recorder, or null if the browser has no DevTools or the screencast could not be started.
+     */
+    public static ScreencastRecorder start(WebDriver driver, Settings settings) {
+        if (!(driver instanceof HasDevTools hasDevTools)) {
+            log.info("Screencast needs a Chromium browser, not recording");
+            return null;
+        }
+        ScreencastRecorder recorder = new ScreencastRecorder(settings);
+        try {
+            DevTools devTools = hasDevTools.getDevTools();
+            devTools.createSessionIfThereIsNotOne();
+            devTools.addListener(new Event<>("Page.screencastFrame", ScreencastRecorder::readFrame), frame -> {
+                if (recorder.stopped) {
+                    return;
+                }
+                recorder.addFrame(frame.data(), System.nanoTime());
+                // The browser sends the next frame only after this one is acknowledged
+                devTools.send(new Command<Void>("Page.screencastFrameAck", Map.of("sessionId", frame.sessionId())).doesNotSendResponse());
+            });
+            devTools.send(new Command<Void>("Page.startScreencast", Map.of(
+                    "format", "jpeg",
+                    "quality", settings.quality(),
+                    "maxWidth", settings.maxWidth(),
+                    "maxHeight", settings.maxWidth())));
+            recorder.devTools = devTools;
+            return recorder;
+        } catch (RuntimeException e) {
+            log.warn("Failed to start the screencast: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Adds a frame, dropping the oldest one when the ring is full.
+     *
+     * @param base64Jpeg    The frame as base64 JPEG, as the browser sends it.
+     * @param receivedNanos When the frame arrived, in System.nanoTime().
+     */
+    public synchronized void addFrame(String base64Jpeg, long receivedNanos) {
+        ring[next] = new Frame(base64Jpeg, receivedNanos);
+        next = (next + 1) % ring.length;
+        size = Math.min(size + 1, ring.length);
+    }
+
+    /**
+     * Returns how many frames of the last settings.seconds the ring holds.
+     */
+    public int frameCount() {
+        return recentFrames().size();
+    }
+
+    /**
+     * Stops the browser's screencast. The frames already recorded are kept. The DevTools session is shared with
+     * other listeners, so the frame listener stays registered and ignores frames that arrive after this.
+     */
+    public void stop() {
+        stopped = true;
+        if (devTools == null) {
+            return;
+        }
+        try {
+            devTools.send(new Command<Void>("Page.stopScreencast", Map.of()));
+        } catch (RuntimeException e) {
+            log.debug("Failed to stop the screencast: {}", e.getMessage());
+        }
+        devTools = null;
+    }
+
+    /**
+     * Writes the frames of the last settings.seconds as an animated GIF, timed as they were recorded.
+     *
+     * @param file The GIF file.
+     * @return The file, or null if there are no frames.
+     */
+    public Path writeGif(Path file) throws IOException {
+        List<Frame> frames = recentFrames();
+        if (frames.isEmpty()) {
+            return null;
+        }
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("gif").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(Files.newOutputStream(file))) {
+            writer.setOutput(out);
+            writer.prepareWriteSequence(null);
+            for (int i = 0; i < frames.size(); i++) {
+                BufferedImage image = ImageIO.read(new ByteArrayInputStream(Base64.getDecoder().decode(frames.get(i).base64Jpeg())));
+                if (image == null) {
+                    continue;
+                }
+                // A frame is shown until the next one arrived; the last one for a second
+                long delayNanos = i + 1 < frames.size() ? frames.get(i + 1).receivedNanos() - frames.get(i).receivedNanos() : TimeUnit.SECONDS.toNanos(1);
+                writer.writeToSequence(new IIOImage(image, null, frameMetadata(writer, image, delayNanos, i == 0)), null);
+            }
+            writer.endWriteSequence();
+        } finally {
+            writer.dispose();
+        }
+        return file;
+    }
+
+    private synchronized List<Frame> recentFrames() {
+        long cutoff = System.nanoTime() - TimeUnit.SECONDS.toNanos(settings.seconds());
+        List<Frame> frames = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Frame frame = ring[(next - size + i + ring.length) % ring.length];
+            if (frame.receivedNanos() - cutoff >= 0) {
+                frames.add(frame);
+            }
+        }
+        return frames;
+    }
+
+    private static IIOMetadata frameMetadata(ImageWriter writer, BufferedImage image, long delayNanos, boolean first) throws IOException {
+        IIOMetadata metadata = writer.getDefaultImageMetadata(ImageTypeSpecifier.createFromRenderedImage(image), null);
+        String format = metadata.getNativeMetadataFormatName();
+        IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree(format);
+
+        IIOMetadataNode control = new IIOMetadataNode("GraphicControlExtension");
+        control.setAttribute("disposalMethod", "none");
+        control.setAttribute("userInputFlag", "FALSE");
+        control.setAttribute("transparentColorFlag", "FALSE");
+        control.setAttribute("delayTime", String.valueOf(Math.max(2, TimeUnit.NANOSECONDS.toMillis(delayNanos) / 10)));
+        control.setAttribute("transparentColorIndex", "0");
+        root.appendChild(control);
+
+        if (first) {
+            // Loop forever
+            IIOMetadataNode extensions = new IIOMetadataNode("ApplicationExtensions");
+            IIOMetadataNode loop = new IIOMetadataNode("ApplicationExtension");
+            loop.setAttribute("applicationID", "NETSCAPE");
+            loop.setAttribute("authenticationCode", "2.0");
+            loop.setUserObject(new byte[]{1, 0, 0});
+            extensions.appendChild(loop);
+            root.appendChild(extensions);
+        }
+        metadata.setFromTree(format, root);
+        return metadata;
+    }
+
+    private static ScreencastFrame readFrame(JsonInput input) {
+        String data = null;
+        int sessionId = 0;
+        input.beginObject();
+        while (input.hasNext()) {
+            switch (input.nextName()) {
+                case "data" -> data = input.nextString();
+                case "sessionId" -> sessionId = input.read(Integer.class);
+                default -> input.skipValue();
+            }
+        }
+        input.endObject();
+        return new ScreencastFrame(data, sessionId);
+    }
+}
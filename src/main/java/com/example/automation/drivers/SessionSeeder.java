@@ -0,0 +1,46 @@
+package com.example.automation.drivers;
+
+import com.example.automation.config.ApplicationProperties;
+import com.example.automation.utils.AuthApiClient;
+import com.example.automation.utils.OTPUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logs a user in over HTTP and seeds the resulting session into the current thread's browser,
+ * so tests that only need a logged-in user can skip the login UI, captcha and OTP screens.
+ */
+@Component
+@Slf4j
+public class SessionSeeder {
+
+    @Autowired
+    private DriverManager driverManager;
+
+    @Autowired
+    private ApplicationProperties appProps;
+
+    /**
+     * Authenticates the user via the auth API and injects the session before the first navigation.
+     * Call after {@link DriverManager#initializeDriver()} and before loading the base URL.
+     *
+     * @param email    The user's email.
+     * @param password The user's password.
+     * @return The session that was seeded.
+     * @throws IOException If the auth API rejects the user or cannot be reached.
+     * @throws InterruptedException If the thread is interrupted while waiting for the API.
+     */
+    public AuthSession seedAuthenticatedSession(String email, String password) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        AuthSession session = new AuthApiClient(appProps.getAuthApiUrl(), appProps.getAuth())
+                .login(email, password, () -> OTPUtil.getOtpForEnvironment(email));
+        driverManager.seedSession(session, appProps.getBaseUrl());
+        log.info("Seeded authenticated session for {} in {} ms", email,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return session;
+    }
+}
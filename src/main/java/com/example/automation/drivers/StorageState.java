@@ -0,0 +1,72 @@
+package com.example.automation.drivers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.openqa.selenium.Cookie;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Snapshot of a browser's state for one origin: cookies, localStorage, sessionStorage and IndexedDB.
+ * Serialised to JSON so one UI login can be restored into many fresh sessions.
+ *
+ * @param origin         The origin the state was captured from.
+ * @param capturedAt     Capture time in epoch milliseconds.
+ * @param cookies        Cookies visible to the origin.
+ * @param localStorage   localStorage entries.
+ * @param sessionStorage sessionStorage entries.
+ * @param indexedDb      IndexedDB databases, as dumped by the capture script.
+ */
+public record StorageState(String origin, long capturedAt, List<StoredCookie> cookies,
+                           Map<String, String> localStorage, Map<String, String> sessionStorage, JsonNode indexedDb) {
+
+    /**
+     * JSON-friendly copy of a Selenium cookie.
+     */
+    public record StoredCookie(String name, String value, String domain, String path, Long expiry,
+                               boolean secure, boolean httpOnly, String sameSite) {
+
+        public static StoredCookie from(Cookie cookie) {
+            return new StoredCookie(cookie.getName(), cookie.getValue(), cookie.getDomain(), cookie.getPath(),
+                    cookie.getExpiry() != null ? cookie.getExpiry().getTime() : null,
+                    cookie.isSecure(), cookie.isHttpOnly(), cookie.getSameSite());
+        }
+
+        public Cookie toCookie() {
+            Cookie.Builder builder = new Cookie.Builder(name, value)
+                    .domain(domain)
+                    .path(path)
+                    .isSecure(secure)
+                    .isHttpOnly(httpOnly);
+            if (expiry != null) {
+                builder.expiresOn(new Date(expiry));
+            }
+            if (sameSite != null) {
+                builder.sameSite(sameSite);
+            }
+            return builder.build();
+        }
+    }
+
+    public List<Cookie> seleniumCookies() {
+        return cookies.stream().map(StoredCookie::toCookie).toList();
+    }
+
+    /**
+     * Checks whether the snapshot is older than the allowed age or any of its cookies has expired.
+     *
+     * @param maxAge Maximum snapshot age.
+     * @return True if the snapshot should not be reused.
+     */
+    public boolean isExpired(Duration maxAge) {
+        long now = System.currentTimeMillis();
+        return now - capturedAt > maxAge.toMillis()
+                || cookies.stream().anyMatch(cookie -> cookie.expiry() != null && cookie.expiry() <= now);
+    }
+
+    public boolean hasIndexedDb() {
+        return indexedDb != null && indexedDb.isArray() && !indexedDb.isEmpty();
+    }
+}
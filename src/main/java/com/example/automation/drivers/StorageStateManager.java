@@ -0,0 +1,197 @@
+package com.example.automation.drivers;
+
+import com.example.automation.config.ApplicationProperties;
+import com.example.automation.utils.AuthApiClient;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Captures the browser state after a UI login and restores it into fresh sessions.
+ * Snapshots are saved per environment and user, validated with an authenticated API probe,
+ * and re-captured through the supplied UI login when they go stale.
+ */
+@Component
+@Slf4j
+public class StorageStateManager {
+
+    private static final ConcurrentHashMap<String, StorageState> CACHE = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Long> LAST_VALIDATED = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Object> LOCKS = new ConcurrentHashMap<>();
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private static final String STORAGE_CAPTURE_SCRIPT =
+            "function dump(s) { var o = {}; for (var i = 0; i < s.length; i++) { var k = s.key(i);" +
+            "  if (k.indexOf('__automationSeeded') !== 0) { o[k] = s.getItem(k); } } return o; }" +
+            "return JSON.stringify({ local: dump(window.localStorage), session: dump(window.sessionStorage) });";
+
+    private static final String INDEXED_DB_CAPTURE_SCRIPT =
+            "var done = arguments[arguments.length - 1];" +
+            "function req(r) { return new Promise(function (res, rej) {" +
+            "  r.onsuccess = function () { res(r.result); }; r.onerror = function () { rej(r.error); }; }); }" +
+            "async function capture() {" +
+            "  if (!window.indexedDB || !indexedDB.databases) { return []; }" +
+            "  var result = [];" +
+            "  for (const info of await indexedDB.databases()) {" +
+            "    const db = await req(indexedDB.open(info.name));" +
+            "    const stores = [];" +
+            "    for (const name of Array.from(db.objectStoreNames)) {" +
+            "      const store = db.transaction(name, 'readonly').objectStore(name);" +
+            "      const indexes = Array.from(store.indexNames).map(function (n) { var i = store.index(n);" +
+            "        return { name: i.name, keyPath: i.keyPath, unique: i.unique, multiEntry: i.multiEntry }; });" +
+            "      const keys = await req(store.getAllKeys());" +
+            "      const values = await req(store.getAll());" +
+            "      stores.push({ name: name, keyPath: store.keyPath, autoIncrement: store.autoIncrement, indexes: indexes," +
+            "        records: keys.map(function (k, i) { return { key: k, value: values[i] }; }) });" +
+            "    }" +
+            "    db.close();" +
+            "    result.push({ name: info.name, version: info.version, stores: stores });" +
+            "  }" +
+            "  return result;" +
+            "}" +
+            "capture().then(function (r) { done(JSON.stringify(r)); }, function (e) { done(JSON.stringify([])); });";
+
+    @Autowired
+    private DriverManager driverManager;
+
+    @Autowired
+    private ApplicationProperties appProps;
+
+    /**
+     * Restores the saved state for the user into the current session, or runs the UI login and captures
+     * a new snapshot when there is none or it is stale. Concurrent callers for the same user share one UI login.
+     * Call after {@link DriverManager#initializeDriver()}; navigate to the base URL afterwards.
+     *
+     * @param env     The environment the user belongs to.
+     * @param user    The user the snapshot is for.
+     * @param uiLogin Logs the user in through the UI in the current session, leaving the browser on the app.
+     * @throws Exception If the UI login or capture fails.
+     */
+    public void restoreOrCapture(String env, String user, Callable<?> uiLogin) throws Exception {
+        String key = env + "_" + user.replaceAll("[^A-Za-z0-9._-]", "_");
+        StorageState state;
+
+        synchronized (LOCKS.computeIfAbsent(key, k -> new Object())) {
+            state = CACHE.computeIfAbsent(key, this::load);
+            if (state == null || !isUsable(key, state)) {
+                log.info("Storage state for {} is missing or stale, capturing it through the UI login", key);
+                long start = System.nanoTime();
+                uiLogin.call();
+                StorageState captured = capture();
+                save(key, captured);
+                CACHE.put(key, captured);
+                LAST_VALIDATED.put(key, System.currentTimeMillis());
+                log.info("Captured storage state for {} in {} ms", key, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                return;
+            }
+        }
+
+        long start = System.nanoTime();
+        restore(state);
+        log.info("Restored storage state for {} in {} ms", key, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Captures the state of the current page's origin.
+     *
+     * @return The captured state.
+     */
+    public StorageState capture() throws IOException {
+        WebDriver driver = driverManager.getDriver();
+        URI current = URI.create(driver.getCurrentUrl());
+        String origin = current.getScheme() + "://" + current.getAuthority();
+        JavascriptExecutor js = (JavascriptExecutor) driver;
+
+        Map<String, Map<String, String>> storage = JSON.readValue((String) js.executeScript(STORAGE_CAPTURE_SCRIPT),
+                new TypeReference<>() {});
+        JsonNode indexedDb = JSON.readTree((String) js.executeAsyncScript(INDEXED_DB_CAPTURE_SCRIPT));
+
+        return new StorageState(origin, System.currentTimeMillis(),
+                driver.manage().getCookies().stream().map(StorageState.StoredCookie::from).toList(),
+                storage.get("local"), storage.get("session"), indexedDb);
+    }
+
+    /**
+     * Restores a snapshot into the current session before the first navigation to the app.
+     *
+     * @param state The snapshot to restore.
+     */
+    public void restore(StorageState state) {
+        driverManager.seedCookies(state.seleniumCookies(), state.origin());
+        driverManager.seedStorage(state.origin(), state.localStorage(), state.sessionStorage());
+        if (state.hasIndexedDb()) {
+            driverManager.seedIndexedDb(state.origin(), state.indexedDb().toString());
+        }
+    }
+
+    /**
+     * A snapshot is usable while it is within its max age and, when an auth probe is configured,
+     * the API still accepts its session. Probes are repeated at most once per probe interval.
+     */
+    private boolean isUsable(String key, StorageState state) throws InterruptedException {
+        ApplicationProperties.Snapshot config = appProps.getSnapshot();
+        if (state.isExpired(Duration.ofMinutes(config.getMaxAgeMinutes()))) {
+            log.info("Storage state for {} has expired", key);
+            return false;
+        }
+        Long lastValidated = LAST_VALIDATED.get(key);
+        if (lastValidated != null && System.currentTimeMillis() - lastValidated < config.getProbeIntervalSeconds() * 1000L) {
+            return true;
+        }
+        String probePath = appProps.getAuth().getProbePath();
+        if (probePath == null || probePath.isBlank()) {
+            return true;
+        }
+        boolean valid = new AuthApiClient(appProps.getAuthApiUrl(), appProps.getAuth())
+                .isSessionValid(state.seleniumCookies(), state.localStorage().get(appProps.getAuth().getTokenStorageKey()));
+        if (valid) {
+            LAST_VALIDATED.put(key, System.currentTimeMillis());
+        } else {
+            log.info("Storage state for {} was rejected by the auth probe", key);
+        }
+        return valid;
+    }
+
+    private Path getSnapshotPath(String key) {
+        return Path.of(appProps.getSnapshot().getDir()).resolve(key + ".json");
+    }
+
+    private StorageState load(String key) {
+        Path path = getSnapshotPath(key);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try {
+            return JSON.readValue(path.toFile(), StorageState.class);
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable storage state {}: {}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    private void save(String key, StorageState state) throws IOException {
+        Path path = getSnapshotPath(key);
+        Files.createDirectories(path.getParent());
+        Path temp = Files.createTempFile(path.getParent(), key, ".tmp");
+        JSON.writerWithDefaultPrettyPrinter().writeValue(temp.toFile(), state);
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.info("Saved storage state to {} ({} cookie(s), {} localStorage entr(ies))",
+                path, state.cookies().size(), state.localStorage().size());
+    }
+}
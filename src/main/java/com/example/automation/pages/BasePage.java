@@ -1,6 +1,8 @@
 package com.example.automation.pages;
 
+import com.example.automation.utils.PageReadiness;
 import com.example.automation.utils.Retry;
+import com.example.automation.utils.StepTimeline;
 import lombok.extern.slf4j.Slf4j;
 import org.openqa.selenium.*;
 import com.example.automation.utils.WaitUtils;
@@ -8,6 +10,8 @@ import com.example.automation.utils.ElementUtils;
 import org.openqa.selenium.support.FindBy;
 import org.openqa.selenium.support.How;
 
+import java.util.List;
+
 @Slf4j
 public abstract class BasePage {
 
@@ -16,6 +20,7 @@ public abstract class BasePage {
     protected ElementUtils elementUtils;
     protected int longWait = 10;
     protected int shortWait = 5;
+    private static volatile PageReadiness.Settings readinessSettings;
 
     @FindBy(how = How.XPATH, using = "//div[@class='navigation-bar-item-root flex-shrink-0 css-fv3lde']")
     private WebElement userProfileIcon;
@@ -69,6 +74,7 @@ public abstract class BasePage {
      * @param locator The By locator of the element.
      */
     public void clickElement(By locator) {
+        int span = StepTimeline.begin(StepTimeline.Kind.CLICK, null, locator);
         try {
             WebElement element = waitUtils.waitForClickabilityLong(locator);
             log.info("Clicking element located by: {}", locator);
@@ -79,6 +85,8 @@ public abstract class BasePage {
         } catch (Exception e) {
             log.error("Failed to click element located by: {}", locator, e);
             throw new RuntimeException("Failed to click element: " + locator, e);
+        } finally {
+            StepTimeline.end(span);
         }
     }
 
@@ -88,6 +96,7 @@ public abstract class BasePage {
      * @param text The text to enter.
      */
     public void sendKeys(By locator, String text) {
+        int span = StepTimeline.begin(StepTimeline.Kind.TYPE, null, locator);
         try {
             WebElement element = waitUtils.waitForVisibilityLong(locator);
             log.info("Sending keys to element located by: {}. Email: {}", locator, text);
@@ -99,7 +108,63 @@ public abstract class BasePage {
         } catch (Exception e) {
             log.error("Failed to send keys to element located by: {}", locator, e);
             throw new RuntimeException("Failed to send keys to element: " + locator, e);
+        } finally {
+            StepTimeline.end(span);
+        }
+    }
+
+    /**
+     * Empties an input field the same way on every OS (a Ctrl+A key chord selects nothing on macOS): clear(), then
+     * the value is reset through the input's native setter and an input event is fired, so a React-controlled form
+     * updates its state too.
+     * @param locator The By locator of the input.
+     */
+    protected void clearField(By locator) {
+        WebElement element = waitUtils.waitForVisibilityShort(locator);
+        element.clear();
+        ((JavascriptExecutor) driver).executeScript(
+                "var input = arguments[0];" +
+                "Object.getOwnPropertyDescriptor(Object.getPrototypeOf(input), 'value').set.call(input, '');" +
+                "input.dispatchEvent(new Event('input', { bubbles: true }));", element);
+    }
+
+    /**
+     * Checks, without waiting, whether an element is displayed.
+     * @param locator The By locator of the element.
+     * @return True if the first matching element is displayed.
+     */
+    protected boolean isDisplayedNow(By locator) {
+        List<WebElement> found = driver.findElements(locator);
+        return !found.isEmpty() && found.get(0).isDisplayed();
+    }
+
+    /**
+     * Waits, with the short wait, until no element matching the locator is displayed.
+     * @param locator The By locator of the element.
+     * @return False if one is still displayed when the wait is over.
+     */
+    protected boolean isGoneAfterShortWait(By locator) {
+        try {
+            return waitUtils.waitForInvisibilityShort(locator);
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Waits until the app is ready to be used: network-quiet, its main thread idle and hydrated (see {@link PageReadiness}).
+     * A page that does not get ready within readiness.timeoutMs is logged, and the caller's own waits take over.
+     * @return Whether the page became ready in time.
+     */
+    public boolean waitUntilReady() {
+        return PageReadiness.await(driver, readiness()).ready();
+    }
+
+    private static PageReadiness.Settings readiness() {
+        if (readinessSettings == null) {
+            readinessSettings = PageReadiness.Settings.fromProperties();
         }
+        return readinessSettings;
     }
 
 //    public void logOut() {
@@ -14,6 +14,7 @@ public class HomePage extends BasePage {
     private final WebDriver driver;
     private final TermsAndConditionsModal handleTnC;
     private final List<String> brokenLinks = new ArrayList<>();
+    private final LinkTimingProfile linkTimingProfile = new LinkTimingProfile();
 
     // ANSI escape codes for colors
     private static final String RESET = "\u001B[0m";  // Resets the text color
@@ -52,7 +53,7 @@ public class HomePage extends BasePage {
     }
 
     /**
-     * Validates a given link by checking its HTTP status code.
+     * Validates a given link by checking its HTTP status code and its latency budget, if one is configured.
      *
      * @param link The WebElement representing the link.
      * @return A String representing the result ("PASSED", "FAILED", or "SKIPPED").
@@ -91,18 +92,38 @@ public class HomePage extends BasePage {
 
         // Validate the link response with timeout
         try {
-            int responseCode = HttpStatusCodeChecker.checkStatusCode(href);
+            LinkTiming timing = HttpStatusCodeChecker.checkLink(href);
+            linkTimingProfile.record(timing);
+            int responseCode = timing.statusCode();
 
-            if (responseCode == 200) {
-                System.out.println(GREEN + "PASSED: Link with text '" + linkText + "' is working fine (HTTP " + responseCode + ")." + RESET);
-                counts[0]++; // Increment passed count
-                return "PASSED";
-            } else {
+            if (timing.isRedirected()) {
+                System.out.println(YELLOW + "INFO: Link with text '" + linkText + "' redirected: " + String.join(" -> ", timing.redirectChain()) + RESET);
+            }
+
+            if (responseCode != 200) {
                 System.out.println(RED + "FAILED: Link with text '" + linkText + "' is broken (HTTP " + responseCode + ")." + RESET);
                 brokenLinks.add("Text: " + linkText + ", URL: " + href + " (HTTP " + responseCode + ")");
                 counts[1]++; // Increment failed count
                 return "FAILED";
             }
+
+            List<String> budgetViolations = LatencyBudget.forUrl(href)
+                    .map(budget -> budget.violations(timing))
+                    .orElse(List.of());
+            if (!budgetViolations.isEmpty()) {
+                System.out.println(RED + "FAILED: Link with text '" + linkText + "' exceeded its latency budget (" + String.join(", ", budgetViolations) + "). " + timing + RESET);
+                brokenLinks.add("Text: " + linkText + ", URL: " + href + " (Over budget: " + String.join(", ", budgetViolations) + ")");
+                counts[1]++; // Increment failed count
+                return "FAILED";
+            }
+
+            System.out.println(GREEN + "PASSED: Link with text '" + linkText + "' is working fine (HTTP " + responseCode + "). " + timing + RESET);
+            counts[0]++; // Increment passed count
+            return "PASSED";
+        } catch (CircuitOpenException e) {
+            System.out.println(YELLOW + "SKIPPED: Link with text '" + linkText + "' was not checked, host is unhealthy (" + href + ")." + RESET);
+            counts[2]++; // Increment skipped count
+            return "SKIPPED";
         } catch (java.net.SocketTimeoutException e) {
             System.out.println(YELLOW + "SKIPPED: Link with text '" + linkText + "' timed out after 5 seconds (" + href + ")." + RESET);
             counts[2]++; // Increment skipped count
@@ -130,4 +151,11 @@ public class HomePage extends BasePage {
     public List<String> getBrokenLinks() {
         return brokenLinks;
     }
+
+    /**
+     * Returns the timing profile of every link validated so far.
+     */
+    public LinkTimingProfile getLinkTimingProfile() {
+        return linkTimingProfile;
+    }
 }
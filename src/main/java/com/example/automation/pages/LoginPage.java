@@ -3,6 +3,7 @@ package com.example.automation.pages;
 import com.example.automation.config.ApplicationProperties;
 import com.example.automation.drivers.DriverManager;
 import com.example.automation.utils.Captcha;
+import com.example.automation.utils.ChallengeHandler;
 import com.example.automation.utils.HandleOtpOR2faVerification;
 import com.example.automation.utils.Retry;
 import com.example.automation.utils.TermsAndConditionsModal;
@@ -12,6 +13,8 @@ import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.List;
+
 @Slf4j
 public class LoginPage extends BasePage {
 
@@ -23,6 +26,8 @@ public class LoginPage extends BasePage {
 
     private final HandleOtpOR2faVerification handleOtp_2fa;
     private final Captcha captcha;
+    private final ChallengeHandler challengeHandler;
+    private String enteredEmail;
 
     /**
      * Constructor for Login Page.
@@ -32,6 +37,7 @@ public class LoginPage extends BasePage {
         super(driver);
         this.captcha = new Captcha(driver, waitUtils);
         this.handleOtp_2fa = new HandleOtpOR2faVerification(driver, waitUtils);
+        this.challengeHandler = new ChallengeHandler(driver, captcha, handleOtp_2fa);
     }
 
     // locators
@@ -54,9 +60,9 @@ public class LoginPage extends BasePage {
     /**
      * Clicks the login button in header
      */
-    public void goToLoginPage() throws InterruptedException {
+    public void goToLoginPage() {
         log.info("Clicking login button in header");
-        Thread.sleep(3000);
+        waitUntilReady();
         clickElement(login_button_in_header);
     }
 
@@ -67,6 +73,7 @@ public class LoginPage extends BasePage {
      */
     public LoginPage enterEmail(String email) {
         log.info("Entering email: {}", email);
+        enteredEmail = email;
         clickElement(emailFieldXpath);
         sendKeys(emailFieldXpath, email);
         return this;
@@ -92,6 +99,49 @@ public class LoginPage extends BasePage {
         loginButton.click();
     }
 
+    /**
+     * Checks, without waiting, whether the login form is still on its email step, e.g. before a test reuses the page.
+     * @return True if the email field and the login button are displayed
+     */
+    public boolean isFormDisplayed() {
+        return List.of(emailFieldXpath, login_button).stream().allMatch(this::isDisplayedNow);
+    }
+
+    /**
+     * Clears the email field so the next test starts from an empty form, and waits for the validation messages
+     * of the previous test to go away, so they cannot pass the next test's checks.
+     * @return False if the form is no longer open, or a validation message is still displayed after the reset
+     */
+    public boolean resetForm() {
+        if (!isFormDisplayed()) {
+            return false;
+        }
+        log.info("Resetting the login form");
+        clearField(emailFieldXpath);
+        return isGoneAfterShortWait(email_is_not_valid) && isGoneAfterShortWait(email_is_not_entered);
+    }
+
+    /**
+     * Checks, without waiting, whether the login form is as freshly opened: on its email step, with an empty email
+     * field and no validation or credentials error from a previous test.
+     * @return True if nothing of a previous test is left on the form
+     */
+    public boolean isFormPristine() {
+        if (!isFormDisplayed() || isDisplayedNow(passwordFieldXpath)) {
+            return false;
+        }
+        String email = driver.findElement(emailFieldXpath).getDomProperty("value");
+        if (email != null && !email.isEmpty()) {
+            return false;
+        }
+        for (By message : List.of(email_is_not_valid, email_is_not_entered, incorrect_password_message)) {
+            if (isDisplayedNow(message)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Accepts TnC popup
      */
@@ -141,11 +191,11 @@ public class LoginPage extends BasePage {
     }
 
     /**
-     * Solves the geetest captcha until it succeeds
+     * Solves the geetest captcha, or bypasses/skips it as configured for the environment
      */
     public void solveCaptcha() {
         log.info("Solving captcha...");
-        captcha.solveGeetestCaptcha(driver);
+        challengeHandler.handleCaptcha();
     }
 
     /**
@@ -165,10 +215,10 @@ public class LoginPage extends BasePage {
     }
 
     /**
-     * Handles OTP/2FA page and enters the respective code
+     * Handles OTP/2FA page and enters the respective code, or bypasses/skips it as configured for the environment
      */
     public void enterOtpOr2Fa() {
-        handleOtp_2fa.handleOtp();
+        challengeHandler.handleOtp(enteredEmail);
     }
 
     /**
@@ -9,6 +9,8 @@ import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.List;
+
 @Slf4j
 public class SignupPage extends BasePage {
 
@@ -20,6 +22,8 @@ public class SignupPage extends BasePage {
 
     private final HandleOtpOR2faVerification handleOtp_2fa;
     private final Captcha captcha;
+    private final ChallengeHandler challengeHandler;
+    private String enteredEmail;
 
     // Locators
     private static final By emailFieldXpath              = By.xpath("//input[@placeholder='Email']");
@@ -53,6 +57,7 @@ public class SignupPage extends BasePage {
         super(driver);
         this.captcha = new Captcha(driver, waitUtils);
         this.handleOtp_2fa = new HandleOtpOR2faVerification(driver, waitUtils);
+        this.challengeHandler = new ChallengeHandler(driver, captcha, handleOtp_2fa);
     }
 
     /**
@@ -65,9 +70,9 @@ public class SignupPage extends BasePage {
     /**
      * Clicks the sign-up button in header
      */
-    public void goToSignupPage() throws InterruptedException {
+    public void goToSignupPage() {
         log.info("Clicking register button in header");
-        Thread.sleep(3000);
+        waitUntilReady();
         clickElement(registerButtonInHeader);
     }
 
@@ -100,6 +105,7 @@ public class SignupPage extends BasePage {
      */
     public SignupPage enterEmail(String email) {
         log.info("Entering email: {}", email);
+        enteredEmail = email;
         clickElement(emailFieldXpath);
         sendKeys(emailFieldXpath, email); // Reusing BasePage's sendKeys method
         return this;
@@ -202,10 +208,10 @@ public class SignupPage extends BasePage {
     }
 
     /**
-     * Enters the otp or 2FA
+     * Enters the otp or 2FA, or bypasses/skips it as configured for the environment
      */
     public void enterOtpOr2Fa() throws InterruptedException {
-        handleOtp_2fa.handleOtp();
+        challengeHandler.handleOtp(enteredEmail);
     }
 
     /**
@@ -251,11 +257,68 @@ public class SignupPage extends BasePage {
     }
 
     /**
-     * Solves the geetest captcha until it succeeds
+     * Shows the password unless it is already shown, e.g. on a page reused from the previous data row.
+     * @return SignupPage instance for method chaining.
+     */
+    public SignupPage showPasswordIfHidden() {
+        if ("password".equals(waitUtils.waitForVisibilityShort(passwordFieldXpath).getDomAttribute("type"))) {
+            showPassword();
+        }
+        return this;
+    }
+
+    /**
+     * Clears the email and password fields so the next test starts from an empty form, and waits for the
+     * validation messages of the previous test to go away, so they cannot pass the next test's checks.
+     * @return False if the form is no longer open, or a validation message is still displayed after the reset
+     */
+    public boolean resetForm() {
+        if (!isFormDisplayed()) {
+            return false;
+        }
+        log.info("Resetting the signup form");
+        clearField(emailFieldXpath);
+        clearField(passwordFieldXpath);
+        return isGoneAfterShortWait(validatePasswordErrorMessage) && isGoneAfterShortWait(email_is_not_valid);
+    }
+
+    /**
+     * Checks, without waiting, whether the signup form is still open, e.g. before a test reuses the page.
+     * @return True if the email and password fields and the register button are displayed
+     */
+    public boolean isFormDisplayed() {
+        return List.of(emailFieldXpath, passwordFieldXpath, registerButtonXpath).stream().allMatch(this::isDisplayedNow);
+    }
+
+    /**
+     * Checks, without waiting, whether the signup form is as freshly opened: displayed, with empty fields and no
+     * validation or registration error from a previous test.
+     * @return True if nothing of a previous test is left on the form
+     */
+    public boolean isFormPristine() {
+        if (!isFormDisplayed()) {
+            return false;
+        }
+        for (By field : List.of(emailFieldXpath, passwordFieldXpath)) {
+            String value = driver.findElement(field).getDomProperty("value");
+            if (value != null && !value.isEmpty()) {
+                return false;
+            }
+        }
+        for (By message : List.of(validatePasswordErrorMessage, email_is_not_valid, is_email_or_password_not_entered_error_displayed, errorMessage)) {
+            if (isDisplayedNow(message)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Solves the geetest captcha, or bypasses/skips it as configured for the environment
      */
     public void solveCaptcha() {
         log.info("Solving captcha...");
-        captcha.solveGeetestCaptcha(driver);
+        challengeHandler.handleCaptcha();
     }
 
     /**
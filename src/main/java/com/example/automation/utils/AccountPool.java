@@ -0,0 +1,264 @@
+package com.example.automation.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Pool of test accounts leased to one test at a time, so parallel tests do not share a login
+ * (and its lockout / "you have N attempts" counter).
+ * Leasing and returning are lock-free compare-and-set operations on each account's lease slot.
+ * A lease expires after its lease time so accounts held by a dead worker come back, and an account
+ * whose login failed cools down before it is leased again.
+ */
+@Slf4j
+public class AccountPool {
+
+    /**
+     * A test account.
+     *
+     * @param email    Login email.
+     * @param password Login password.
+     */
+    public record Account(String email, String password) {
+    }
+
+    private record Lease(long id, String holder, long leasedAtNanos, long expiresAtNanos) {
+    }
+
+    private static final class Slot {
+        private final Account account;
+        private final AtomicReference<Lease> lease = new AtomicReference<>();
+        private volatile long cooldownUntilNanos;
+
+        private Slot(Account account) {
+            this.account = account;
+            this.cooldownUntilNanos = System.nanoTime();
+        }
+    }
+
+    private final List<Slot> slots;
+    private final Duration leaseTime;
+    private final Duration cooldown;
+    private final AtomicInteger cursor = new AtomicInteger();
+    private final AtomicLong leaseIds = new AtomicLong();
+    private final long createdAtNanos = System.nanoTime();
+
+    private final LongAdder leases = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder leasedNanos = new LongAdder();
+    private final LongAdder expiredLeases = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder cooldowns = new LongAdder();
+
+    /**
+     * Constructor for AccountPool.
+     *
+     * @param accounts  The accounts to lease.
+     * @param leaseTime How long a lease lasts before the account can be taken by someone else.
+     * @param cooldown  How long an account rests after a failed login.
+     */
+    public AccountPool(List<Account> accounts, Duration leaseTime, Duration cooldown) {
+        if (accounts.isEmpty()) {
+            throw new IllegalArgumentException("Account pool needs at least one account");
+        }
+        this.slots = accounts.stream().map(Slot::new).toList();
+        this.leaseTime = leaseTime;
+        this.cooldown = cooldown;
+    }
+
+    /**
+     * Reads accounts.N.email / accounts.N.password (N = 1, 2, ...) of the active environment.
+     *
+     * @return The configured accounts, empty if none are configured.
+     */
+    public static List<Account> accountsFromProperties() {
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 1; ; i++) {
+            String email = PropertiesLoader.getProperty("accounts." + i + ".email", null);
+            if (email == null || email.isBlank()) {
+                return accounts;
+            }
+            accounts.add(new Account(email.trim(), PropertiesLoader.getProperty("accounts." + i + ".password", "").trim()));
+        }
+    }
+
+    /**
+     * Creates a pool with accounts.leaseSeconds and accounts.cooldownSeconds from the properties.
+     *
+     * @param accounts The accounts to lease.
+     * @return The pool.
+     */
+    public static AccountPool withConfiguredTimes(List<Account> accounts) {
+        return new AccountPool(accounts,
+                Duration.ofSeconds(Long.parseLong(PropertiesLoader.getProperty("accounts.leaseSeconds", "600").trim())),
+                Duration.ofSeconds(Long.parseLong(PropertiesLoader.getProperty("accounts.cooldownSeconds", "60").trim())));
+    }
+
+    /**
+     * Leases a free account, waiting up to the timeout for one to be returned or to cool down.
+     *
+     * @param timeout How long to wait for an account.
+     * @return The lease; close it to return the account.
+     * @throws TimeoutException If no account became available in time.
+     */
+    public AccountLease lease(Duration timeout) throws TimeoutException {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        long backoffNanos = 1_000_000;
+        while (true) {
+            AccountLease lease = tryLease();
+            if (lease != null) {
+                recordWait(System.nanoTime() - start);
+                return lease;
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                timeouts.increment();
+                recordWait(System.nanoTime() - start);
+                throw new TimeoutException("No test account available within " + timeout.toSeconds() + " s. " + getSummary());
+            }
+            LockSupport.parkNanos(backoffNanos);
+            backoffNanos = Math.min(backoffNanos * 2, 200_000_000);
+        }
+    }
+
+    /**
+     * Leases a free account without waiting.
+     *
+     * @return The lease, or null if every account is leased or cooling down.
+     */
+    public AccountLease tryLease() {
+        int size = slots.size();
+        int start = Math.floorMod(cursor.getAndIncrement(), size);
+        long now = System.nanoTime();
+        for (int i = 0; i < size; i++) {
+            Slot slot = slots.get((start + i) % size);
+            if (slot.cooldownUntilNanos - now > 0) {
+                continue;
+            }
+            Lease current = slot.lease.get();
+            boolean expired = current != null && now - current.expiresAtNanos() >= 0;
+            if (current != null && !expired) {
+                continue;
+            }
+            Lease lease = new Lease(leaseIds.incrementAndGet(), Thread.currentThread().getName(), now, now + leaseTime.toNanos());
+            if (slot.lease.compareAndSet(current, lease)) {
+                if (expired) {
+                    expiredLeases.increment();
+                    leasedNanos.add(current.expiresAtNanos() - current.leasedAtNanos());
+                    log.warn("Lease of {} held by {} expired, re-leasing it", slot.account.email(), current.holder());
+                }
+                leases.increment();
+                return new AccountLease(slot, lease);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Summarises pool utilisation and lease wait times.
+     *
+     * @return One-line summary.
+     */
+    public String getSummary() {
+        long now = System.nanoTime();
+        long busy = leasedNanos.sum();
+        int inUse = 0;
+        int coolingDown = 0;
+        for (Slot slot : slots) {
+            Lease lease = slot.lease.get();
+            if (lease != null && now - lease.expiresAtNanos() < 0) {
+                inUse++;
+                busy += now - lease.leasedAtNanos();
+            }
+            if (slot.cooldownUntilNanos - now > 0) {
+                coolingDown++;
+            }
+        }
+        long count = leases.sum();
+        double utilisation = 100.0 * busy / ((double) (now - createdAtNanos) * slots.size());
+        return String.format("Account pool: %d account(s), %d in use, %d cooling down, utilisation %.0f%%, "
+                        + "%d lease(s), wait avg %d ms / max %d ms, %d expired, %d cooldown(s), %d timeout(s)",
+                slots.size(), inUse, coolingDown, utilisation, count,
+                count == 0 ? 0 : waitNanos.sum() / count / 1_000_000, maxWaitNanos.get() / 1_000_000,
+                expiredLeases.sum(), cooldowns.sum(), timeouts.sum());
+    }
+
+    private void recordWait(long nanos) {
+        waitNanos.add(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * A leased account. Closing the lease returns the account to the pool.
+     */
+    public final class AccountLease implements AutoCloseable {
+
+        private final Slot slot;
+        private volatile Lease lease;
+        private volatile boolean loginFailed;
+
+        private AccountLease(Slot slot, Lease lease) {
+            this.slot = slot;
+            this.lease = lease;
+        }
+
+        public String email() {
+            return slot.account.email();
+        }
+
+        public String password() {
+            return slot.account.password();
+        }
+
+        /**
+         * Puts the account into cooldown when it is returned, e.g. after a rejected login.
+         */
+        public void markLoginFailed() {
+            loginFailed = true;
+        }
+
+        /**
+         * Extends the lease by another lease time.
+         *
+         * @return False if the lease already expired and the account was taken by someone else.
+         */
+        public boolean renew() {
+            Lease current = lease;
+            long now = System.nanoTime();
+            Lease renewed = new Lease(current.id(), current.holder(), current.leasedAtNanos(), now + leaseTime.toNanos());
+            if (slot.lease.compareAndSet(current, renewed)) {
+                lease = renewed;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Returns the account to the pool, putting it into cooldown after a failed login.
+         * Does nothing if the lease expired and was taken over, so the new holder's account does not cool down.
+         */
+        @Override
+        public void close() {
+            // Renewing proves the account is still ours and keeps it so until the cooldown is set
+            if (loginFailed && renew()) {
+                slot.cooldownUntilNanos = System.nanoTime() + cooldown.toNanos();
+                cooldowns.increment();
+                log.info("Account {} cools down for {} s after a failed login", email(), cooldown.toSeconds());
+            }
+            Lease current = lease;
+            if (slot.lease.compareAndSet(current, null)) {
+                leasedNanos.add(System.nanoTime() - current.leasedAtNanos());
+            }
+        }
+    }
+}
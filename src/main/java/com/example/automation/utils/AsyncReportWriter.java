@@ -0,0 +1,291 @@
+package com.example.automation.utils;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.gson.GsonExtentTypeAdapterBuilder;
+import com.aventstack.extentreports.model.Test;
+import com.google.gson.Gson;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Writes an Extent report on a background thread, so finishing a test does not re-render the whole report.
+ * Test threads hand finished tests to the writer through a lock-free queue. The writer flushes the report every
+ * flush interval and when asked to, and spills finished tests to JSON files once more than the in-memory limit
+ * have piled up, removing them from the report. The complete report is written from the spill files and the
+ * remaining tests when the writer is closed; reports written in between show the tests still in memory.
+ */
+@Slf4j
+public class AsyncReportWriter implements AutoCloseable {
+
+    public static final String SPILL_DIR = "ExtentReport.spill";
+
+    private sealed interface Event {
+    }
+
+    private record Finished(ExtentTest test) implements Event {
+    }
+
+    private record Flush(CompletableFuture<Void> done) implements Event {
+    }
+
+    private record Close(CompletableFuture<Void> done) implements Event {
+    }
+
+    private final Path reportDir;
+    private final Path jsonArchive;
+    private final Consumer<ExtentReports> configurer;
+    private final long flushIntervalNanos;
+    private final int maxTestsInMemory;
+    private final ExtentReports report;
+    private final Object reportLock = new Object();
+    private final Queue<Event> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queuedTests = new AtomicInteger();
+    private final Thread writer;
+    private final Gson gson = GsonExtentTypeAdapterBuilder.builder().withGsonTypeAdapterFactory().build();
+
+    // Only touched by the writer thread
+    private final List<ExtentTest> finished = new ArrayList<>();
+    private int spillFiles;
+    private boolean dirty;
+
+    private volatile int spilledTests;
+    private volatile boolean closed;
+
+    /**
+     * Creates a report writer and starts its writer thread.
+     *
+     * @param reportDir        Directory of the report; spill files go to its ExtentReport.spill directory.
+     * @param jsonArchive      The JSON archive the configurer attaches, which the complete report is merged from.
+     * @param configurer       Attaches the reporters and system info to a report.
+     * @param flushInterval    How often the report is flushed while tests finish.
+     * @param maxTestsInMemory How many finished tests are kept in the report before they are spilled to disk.
+     * @return The started writer.
+     */
+    public static AsyncReportWriter start(Path reportDir, Path jsonArchive, Consumer<ExtentReports> configurer,
+                                          Duration flushInterval, int maxTestsInMemory) {
+        AsyncReportWriter reportWriter = new AsyncReportWriter(reportDir, jsonArchive, configurer, flushInterval, maxTestsInMemory);
+        reportWriter.writer.start();
+        return reportWriter;
+    }
+
+    private AsyncReportWriter(Path reportDir, Path jsonArchive, Consumer<ExtentReports> configurer,
+                              Duration flushInterval, int maxTestsInMemory) {
+        if (maxTestsInMemory <= 0) {
+            throw new IllegalArgumentException("The in-memory test limit must be positive");
+        }
+        this.reportDir = reportDir;
+        this.jsonArchive = jsonArchive;
+        this.configurer = configurer;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.maxTestsInMemory = maxTestsInMemory;
+        deleteSpillFiles();
+        this.report = new ExtentReports();
+        configurer.accept(report);
+        this.writer = new Thread(this::run, "extent-report-writer");
+        writer.setDaemon(true);
+    }
+
+    /**
+     * Returns the report tests are added to while the run is in progress.
+     */
+    public ExtentReports getReport() {
+        return report;
+    }
+
+    /**
+     * Adds a test to the report.
+     *
+     * @param testName    Name of the test.
+     * @param description Description of the test.
+     * @return The test.
+     */
+    public ExtentTest createTest(String testName, String description) {
+        synchronized (reportLock) { // ✅ Parallel tests must not add a test while the writer flushes
+            return report.createTest(testName, description);
+        }
+    }
+
+    /**
+     * Hands a finished test to the writer without waiting. Nothing may be logged to the test afterwards.
+     *
+     * @param test The finished test.
+     */
+    public void testFinished(ExtentTest test) {
+        if (closed) {
+            log.warn("Report writer is closed, test '{}' finished too late for the report", test.getModel().getName());
+            return;
+        }
+        queue.offer(new Finished(test));
+        if (queuedTests.incrementAndGet() >= maxTestsInMemory) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * Flushes the report and waits until it is written.
+     */
+    public void flush() {
+        if (!closed) {
+            await(submit(new Flush(new CompletableFuture<>())), "flush");
+        }
+    }
+
+    /**
+     * Writes the complete report and stops the writer thread. Later calls do nothing.
+     */
+    @Override
+    public void close() {
+        CompletableFuture<Void> done;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            done = submit(new Close(new CompletableFuture<>()));
+        }
+        await(done, "close");
+    }
+
+    /**
+     * Returns how many finished tests were written to spill files so far.
+     */
+    public int getSpilledTests() {
+        return spilledTests;
+    }
+
+    private CompletableFuture<Void> submit(Event event) {
+        queue.offer(event);
+        LockSupport.unpark(writer);
+        return event instanceof Flush flush ? flush.done() : ((Close) event).done();
+    }
+
+    private static void await(CompletableFuture<Void> done, String action) {
+        try {
+            done.get(5, TimeUnit.MINUTES);
+        } catch (Exception e) {
+            log.error("Extent report {} failed: {}", action, e.getMessage(), e);
+        }
+    }
+
+    private void run() {
+        long nextFlush = System.nanoTime() + flushIntervalNanos;
+        while (true) {
+            Event event;
+            while ((event = queue.poll()) != null) {
+                try {
+                    switch (event) {
+                        case Finished f -> finish(f.test());
+                        case Flush f -> {
+                            writeReport();
+                            f.done().complete(null);
+                        }
+                        case Close c -> {
+                            writeCompleteReport();
+                            c.done().complete(null);
+                            return;
+                        }
+                    }
+                } catch (Exception e) {
+                    log.error("Extent report writer failed: {}", e.getMessage(), e);
+                    if (event instanceof Flush f) {
+                        f.done().completeExceptionally(e);
+                    } else if (event instanceof Close c) {
+                        c.done().completeExceptionally(e);
+                        return;
+                    }
+                }
+            }
+            long now = System.nanoTime();
+            if (now - nextFlush >= 0) {
+                if (dirty) {
+                    try {
+                        writeReport();
+                    } catch (Exception e) {
+                        log.error("Timed Extent report flush failed: {}", e.getMessage(), e);
+                    }
+                }
+                nextFlush = now + flushIntervalNanos;
+            }
+            LockSupport.parkNanos(this, nextFlush - now);
+        }
+    }
+
+    private void finish(ExtentTest test) throws IOException {
+        queuedTests.decrementAndGet();
+        finished.add(test);
+        dirty = true;
+        if (finished.size() >= maxTestsInMemory) {
+            spill();
+        }
+    }
+
+    private void spill() throws IOException {
+        Path spillDir = reportDir.resolve(SPILL_DIR);
+        Files.createDirectories(spillDir);
+        Path file = spillDir.resolve(String.format("part-%05d.json", ++spillFiles));
+        synchronized (reportLock) {
+            List<Test> models = finished.stream().map(ExtentTest::getModel).toList();
+            try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                gson.toJson(models, out);
+            }
+            finished.forEach(report::removeTest);
+        }
+        spilledTests += finished.size();
+        log.debug("Spilled {} finished test(s) to {}", finished.size(), file);
+        finished.clear();
+    }
+
+    private void writeReport() {
+        synchronized (reportLock) {
+            report.flush();
+        }
+        dirty = false;
+    }
+
+    private void writeCompleteReport() throws IOException {
+        writeReport();
+        if (spillFiles > 0) {
+            ExtentReports complete = new ExtentReports();
+            configurer.accept(complete);
+            for (int i = 1; i <= spillFiles; i++) {
+                complete.createDomainFromJsonArchive(reportDir.resolve(SPILL_DIR).resolve(String.format("part-%05d.json", i)).toFile());
+            }
+            complete.createDomainFromJsonArchive(jsonArchive.toFile());
+            complete.flush();
+            deleteSpillFiles();
+        }
+        log.info("Extent report written to {} ({} test(s) spilled to disk during the run)", reportDir, spilledTests);
+    }
+
+    private void deleteSpillFiles() {
+        Path spillDir = reportDir.resolve(SPILL_DIR);
+        if (!Files.isDirectory(spillDir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(spillDir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to delete the report spill files in {}: {}", spillDir, e.getMessage());
+        }
+    }
+}
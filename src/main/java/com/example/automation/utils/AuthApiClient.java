@@ -0,0 +1,164 @@
+package com.example.automation.utils;
+
+import com.example.automation.config.ApplicationProperties;
+import com.example.automation.drivers.AuthSession;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.Cookie;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.CookiePolicy;
+import java.net.HttpCookie;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Logs a user in over the auth API (credentials, then OTP when requested) and returns the resulting session.
+ */
+@Slf4j
+public class AuthApiClient {
+
+    private final URI apiUrl;
+    private final ApplicationProperties.Auth config;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Constructor for AuthApiClient.
+     *
+     * @param apiUrl Base URL of the auth API.
+     * @param config Auth API paths and response field names.
+     */
+    public AuthApiClient(String apiUrl, ApplicationProperties.Auth config) {
+        this.apiUrl = URI.create(apiUrl.endsWith("/") ? apiUrl.substring(0, apiUrl.length() - 1) : apiUrl);
+        this.config = config;
+    }
+
+    /**
+     * Authenticates the user and collects the cookies and token issued by the API.
+     *
+     * @param email       The user's email.
+     * @param password    The user's password.
+     * @param otpSupplier Supplies the OTP/2FA code; called only if the API asks for one.
+     * @return The authenticated session.
+     * @throws IOException If a request fails or the API rejects the credentials.
+     * @throws InterruptedException If the thread is interrupted while waiting for a response.
+     */
+    public AuthSession login(String email, String password, Supplier<String> otpSupplier) throws IOException, InterruptedException {
+        CookieManager cookieManager = new CookieManager(null, CookiePolicy.ACCEPT_ALL);
+        HttpClient client = HttpClient.newBuilder()
+                .cookieHandler(cookieManager)
+                .connectTimeout(Duration.ofSeconds(config.getTimeoutSeconds()))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+
+        // Set-Cookie headers are parsed directly: the CookieManager rewrites host-only domains such as "localhost"
+        Map<String, HttpCookie> issuedCookies = new LinkedHashMap<>();
+
+        log.info("Authenticating {} via {}{}", email, apiUrl, config.getLoginPath());
+        JsonNode response = post(client, config.getLoginPath(), Map.of("email", email, "password", password), issuedCookies);
+
+        if (response.path(config.getOtpRequiredField()).asBoolean(false)) {
+            Map<String, Object> otpBody = new LinkedHashMap<>();
+            otpBody.put("email", email);
+            otpBody.put("otp", otpSupplier.get());
+            if (response.hasNonNull(config.getOtpTokenField())) {
+                otpBody.put(config.getOtpTokenField(), response.get(config.getOtpTokenField()).asText());
+            }
+            log.info("OTP requested, verifying via {}{}", apiUrl, config.getOtpPath());
+            response = post(client, config.getOtpPath(), otpBody, issuedCookies);
+        }
+
+        Map<String, String> localStorage = new LinkedHashMap<>();
+        if (response.hasNonNull(config.getTokenField())) {
+            localStorage.put(config.getTokenStorageKey(), response.get(config.getTokenField()).asText());
+        }
+
+        List<Cookie> cookies = toSeleniumCookies(issuedCookies.values());
+        if (cookies.isEmpty() && localStorage.isEmpty()) {
+            throw new IOException("Auth API returned neither cookies nor a '" + config.getTokenField() + "' field for " + email);
+        }
+        log.info("Authenticated {}: {} cookie(s), {} storage entr(ies)", email, cookies.size(), localStorage.size());
+        return new AuthSession(cookies, localStorage, Map.of());
+    }
+
+    /**
+     * Checks whether a session is still accepted by the API with a single authenticated GET to the probe path.
+     *
+     * @param cookies The session cookies.
+     * @param token   The bearer token, or null if the session is cookie-only.
+     * @return True if the API answers the probe with a 2xx status.
+     * @throws InterruptedException If the thread is interrupted while waiting for a response.
+     */
+    public boolean isSessionValid(Collection<Cookie> cookies, String token) throws InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(apiUrl + config.getProbePath()))
+                .timeout(Duration.ofSeconds(config.getTimeoutSeconds()))
+                .header("Accept", "application/json")
+                .GET();
+        if (!cookies.isEmpty()) {
+            request.header("Cookie", cookies.stream()
+                    .map(cookie -> cookie.getName() + "=" + cookie.getValue())
+                    .collect(Collectors.joining("; ")));
+        }
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        try {
+            HttpResponse<Void> response = HttpClient.newBuilder()
+                    .connectTimeout(Duration.ofSeconds(config.getTimeoutSeconds()))
+                    .build()
+                    .send(request.build(), HttpResponse.BodyHandlers.discarding());
+            log.info("Session probe {}{} answered HTTP {}", apiUrl, config.getProbePath(), response.statusCode());
+            return response.statusCode() / 100 == 2;
+        } catch (IOException e) {
+            log.warn("Session probe {}{} failed: {}", apiUrl, config.getProbePath(), e.getMessage());
+            return false;
+        }
+    }
+
+    private JsonNode post(HttpClient client, String path, Map<String, ?> body, Map<String, HttpCookie> issuedCookies)
+            throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(apiUrl + path))
+                .timeout(Duration.ofSeconds(config.getTimeoutSeconds()))
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        for (String header : response.headers().allValues("Set-Cookie")) {
+            HttpCookie.parse(header).forEach(cookie -> issuedCookies.put(cookie.getName(), cookie));
+        }
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("Auth API call " + path + " failed with HTTP " + response.statusCode() + ": " + response.body());
+        }
+        return response.body().isBlank() ? objectMapper.createObjectNode() : objectMapper.readTree(response.body());
+    }
+
+    private List<Cookie> toSeleniumCookies(Collection<HttpCookie> httpCookies) {
+        List<Cookie> cookies = new ArrayList<>();
+        for (HttpCookie httpCookie : httpCookies) {
+            Cookie.Builder builder = new Cookie.Builder(httpCookie.getName(), httpCookie.getValue())
+                    .domain(httpCookie.getDomain() != null ? httpCookie.getDomain() : apiUrl.getHost())
+                    .path(httpCookie.getPath() != null ? httpCookie.getPath() : "/")
+                    .isSecure(httpCookie.getSecure())
+                    .isHttpOnly(httpCookie.isHttpOnly());
+            if (httpCookie.getMaxAge() > 0) {
+                builder.expiresOn(new Date(System.currentTimeMillis() + httpCookie.getMaxAge() * 1000L));
+            }
+            cookies.add(builder.build());
+        }
+        return cookies;
+    }
+}
@@ -1,14 +1,28 @@
 package com.example.automation.utils;
 
+import com.aventstack.extentreports.ExtentTest;
+import com.example.automation.config.Config;
 import lombok.extern.slf4j.Slf4j;
 import org.openqa.selenium.*;
 import org.openqa.selenium.interactions.Actions;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 public class Captcha {
 
+    private static final int DEFAULT_OFFSET = 202;
+
     private final WebDriver driver;
     private final WaitUtils waitUtils;
+    private final int maxAttempts;
 
     /**
      * Constructor for Captcha solver.
@@ -19,10 +33,14 @@ public class Captcha {
     public Captcha(WebDriver driver, WaitUtils waitUtils) {
         this.driver = driver;
         this.waitUtils = waitUtils;
+        this.maxAttempts = Integer.parseInt(PropertiesLoader.getProperty("captcha.maxAttempts", "5"));
     }
 
     //locators
     private static final By sliderPart          = By.xpath("//div[contains(@class,'geetest_btn')]");
+    private static final By captchaBackground   = By.xpath("//div[contains(@class,'geetest_bg')]");
+    private static final By captchaPiece        = By.xpath("//div[contains(@class,'geetest_slice_bg')]");
+    private static final By captchaFailed       = By.xpath("//div[contains(@class,'geetest_result_tips') and contains(@class,'geetest_fail')]");
     private static final By successMessages = By.xpath(
             "//p[contains(text(), 'Please enter correct credentials')] | " +
                     "//h2[contains(text(),'Verify OTP')] | " +
@@ -35,57 +53,141 @@ public class Captcha {
     private static final By geetest_popup_ghost = By.xpath("//div[contains(@class,'geetest_popup_ghost')]");
 
     /**
-     * Solves the GeeTest Captcha by interacting with the slider.
+     * Solves the GeeTest Captcha by locating the gap in the captcha image and dragging the slider to it.
+     * Gives up after captcha.maxAttempts attempts and records the outcome in {@link CaptchaStats}.
      */
     public void solveGeetestCaptcha(WebDriver driver) {
-        while (true) { // Infinite loop until captcha is solved
+        String env = Config.getEnvironment();
+        long start = System.nanoTime();
+
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
             try {
                 // Wait for the slider to be clickable
                 WebElement slider = waitUtils.waitForClickabilityLong(sliderPart);
 
-                // Perform sliding action
-                Actions actions = new Actions(this.driver);
-                actions.clickAndHold(slider)
-                        .moveByOffset(202, 0) // Adjust this dynamically
-                        .release()
-                        .perform();
-
-                // Wait for a brief period to allow captcha validation
-//                Thread.sleep(1500);
+                int offset = computeSlideOffset();
+                log.info("Captcha attempt {}/{}: sliding by {} px", attempt, maxAttempts, offset);
+                dragSlider(slider, offset);
 
                 // Check if captcha is solved
                 if (isCaptchaSolved()) {
-                    log.info("Captcha solved successfully!");
-                    break; // Exit the loop if solved
-                } else {
-                    log.warn("Captcha validation failed, retrying...");
+                    log.info("Captcha solved successfully in {} attempt(s)!", attempt);
+                    recordOutcome(env, attempt, start, true);
+                    return;
                 }
+                log.warn("Captcha validation failed, retrying...");
             } catch (ElementClickInterceptedException e) {
                 log.warn("Overlay detected, waiting...");
                 waitForOverlayToDisappear();
             } catch (Exception e) {
-                //
+                log.warn("Captcha attempt {} failed: {}", attempt, e.getMessage());
             }
         }
+
+        recordOutcome(env, maxAttempts, start, false);
+        throw new RuntimeException("Captcha not solved after " + maxAttempts + " attempts");
+    }
+
+    /**
+     * Measures the distance between the puzzle piece and the gap in the captcha image.
+     * Falls back to the default offset if the images cannot be captured or analysed.
+     *
+     * @return The slide distance in CSS pixels.
+     */
+    private int computeSlideOffset() {
+        try {
+            WebElement background = driver.findElement(captchaBackground);
+            WebElement piece = driver.findElement(captchaPiece);
+            Rectangle backgroundRect = background.getRect();
+            Rectangle pieceRect = piece.getRect();
+
+            BufferedImage backgroundImage = readImage(background.getScreenshotAs(OutputType.BYTES));
+            BufferedImage pieceImage = readImage(piece.getScreenshotAs(OutputType.BYTES));
+
+            // Element screenshots are in device pixels, the drag is in CSS pixels
+            double scale = (double) backgroundImage.getWidth() / backgroundRect.getWidth();
+            int pieceLeft = (int) Math.round((pieceRect.getX() - backgroundRect.getX()) * scale);
+            int pieceTop = (int) Math.round((pieceRect.getY() - backgroundRect.getY()) * scale);
+
+            int gapX = CaptchaGapDetector.findGapX(backgroundImage, pieceImage, pieceTop, pieceLeft + pieceImage.getWidth());
+            return (int) Math.round((gapX - pieceLeft) / scale);
+        } catch (Exception e) {
+            log.warn("Could not locate the captcha gap ({}), using the default offset", e.getMessage());
+            return DEFAULT_OFFSET;
+        }
+    }
+
+    private static BufferedImage readImage(byte[] png) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        if (image == null) {
+            throw new IOException("Unreadable captcha screenshot");
+        }
+        return image;
+    }
+
+    /**
+     * Drags the slider in small eased steps with slight vertical jitter, overshoots a little and settles back.
+     *
+     * @param slider   The slider handle.
+     * @param distance The distance to slide, in CSS pixels.
+     */
+    private void dragSlider(WebElement slider, int distance) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int overshoot = 2 + random.nextInt(4);
+        int target = distance + overshoot;
+        int steps = 18 + random.nextInt(8);
+
+        Actions actions = new Actions(this.driver)
+                .clickAndHold(slider)
+                .pause(Duration.ofMillis(80 + random.nextInt(80)));
+        int movedX = 0;
+        int movedY = 0;
+        for (int step = 1; step <= steps; step++) {
+            double progress = (double) step / steps;
+            int nextX = (int) Math.round(target * (1 - Math.pow(1 - progress, 3)));
+            int nextY = Math.max(-2, Math.min(2, movedY + random.nextInt(3) - 1));
+            actions.moveByOffset(nextX - movedX, nextY - movedY)
+                    .pause(Duration.ofMillis(10 + random.nextInt(25)));
+            movedX = nextX;
+            movedY = nextY;
+        }
+        actions.pause(Duration.ofMillis(60 + random.nextInt(80)))
+                .moveByOffset(-overshoot, -movedY)
+                .pause(Duration.ofMillis(50 + random.nextInt(60)))
+                .release()
+                .perform();
     }
 
     /**
      * Checks if the captcha has been successfully solved.
+     * Returns as soon as either a success indicator or the captcha's failure tip appears.
      *
      * @return true if captcha is solved, otherwise false.
      */
-    private boolean isCaptchaSolved() throws InterruptedException {
-        // Implement logic to check if captcha is solved
-        // Example: Look for an element or message that indicates success
+    private boolean isCaptchaSolved() {
         try {
-            WebElement successMessage = waitUtils.waitForVisibilityLong(successMessages);
-            Thread.sleep(2500);
-            return successMessage.isDisplayed();
+            waitUtils.getLongWait().until(ExpectedConditions.or(
+                    ExpectedConditions.visibilityOfElementLocated(successMessages),
+                    ExpectedConditions.visibilityOfElementLocated(captchaFailed)));
+            return !driver.findElements(successMessages).isEmpty()
+                    && driver.findElement(successMessages).isDisplayed();
         } catch (NoSuchElementException | TimeoutException e) {
             return false;
         }
     }
 
+    private void recordOutcome(String env, int attempts, long start, boolean solved) {
+        long elapsed = System.nanoTime() - start;
+        CaptchaStats.record(env, attempts, elapsed, solved);
+        String summary = CaptchaStats.getSummary(env);
+        log.info("Captcha {} after {} attempt(s) in {} ms. {}", solved ? "solved" : "failed",
+                attempts, TimeUnit.NANOSECONDS.toMillis(elapsed), summary);
+        ExtentTest test = ExtentReportManager.getTest();
+        if (test != null) {
+            test.info(summary);
+        }
+    }
+
     /**
      * Waits for the captcha overlay to disappear before retrying.
      */
@@ -0,0 +1,123 @@
+package com.example.automation.utils;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Locates the gap of a slider captcha in pure Java.
+ * Both images are reduced to Sobel edge maps and the piece's edges are slid across the background
+ * at the piece's height; the best normalised cross-correlation marks the gap.
+ */
+public class CaptchaGapDetector {
+
+    private static final int VERTICAL_TOLERANCE = 2;
+
+    private CaptchaGapDetector() {
+    }
+
+    /**
+     * Finds the x position of the gap's left edge.
+     *
+     * @param background Screenshot of the captcha background (gap and piece at its start position).
+     * @param piece      Screenshot of the puzzle piece, or null to fall back to the strongest vertical edge.
+     * @param pieceTop   Top of the piece within the background, in image pixels.
+     * @param searchFrom First x position to consider, normally just right of the piece's start position.
+     * @return The gap's left edge, in image pixels.
+     */
+    public static int findGapX(BufferedImage background, BufferedImage piece, int pieceTop, int searchFrom) {
+        double[][] backgroundEdges = sobel(toGray(background));
+        if (piece == null) {
+            return strongestVerticalEdge(backgroundEdges, pieceTop, background.getHeight(), searchFrom);
+        }
+
+        double[][] pieceEdges = sobel(toGray(piece));
+        int pieceWidth = piece.getWidth();
+        int pieceHeight = Math.min(piece.getHeight(), background.getHeight());
+        double pieceNorm = 0;
+        for (int y = 0; y < pieceHeight; y++) {
+            for (int x = 0; x < pieceWidth; x++) {
+                pieceNorm += pieceEdges[y][x] * pieceEdges[y][x];
+            }
+        }
+
+        int lastX = background.getWidth() - pieceWidth;
+        int bestX = -1;
+        double bestScore = -1;
+        for (int dy = -VERTICAL_TOLERANCE; dy <= VERTICAL_TOLERANCE; dy++) {
+            int top = pieceTop + dy;
+            if (top < 0 || top + pieceHeight > background.getHeight()) {
+                continue;
+            }
+            for (int offsetX = Math.max(0, searchFrom); offsetX <= lastX; offsetX++) {
+                double dot = 0;
+                double backgroundNorm = 0;
+                for (int y = 0; y < pieceHeight; y++) {
+                    double[] pieceRow = pieceEdges[y];
+                    double[] backgroundRow = backgroundEdges[top + y];
+                    for (int x = 0; x < pieceWidth; x++) {
+                        double b = backgroundRow[offsetX + x];
+                        dot += pieceRow[x] * b;
+                        backgroundNorm += b * b;
+                    }
+                }
+                double score = backgroundNorm == 0 || pieceNorm == 0 ? 0 : dot / Math.sqrt(pieceNorm * backgroundNorm);
+                if (score > bestScore) {
+                    bestScore = score;
+                    bestX = offsetX;
+                }
+            }
+        }
+        if (bestX < 0) {
+            throw new IllegalArgumentException("Piece does not fit in the background search area");
+        }
+        return bestX;
+    }
+
+    /**
+     * Returns the column with the strongest horizontal gradient in the rows below pieceTop.
+     */
+    private static int strongestVerticalEdge(double[][] edges, int fromRow, int toRow, int searchFrom) {
+        int width = edges[0].length;
+        int bestX = Math.max(0, searchFrom);
+        double best = -1;
+        for (int x = Math.max(0, searchFrom); x < width; x++) {
+            double sum = 0;
+            for (int y = Math.max(0, fromRow); y < Math.min(toRow, edges.length); y++) {
+                sum += edges[y][x];
+            }
+            if (sum > best) {
+                best = sum;
+                bestX = x;
+            }
+        }
+        return bestX;
+    }
+
+    private static double[][] toGray(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double[][] gray = new double[height][width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int rgb = image.getRGB(x, y);
+                gray[y][x] = 0.299 * ((rgb >> 16) & 0xFF) + 0.587 * ((rgb >> 8) & 0xFF) + 0.114 * (rgb & 0xFF);
+            }
+        }
+        return gray;
+    }
+
+    private static double[][] sobel(double[][] gray) {
+        int height = gray.length;
+        int width = gray[0].length;
+        double[][] edges = new double[height][width];
+        for (int y = 1; y < height - 1; y++) {
+            for (int x = 1; x < width - 1; x++) {
+                double gx = (gray[y - 1][x + 1] + 2 * gray[y][x + 1] + gray[y + 1][x + 1])
+                        - (gray[y - 1][x - 1] + 2 * gray[y][x - 1] + gray[y + 1][x - 1]);
+                double gy = (gray[y + 1][x - 1] + 2 * gray[y + 1][x] + gray[y + 1][x + 1])
+                        - (gray[y - 1][x - 1] + 2 * gray[y - 1][x] + gray[y - 1][x + 1]);
+                edges[y][x] = Math.sqrt(gx * gx + gy * gy);
+            }
+        }
+        return edges;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.automation.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-environment captcha metrics: solve attempts, solve latency and success rate.
+ */
+public class CaptchaStats {
+
+    private static final Map<String, CaptchaStats> BY_ENVIRONMENT = new ConcurrentHashMap<>();
+
+    private final List<Long> latenciesMs = new ArrayList<>();
+    private int solves;
+    private int successes;
+    private int attempts;
+
+    private CaptchaStats() {
+    }
+
+    /**
+     * Records the outcome of one captcha solve.
+     *
+     * @param env          The environment the captcha was solved in.
+     * @param attempts     Slider attempts used.
+     * @param elapsedNanos Time from the first attempt to the result.
+     * @param solved       Whether the captcha was solved.
+     */
+    public static void record(String env, int attempts, long elapsedNanos, boolean solved) {
+        CaptchaStats stats = BY_ENVIRONMENT.computeIfAbsent(env, e -> new CaptchaStats());
+        synchronized (stats) {
+            stats.solves++;
+            stats.attempts += attempts;
+            if (solved) {
+                stats.successes++;
+            }
+            stats.latenciesMs.add(TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        }
+    }
+
+    /**
+     * Summarises the captcha metrics of an environment.
+     *
+     * @param env The environment.
+     * @return One-line summary, or a note that nothing was recorded.
+     */
+    public static String getSummary(String env) {
+        CaptchaStats stats = BY_ENVIRONMENT.get(env);
+        if (stats == null) {
+            return "No captcha solves recorded for " + env;
+        }
+        synchronized (stats) {
+            long[] latencies = stats.latenciesMs.stream().mapToLong(Long::longValue).toArray();
+            return String.format("Captcha [%s]: %d/%d solved (%.0f%%), %.1f attempts per solve, latency ms %s",
+                    env, stats.successes, stats.solves, 100.0 * stats.successes / stats.solves,
+                    (double) stats.attempts / stats.solves, Percentiles.summarize(latencies));
+        }
+    }
+}
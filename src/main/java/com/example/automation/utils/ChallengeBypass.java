@@ -0,0 +1,133 @@
+package com.example.automation.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Lets a browser session skip the captcha and OTP/2FA challenges that are configured as bypassed, with the
+ * environment's bypass header and/or cookie. Applied once per session by the test setup; {@link ChallengeHandler}
+ * then only has to not solve the bypassed challenges.
+ */
+@Slf4j
+public class ChallengeBypass {
+
+    // Browsers the bypass was applied to
+    private static final Set<WebDriver> BYPASSED_BROWSERS = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    private ChallengeBypass() {
+    }
+
+    /**
+     * Sends the configured bypass header with the app's requests (Chromium only) and sets the bypass cookie, if
+     * challenge.captcha or challenge.otp is bypass. Call it once the browser is on the app, as the cookie is set for
+     * the current domain unless challenge.bypass.cookieDomain is set; calling it again for the same browser does nothing.
+     *
+     * @param driver The browser.
+     */
+    public static void apply(WebDriver driver) {
+        if (ChallengeStrategy.forChallenge(ChallengeHandler.CAPTCHA) != ChallengeStrategy.BYPASS
+                && ChallengeStrategy.forChallenge(ChallengeHandler.OTP) != ChallengeStrategy.BYPASS) {
+            return;
+        }
+        if (!BYPASSED_BROWSERS.add(driver)) {
+            return;
+        }
+        String header = PropertiesLoader.getProperty("challenge.bypass.header", "").trim();
+        String cookie = PropertiesLoader.getProperty("challenge.bypass.cookie", "").trim();
+        String value = PropertiesLoader.getProperty("challenge.bypass.value", "").trim();
+        if (header.isEmpty() && cookie.isEmpty()) {
+            throw new IllegalStateException("Challenge bypass is configured but neither challenge.bypass.header "
+                    + "nor challenge.bypass.cookie is set");
+        }
+
+        boolean applied = false;
+        if (!header.isEmpty()) {
+            applied = applyBypassHeader(driver, header, value);
+        }
+        if (!cookie.isEmpty()) {
+            String domain = PropertiesLoader.getProperty("challenge.bypass.cookieDomain", "").trim();
+            Cookie.Builder builder = new Cookie.Builder(cookie, value).path("/");
+            if (!domain.isEmpty()) {
+                builder.domain(domain);
+            }
+            driver.manage().addCookie(builder.build());
+            log.info("Challenge bypass cookie {} set", cookie);
+            applied = true;
+        }
+        if (!applied) {
+            throw new IllegalStateException("Challenge bypass could not be applied in this browser");
+        }
+    }
+
+    /**
+     * Adds the bypass header to requests for the app and auth API origins only, so it never reaches third-party
+     * hosts: those requests are paused through the DevTools Fetch domain and continued with the header added.
+     *
+     * @return True if the header is sent, false if the browser has no DevTools or no app origin is configured.
+     */
+    private static boolean applyBypassHeader(WebDriver driver, String header, String value) {
+        if (!(driver instanceof HasDevTools hasDevTools)) {
+            log.warn("Challenge bypass header needs a Chromium browser, {} ignores it", driver.getClass().getSimpleName());
+            return false;
+        }
+        List<String> origins = getAppOrigins();
+        if (origins.isEmpty()) {
+            log.warn("Challenge bypass header not set, no baseUrl to scope it to");
+            return false;
+        }
+        DevTools devTools = hasDevTools.getDevTools();
+        devTools.createSessionIfThereIsNotOne();
+        devTools.addListener(new Event<Map<String, Object>>("Fetch.requestPaused", input -> input.read(Json.MAP_TYPE)),
+                paused -> continueWithHeader(devTools, paused, header, value));
+        devTools.send(new Command<Void>("Fetch.enable", Map.of("patterns", origins.stream()
+                .map(origin -> Map.of("urlPattern", origin + "/*", "requestStage", "Request"))
+                .toList())));
+        log.info("Challenge bypass header {} set for {}", header, origins);
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void continueWithHeader(DevTools devTools, Map<String, Object> paused, String header, String value) {
+        Map<String, Object> request = (Map<String, Object>) paused.getOrDefault("request", Map.of());
+        List<Map<String, String>> headers = new ArrayList<>();
+        ((Map<String, Object>) request.getOrDefault("headers", Map.of())).forEach((name, headerValue) -> {
+            if (!name.equalsIgnoreCase(header)) {
+                headers.add(Map.of("name", name, "value", String.valueOf(headerValue)));
+            }
+        });
+        headers.add(Map.of("name", header, "value", value));
+        try {
+            devTools.send(new Command<Void>("Fetch.continueRequest", Map.of("requestId", paused.get("requestId"), "headers", headers)));
+        } catch (RuntimeException e) {
+            // The request is gone, e.g. the page navigated away while it was paused
+            log.debug("Could not continue request {}: {}", request.get("url"), e.getMessage());
+        }
+    }
+
+    // Origins of the app and, when it has its own, of the auth API
+    private static List<String> getAppOrigins() {
+        Set<String> origins = new LinkedHashSet<>();
+        for (String url : new String[]{PropertiesLoader.getProperty("baseUrl", ""), PropertiesLoader.getProperty("auth.apiUrl", "")}) {
+            if (!url.isBlank()) {
+                URI uri = URI.create(url.trim());
+                origins.add(uri.getScheme() + "://" + uri.getAuthority());
+            }
+        }
+        return List.copyOf(origins);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.automation.utils;
+
+import com.aventstack.extentreports.ExtentTest;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.WebDriver;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Handles the captcha and OTP/2FA challenges of the auth flows with the strategy configured for the environment
+ * (challenge.captcha / challenge.otp: ui, bypass or skip) and reports the time spent on them.
+ */
+@Slf4j
+public class ChallengeHandler {
+
+    public static final String CAPTCHA = "captcha";
+    public static final String OTP = "otp";
+
+    private final WebDriver driver;
+    private final Captcha captcha;
+    private final HandleOtpOR2faVerification otpHandler;
+    private final ChallengeStrategy captchaStrategy;
+    private final ChallengeStrategy otpStrategy;
+
+    /**
+     * Constructor for ChallengeHandler. A bypassed challenge relies on {@link ChallengeBypass#apply(WebDriver)}
+     * having been called for the browser when its session was set up.
+     *
+     * @param driver     WebDriver instance
+     * @param captcha    Captcha solver used for the UI strategy
+     * @param otpHandler OTP/2FA handler used for the UI strategy
+     */
+    public ChallengeHandler(WebDriver driver, Captcha captcha, HandleOtpOR2faVerification otpHandler) {
+        this.driver = driver;
+        this.captcha = captcha;
+        this.otpHandler = otpHandler;
+        this.captchaStrategy = ChallengeStrategy.forChallenge(CAPTCHA);
+        this.otpStrategy = ChallengeStrategy.forChallenge(OTP);
+    }
+
+    /**
+     * Handles the captcha with the configured strategy.
+     */
+    public void handleCaptcha() {
+        handle(CAPTCHA, captchaStrategy, () -> captcha.solveGeetestCaptcha(driver));
+    }
+
+    /**
+     * Handles the OTP/2FA page with the configured strategy.
+     */
+    public void handleOtp() {
+        handleOtp(null);
+    }
+
+    /**
+     * Handles the OTP/2FA page with the configured strategy, for a known email address.
+     *
+     * @param email The address the OTP was sent to, or null if unknown.
+     */
+    public void handleOtp(String email) {
+        handle(OTP, otpStrategy, () -> otpHandler.handleOtp(email));
+    }
+
+    private void handle(String challenge, ChallengeStrategy strategy, Runnable uiSolver) {
+        long start = System.nanoTime();
+        if (strategy == ChallengeStrategy.UI) {
+            uiSolver.run();
+        } else {
+            log.info("Not handling {} through the UI ({} strategy)", challenge, strategy.name().toLowerCase());
+        }
+        long elapsed = System.nanoTime() - start;
+        SetupTimeStats.record("challenge." + challenge + "." + strategy.name().toLowerCase(), elapsed);
+
+        String message = String.format("%s challenge (%s) took %d ms", challenge, strategy.name().toLowerCase(),
+                TimeUnit.NANOSECONDS.toMillis(elapsed));
+        if (strategy != ChallengeStrategy.UI) {
+            long uiAverage = SetupTimeStats.averageMs("challenge." + challenge + ".ui");
+            if (uiAverage >= 0) {
+                message += ", UI path averages " + uiAverage + " ms in this run";
+            }
+        }
+        log.info(message);
+        ExtentTest test = ExtentReportManager.getTest();
+        if (test != null) {
+            test.info(message);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.automation.utils;
+
+import java.util.Locale;
+
+/**
+ * How an auth challenge (captcha, OTP/2FA) is handled in an environment.
+ */
+public enum ChallengeStrategy {
+
+    /** Solve the challenge through the UI. */
+    UI,
+
+    /** Send the configured test header/cookie so the backend does not issue the challenge. */
+    BYPASS,
+
+    /** The environment does not issue the challenge; do nothing. */
+    SKIP;
+
+    /**
+     * Reads the strategy for a challenge from challenge.&lt;name&gt;, defaulting to {@link #UI}.
+     *
+     * @param challenge The challenge name, e.g. "captcha" or "otp".
+     * @return The configured strategy.
+     */
+    public static ChallengeStrategy forChallenge(String challenge) {
+        String value = PropertiesLoader.getProperty("challenge." + challenge, "ui").trim();
+        try {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown strategy '" + value + "' for challenge." + challenge
+                    + ", expected one of ui, bypass, skip", e);
+        }
+    }
+}
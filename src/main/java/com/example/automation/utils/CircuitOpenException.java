@@ -0,0 +1,13 @@
+package com.example.automation.utils;
+
+/**
+ * Thrown when a request is rejected because the circuit breaker for its host is open.
+ */
+public class CircuitOpenException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    public CircuitOpenException(String host) {
+        super("Circuit breaker is open for host: " + host);
+    }
+}
@@ -3,43 +3,82 @@ package com.example.automation.utils;
 import com.aventstack.extentreports.ExtentReports;
 import com.aventstack.extentreports.ExtentTest;
 import com.aventstack.extentreports.reporter.ExtentSparkReporter;
+import com.aventstack.extentreports.reporter.JsonFormatter;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
 
 public class ExtentReportManager {
 
-    private static ExtentReports extent;
+    public static final String HTML_REPORT = "ExtentReport.html";
+    // Archive of the report, from which reports of several shards are merged into one
+    public static final String JSON_ARCHIVE = "ExtentReport.json";
+
+    private static volatile AsyncReportWriter writer;
     private static final ThreadLocal<ExtentTest> testThreadLocal = new ThreadLocal<>();  // ✅ ThreadLocal for parallel execution
 
     /**
      * Initializes the ExtentReports instance.
      */
     public static ExtentReports getExtentReports() {
-        if (extent == null) {
+        return getWriter().getReport();
+    }
+
+    /**
+     * Returns the writer of the run's report, starting it the first time. The report is flushed every
+     * report.flushIntervalSeconds, spills finished tests to disk beyond report.maxTestsInMemory and is completed
+     * by {@link #closeReports()} or, failing that, when the JVM exits.
+     */
+    private static AsyncReportWriter getWriter() {
+        if (writer == null) {
             synchronized (ExtentReportManager.class) { // ✅ Ensures thread safety
-                if (extent == null) {
-                    String reportPath = System.getProperty("user.dir") + "/test-output/ExtentReport.html";
-                    ExtentSparkReporter sparkReporter = new ExtentSparkReporter(reportPath);
-                    sparkReporter.config().setReportName("Automation Test Report");
-                    sparkReporter.config().setDocumentTitle("Test Execution Report");
-
-                    // ✅ Enable offline mode to avoid 404 issues
-                    sparkReporter.config().setOfflineMode(true);
-
-                    extent = new ExtentReports();
-                    extent.attachReporter(sparkReporter);
-                    extent.setSystemInfo("Operating System", System.getProperty("os.name"));
-                    extent.setSystemInfo("Environment", System.getProperty("env", "qa"));
-                    extent.setSystemInfo("User", System.getProperty("user.name"));
+                if (writer == null) {
+                    Path reportDir = getReportDir();
+                    writer = AsyncReportWriter.start(reportDir, reportDir.resolve(JSON_ARCHIVE), ExtentReportManager::configure,
+                            Duration.ofSeconds(Long.parseLong(PropertiesLoader.getProperty("report.flushIntervalSeconds", "30").trim())),
+                            Integer.parseInt(PropertiesLoader.getProperty("report.maxTestsInMemory", "500").trim()));
+                    Runtime.getRuntime().addShutdownHook(new Thread(ExtentReportManager::closeReports, "extent-report-close"));
                 }
             }
         }
-        return extent;
+        return writer;
+    }
+
+    private static void configure(ExtentReports report) {
+        Path reportDir = getReportDir();
+        report.attachReporter(createSparkReporter(reportDir.resolve(HTML_REPORT).toString()),
+                new JsonFormatter(reportDir.resolve(JSON_ARCHIVE).toString()));
+        report.setSystemInfo("Operating System", System.getProperty("os.name"));
+        report.setSystemInfo("Environment", System.getProperty("env", "qa"));
+        report.setSystemInfo("User", System.getProperty("user.name"));
+    }
+
+    /**
+     * Creates the HTML reporter of a run, or of the merged shards of a run.
+     */
+    public static ExtentSparkReporter createSparkReporter(String reportPath) {
+        ExtentSparkReporter sparkReporter = new ExtentSparkReporter(reportPath);
+        sparkReporter.config().setReportName("Automation Test Report");
+        sparkReporter.config().setDocumentTitle("Test Execution Report");
+
+        // ✅ Enable offline mode to avoid 404 issues
+        sparkReporter.config().setOfflineMode(true);
+        return sparkReporter;
+    }
+
+    /**
+     * Returns the directory reports are written to: report.dir, by default test-output. Shards each get their own.
+     */
+    public static Path getReportDir() {
+        return Path.of(System.getProperty("user.dir")).resolve(PropertiesLoader.getOverridableProperty("report.dir", "test-output").trim());
     }
 
     /**
      * Starts a test in the Extent Report for the current thread.
      */
     public static ExtentTest createTest(String testName, String description) {
-        ExtentTest test = getExtentReports().createTest(testName, description);
+        ExtentTest test = getWriter().createTest(testName, description);
         testThreadLocal.set(test); // ✅ Store ExtentTest instance per thread
         return test;
     }
@@ -52,12 +91,39 @@ public class ExtentReportManager {
     }
 
     /**
-     * Flushes the Extent Report to write the results.
+     * Marks a test as finished. Returns at once; the background writer adds it to the written report once its
+     * screenshots are attached.
+     */
+    public static void endTest(ExtentTest test) {
+        if (test == null) {
+            return;
+        }
+        AsyncReportWriter reportWriter = getWriter();
+        CompletableFuture<Void> screenshots = ScreenshotPipeline.pendingFor(test);
+        if (screenshots == null) {
+            reportWriter.testFinished(test);
+        } else {
+            screenshots.whenComplete((result, error) -> reportWriter.testFinished(test));
+        }
+    }
+
+    /**
+     * Flushes the Extent Report to write the results, waiting until it is written.
      */
     public static void flushReports() {
-        if (extent != null) {
-            extent.flush();
-            System.out.println("✅ Extent Report flushed successfully at: test-output/ExtentReport.html");
+        if (writer != null) {
+            writer.flush();
+            System.out.println("✅ Extent Report flushed successfully at: " + getReportDir().resolve(HTML_REPORT));
+        }
+    }
+
+    /**
+     * Writes the complete Extent Report, including the tests spilled to disk, at the end of the run.
+     */
+    public static void closeReports() {
+        ScreenshotPipeline.drainShared();
+        if (writer != null) {
+            writer.close();
         }
     }
 }
@@ -0,0 +1,248 @@
+package com.example.automation.utils;
+
+import com.example.automation.drivers.BrowserEventLog;
+import com.example.automation.drivers.CommandLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Collects what is needed to debug a failed test into one zip: the serialized DOM, the current URL, the page's
+ * navigation and resource timings, the buffered console messages and JS errors, the recent network requests as a
+ * HAR log and the recent WebDriver calls. The browser is queried for all its artifacts at once, and whatever is not
+ * collected within the time cap is left out and marked as timed out in the bundle's manifest.json. The buffered logs
+ * are read from memory; passing tests pay only for buffering them.
+ */
+@Slf4j
+public class FailureCollector {
+
+    /**
+     * Failure bundle settings.
+     *
+     * @param enabled   Whether failed tests get a bundle.
+     * @param dir       Directory the bundles are written to.
+     * @param timeoutMs How long the browser artifacts may take altogether.
+     */
+    public record Settings(boolean enabled, Path dir, long timeoutMs) {
+
+        public static Settings fromProperties() {
+            return new Settings(
+                    Boolean.parseBoolean(PropertiesLoader.getOverridableProperty("failures.enabled", "true").trim()),
+                    Path.of(PropertiesLoader.getProperty("failures.dir", "report/failures").trim()),
+                    Long.parseLong(PropertiesLoader.getProperty("failures.timeoutMs", "3000").trim()));
+        }
+    }
+
+    /**
+     * An artifact of a bundle, as listed in its manifest.
+     *
+     * @param name   File name in the bundle.
+     * @param status "ok", "timed out" or the error that prevented collecting it.
+     * @param millis How long collecting it took.
+     * @param bytes  Size of the file, 0 if it was not collected.
+     */
+    public record Artifact(String name, String status, long millis, int bytes) {
+    }
+
+    private record Collected(byte[] data, long nanos) {
+    }
+
+    // Navigation and the last resource timings of the page, from the Performance API
+    private static final String TIMINGS_SCRIPT = """
+            const round = n => Math.round(n * 10) / 10;
+            return JSON.stringify({
+              navigation: performance.getEntriesByType('navigation').map(e => e.toJSON()),
+              resources: performance.getEntriesByType('resource').slice(-200).map(e => ({
+                name: e.name, initiatorType: e.initiatorType, startTime: round(e.startTime),
+                duration: round(e.duration), transferSize: e.transferSize
+              }))
+            });""";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private static volatile FailureCollector shared;
+
+    private final Settings settings;
+    private final ExecutorService executor;
+
+    /**
+     * Constructor for FailureCollector.
+     *
+     * @param settings The bundle settings.
+     */
+    public FailureCollector(Settings settings) {
+        this.settings = settings;
+        AtomicInteger threads = new AtomicInteger();
+        // Threads left blocked by a browser that does not answer are freed when the browser is quit
+        this.executor = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "failure-collector-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns the collector configured by the failures.* properties.
+     */
+    public static FailureCollector shared() {
+        if (shared == null) {
+            synchronized (FailureCollector.class) {
+                if (shared == null) {
+                    shared = new FailureCollector(Settings.fromProperties());
+                }
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Collects the failure artifacts of a test and writes them as one zip.
+     *
+     * @param driver   The test's browser, or null if it is gone.
+     * @param events   The browser's buffered console and network events, or null.
+     * @param commands The browser's recent WebDriver calls, or null.
+     * @param testName Name of the test, used for the zip's name.
+     * @param error    Why the test failed.
+     * @return The zip, or null if bundles are disabled or it could not be written.
+     */
+    public Path collect(WebDriver driver, BrowserEventLog events, CommandLog commands, String testName, Throwable error) {
+        if (!settings.enabled()) {
+            return null;
+        }
+        long start = System.nanoTime();
+        Map<String, Future<Collected>> pending = new LinkedHashMap<>();
+        if (driver != null) {
+            pending.put("url.txt", executor.submit(timed(() -> utf8(driver.getCurrentUrl()))));
+            pending.put("dom.html", executor.submit(timed(() -> utf8(driver.getPageSource()))));
+            if (driver instanceof JavascriptExecutor js) {
+                pending.put("timings.json", executor.submit(timed(() -> utf8((String) js.executeScript(TIMINGS_SCRIPT)))));
+            }
+        }
+
+        // The buffers are read while the browser answers
+        Map<String, byte[]> files = new LinkedHashMap<>();
+        List<Artifact> artifacts = new ArrayList<>();
+        if (events != null) {
+            addBuffered("console.json", () -> MAPPER.writeValueAsBytes(events.consoleEntries()), files, artifacts);
+            addBuffered("network.har", () -> MAPPER.writeValueAsBytes(events.toHar()), files, artifacts);
+        }
+        if (commands != null) {
+            addBuffered("commands.log", () -> utf8(String.join("\n", commands.lines())), files, artifacts);
+        }
+
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(settings.timeoutMs());
+        for (Map.Entry<String, Future<Collected>> entry : pending.entrySet()) {
+            String name = entry.getKey();
+            Future<Collected> future = entry.getValue();
+            try {
+                Collected collected = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                files.put(name, collected.data());
+                artifacts.add(new Artifact(name, "ok", TimeUnit.NANOSECONDS.toMillis(collected.nanos()), collected.data().length));
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                artifacts.add(new Artifact(name, "timed out", settings.timeoutMs(), 0));
+            } catch (ExecutionException e) {
+                artifacts.add(new Artifact(name, String.valueOf(e.getCause().getMessage()).lines().findFirst().orElse(""),
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), 0));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                artifacts.add(new Artifact(name, "interrupted", 0, 0));
+            }
+        }
+
+        String name = String.valueOf(testName).replaceAll("[^A-Za-z0-9._-]+", "_");
+        Path file = settings.dir().resolve(name + "_" + UniqueIdGenerator.next() + ".zip");
+        try {
+            Map<String, Object> manifest = new LinkedHashMap<>();
+            manifest.put("test", testName);
+            manifest.put("collectedAt", Instant.now().toString());
+            manifest.put("collectMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            manifest.put("timeoutMs", settings.timeoutMs());
+            manifest.put("artifacts", artifacts);
+            manifest.put("error", stackTrace(error));
+            write(file, MAPPER.writeValueAsBytes(manifest), files);
+        } catch (IOException e) {
+            log.warn("Failed to write the failure bundle {}: {}", file, e.getMessage());
+            return null;
+        }
+        log.info("Failure bundle of {} written to {} in {} ms", testName, file, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return file;
+    }
+
+    private static void addBuffered(String name, Callable<byte[]> reader, Map<String, byte[]> files, List<Artifact> artifacts) {
+        long start = System.nanoTime();
+        try {
+            byte[] data = reader.call();
+            files.put(name, data);
+            artifacts.add(new Artifact(name, "ok", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), data.length));
+        } catch (Exception e) {
+            artifacts.add(new Artifact(name, String.valueOf(e.getMessage()), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), 0));
+        }
+    }
+
+    private static void write(Path file, byte[] manifest, Map<String, byte[]> files) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp); ZipOutputStream zip = new ZipOutputStream(out)) {
+            // The bundle is written on the failing test's thread; fast compression already shrinks text several times
+            zip.setLevel(Deflater.BEST_SPEED);
+            zip.putNextEntry(new ZipEntry("manifest.json"));
+            zip.write(manifest);
+            zip.closeEntry();
+            for (Map.Entry<String, byte[]> entry : files.entrySet()) {
+                zip.putNextEntry(new ZipEntry(entry.getKey()));
+                zip.write(entry.getValue());
+                zip.closeEntry();
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static Callable<Collected> timed(Callable<byte[]> task) {
+        return () -> {
+            long start = System.nanoTime();
+            byte[] data = task.call();
+            return new Collected(data, System.nanoTime() - start);
+        };
+    }
+
+    private static byte[] utf8(String text) {
+        return String.valueOf(text).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String stackTrace(Throwable error) {
+        if (error == null) {
+            return null;
+        }
+        StringWriter out = new StringWriter();
+        error.printStackTrace(new PrintWriter(out));
+        return out.toString();
+    }
+}
@@ -3,9 +3,6 @@ package com.example.automation.utils;
 import com.example.automation.config.Config;
 import org.springframework.stereotype.Component;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
-
 @Component
 public class GenerateEmail {
 
@@ -18,14 +15,20 @@ public class GenerateEmail {
         String baseEmail = "automation@yopmail.com";
         String alias = Config.getEnvironment();
 
-        // Get current time in MMss format
-        String currentTime = new SimpleDateFormat("mmss").format(new Date());
-
         // Split the base email into username and domain
         String[] emailParts = baseEmail.split("@");
 
-        // Create new email by appending minutes and seconds to the username
-        return emailParts[0] + alias + currentTime + "@" + emailParts[1];
+        // Create new email by appending an id that is unique across threads, forks and runs
+        return emailParts[0] + alias + UniqueIdGenerator.next() + "@" + emailParts[1];
+    }
+
+    /**
+     * Generates a unique value for other identity fields (referral codes, names).
+     * @param prefix Fixed prefix of the value.
+     * @return The prefix followed by a unique id.
+     */
+    public String generateUniqueValue(String prefix) {
+        return prefix + UniqueIdGenerator.next();
     }
 
 }
@@ -3,9 +3,14 @@ package com.example.automation.utils;
 import com.example.automation.config.Config;
 import lombok.extern.slf4j.Slf4j;
 import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.time.Duration;
 
 @Slf4j
 public class HandleOtpOR2faVerification {
@@ -14,6 +19,8 @@ public class HandleOtpOR2faVerification {
     private final WaitUtils waitUtils;
 
     private static final By verify_otp_heading   = By.xpath("//h2[text()='Verify OTP']");
+    private static final By otp_or_2fa_heading   = By.xpath("//h2[text()='Verify OTP'] | //h2[text()='Two Factor Verification']");
+    private static final By first_digit_input    = By.xpath("//input[@data-index='0']");
     private static final By verify_2fa_heading   = By.xpath("//h2[text()='Two Factor Verification']");
     private static final By opt_or_2fa_page      = By.xpath("//h2[text()='Verify OTP'] | " +
                                                     "//h2[text()='Two Factor Verification'] | " +
@@ -24,6 +31,25 @@ public class HandleOtpOR2faVerification {
                                                     "//p[text()='Complete identity verification to unlock all features. ']");
     private static final By error_message_on_otp_page = By.id("field-:r8:-feedback");
 
+    private static final String FAST_OTP_ENTRY_SCRIPT =
+            "var code = arguments[0];" +
+            "function inputs() { return Array.from(document.querySelectorAll('input[data-index]'))" +
+            "  .sort(function (a, b) { return a.dataset.index - b.dataset.index; }); }" +
+            "function filled() { var f = inputs(); return f.length >= code.length" +
+            "  && code.split('').every(function (c, i) { return f[i].value === c; }); }" +
+            "var fields = inputs();" +
+            "if (fields.length < code.length) { return false; }" +
+            "fields[0].focus();" +
+            "try { var data = new DataTransfer(); data.setData('text/plain', code);" +
+            "  fields[0].dispatchEvent(new ClipboardEvent('paste', { clipboardData: data, bubbles: true, cancelable: true }));" +
+            "} catch (e) {}" +
+            "if (filled()) { return true; }" +
+            "var setter = Object.getOwnPropertyDescriptor(HTMLInputElement.prototype, 'value').set;" +
+            "code.split('').forEach(function (c, i) { var f = inputs()[i]; f.focus(); setter.call(f, c);" +
+            "  f.dispatchEvent(new Event('input', { bubbles: true }));" +
+            "  f.dispatchEvent(new Event('change', { bubbles: true })); });" +
+            "return filled();";
+
     /**
      * Constructor to initialize the driver and wait utility.
      *
@@ -33,6 +59,8 @@ public class HandleOtpOR2faVerification {
     public HandleOtpOR2faVerification(WebDriver driver, WaitUtils waitUtils) {
         this.driver = driver;
         this.waitUtils = waitUtils;
+        // Start the local mail sink (if enabled) before any flow sends an email OTP
+        SmtpSink.shared();
     }
 
     /**
@@ -68,47 +96,58 @@ public class HandleOtpOR2faVerification {
 
     /**
      * Handles OTP/2FA Verification.
+     * Fills all digits in one step (see {@link #enterOtpFast(String)}) unless otp.entryMode is perKey,
+     * and falls back to typing one digit at a time if the page does not take the batched entry.
      */
     public void handleOtp() {
+        handleOtp(null);
+    }
+
+    /**
+     * Handles OTP/2FA Verification for a known email address. When the local mail sink is enabled,
+     * the email OTP is read from the message sent to that address.
+     *
+     * @param email The address the OTP was sent to, or null if unknown.
+     */
+    public void handleOtp(String email) {
         try {
             // Check if the OTP page or 2FA page is displayed
+            WebElement heading;
             try {
-                if (isOtpPageDisplayed()) {
-                    log.info("On OTP page");
-                }
-            } catch (Exception e) {
-                try {
-                    if (is2FaPageDisplayed()) {
-                        log.info("On 2FA page");
-                    }
-                } catch (Exception ex) {
-                    log.warn("Neither OTP page nor 2FA page found.");
-                    return; // Exit method if neither page is found
-                }
+                heading = waitUtils.waitForVisibilityLong(otp_or_2fa_heading);
+                log.info("On {} page", heading.getText());
+            } catch (TimeoutException e) {
+                log.warn("Neither OTP page nor 2FA page found.");
+                return; // Exit method if neither page is found
             }
 
             // Determine OTP based on environment
             String otp;
-            String activeProfile = System.getProperty("spring.profiles.active");
-            if (activeProfile.equals("prod")) {
-                log.info("Running in PROD environment - Generating OTP using OTPUtil.");
-                String username = "copt1@yopmail.com"; // Replace with dynamic user retrieval if needed
-                otp = OTPUtil.generateTOTPForUser(username);
+            SmtpSink mailSink = SmtpSink.shared();
+            if (mailSink != null && email != null && heading.getText().contains("Verify OTP")) {
+                log.info("Reading the email OTP for {} from the local mail sink.", email);
+                otp = mailSink.getMailbox().takeOtp(email,
+                        Duration.ofSeconds(Long.parseLong(PropertiesLoader.getProperty("mail.otpTimeoutSeconds", "30").trim())));
             } else {
-                log.info("Non-PROD environment detected, using sample OTP.");
-                otp = "123456"; // Use dummy OTP for non-prod environments
+                otp = OTPUtil.getOtpForEnvironment(email != null ? email : OTPUtil.DEFAULT_TOTP_USER);
             }
 
-            // Enter the OTP or 2FA code
-            for (int i = 0; i < otp.length(); i++) {
-                WebElement pinInputField = waitUtils.waitForVisibilityShort(By.xpath("//input[@data-index='" + i + "']"));
-                pinInputField.sendKeys(String.valueOf(otp.charAt(i)));
-                waitForSeconds(1);
+            // Enter the OTP or 2FA code and validate the verification result
+            Boolean isVerified = null;
+            boolean fastMode = !"perKey".equalsIgnoreCase(PropertiesLoader.getProperty("otp.entryMode", "fast").trim());
+            if (fastMode && enterOtpFast(otp)) {
+                // A page that ignored the batched entry shows nothing, so only wait briefly before typing instead
+                isVerified = awaitVerificationResult(waitUtils.getShortWait());
+                if (isVerified == null) {
+                    log.warn("No result after batched OTP entry, falling back to per-key entry");
+                }
+            }
+            if (isVerified == null) {
+                enterOtpPerKey(otp);
+                isVerified = awaitVerificationResult(waitUtils.getLongWait());
             }
 
-            // Click the "Verify" button and validate the verification result
-            boolean isVerified = isOtpVerifiedSuccessfully();
-            if (isVerified) {
+            if (Boolean.TRUE.equals(isVerified)) {
                 log.info("OTP/2FA Verified Successfully!");
             } else {
                 log.error("OTP/2FA Verification Failed!");
@@ -116,45 +155,68 @@ public class HandleOtpOR2faVerification {
 
         } catch (TimeoutException e) {
             log.error("OTP/2FA verification page did not load.");
+        } catch (java.util.concurrent.TimeoutException e) {
+            log.error("OTP email did not arrive: {}", e.getMessage());
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             log.error("Thread was interrupted: {}", e.getMessage());
         }
     }
 
-    public void waitForSeconds(int timeInSeconds) throws InterruptedException {
-        Thread.sleep(timeInSeconds * 1000L);
-    }
-
     /**
-     * Checks whether OTP/2FA verification was successful.
+     * Fills all digit inputs in one step: pastes the code into the first input and, if the page does not
+     * distribute the paste, sets each input's value and dispatches input/change events.
      *
-     * @return True if verification is successful, false otherwise.
-     * @throws InterruptedException If thread sleep is interrupted.
+     * @param otp The code to enter.
+     * @return True if every digit input holds its digit afterwards.
      */
-    private boolean isOtpVerifiedSuccessfully() throws InterruptedException {
+    private boolean enterOtpFast(String otp) {
         try {
-            // Use shortWait for quick validation
-            WebElement successIndicator = waitUtils.waitForVisibilityLong(is_signup_successful);
-
-            Retry.retryOperation(() -> {
-                boolean flag = successIndicator.isDisplayed();
-                return flag ? true : null; // Return null since click doesn't return anything
-            }, 3, 1000, "Click accept button on OTP/2FA page");
-
-            return successIndicator.isDisplayed();
-        } catch (Exception e) {
-            // If no success indicator, check for an error message
-            try {
-                WebElement errorOtpRequired = waitUtils.waitForVisibilityShort(error_message_on_otp_page);
-                if (errorOtpRequired.isDisplayed()) {
-                    log.error("Error: OTP verification failed");
-                    return false;
-                }
-            } catch (RuntimeException e1) {
-                // No error message found
+            waitUtils.waitForVisibilityShort(first_digit_input);
+            Object filled = ((JavascriptExecutor) driver).executeScript(FAST_OTP_ENTRY_SCRIPT, otp);
+            if (Boolean.TRUE.equals(filled)) {
+                log.info("Entered OTP/2FA code in one step");
+                return true;
             }
+            log.warn("Batched OTP entry was not taken by the page");
+        } catch (RuntimeException e) {
+            log.warn("Batched OTP entry failed: {}", e.getMessage());
         }
         return false;
     }
+
+    /**
+     * Types the code one digit per input, pausing between digits.
+     */
+    private void enterOtpPerKey(String otp) throws InterruptedException {
+        for (int i = 0; i < otp.length(); i++) {
+            WebElement pinInputField = waitUtils.waitForVisibilityShort(By.xpath("//input[@data-index='" + i + "']"));
+            pinInputField.clear();
+            String digit = String.valueOf(otp.charAt(i));
+            pinInputField.sendKeys(digit);
+            Sleeper.sleep(1000, "OTP digit accepted", () -> digit.equals(pinInputField.getDomProperty("value")));
+        }
+    }
+
+    /**
+     * Waits once for either the success indicator or the OTP error message.
+     *
+     * @param wait How long to wait.
+     * @return True on success, false on an OTP error, null if neither appeared.
+     */
+    private Boolean awaitVerificationResult(WebDriverWait wait) {
+        try {
+            wait.until(ExpectedConditions.or(
+                    ExpectedConditions.visibilityOfElementLocated(is_signup_successful),
+                    ExpectedConditions.visibilityOfElementLocated(error_message_on_otp_page)));
+        } catch (TimeoutException e) {
+            return null;
+        }
+        if (!driver.findElements(error_message_on_otp_page).isEmpty()
+                && driver.findElement(error_message_on_otp_page).isDisplayed()) {
+            log.error("Error: OTP verification failed");
+            return false;
+        }
+        return true;
+    }
 }
@@ -0,0 +1,152 @@
+package com.example.automation.utils;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breaker scoped to a single host.
+ * Opens after consecutive failures, fast-fails while open and lets a single probe through once the open period expires.
+ */
+@Slf4j
+public class HostCircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    @Getter
+    private final String host;
+    private final int failureThreshold;
+    private final long openDurationNanos;
+
+    @Getter
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtNanos;
+    private boolean probeInFlight;
+
+    private int trips;
+    private int rejectedCalls;
+    private int failedCalls;
+    private long failedLatencyNanos;
+    private long savedLatencyNanos;
+
+    /**
+     * Constructor for HostCircuitBreaker.
+     *
+     * @param host             The host this breaker guards.
+     * @param failureThreshold Consecutive failures that open the circuit.
+     * @param openDurationMs   How long the circuit stays open before a probe is allowed.
+     */
+    public HostCircuitBreaker(String host, int failureThreshold, long openDurationMs) {
+        if (failureThreshold <= 0) {
+            throw new IllegalArgumentException("Failure threshold must be positive for host: " + host);
+        }
+        this.host = host;
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMs);
+    }
+
+    /**
+     * Creates a breaker for the host using the link checker settings in application.properties.
+     *
+     * @param host The host to guard.
+     * @return A new HostCircuitBreaker.
+     */
+    public static HostCircuitBreaker fromProperties(String host) {
+        int failureThreshold = Integer.parseInt(PropertiesLoader.getProperty("linkChecker.circuitBreaker.failureThreshold", "3"));
+        long openDurationMs = Long.parseLong(PropertiesLoader.getProperty("linkChecker.circuitBreaker.openDurationMs", "30000"));
+        return new HostCircuitBreaker(host, failureThreshold, openDurationMs);
+    }
+
+    /**
+     * Checks whether a request may be sent to the host.
+     *
+     * @throws CircuitOpenException If the circuit is open or a half-open probe is already running.
+     */
+    public synchronized void acquirePermission() throws CircuitOpenException {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAtNanos < openDurationNanos) {
+                reject();
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (probeInFlight) {
+                reject();
+            }
+            probeInFlight = true;
+        }
+    }
+
+    /**
+     * Gives back a permission whose request was never sent, so a half-open probe slot is not held forever.
+     */
+    public synchronized void releasePermission() {
+        probeInFlight = false;
+    }
+
+    /**
+     * Records a successful request and closes the circuit if it was probing.
+     * A success that arrives while the circuit is open came from a request sent before it opened, and is ignored.
+     */
+    public synchronized void recordSuccess() {
+        if (state == State.OPEN) {
+            return;
+        }
+        probeInFlight = false;
+        consecutiveFailures = 0;
+        if (state != State.CLOSED) {
+            transitionTo(State.CLOSED);
+        }
+    }
+
+    /**
+     * Records a failed request and opens the circuit when the threshold is reached.
+     *
+     * @param latencyNanos Time spent on the failed request.
+     */
+    public synchronized void recordFailure(long latencyNanos) {
+        probeInFlight = false;
+        failedCalls++;
+        failedLatencyNanos += latencyNanos;
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            trips++;
+            openedAtNanos = System.nanoTime();
+            transitionTo(State.OPEN);
+        }
+    }
+
+    /**
+     * Summarises the breaker activity for reporting.
+     *
+     * @return One-line summary of state, trips, rejected calls and the latency they saved.
+     */
+    public synchronized String getSummary() {
+        return String.format("%s: state=%s, trips=%d, failed=%d, fast-failed=%d, saved ~%d ms",
+                host, state, trips, failedCalls, rejectedCalls, TimeUnit.NANOSECONDS.toMillis(savedLatencyNanos));
+    }
+
+    /**
+     * Returns the latency saved by fast-failing, estimated from the average failed request.
+     *
+     * @return Saved latency in milliseconds.
+     */
+    public synchronized long getSavedLatencyMs() {
+        return TimeUnit.NANOSECONDS.toMillis(savedLatencyNanos);
+    }
+
+    private void reject() throws CircuitOpenException {
+        rejectedCalls++;
+        if (failedCalls > 0) {
+            savedLatencyNanos += failedLatencyNanos / failedCalls;
+        }
+        throw new CircuitOpenException(host);
+    }
+
+    private void transitionTo(State next) {
+        log.warn("Circuit breaker for {} changed from {} to {}", host, state, next);
+        state = next;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.automation.utils;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token-bucket rate limiter scoped to a single host.
+ * Callers reserve a token up front and sleep for the deficit, so concurrent callers are served in order.
+ */
+@Slf4j
+public class HostRateLimiter {
+
+    @Getter
+    private final String host;
+    private final double permitsPerSecond;
+    private final double capacity;
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    /**
+     * Constructor for HostRateLimiter.
+     *
+     * @param host             The host this limiter guards.
+     * @param permitsPerSecond Sustained request rate allowed for the host.
+     * @param burst            Number of requests allowed back-to-back before throttling kicks in.
+     */
+    public HostRateLimiter(String host, double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("Rate limit and burst must be positive for host: " + host);
+        }
+        this.host = host;
+        this.permitsPerSecond = permitsPerSecond;
+        this.capacity = burst;
+        this.tokens = burst;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Creates a limiter for the host using the link checker settings in application.properties.
+     *
+     * @param host The host to guard.
+     * @return A new HostRateLimiter.
+     */
+    public static HostRateLimiter fromProperties(String host) {
+        double permitsPerSecond = Double.parseDouble(PropertiesLoader.getProperty("linkChecker.rateLimit.permitsPerSecond", "2"));
+        int burst = Integer.parseInt(PropertiesLoader.getProperty("linkChecker.rateLimit.burst", "4"));
+        return new HostRateLimiter(host, permitsPerSecond, burst);
+    }
+
+    /**
+     * Blocks until a request to the host is allowed.
+     *
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public void acquire() throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            refill();
+            tokens -= 1;
+            waitNanos = tokens >= 0 ? 0 : (long) (-tokens / permitsPerSecond * TimeUnit.SECONDS.toNanos(1));
+        }
+        if (waitNanos > 0) {
+            log.debug("Rate limiting {} for {} ms", host, TimeUnit.NANOSECONDS.toMillis(waitNanos));
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        double refilled = (now - lastRefillNanos) * permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        tokens = Math.min(capacity, tokens + refilled);
+        lastRefillNanos = now;
+    }
+}
@@ -1,30 +1,122 @@
 package com.example.automation.utils;
 
 import lombok.extern.slf4j.Slf4j;
-import org.apache.hc.client5.http.fluent.Request;
-import org.apache.hc.core5.util.Timeout;
+
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 @Slf4j
 public class HttpStatusCodeChecker {
 
+    private static final int MAX_REDIRECTS = 10;
+    private static final ConcurrentHashMap<String, HostRateLimiter> RATE_LIMITERS = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, HostCircuitBreaker> CIRCUIT_BREAKERS = new ConcurrentHashMap<>();
+
     /**
-     * Checks the HTTP status code for a given URL.
+     * Checks the HTTP status code for a given URL, following redirects.
      *
      * @param url The URL to check.
-     * @return The HTTP status code.
-     * @throws Exception If the request fails or times out.
+     * @return The HTTP status code of the final hop.
+     * @throws CircuitOpenException If a host in the chain is currently considered unhealthy.
+     * @throws SocketTimeoutException If connecting or reading times out.
+     * @throws Exception If the request fails.
      */
     public static int checkStatusCode(String url) throws Exception {
+        return checkLink(url).statusCode();
+    }
+
+    /**
+     * Checks a URL, following redirects, and records the timing of every connection phase.
+     * Requests are throttled per host and fast-failed while the host's circuit breaker is open.
+     *
+     * @param url The URL to check.
+     * @return The timing profile, including the redirect chain.
+     * @throws CircuitOpenException If a host in the chain is currently considered unhealthy.
+     * @throws SocketTimeoutException If connecting or reading times out.
+     * @throws Exception If the request fails.
+     */
+    public static LinkTiming checkLink(String url) throws Exception {
+        List<LinkTimingProbe.Hop> hops = new ArrayList<>();
+        URI current;
+        try {
+            current = URI.create(url);
+        } catch (IllegalArgumentException e) {
+            throw new Exception("Error while checking status code for URL: " + url + ". Error: " + e.getMessage(), e);
+        }
+
+        for (int i = 0; i <= MAX_REDIRECTS; i++) {
+            LinkTimingProbe.Hop hop = fetchGuarded(current, url);
+            hops.add(hop);
+            if (!isRedirect(hop.statusCode()) || hop.location() == null) {
+                return LinkTiming.fromHops(url, hops);
+            }
+            current = current.resolve(hop.location());
+        }
+        throw new Exception("Error while checking status code for URL: " + url + ". Error: more than " + MAX_REDIRECTS + " redirects");
+    }
+
+    private static LinkTimingProbe.Hop fetchGuarded(URI uri, String url) throws Exception {
+        String host = uri.getHost() != null ? uri.getHost().toLowerCase() : url;
+        HostCircuitBreaker breaker = CIRCUIT_BREAKERS.computeIfAbsent(host, HostCircuitBreaker::fromProperties);
+        breaker.acquirePermission();
+        try {
+            RATE_LIMITERS.computeIfAbsent(host, HostRateLimiter::fromProperties).acquire();
+        } catch (InterruptedException | RuntimeException e) {
+            // No request is sent, so no outcome is recorded; a half-open probe slot has to be handed back explicitly
+            breaker.releasePermission();
+            throw e;
+        }
+
+        long start = System.nanoTime();
         try {
-            return Request.get(url)
-                    .connectTimeout(Timeout.ofSeconds(5))
-                    .responseTimeout(Timeout.ofSeconds(5))
-                    .execute()
-                    .returnResponse()
-                    .getCode();
+            LinkTimingProbe.Hop hop = LinkTimingProbe.fetch(uri);
+            if (isHostFailure(hop.statusCode())) {
+                breaker.recordFailure(System.nanoTime() - start);
+            } else {
+                breaker.recordSuccess();
+            }
+            return hop;
+        } catch (SocketTimeoutException e) {
+            breaker.recordFailure(System.nanoTime() - start);
+            throw e;
         } catch (Exception e) {
-            throw new Exception("Error while checking status code for URL: " + url + ". Error: " + e.getMessage());
+            breaker.recordFailure(System.nanoTime() - start);
+            throw new Exception("Error while checking status code for URL: " + url + ". Error: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Returns the circuit breaker activity for every host checked so far.
+     *
+     * @return Map of host to breaker summary.
+     */
+    public static Map<String, String> getCircuitBreakerReport() {
+        return CIRCUIT_BREAKERS.values().stream()
+                .collect(Collectors.toMap(HostCircuitBreaker::getHost, HostCircuitBreaker::getSummary));
+    }
+
+    /**
+     * Returns the total latency saved by fast-failing requests to unhealthy hosts.
+     *
+     * @return Saved latency in milliseconds.
+     */
+    public static long getTotalSavedLatencyMs() {
+        return CIRCUIT_BREAKERS.values().stream().mapToLong(HostCircuitBreaker::getSavedLatencyMs).sum();
+    }
+
+    /**
+     * Throttling and server errors mean the host is unhealthy; 4xx other than 429 is a broken link, not a broken host.
+     */
+    private static boolean isHostFailure(int code) {
+        return code == 429 || code >= 500;
+    }
+
+    private static boolean isRedirect(int code) {
+        return code == 301 || code == 302 || code == 303 || code == 307 || code == 308;
+    }
 }
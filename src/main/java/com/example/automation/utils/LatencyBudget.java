@@ -0,0 +1,63 @@
+package com.example.automation.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Latency budget for links whose URL matches a pattern.
+ * Budgets are declared in application.properties as numbered entries, e.g.
+ * <pre>
+ * linkChecker.budget.1.pattern = https://bitdelta\.com/.*
+ * linkChecker.budget.1.totalMs = 3000
+ * linkChecker.budget.1.ttfbMs  = 1500
+ * </pre>
+ * Budgets are opt-in: none are declared by default. The first matching entry applies; a limit of 0 or a missing
+ * limit is not enforced.
+ */
+public record LatencyBudget(Pattern pattern, long maxTotalMs, long maxTtfbMs) {
+
+    private static final List<LatencyBudget> BUDGETS = load();
+
+    /**
+     * Finds the budget that applies to the URL.
+     *
+     * @param url The URL being checked.
+     * @return The first matching budget, if any.
+     */
+    public static Optional<LatencyBudget> forUrl(String url) {
+        return BUDGETS.stream().filter(budget -> budget.pattern.matcher(url).matches()).findFirst();
+    }
+
+    /**
+     * Lists the limits the timing exceeds.
+     *
+     * @param timing The measured link timing.
+     * @return Human-readable violations; empty when within budget.
+     */
+    public List<String> violations(LinkTiming timing) {
+        List<String> violations = new ArrayList<>();
+        if (maxTotalMs > 0 && timing.totalMs() > maxTotalMs) {
+            violations.add("total " + timing.totalMs() + "ms > " + maxTotalMs + "ms");
+        }
+        if (maxTtfbMs > 0 && timing.ttfbMs() > maxTtfbMs) {
+            violations.add("ttfb " + timing.ttfbMs() + "ms > " + maxTtfbMs + "ms");
+        }
+        return violations;
+    }
+
+    private static List<LatencyBudget> load() {
+        List<LatencyBudget> budgets = new ArrayList<>();
+        for (int i = 1; ; i++) {
+            String prefix = "linkChecker.budget." + i + ".";
+            String pattern = PropertiesLoader.getProperty(prefix + "pattern", null);
+            if (pattern == null) {
+                return budgets;
+            }
+            budgets.add(new LatencyBudget(Pattern.compile(pattern.trim()),
+                    Long.parseLong(PropertiesLoader.getProperty(prefix + "totalMs", "0").trim()),
+                    Long.parseLong(PropertiesLoader.getProperty(prefix + "ttfbMs", "0").trim())));
+        }
+    }
+}
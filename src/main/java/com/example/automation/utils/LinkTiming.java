@@ -0,0 +1,60 @@
+package com.example.automation.utils;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timing profile of a link check, summed over every hop of its redirect chain.
+ *
+ * @param url           The URL that was checked.
+ * @param statusCode    Status code of the final hop.
+ * @param redirectChain Each hop as "status url", in request order.
+ */
+public record LinkTiming(String url, int statusCode, List<String> redirectChain,
+                         long dnsMs, long connectMs, long tlsMs, long ttfbMs, long downloadMs) {
+
+    /**
+     * Builds the profile from the hops of a redirect chain.
+     *
+     * @param url  The URL that was checked.
+     * @param hops The hops, in request order.
+     * @return The summed timing profile.
+     */
+    public static LinkTiming fromHops(String url, List<LinkTimingProbe.Hop> hops) {
+        long dns = 0, connect = 0, tls = 0, ttfb = 0, download = 0;
+        for (LinkTimingProbe.Hop hop : hops) {
+            dns += hop.dnsNanos();
+            connect += hop.connectNanos();
+            tls += hop.tlsNanos();
+            ttfb += hop.ttfbNanos();
+            download += hop.downloadNanos();
+        }
+        List<String> chain = hops.stream().map(hop -> hop.statusCode() + " " + hop.uri()).toList();
+        return new LinkTiming(url, hops.get(hops.size() - 1).statusCode(), chain,
+                toMs(dns), toMs(connect), toMs(tls), toMs(ttfb), toMs(download));
+    }
+
+    public long totalMs() {
+        return dnsMs + connectMs + tlsMs + ttfbMs + downloadMs;
+    }
+
+    public String host() {
+        String host = URI.create(url).getHost();
+        return host != null ? host.toLowerCase() : url;
+    }
+
+    public boolean isRedirected() {
+        return redirectChain.size() > 1;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("total=%dms (dns=%d, connect=%d, tls=%d, ttfb=%d, download=%d)",
+                totalMs(), dnsMs, connectMs, tlsMs, ttfbMs, downloadMs);
+    }
+
+    private static long toMs(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
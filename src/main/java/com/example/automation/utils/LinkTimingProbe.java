@@ -0,0 +1,225 @@
+package com.example.automation.utils;
+
+import org.apache.hc.client5.http.ConnectTimeoutException;
+import org.apache.hc.client5.http.DnsResolver;
+import org.apache.hc.client5.http.SystemDefaultDnsResolver;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.socket.ConnectionSocketFactory;
+import org.apache.hc.client5.http.socket.PlainConnectionSocketFactory;
+import org.apache.hc.client5.http.ssl.SSLConnectionSocketFactory;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.config.RegistryBuilder;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.ssl.SSLContexts;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.UnknownHostException;
+
+/**
+ * Sends a single GET through the Apache HttpClient and times each connection phase on its own: the client's DNS
+ * resolver and socket factories are wrapped to take timestamps, so proxies (system properties) and TLS work as they
+ * do for any other request. Every request opens a new connection, so each hop pays, and reports, its full setup cost.
+ * At most {@link #MAX_BODY_BYTES} of a body are read; a longer one is cut off by aborting the request.
+ * Redirects are not followed here; HttpStatusCodeChecker walks the chain hop by hop.
+ */
+public class LinkTimingProbe {
+
+    private static final int CONNECT_TIMEOUT_MS = 5000;
+    private static final int RESPONSE_TIMEOUT_MS = 5000;
+    static final int MAX_BODY_BYTES = 1024 * 1024;
+
+    /**
+     * Timing and outcome of a single request/response exchange.
+     */
+    public record Hop(URI uri, int statusCode, String location,
+                      long dnsNanos, long connectNanos, long tlsNanos, long ttfbNanos, long downloadNanos) {
+    }
+
+    // Timestamps of the request running on the current thread; the classic client connects on the calling thread
+    private static final class Phases {
+        private long dnsStart, dnsEnd, connectStart, connectEnd, tlsStart, tlsEnd;
+    }
+
+    private static final ThreadLocal<Phases> CURRENT = new ThreadLocal<>();
+    private static final CloseableHttpClient CLIENT = createClient();
+
+    private LinkTimingProbe() {
+    }
+
+    /**
+     * Fetches the URI once and records the DNS, connect, TLS, time-to-first-byte and download phases.
+     * Phases that did not happen, e.g. TLS for http or DNS for a numeric host, are 0.
+     *
+     * @param uri The absolute http(s) URI to fetch.
+     * @return The timed hop.
+     * @throws SocketTimeoutException If connecting or reading exceeds the timeout.
+     * @throws IOException If the request fails.
+     */
+    public static Hop fetch(URI uri) throws IOException {
+        String scheme = uri.getScheme() == null ? "" : uri.getScheme().toLowerCase();
+        if (!scheme.equals("http") && !scheme.equals("https")) {
+            throw new IOException("Unsupported URL scheme: " + uri);
+        }
+        HttpGet request = new HttpGet(uri);
+        Phases phases = new Phases();
+        CURRENT.set(phases);
+        long start = System.nanoTime();
+        try (ClassicHttpResponse response = CLIENT.executeOpen(null, request, null)) {
+            long firstByte = System.nanoTime();
+            Header location = response.getFirstHeader("Location");
+            read(response.getEntity(), request);
+            long done = System.nanoTime();
+
+            long tls = phases.tlsEnd - phases.tlsStart;
+            long connect = phases.connectEnd - phases.connectStart;
+            if (phases.tlsStart >= phases.connectStart && phases.tlsEnd <= phases.connectEnd) {
+                connect -= tls; // the TLS factory handshakes inside its connect
+            }
+            long requestSent = Math.max(start, Math.max(phases.connectEnd, phases.tlsEnd));
+            return new Hop(uri, response.getCode(), location == null ? null : location.getValue(),
+                    phases.dnsEnd - phases.dnsStart, connect, tls, firstByte - requestSent, done - firstByte);
+        } catch (ConnectTimeoutException e) {
+            SocketTimeoutException timeout = new SocketTimeoutException(e.getMessage());
+            timeout.initCause(e);
+            throw timeout;
+        } finally {
+            CURRENT.remove();
+        }
+    }
+
+    private static void read(HttpEntity entity, HttpGet request) throws IOException {
+        if (entity == null) {
+            return;
+        }
+        try (InputStream in = entity.getContent()) {
+            byte[] buffer = new byte[8192];
+            long total = 0;
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                total += read;
+                if (total >= MAX_BODY_BYTES) {
+                    // Closing the stream would read the rest of the body to keep the connection; aborting drops it
+                    request.cancel();
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            if (!request.isCancelled()) {
+                throw e;
+            }
+        }
+    }
+
+    private static CloseableHttpClient createClient() {
+        DnsResolver dns = new DnsResolver() {
+            @Override
+            public InetAddress[] resolve(String host) throws UnknownHostException {
+                Phases phases = CURRENT.get();
+                long start = System.nanoTime();
+                try {
+                    return SystemDefaultDnsResolver.INSTANCE.resolve(host);
+                } finally {
+                    if (phases != null) {
+                        phases.dnsStart = start;
+                        phases.dnsEnd = System.nanoTime();
+                    }
+                }
+            }
+
+            @Override
+            public String resolveCanonicalHostname(String host) throws UnknownHostException {
+                return SystemDefaultDnsResolver.INSTANCE.resolveCanonicalHostname(host);
+            }
+        };
+
+        PlainConnectionSocketFactory plain = new PlainConnectionSocketFactory() {
+            @Override
+            public Socket connectSocket(TimeValue connectTimeout, Socket socket, HttpHost host, InetSocketAddress remoteAddress,
+                                        InetSocketAddress localAddress, HttpContext context) throws IOException {
+                long start = System.nanoTime();
+                try {
+                    return super.connectSocket(connectTimeout, socket, host, remoteAddress, localAddress, context);
+                } finally {
+                    connected(start);
+                }
+            }
+        };
+
+        SSLConnectionSocketFactory tls = new SSLConnectionSocketFactory(SSLContexts.createSystemDefault()) {
+            @Override
+            public Socket connectSocket(Socket socket, HttpHost host, InetSocketAddress remoteAddress, InetSocketAddress localAddress,
+                                        Timeout connectTimeout, Object attachment, HttpContext context) throws IOException {
+                long start = System.nanoTime();
+                try {
+                    return super.connectSocket(socket, host, remoteAddress, localAddress, connectTimeout, attachment, context);
+                } finally {
+                    connected(start);
+                }
+            }
+
+            @Override
+            public Socket createLayeredSocket(Socket socket, String target, int port, Object attachment, HttpContext context)
+                    throws IOException {
+                Phases phases = CURRENT.get();
+                long start = System.nanoTime();
+                try {
+                    return super.createLayeredSocket(socket, target, port, attachment, context);
+                } finally {
+                    if (phases != null) {
+                        phases.tlsStart = start;
+                        phases.tlsEnd = System.nanoTime();
+                    }
+                }
+            }
+        };
+
+        PoolingHttpClientConnectionManager connections = new PoolingHttpClientConnectionManager(
+                RegistryBuilder.<ConnectionSocketFactory>create().register("http", plain).register("https", tls).build(),
+                PoolConcurrencyPolicy.STRICT, PoolReusePolicy.LIFO, TimeValue.NEG_ONE_MILLISECOND, null, dns, null);
+        connections.setMaxTotal(50);
+        connections.setDefaultMaxPerRoute(10);
+        connections.setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(CONNECT_TIMEOUT_MS))
+                .setSocketTimeout(Timeout.ofMilliseconds(RESPONSE_TIMEOUT_MS))
+                .build());
+        return HttpClients.custom()
+                .useSystemProperties()
+                .setConnectionManager(connections)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setResponseTimeout(Timeout.ofMilliseconds(RESPONSE_TIMEOUT_MS))
+                        .build())
+                .setConnectionReuseStrategy((request, response, context) -> false)
+                .disableRedirectHandling()
+                .disableAutomaticRetries()
+                .disableContentCompression()
+                .disableCookieManagement()
+                .setUserAgent("automation-link-checker")
+                .build();
+    }
+
+    private static void connected(long start) {
+        Phases phases = CURRENT.get();
+        if (phases != null) {
+            phases.connectStart = start;
+            phases.connectEnd = System.nanoTime();
+        }
+    }
+}
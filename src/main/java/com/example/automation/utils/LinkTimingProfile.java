@@ -0,0 +1,40 @@
+package com.example.automation.utils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Collects link timings and summarises them per host as percentiles.
+ */
+public class LinkTimingProfile {
+
+    private final Map<String, List<LinkTiming>> timingsByHost = new TreeMap<>();
+
+    /**
+     * Records a link timing.
+     *
+     * @param timing The timing to record.
+     */
+    public synchronized void record(LinkTiming timing) {
+        timingsByHost.computeIfAbsent(timing.host(), host -> new ArrayList<>()).add(timing);
+    }
+
+    /**
+     * Builds the per-host percentile summary of total time and time-to-first-byte.
+     *
+     * @return Map of host to summary line, ordered by host.
+     */
+    public synchronized Map<String, String> getHostSummary() {
+        Map<String, String> summary = new LinkedHashMap<>();
+        timingsByHost.forEach((host, timings) -> {
+            long[] totals = timings.stream().mapToLong(LinkTiming::totalMs).toArray();
+            long[] ttfbs = timings.stream().mapToLong(LinkTiming::ttfbMs).toArray();
+            summary.put(host, String.format("%d links | total %s | ttfb %s",
+                    timings.size(), Percentiles.summarize(totals), Percentiles.summarize(ttfbs)));
+        });
+        return summary;
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.automation.utils;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An email received by the {@link SmtpSink}.
+ *
+ * @param from       Envelope sender.
+ * @param recipients Envelope recipients, lower-cased.
+ * @param subject    Decoded subject.
+ * @param text       Decoded text of all text parts, with HTML markup removed.
+ * @param raw        The message as received.
+ * @param receivedAt Time the message was accepted.
+ */
+public record MailMessage(String from, List<String> recipients, String subject, String text, String raw, Instant receivedAt) {
+
+    private static final Pattern ENCODED_WORD = Pattern.compile("=\\?([^?]+)\\?([BbQq])\\?([^?]*)\\?=");
+    private static final Pattern BOUNDARY = Pattern.compile("boundary=\"?([^\";]+)\"?", Pattern.CASE_INSENSITIVE);
+    private static final Pattern CHARSET = Pattern.compile("charset=\"?([^\";]+)\"?", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * Parses a message received over SMTP.
+     *
+     * @param from       Envelope sender.
+     * @param recipients Envelope recipients.
+     * @param raw        The DATA section, dot-unstuffed.
+     * @return The parsed message.
+     */
+    public static MailMessage parse(String from, List<String> recipients, String raw) {
+        Map<String, String> headers = parseHeaders(raw);
+        return new MailMessage(from, recipients.stream().map(r -> r.toLowerCase(Locale.ROOT)).toList(),
+                decodeHeader(headers.getOrDefault("subject", "")), extractText(raw), raw, Instant.now());
+    }
+
+    /**
+     * Finds the first group of the pattern in the subject or text.
+     *
+     * @param pattern A pattern with one capturing group, e.g. a 6-digit code.
+     * @return The match, or null if there is none.
+     */
+    public String findCode(Pattern pattern) {
+        for (String source : new String[]{subject, text}) {
+            Matcher matcher = pattern.matcher(source);
+            if (matcher.find()) {
+                return matcher.groupCount() > 0 ? matcher.group(1) : matcher.group();
+            }
+        }
+        return null;
+    }
+
+    private static Map<String, String> parseHeaders(String part) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        String lastName = null;
+        for (String line : headerSection(part).split("\r?\n")) {
+            if ((line.startsWith(" ") || line.startsWith("\t")) && lastName != null) {
+                headers.merge(lastName, " " + line.trim(), String::concat);
+            } else if (line.indexOf(':') > 0) {
+                lastName = line.substring(0, line.indexOf(':')).trim().toLowerCase(Locale.ROOT);
+                headers.put(lastName, line.substring(line.indexOf(':') + 1).trim());
+            }
+        }
+        return headers;
+    }
+
+    private static String headerSection(String part) {
+        int end = bodyStart(part);
+        return end < 0 ? part : part.substring(0, end);
+    }
+
+    private static int bodyStart(String part) {
+        int crlf = part.indexOf("\r\n\r\n");
+        int lf = part.indexOf("\n\n");
+        if (crlf >= 0 && (lf < 0 || crlf < lf)) {
+            return crlf;
+        }
+        return lf;
+    }
+
+    private static String body(String part) {
+        int start = bodyStart(part);
+        if (start < 0) {
+            return "";
+        }
+        return part.substring(start).replaceFirst("^\r?\n\r?\n", "");
+    }
+
+    /**
+     * Decodes the text parts of a (possibly multipart) message into plain text.
+     */
+    private static String extractText(String part) {
+        Map<String, String> headers = parseHeaders(part);
+        String contentType = headers.getOrDefault("content-type", "text/plain").toLowerCase(Locale.ROOT);
+
+        if (contentType.startsWith("multipart/")) {
+            Matcher boundary = BOUNDARY.matcher(headers.get("content-type"));
+            if (!boundary.find()) {
+                return body(part);
+            }
+            StringBuilder text = new StringBuilder();
+            String delimiter = "--" + boundary.group(1);
+            String[] sections = body(part).split(Pattern.quote(delimiter));
+            for (int i = 1; i < sections.length; i++) {
+                if (sections[i].startsWith("--")) {
+                    break;
+                }
+                text.append(extractText(sections[i].replaceFirst("^\r?\n", ""))).append('\n');
+            }
+            return text.toString().trim();
+        }
+        if (!contentType.startsWith("text/")) {
+            return "";
+        }
+
+        Matcher charsetMatcher = CHARSET.matcher(contentType);
+        Charset charset = charsetMatcher.find() ? Charset.forName(charsetMatcher.group(1)) : StandardCharsets.UTF_8;
+        String encoding = headers.getOrDefault("content-transfer-encoding", "7bit").toLowerCase(Locale.ROOT);
+        String text = switch (encoding) {
+            case "base64" -> new String(Base64.getMimeDecoder().decode(body(part)), charset);
+            case "quoted-printable" -> decodeQuotedPrintable(body(part), charset);
+            default -> body(part);
+        };
+        if (contentType.startsWith("text/html")) {
+            text = text.replaceAll("(?is)<(style|script)[^>]*>.*?</\\1>", " ")
+                    .replaceAll("<[^>]+>", " ")
+                    .replace("&nbsp;", " ");
+        }
+        return text.trim();
+    }
+
+    private static String decodeQuotedPrintable(String text, Charset charset) {
+        String joined = text.replaceAll("=\r?\n", "");
+        byte[] out = new byte[joined.length()];
+        int length = 0;
+        for (int i = 0; i < joined.length(); i++) {
+            char c = joined.charAt(i);
+            if (c == '=' && i + 2 < joined.length() && isHex(joined.charAt(i + 1)) && isHex(joined.charAt(i + 2))) {
+                out[length++] = (byte) Integer.parseInt(joined.substring(i + 1, i + 3), 16);
+                i += 2;
+            } else {
+                out[length++] = (byte) c;
+            }
+        }
+        return new String(out, 0, length, charset);
+    }
+
+    private static boolean isHex(char c) {
+        return Character.digit(c, 16) >= 0;
+    }
+
+    private static String decodeHeader(String value) {
+        Matcher matcher = ENCODED_WORD.matcher(value);
+        StringBuilder decoded = new StringBuilder();
+        while (matcher.find()) {
+            Charset charset = Charset.forName(matcher.group(1));
+            String word = matcher.group(2).equalsIgnoreCase("B")
+                    ? new String(Base64.getDecoder().decode(matcher.group(3)), charset)
+                    : decodeQuotedPrintable(matcher.group(3).replace('_', ' '), charset);
+            matcher.appendReplacement(decoded, Matcher.quoteReplacement(word));
+        }
+        matcher.appendTail(decoded);
+        return decoded.toString();
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.automation.utils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
+
+/**
+ * Messages received by the {@link SmtpSink}, per recipient address.
+ * Waiting for a message blocks until a delivery wakes the waiter; nothing polls.
+ */
+public class Mailbox {
+
+    private final Map<String, List<MailMessage>> messages = new HashMap<>();
+
+    /**
+     * Stores a message for each of its recipients and wakes up waiting callers.
+     *
+     * @param message The received message.
+     */
+    public synchronized void deliver(MailMessage message) {
+        for (String recipient : message.recipients()) {
+            messages.computeIfAbsent(recipient, r -> new ArrayList<>()).add(message);
+        }
+        notifyAll();
+    }
+
+    /**
+     * Returns the messages received for an address, oldest first.
+     *
+     * @param address The recipient address.
+     * @return A copy of the messages.
+     */
+    public synchronized List<MailMessage> getMessages(String address) {
+        return List.copyOf(messages.getOrDefault(normalise(address), List.of()));
+    }
+
+    /**
+     * Removes the messages received for an address.
+     *
+     * @param address The recipient address.
+     */
+    public synchronized void clear(String address) {
+        messages.remove(normalise(address));
+    }
+
+    /**
+     * Waits for a message to the address and takes it, together with any older messages to the address.
+     *
+     * @param address The recipient address.
+     * @param timeout How long to wait.
+     * @return The newest message to the address.
+     * @throws TimeoutException If no message arrives in time.
+     */
+    public synchronized MailMessage takeLatest(String address, Duration timeout) throws InterruptedException, TimeoutException {
+        String key = normalise(address);
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (messages.getOrDefault(key, List.of()).isEmpty()) {
+            long remainingMillis = (deadline - System.nanoTime()) / 1_000_000;
+            if (remainingMillis <= 0) {
+                throw new TimeoutException("No email to " + address + " within " + timeout.toSeconds() + " s");
+            }
+            wait(remainingMillis);
+        }
+        List<MailMessage> received = messages.remove(key);
+        return received.get(received.size() - 1);
+    }
+
+    /**
+     * Waits for a message to the address and extracts the code matching mail.otpPattern from it.
+     *
+     * @param address The recipient address.
+     * @param timeout How long to wait.
+     * @return The code.
+     * @throws TimeoutException If no message arrives in time.
+     */
+    public String takeOtp(String address, Duration timeout) throws InterruptedException, TimeoutException {
+        Pattern pattern = Pattern.compile(PropertiesLoader.getProperty("mail.otpPattern", "\\b(\\d{6})\\b"));
+        MailMessage message = takeLatest(address, timeout);
+        String code = message.findCode(pattern);
+        if (code == null) {
+            throw new IllegalStateException("Email '" + message.subject() + "' to " + address + " contains no code matching " + pattern);
+        }
+        return code;
+    }
+
+    private static String normalise(String address) {
+        return address.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,40 +1,44 @@
 package com.example.automation.utils;
 
-import de.taimos.totp.TOTP;
-import org.apache.commons.codec.binary.Base32;
-import org.apache.commons.codec.binary.Hex;
-
-import java.util.Map;
+import com.example.automation.config.Config;
+import lombok.extern.slf4j.Slf4j;
 
+@Slf4j
 public class OTPUtil {
 
-    public static String generatedOTP;
+    public static final String NON_PROD_OTP = "123456";
+    // The prod user whose TOTP secret is registered, for OTP screens reached without a known email
+    public static final String DEFAULT_TOTP_USER = "copt1@yopmail.com";
 
+    /**
+     * Generates the current TOTP for the user from the secret registered for the active environment.
+     *
+     * @param username The user the OTP is for.
+     * @return The OTP, valid for at least totp.minValiditySeconds.
+     */
     public static String generateTOTPForUser(String username) {
-
-        Map<String, String> userSecretKeys = Map.of(
-//                "copt1@yopmail.com", "EVQXG63WEZKHM2L5GNVUG5DBJM5FGWBO",
-                "copt1@yopmail.com", "HZTEU5LTMFRG6PTTFQQT6ZBZHZ2FMORU"
-        );
-
-        if (userSecretKeys.containsKey(username)) {
-            System.out.println("\n PASS");
-        } else {
-            throw new IllegalArgumentException("INVALID NAME");
-        }
-        String secretKey = userSecretKeys.get(username);
-        if (secretKey == null) {
-            throw new IllegalArgumentException("No secret key found for the given username: " + username);
+        try {
+            return TotpService.generate(username);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the next TOTP window", e);
         }
+    }
 
-        Base32 base32 = new Base32();
-        byte[] bytes = base32.decode(secretKey);
-        String hexKey = Hex.encodeHexString(bytes);
-        String otp = TOTP.getOTP(hexKey);
-        System.out.println("The OTP is " + otp);
-
-        generatedOTP = otp;
-        return otp;
+    /**
+     * Returns the OTP to use for the user in the active environment: a TOTP in prod and the fixed non-prod OTP
+     * everywhere else. Both the UI OTP screen and the auth API login get their OTP here.
+     *
+     * @param username The user the OTP is for.
+     * @return The OTP.
+     */
+    public static String getOtpForEnvironment(String username) {
+        if ("prod".equals(Config.getEnvironment())) {
+            log.info("Running in PROD environment - Generating OTP for {}.", username);
+            return generateTOTPForUser(username);
+        }
+        log.info("Non-PROD environment detected, using sample OTP.");
+        return NON_PROD_OTP;
     }
 
 //    public static void main(String... a) {
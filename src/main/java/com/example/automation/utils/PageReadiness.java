@@ -0,0 +1,199 @@
+package com.example.automation.utils;
+
+import com.example.automation.drivers.NetworkActivity;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.support.ui.FluentWait;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Waits until the single-page app is ready to be used, instead of sleeping for a fixed time after a navigation.
+ * The page counts as ready once, for readiness.quietMs in a row, no request was in flight, the main thread ran no
+ * long task and the app was hydrated. In-flight requests come from the browser's {@link NetworkActivity} when it is
+ * a Chromium browser, and otherwise from the page: fetch and XHR calls it makes are counted, and its resource timing
+ * entries must stop growing. Long tasks come from a PerformanceObserver; as hydration runs on the main thread, the
+ * last long task of a hydrating app ends once it is done. The app counts as hydrated once the document is loaded and
+ * readiness.hydrationSelector matches, or, without one, once the usual app root (#root, #__next) has been rendered.
+ */
+@Slf4j
+public class PageReadiness {
+
+    /**
+     * Page readiness settings.
+     *
+     * @param enabled           Whether pages wait for the app to be ready; if not, {@link #await} returns at once.
+     * @param quietMs           How long the page has to be quiet to count as ready.
+     * @param timeoutMs         How long to wait at most.
+     * @param pollMs            How often the page is checked.
+     * @param hydrationSelector CSS selector that matches once the app is hydrated, or empty.
+     * @param ignoreUrls        Regular expression of request URLs that do not keep the page busy, or empty.
+     * @param longRequestMs     How long a request may be open before it no longer keeps the page busy.
+     */
+    public record Settings(boolean enabled, long quietMs, long timeoutMs, long pollMs, String hydrationSelector,
+                           String ignoreUrls, long longRequestMs) {
+
+        public static Settings fromProperties() {
+            return new Settings(
+                    Boolean.parseBoolean(PropertiesLoader.getOverridableProperty("readiness.enabled", "true").trim()),
+                    Long.parseLong(PropertiesLoader.getProperty("readiness.quietMs", "500").trim()),
+                    Long.parseLong(PropertiesLoader.getProperty("readiness.timeoutMs", "15000").trim()),
+                    Long.parseLong(PropertiesLoader.getProperty("readiness.pollMs", "50").trim()),
+                    PropertiesLoader.getProperty("readiness.hydrationSelector", "").trim(),
+                    PropertiesLoader.getProperty("readiness.ignoreUrls", "").trim(),
+                    Long.parseLong(PropertiesLoader.getProperty("readiness.longRequestMs", "10000").trim()));
+        }
+    }
+
+    /**
+     * The outcome of a wait.
+     *
+     * @param ready    Whether the page became ready in time.
+     * @param waitedMs How long the wait took.
+     * @param busy     What kept the page busy last ("network", "long task" or "hydration"), or null if nothing did.
+     */
+    public record Result(boolean ready, long waitedMs, String busy) {
+    }
+
+    // Installs the page's counters once per document and reports its state. The fetch/XHR counter only sees calls
+    // made after it was installed; the resource count catches the others.
+    private static final String PROBE_SCRIPT = """
+            const w = window;
+            if (!w.__automationReadiness) {
+              const r = w.__automationReadiness = { inFlight: 0, lastLongTaskEnd: -1 };
+              try {
+                new PerformanceObserver(list => {
+                  for (const e of list.getEntries()) r.lastLongTaskEnd = Math.max(r.lastLongTaskEnd, e.startTime + e.duration);
+                }).observe({ type: 'longtask', buffered: true });
+              } catch (e) {
+                // No long task support, e.g. Firefox and Safari
+              }
+              if (w.fetch) {
+                const fetch = w.fetch;
+                w.fetch = function () {
+                  r.inFlight++;
+                  return fetch.apply(this, arguments).finally(() => r.inFlight--);
+                };
+              }
+              const send = XMLHttpRequest.prototype.send;
+              XMLHttpRequest.prototype.send = function () {
+                r.inFlight++;
+                this.addEventListener('loadend', () => r.inFlight--, { once: true });
+                return send.apply(this, arguments);
+              };
+            }
+            const r = w.__automationReadiness;
+            let hydrated = document.readyState === 'complete';
+            if (hydrated && arguments[0]) {
+              hydrated = document.querySelector(arguments[0]) !== null;
+            } else if (hydrated) {
+              const root = document.querySelector('#root, #__next, [data-reactroot]');
+              hydrated = root === null || root.childElementCount > 0;
+            }
+            return {
+              hydrated: hydrated,
+              inFlight: r.inFlight,
+              sinceLongTaskMs: r.lastLongTaskEnd < 0 ? -1 : Math.max(0, performance.now() - r.lastLongTaskEnd),
+              resources: performance.getEntriesByType('resource').length
+            };""";
+
+    private PageReadiness() {
+    }
+
+    /**
+     * Waits until the page in the browser is ready, using the browser's {@link NetworkActivity} if it has one.
+     *
+     * @param driver   The browser.
+     * @param settings The readiness settings.
+     * @return Whether the page became ready, and how long it took.
+     */
+    public static Result await(WebDriver driver, Settings settings) {
+        return await(driver, NetworkActivity.of(driver), settings);
+    }
+
+    /**
+     * Waits until the page in the browser is ready. Not being ready in time is logged, not thrown: the caller's
+     * own waits still apply, and a page kept busy by e.g. a polling widget may well be usable.
+     *
+     * @param driver   The browser.
+     * @param network  The browser's request tracker, or null to count the page's own requests.
+     * @param settings The readiness settings.
+     * @return Whether the page became ready, and how long it took.
+     */
+    public static Result await(WebDriver driver, NetworkActivity network, Settings settings) {
+        if (!settings.enabled() || !(driver instanceof JavascriptExecutor js)) {
+            return new Result(true, 0, null);
+        }
+        long start = System.nanoTime();
+        long quietNanos = TimeUnit.MILLISECONDS.toNanos(settings.quietMs());
+        Watch watch = new Watch(start);
+        int span = StepTimeline.begin(StepTimeline.Kind.WAIT, "page ready", null);
+        try {
+            new FluentWait<>(js)
+                    .withTimeout(Duration.ofMillis(settings.timeoutMs()))
+                    .pollingEvery(Duration.ofMillis(settings.pollMs()))
+                    .ignoring(WebDriverException.class)
+                    .until(page -> watch.check(page.executeScript(PROBE_SCRIPT, settings.hydrationSelector()), network, quietNanos));
+        } catch (TimeoutException e) {
+            long waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            log.warn("Page not ready after {} ms, still busy with: {}", waited, watch.busy);
+            return new Result(false, waited, watch.busy);
+        } finally {
+            StepTimeline.end(span);
+        }
+        long waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.info("Page ready after {} ms", waited);
+        return new Result(true, waited, null);
+    }
+
+    // The state of one wait: since when the page has been quiet, and what last kept it busy
+    private static final class Watch {
+        private long quietSince;
+        private long resources = -1;
+        private String busy;
+
+        private Watch(long start) {
+            this.quietSince = start;
+        }
+
+        @SuppressWarnings("unchecked")
+        private boolean check(Object probe, NetworkActivity network, long quietNanos) {
+            long now = System.nanoTime();
+            Map<String, Object> page = (Map<String, Object>) probe;
+            long pageResources = number(page.get("resources"));
+            boolean requests = network != null ? network.inFlight() > 0
+                    : number(page.get("inFlight")) > 0 || (resources >= 0 && pageResources != resources);
+            resources = pageResources;
+            if (requests) {
+                busy(now, "network");
+            } else if (network != null) {
+                busy(network.lastActivityNanos(), "network");
+            }
+            long sinceLongTask = number(page.get("sinceLongTaskMs"));
+            if (sinceLongTask >= 0) {
+                busy(now - TimeUnit.MILLISECONDS.toNanos(sinceLongTask), "long task");
+            }
+            if (!Boolean.TRUE.equals(page.get("hydrated"))) {
+                busy(now, "hydration");
+            }
+            return now - quietSince >= quietNanos;
+        }
+
+        // The page was busy at the given System.nanoTime(); quiet time before it no longer counts
+        private void busy(long at, String what) {
+            if (at - quietSince > 0) {
+                quietSince = at;
+                busy = what;
+            }
+        }
+
+        private static long number(Object value) {
+            return value instanceof Number number ? number.longValue() : 0;
+        }
+    }
+}
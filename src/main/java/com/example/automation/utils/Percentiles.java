@@ -0,0 +1,39 @@
+package com.example.automation.utils;
+
+import java.util.Arrays;
+
+/**
+ * Nearest-rank percentile helpers used by the timing summaries.
+ */
+public class Percentiles {
+
+    private Percentiles() {
+    }
+
+    /**
+     * Returns the nearest-rank percentile of an already sorted array.
+     *
+     * @param sorted     Values sorted in ascending order.
+     * @param percentile Percentile between 0 and 100.
+     * @return The percentile value, or 0 when there are no values.
+     */
+    public static long of(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.min(sorted.length, Math.max(rank, 1)) - 1];
+    }
+
+    /**
+     * Formats the p50/p90/p95/max of the values, e.g. "p50=120 p90=340 p95=410 max=900".
+     *
+     * @param values The values; the array is sorted in place.
+     * @return The formatted summary.
+     */
+    public static String summarize(long[] values) {
+        Arrays.sort(values);
+        return String.format("p50=%d p90=%d p95=%d max=%d",
+                of(values, 50), of(values, 90), of(values, 95), values.length == 0 ? 0 : values[values.length - 1]);
+    }
+}
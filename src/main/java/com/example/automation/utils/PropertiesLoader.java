@@ -10,8 +10,13 @@ public class PropertiesLoader {
     private static String activeEnvironment;
 
     static {
-        // Load the default properties file first
+        // Load the default properties file first, then overlay the active profile's properties
         loadProperties(DEFAULT_PROPERTIES_FILE);
+        String env = System.getProperty("spring.profiles.active");
+        if (env != null && !env.isBlank()) {
+            activeEnvironment = env.trim().toLowerCase();
+            mergeProperties("application-" + activeEnvironment + ".properties");
+        }
     }
 
     /**
@@ -30,6 +35,19 @@ public class PropertiesLoader {
         }
     }
 
+    /**
+     * Overlay properties from a file on the classpath onto the loaded ones, if the file exists.
+     */
+    private static void mergeProperties(String fileName) {
+        try (InputStream input = PropertiesLoader.class.getClassLoader().getResourceAsStream(fileName)) {
+            if (input != null) {
+                properties.load(input);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load properties from " + fileName, e);
+        }
+    }
+
     /**
      * Set the active environment (e.g., "qa", "prod").
      * Automatically loads environment-specific properties if they exist.
@@ -61,4 +79,11 @@ public class PropertiesLoader {
     public static String getProperty(String key, String defaultValue) {
         return properties.getProperty(key, defaultValue);
     }
+
+    /**
+     * Get a property that can be overridden per run with a -D system property, e.g. -Dtest.threads=8.
+     */
+    public static String getOverridableProperty(String key, String defaultValue) {
+        return System.getProperty(key, properties.getProperty(key, defaultValue));
+    }
 }
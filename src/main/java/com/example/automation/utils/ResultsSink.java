@@ -0,0 +1,259 @@
+package com.example.automation.utils;
+
+import com.example.automation.config.Config;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Machine-readable test results, written next to the Extent report as JSON Lines: one record per event in
+ * report.dir/results.jsonl. Every fork writes its own report dir, so the file is per fork; ResultsMerger combines
+ * the files of several forks and shards into one summary. Writes are buffered and flushed when the run ends.
+ * Step timings and artifact paths are collected per thread for the test running on it.
+ */
+@Slf4j
+public class ResultsSink implements AutoCloseable {
+
+    public static final String RESULTS_FILE = "results.jsonl";
+
+    /**
+     * A timed step of a test.
+     *
+     * @param name   Step name, e.g. "ui.consent".
+     * @param millis Step duration.
+     */
+    public record Step(String name, long millis) {
+    }
+
+    /**
+     * One line of the results file. Run records carry the run totals, test records the test's outcome.
+     *
+     * @param event      "run-start", "test" or "run-end".
+     * @param runId      Id shared by all forks of a run (run.id).
+     * @param fork       The fork that wrote the record, e.g. "shard-2".
+     * @param env        Active environment.
+     * @param timestamp  When the event happened (test: when it started).
+     * @param suite      TestNG suite of a test.
+     * @param test       Qualified test method name.
+     * @param parameters Data provider row of a test, if any.
+     * @param status     PASS, FAIL, SKIP or RETRY (a failed attempt that was retried).
+     * @param durationMs Test duration, or run duration for run-end.
+     * @param attempt    1 for the first run of a test, 2 for its first retry and so on.
+     * @param steps      Timed steps of a test.
+     * @param artifacts  Screenshots and other files of a test.
+     * @param error      Failure of a test.
+     * @param host       Host of the fork.
+     * @param statuses   Number of tests per status, for run-end.
+     */
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    public record Record(String event, String runId, String fork, String env, String timestamp, String suite,
+                         String test, List<String> parameters, String status, Long durationMs, Integer attempt,
+                         List<Step> steps, List<String> artifacts, String error, String host, Map<String, Integer> statuses) {
+    }
+
+    /**
+     * Steps and artifacts recorded on a thread for the test running on it. Artifacts written in the background
+     * complete with their path once written.
+     */
+    public record TestData(List<Step> steps, List<CompletableFuture<String>> artifacts) {
+
+        /**
+         * Completes with the paths of the artifacts once all of them are written, leaving out any that failed.
+         */
+        public CompletableFuture<List<String>> artifactPaths() {
+            List<CompletableFuture<String>> paths = artifacts.stream().map(artifact -> artifact.exceptionally(error -> null)).toList();
+            return CompletableFuture.allOf(paths.toArray(CompletableFuture[]::new))
+                    .thenApply(done -> paths.stream().map(CompletableFuture::join).filter(Objects::nonNull).toList());
+        }
+    }
+
+    private static final ThreadLocal<TestData> PENDING = new ThreadLocal<>();
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static volatile ResultsSink shared;
+
+    private final BufferedWriter writer;
+    @Getter
+    private final String runId;
+    @Getter
+    private final String fork;
+    @Getter
+    private final String env;
+    private final long startNanos = System.nanoTime();
+    private final Map<String, Integer> statuses = new TreeMap<>();
+    private boolean closed;
+
+    /**
+     * Constructor for ResultsSink. Truncates the file and writes the run-start record.
+     *
+     * @param file  The JSONL file of this fork.
+     * @param runId Id of the run.
+     * @param fork  Name of this fork.
+     * @param env   Active environment.
+     */
+    public ResultsSink(Path file, String runId, String fork, String env) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        this.writer = new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8), 64 * 1024);
+        this.runId = runId;
+        this.fork = fork;
+        this.env = env;
+        write(new Record("run-start", runId, fork, env, Instant.now().toString(), null, null, null, null, null, null,
+                null, null, null, hostName(), null));
+    }
+
+    /**
+     * Returns the sink of this fork, opening report.dir/results.jsonl the first time. It is closed by
+     * {@link #closeShared()} or, failing that, when the JVM exits.
+     */
+    public static ResultsSink shared() {
+        if (shared == null) {
+            synchronized (ResultsSink.class) {
+                if (shared == null) {
+                    String runId = PropertiesLoader.getOverridableProperty("run.id", "").trim();
+                    int shardCount = Integer.parseInt(PropertiesLoader.getOverridableProperty("shard.count", "1").trim());
+                    String fork = shardCount > 1
+                            ? "shard-" + PropertiesLoader.getOverridableProperty("shard.index", "0").trim()
+                            : "fork-" + ProcessHandle.current().pid();
+                    String env = Config.getEnvironment("qa");
+                    try {
+                        shared = new ResultsSink(ExtentReportManager.getReportDir().resolve(RESULTS_FILE),
+                                runId.isEmpty() ? UniqueIdGenerator.next() : runId, fork, env);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Failed to open the results file", e);
+                    }
+                    Runtime.getRuntime().addShutdownHook(new Thread(ResultsSink::closeShared, "results-sink-close"));
+                }
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Writes the run-end record of this fork and flushes the results file.
+     */
+    public static void closeShared() {
+        if (shared != null) {
+            shared.close();
+        }
+    }
+
+    /**
+     * Records a timed step of the test running on the current thread.
+     *
+     * @param name         Step name.
+     * @param elapsedNanos Step duration.
+     */
+    public static void recordStep(String name, long elapsedNanos) {
+        pending().steps().add(new Step(name, TimeUnit.NANOSECONDS.toMillis(elapsedNanos)));
+    }
+
+    /**
+     * Records a file produced by the test running on the current thread, e.g. a screenshot.
+     *
+     * @param path Path of the file.
+     */
+    public static void recordArtifact(String path) {
+        recordArtifact(CompletableFuture.completedFuture(path));
+    }
+
+    /**
+     * Records a file the test running on the current thread is writing in the background.
+     *
+     * @param path Completes with the path of the file once it is written.
+     */
+    public static void recordArtifact(CompletableFuture<String> path) {
+        pending().artifacts().add(path);
+    }
+
+    /**
+     * Takes the steps and artifacts recorded on the current thread since the last call.
+     */
+    public static TestData takeTestData() {
+        TestData pending = PENDING.get();
+        PENDING.remove();
+        return pending == null ? new TestData(List.of(), List.of()) : pending;
+    }
+
+    /**
+     * Forgets the steps and artifacts recorded on the current thread, e.g. those of a teardown.
+     */
+    public static void discardPending() {
+        PENDING.remove();
+    }
+
+    /**
+     * Appends the record of a finished test.
+     *
+     * @param record The record; its event should be "test".
+     */
+    public void writeTest(Record record) {
+        synchronized (this) {
+            statuses.merge(record.status(), 1, Integer::sum);
+        }
+        write(record);
+    }
+
+    /**
+     * Writes the run-end record and flushes the file. Later calls do nothing.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        write(new Record("run-end", runId, fork, env, Instant.now().toString(), null, null, null, null,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos), null, null, null, null, null, new TreeMap<>(statuses)));
+        closed = true;
+        try {
+            writer.close();
+        } catch (IOException e) {
+            log.warn("Failed to close the results file: {}", e.getMessage());
+        }
+    }
+
+    private synchronized void write(Record record) {
+        if (closed) {
+            log.warn("Results file is closed, dropping the {} record of {}", record.event(), record.test());
+            return;
+        }
+        try {
+            writer.write(MAPPER.writeValueAsString(record));
+            writer.newLine();
+        } catch (IOException e) {
+            log.warn("Failed to write a results record: {}", e.getMessage());
+        }
+    }
+
+    private static TestData pending() {
+        TestData pending = PENDING.get();
+        if (pending == null) {
+            pending = new TestData(new ArrayList<>(), new ArrayList<>());
+            PENDING.set(pending);
+        }
+        return pending;
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "unknown";
+        }
+    }
+}
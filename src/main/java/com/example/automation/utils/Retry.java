@@ -14,6 +14,7 @@ public class Retry {
         Exception lastError = null;
 
         while (attempt <= maxRetries) {
+            int span = StepTimeline.begin(StepTimeline.Kind.RETRY, operationName, null);
             try {
                 log.info("Attempt {} of {} for {}", attempt + 1, maxRetries, operationName);
                 operation.call();
@@ -21,12 +22,13 @@ public class Retry {
             } catch (Exception e) {
                 lastError = e;
                 log.warn("Attempt {} failed: {}", attempt + 1, e.getMessage());
-
-                if (attempt < maxRetries) {
-                    Thread.sleep(retryDelayMs);
-                }
-                attempt++;
+            } finally {
+                StepTimeline.end(span);
+            }
+            if (attempt < maxRetries) {
+                Sleeper.sleep(retryDelayMs, "retry delay");
             }
+            attempt++;
         }
         throw new Exception("Operation '" + operationName + "' failed after " + maxRetries + " attempts", lastError);
     }
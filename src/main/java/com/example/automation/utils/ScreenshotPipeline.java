@@ -0,0 +1,340 @@
+package com.example.automation.utils;
+
+import com.aventstack.extentreports.ExtentTest;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Stores screenshots off the test thread. The test thread only grabs the browser's PNG bytes; a bounded pool
+ * encodes them (JPEG by default, unless the PNG is smaller), writes them to a content-addressed store named by the SHA-256 of the PNG, so
+ * identical screenshots are stored once, and then attaches them to the report. When the queue is full the test
+ * thread encodes its screenshot itself, which bounds the memory held by queued screenshots.
+ * Stored files not used for the retention period are pruned when the pipeline starts; other files in the directory,
+ * such as failure screenshots, are left alone.
+ */
+@Slf4j
+public class ScreenshotPipeline {
+
+    // A stored file relative to the store directory: the first two hex digits of the hash, then the hash
+    private static final Pattern STORED_FILE = Pattern.compile("[0-9a-f]{2}/[0-9a-f]{64}\\.(jpg|png|webp)");
+
+    private static volatile ScreenshotPipeline shared;
+
+    private final Path storeDir;
+    private final String format;
+    private final float quality;
+    private final ThreadPoolExecutor executor;
+    private final Map<ExtentTest, CompletableFuture<Void>> pendingByTest = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Path>> storing = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final LongAdder captured = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+    private final LongAdder capturedBytes = new LongAdder();
+    private final LongAdder storedBytes = new LongAdder();
+
+    /**
+     * Constructor for ScreenshotPipeline.
+     *
+     * @param storeDir  Directory of the content-addressed store.
+     * @param format    "jpg" to re-encode screenshots where that makes them smaller, or "png" to keep the browser's bytes.
+     * @param quality   JPEG quality, 0 to 1.
+     * @param threads   Number of encoder threads.
+     * @param queueSize How many screenshots may wait for an encoder.
+     * @param retention How long unused screenshots are kept.
+     */
+    public ScreenshotPipeline(Path storeDir, String format, float quality, int threads, int queueSize, Duration retention) {
+        this.storeDir = storeDir;
+        this.format = format.trim().toLowerCase(Locale.ROOT).replace("jpeg", "jpg");
+        if (!this.format.equals("jpg") && !this.format.equals("png")) {
+            throw new IllegalArgumentException("Unsupported screenshot format: " + format);
+        }
+        this.quality = quality;
+        AtomicInteger threadIds = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueSize),
+                task -> {
+                    Thread thread = new Thread(task, "screenshot-" + threadIds.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        run(() -> prune(retention));
+    }
+
+    /**
+     * Returns the pipeline shared by the run, configured by the screenshots.* properties.
+     */
+    public static ScreenshotPipeline shared() {
+        if (shared == null) {
+            synchronized (ScreenshotPipeline.class) {
+                if (shared == null) {
+                    shared = new ScreenshotPipeline(
+                            Path.of(PropertiesLoader.getProperty("screenshots.dir", "report/screenshots").trim()),
+                            PropertiesLoader.getProperty("screenshots.format", "jpg"),
+                            Float.parseFloat(PropertiesLoader.getProperty("screenshots.quality", "0.8").trim()),
+                            Integer.parseInt(PropertiesLoader.getProperty("screenshots.threads", "2").trim()),
+                            Integer.parseInt(PropertiesLoader.getProperty("screenshots.queueSize", "16").trim()),
+                            Duration.ofDays(Long.parseLong(PropertiesLoader.getProperty("screenshots.retentionDays", "7").trim())));
+                }
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Waits for the screenshots of the shared pipeline, if it was started, to be stored and attached.
+     */
+    public static void drainShared() {
+        if (shared != null) {
+            shared.drain(Duration.ofMinutes(2));
+        }
+    }
+
+    /**
+     * Returns a future completed once every screenshot submitted for the test is attached to it.
+     *
+     * @param test The report entry of a test.
+     * @return The future, or null if no screenshot of the test is pending.
+     */
+    public static CompletableFuture<Void> pendingFor(ExtentTest test) {
+        return shared == null ? null : shared.pendingByTest.get(test);
+    }
+
+    /**
+     * Stores a screenshot and attaches it to the report in the background.
+     *
+     * @param png  The browser's screenshot; PNG, or JPEG / WebP which are stored as they are.
+     * @param test Report entry the screenshot is attached to.
+     * @param name Name of the screenshot in the report, e.g. the test name.
+     * @return The stored file, once it is stored and attached.
+     */
+    public CompletableFuture<Path> submit(byte[] png, ExtentTest test, String name) {
+        captured.increment();
+        capturedBytes.add(png.length);
+        CompletableFuture<Path> stored = new CompletableFuture<>();
+        CompletableFuture<Void> attached = stored.handle((path, error) -> null);
+        CompletableFuture<Void> current = pendingByTest.merge(test, attached, (previous, next) -> CompletableFuture.allOf(previous, next));
+        current.whenComplete((result, error) -> pendingByTest.remove(test, current));
+        run(() -> {
+            try {
+                Path path = store(png);
+                test.info("Screenshot captured: " + name + " (" + path.toAbsolutePath() + ")");
+                test.addScreenCaptureFromPath(path.toString());
+                stored.complete(path);
+            } catch (Exception e) {
+                test.warning("Failed to store screenshot " + name + ": " + e.getMessage());
+                log.error("Failed to store screenshot {}", name, e);
+                stored.completeExceptionally(e);
+            }
+        });
+        return stored;
+    }
+
+    /**
+     * Waits until every submitted screenshot is stored and attached.
+     *
+     * @param timeout How long to wait.
+     */
+    public void drain(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (inFlight) {
+            while (inFlight.get() > 0) {
+                long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMillis <= 0) {
+                    log.warn("{} screenshot(s) still pending after {} s", inFlight.get(), timeout.toSeconds());
+                    return;
+                }
+                try {
+                    inFlight.wait(remainingMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+        if (captured.sum() > 0) {
+            log.info(getSummary());
+        }
+    }
+
+    /**
+     * Summarises captured screenshots, de-duplication and the size saved by re-encoding.
+     */
+    public String getSummary() {
+        return String.format("Screenshots: %d taken, %d de-duplicated, %d KB captured, %d KB stored",
+                captured.sum(), deduplicated.sum(), capturedBytes.sum() / 1024, storedBytes.sum() / 1024);
+    }
+
+    // Counts the task until it returns, by which time whatever waits on its result (finishing the test's report
+    // entry, writing its results record) has run as well
+    private void run(Runnable task) {
+        inFlight.incrementAndGet();
+        executor.execute(() -> {
+            try {
+                task.run();
+            } finally {
+                if (inFlight.decrementAndGet() == 0) {
+                    synchronized (inFlight) {
+                        inFlight.notifyAll();
+                    }
+                }
+            }
+        });
+    }
+
+    private Path store(byte[] png) {
+        String hash;
+        try {
+            hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(png));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        // The same image captured twice at once is encoded by whichever encoder got it first
+        CompletableFuture<Path> mine = new CompletableFuture<>();
+        CompletableFuture<Path> other = storing.putIfAbsent(hash, mine);
+        if (other != null) {
+            deduplicated.increment();
+            return other.join();
+        }
+        try {
+            Path file = storeOnce(hash, png);
+            mine.complete(file);
+            return file;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            storing.remove(hash);
+        }
+    }
+
+    private Path storeOnce(String hash, byte[] png) {
+        try {
+            Path dir = storeDir.resolve(hash.substring(0, 2));
+            for (String extension : List.of("jpg", "png", "webp")) {
+                Path existing = dir.resolve(hash + "." + extension);
+                if (Files.exists(existing)) {
+                    // Keep screenshots still in use from being pruned
+                    Files.setLastModifiedTime(existing, FileTime.from(Instant.now()));
+                    deduplicated.increment();
+                    return existing;
+                }
+            }
+            byte[] encoded = png;
+            String extension = extensionOf(png);
+            if (format.equals("jpg") && extension.equals("png")) {
+                // Flat pages with little colour can be smaller as PNG; keep whichever is smaller
+                byte[] jpeg = encodeJpeg(png);
+                if (jpeg.length < png.length) {
+                    encoded = jpeg;
+                    extension = "jpg";
+                }
+            }
+            Path file = dir.resolve(hash + "." + extension);
+            Files.createDirectories(dir);
+            Path temp = Files.createTempFile(dir, hash, ".tmp");
+            Files.write(temp, encoded);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            storedBytes.add(encoded.length);
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Step screenshots may arrive from the browser already as JPEG or WebP; those are stored as they are
+    private static String extensionOf(byte[] image) {
+        if (image.length > 3 && (image[0] & 0xFF) == 0xFF && (image[1] & 0xFF) == 0xD8) {
+            return "jpg";
+        }
+        if (image.length > 12 && new String(image, 8, 4, StandardCharsets.US_ASCII).equals("WEBP")) {
+            return "webp";
+        }
+        return "png";
+    }
+
+    private byte[] encodeJpeg(byte[] png) throws IOException {
+        BufferedImage source = ImageIO.read(new ByteArrayInputStream(png));
+        if (source == null) {
+            throw new IOException("Screenshot is not a readable image");
+        }
+        // JPEG has no alpha channel
+        BufferedImage rgb = new BufferedImage(source.getWidth(), source.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = rgb.createGraphics();
+        graphics.drawImage(source, 0, 0, Color.WHITE, null);
+        graphics.dispose();
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(png.length / 4);
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.setOutput(stream);
+            writer.write(null, new IIOImage(rgb, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private void prune(Duration retention) {
+        if (!Files.isDirectory(storeDir)) {
+            return;
+        }
+        Instant cutoff = Instant.now().minus(retention);
+        int pruned = 0;
+        try (Stream<Path> files = Files.walk(storeDir, 2)) {
+            for (Path file : files.filter(this::isStored).toList()) {
+                if (Files.getLastModifiedTime(file).toInstant().isBefore(cutoff)) {
+                    Files.deleteIfExists(file);
+                    pruned++;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to prune old screenshots in {}: {}", storeDir, e.getMessage());
+        }
+        if (pruned > 0) {
+            log.info("Pruned {} screenshot(s) unused for more than {} day(s)", pruned, retention.toDays());
+        }
+    }
+
+    private boolean isStored(Path file) {
+        String relative = storeDir.relativize(file).toString().replace('\\', '/');
+        return STORED_FILE.matcher(relative).matches() && Files.isRegularFile(file);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.automation.utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Run-wide duration samples for test setup phases, used to report how much setup time a shortcut saved.
+ */
+public class SetupTimeStats {
+
+    private record Samples(LongAdder count, LongAdder totalNanos) {
+    }
+
+    private static final Map<String, Samples> SAMPLES = new ConcurrentHashMap<>();
+
+    private SetupTimeStats() {
+    }
+
+    /**
+     * Records how long a setup phase took, also as a step of the test running on the current thread.
+     *
+     * @param phase       The phase name, e.g. "ui.consent".
+     * @param elapsedNanos The phase duration.
+     */
+    public static void record(String phase, long elapsedNanos) {
+        Samples samples = SAMPLES.computeIfAbsent(phase, p -> new Samples(new LongAdder(), new LongAdder()));
+        samples.count().increment();
+        samples.totalNanos().add(elapsedNanos);
+        ResultsSink.recordStep(phase, elapsedNanos);
+    }
+
+    /**
+     * Returns the average duration of a phase in this run.
+     *
+     * @param phase The phase name.
+     * @return Average duration in milliseconds, or -1 if the phase has not been measured yet.
+     */
+    public static long averageMs(String phase) {
+        Samples samples = SAMPLES.get(phase);
+        if (samples == null || samples.count().sum() == 0) {
+            return -1;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(samples.totalNanos().sum() / samples.count().sum());
+    }
+}
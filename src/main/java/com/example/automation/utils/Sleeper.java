@@ -0,0 +1,276 @@
+package com.example.automation.utils;
+
+import com.aventstack.extentreports.ExtentTest;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * All fixed sleeps of the framework go through here, so the time spent sleeping is known: per call site for the
+ * run, and per test as a share of the test's wall-clock time. A call site is the reason given for the sleep and the
+ * method sleeping, e.g. "retry delay (Retry.retryOperation)". Each sleep is also a span of the test's
+ * {@link StepTimeline}. A sleep may be given a readiness check; in condition-replacement mode
+ * (sleeps.conditionReplacement) the check is polled and the sleep ends as soon as it passes, and the time saved
+ * is reported alongside the time slept.
+ */
+public class Sleeper {
+
+    /**
+     * Sleep settings.
+     *
+     * @param conditionReplacement End sleeps early once their readiness check passes.
+     * @param pollMs               How often a readiness check is polled.
+     * @param flagPercent          Share of wall-clock time spent sleeping above which a test or call site is flagged.
+     */
+    public record Settings(boolean conditionReplacement, long pollMs, double flagPercent) {
+
+        public static Settings fromProperties() {
+            return new Settings(
+                    Boolean.parseBoolean(PropertiesLoader.getOverridableProperty("sleeps.conditionReplacement", "false").trim()),
+                    Long.parseLong(PropertiesLoader.getProperty("sleeps.pollMs", "100").trim()),
+                    Double.parseDouble(PropertiesLoader.getProperty("sleeps.flagPercent", "10").trim()));
+        }
+    }
+
+    /**
+     * Sleeps of one call site.
+     *
+     * @param site    Reason and caller of the sleep, e.g. "retry delay (Retry.retryOperation)".
+     * @param count   How often it slept.
+     * @param sleptMs Time spent sleeping.
+     * @param savedMs Time saved by ending sleeps early.
+     */
+    public record SiteStats(String site, long count, long sleptMs, long savedMs) {
+    }
+
+    /**
+     * Sleeps of one test.
+     *
+     * @param wallMs  Wall-clock time of the test.
+     * @param sleptMs Time spent sleeping.
+     * @param savedMs Time saved by ending sleeps early.
+     * @param sites   Sleeps per call site, most time first.
+     */
+    public record TestUsage(long wallMs, long sleptMs, long savedMs, List<SiteStats> sites) {
+
+        public double sharePercent() {
+            return wallMs == 0 ? 0 : 100.0 * sleptMs / wallMs;
+        }
+    }
+
+    /**
+     * Sleeps of all tests since the last audit.
+     *
+     * @param testWallMs Wall-clock time of the tests, summed.
+     * @param sleptMs    Time spent sleeping, including outside tests.
+     * @param savedMs    Time saved by ending sleeps early.
+     * @param sites      Sleeps per call site, most time first.
+     */
+    public record Audit(long testWallMs, long sleptMs, long savedMs, List<SiteStats> sites) {
+
+        public double sharePercent(long millis) {
+            return testWallMs == 0 ? 0 : 100.0 * millis / testWallMs;
+        }
+    }
+
+    private static final class Totals {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sleptNanos = new LongAdder();
+        private final LongAdder savedNanos = new LongAdder();
+    }
+
+    private static final class TestSleeps {
+        private final long startNanos = System.nanoTime();
+        private final Map<String, long[]> sites = new HashMap<>(); // count, slept, saved
+    }
+
+    private static final StackWalker WALKER = StackWalker.getInstance();
+    private static final ThreadLocal<TestSleeps> CURRENT = new ThreadLocal<>();
+    private static final Map<String, Totals> SITES = new ConcurrentHashMap<>();
+    private static final LongAdder TEST_WALL_NANOS = new LongAdder();
+    private static volatile Settings settings;
+
+    private Sleeper() {
+    }
+
+    /**
+     * Sleeps for a fixed time.
+     *
+     * @param millis How long to sleep.
+     * @param reason What the sleep is for, e.g. "retry delay".
+     */
+    public static void sleep(long millis, String reason) throws InterruptedException {
+        sleep(millis, reason, null);
+    }
+
+    /**
+     * Sleeps for a fixed time or, in condition-replacement mode, until the readiness check passes, whichever is
+     * first. A check that throws counts as not ready.
+     *
+     * @param millis How long to sleep at most.
+     * @param reason What the sleep is for, e.g. "OTP digit accepted".
+     * @param ready  What the sleep waits for, e.g. a digit being accepted, or null.
+     * @return True if the sleep ended early because the check passed.
+     */
+    public static boolean sleep(long millis, String reason, BooleanSupplier ready) throws InterruptedException {
+        Settings current = getSettings();
+        String site = reason + " (" + caller() + ")";
+        long start = System.nanoTime();
+        int span = StepTimeline.begin(StepTimeline.Kind.SLEEP, site, null);
+        boolean early = false;
+        try {
+            if (ready != null && current.conditionReplacement()) {
+                long deadline = start + TimeUnit.MILLISECONDS.toNanos(millis);
+                while (!(early = isReady(ready))) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    Thread.sleep(Math.min(current.pollMs(), Math.max(1, TimeUnit.NANOSECONDS.toMillis(remaining))));
+                }
+            } else if (millis > 0) {
+                Thread.sleep(millis);
+            }
+        } finally {
+            StepTimeline.end(span);
+            long slept = System.nanoTime() - start;
+            record(site, slept, Math.max(0, TimeUnit.MILLISECONDS.toNanos(millis) - slept));
+        }
+        return early;
+    }
+
+    /**
+     * Starts attributing sleeps on the current thread to a new test.
+     */
+    public static void startTest() {
+        CURRENT.set(new TestSleeps());
+    }
+
+    /**
+     * Reports the sleeps of the test running on the current thread; tests that slept for more than
+     * sleeps.flagPercent of their time get a warning.
+     *
+     * @param test The test's report entry, or null.
+     * @return The test's sleeps, or null if no test was started on this thread.
+     */
+    public static TestUsage finishTest(ExtentTest test) {
+        TestSleeps sleeps = CURRENT.get();
+        CURRENT.remove();
+        if (sleeps == null) {
+            return null;
+        }
+        long wall = System.nanoTime() - sleeps.startNanos;
+        TEST_WALL_NANOS.add(wall);
+        List<SiteStats> sites = sleeps.sites.entrySet().stream()
+                .map(entry -> new SiteStats(entry.getKey(), entry.getValue()[0],
+                        TimeUnit.NANOSECONDS.toMillis(entry.getValue()[1]), TimeUnit.NANOSECONDS.toMillis(entry.getValue()[2])))
+                .sorted(Comparator.comparingLong(SiteStats::sleptMs).reversed())
+                .toList();
+        TestUsage usage = new TestUsage(TimeUnit.NANOSECONDS.toMillis(wall),
+                sites.stream().mapToLong(SiteStats::sleptMs).sum(), sites.stream().mapToLong(SiteStats::savedMs).sum(), sites);
+        if (test != null && !sites.isEmpty()) {
+            String message = String.format(Locale.ROOT, "Fixed sleeps: %d ms of %d ms (%.1f%%)%s: %s", usage.sleptMs(), usage.wallMs(),
+                    usage.sharePercent(), usage.savedMs() > 0 ? ", " + usage.savedMs() + " ms saved by readiness checks" : "",
+                    sites.stream().map(site -> site.site() + " " + site.count() + "x " + site.sleptMs() + " ms").collect(Collectors.joining(", ")));
+            if (usage.sharePercent() > getSettings().flagPercent()) {
+                test.warning(message);
+            } else {
+                test.info(message);
+            }
+        }
+        return usage;
+    }
+
+    /**
+     * Returns the sleeps of all tests since the last call and starts new totals.
+     */
+    public static Audit takeAudit() {
+        List<SiteStats> sites = new ArrayList<>();
+        for (String site : List.copyOf(SITES.keySet())) {
+            Totals totals = SITES.remove(site);
+            if (totals != null) {
+                sites.add(new SiteStats(site, totals.count.sum(), TimeUnit.NANOSECONDS.toMillis(totals.sleptNanos.sum()),
+                        TimeUnit.NANOSECONDS.toMillis(totals.savedNanos.sum())));
+            }
+        }
+        sites.sort(Comparator.comparingLong(SiteStats::sleptMs).reversed());
+        return new Audit(TimeUnit.NANOSECONDS.toMillis(TEST_WALL_NANOS.sumThenReset()),
+                sites.stream().mapToLong(SiteStats::sleptMs).sum(), sites.stream().mapToLong(SiteStats::savedMs).sum(), sites);
+    }
+
+    /**
+     * Renders an audit as an HTML table for the report; call sites above sleeps.flagPercent of the tests' time are flagged.
+     */
+    public static String toHtml(Audit audit) {
+        StringBuilder html = new StringBuilder(String.format(Locale.ROOT,
+                "<p>Fixed sleeps took %d ms of %d ms of test time (%.1f%%)%s.</p>", audit.sleptMs(), audit.testWallMs(),
+                audit.sharePercent(audit.sleptMs()), audit.savedMs() > 0 ? ", readiness checks saved " + audit.savedMs() + " ms" : ""));
+        html.append("<table class='table table-sm'><thead><tr><th>Call site</th><th>Count</th><th>Slept ms</th>"
+                + "<th>Saved ms</th><th>Share</th></tr></thead><tbody>");
+        double flag = getSettings().flagPercent();
+        for (SiteStats site : audit.sites()) {
+            double share = audit.sharePercent(site.sleptMs());
+            html.append("<tr><td>").append(site.site().replace("<", "&lt;").replace(">", "&gt;")).append(share > flag ? " &#9888;" : "").append("</td><td>").append(site.count())
+                    .append("</td><td>").append(site.sleptMs()).append("</td><td>").append(site.savedMs())
+                    .append(String.format(Locale.ROOT, "</td><td>%.1f%%</td></tr>", share));
+        }
+        return html.append("</tbody></table>").toString();
+    }
+
+    /**
+     * Replaces the settings read from the properties, e.g. to turn condition replacement on for a run; null re-reads them.
+     */
+    public static void setSettings(Settings newSettings) {
+        settings = newSettings;
+    }
+
+    private static Settings getSettings() {
+        if (settings == null) {
+            settings = Settings.fromProperties();
+        }
+        return settings;
+    }
+
+    private static boolean isReady(BooleanSupplier ready) {
+        try {
+            return ready.getAsBoolean();
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static void record(String site, long sleptNanos, long savedNanos) {
+        Totals totals = SITES.computeIfAbsent(site, s -> new Totals());
+        totals.count.increment();
+        totals.sleptNanos.add(sleptNanos);
+        totals.savedNanos.add(savedNanos);
+        TestSleeps test = CURRENT.get();
+        if (test != null) {
+            long[] stats = test.sites.computeIfAbsent(site, s -> new long[3]);
+            stats[0]++;
+            stats[1] += sleptNanos;
+            stats[2] += savedNanos;
+        }
+    }
+
+    // The first frame outside this class, e.g. "Retry.retryOperation"
+    private static String caller() {
+        return WALKER.walk(frames -> frames
+                .filter(frame -> !frame.getClassName().equals(Sleeper.class.getName()))
+                .findFirst()
+                .map(frame -> {
+                    String className = frame.getClassName();
+                    return className.substring(className.lastIndexOf('.') + 1) + "." + frame.getMethodName();
+                })
+                .orElse("unknown"));
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.automation.utils;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Minimal embedded SMTP server that accepts every message and stores it in a {@link Mailbox}.
+ * Point a local stack's mail relay at it to read email OTPs offline instead of polling an external inbox.
+ */
+@Slf4j
+public class SmtpSink {
+
+    private static volatile SmtpSink shared;
+
+    private final ServerSocket serverSocket;
+
+    @Getter
+    private final Mailbox mailbox = new Mailbox();
+
+    /**
+     * Constructor for SmtpSink. Binds to the loopback interface.
+     *
+     * @param port The port to listen on, or 0 for any free port.
+     */
+    public SmtpSink(int port) throws IOException {
+        this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+    }
+
+    /**
+     * Returns the sink shared by the run, starting it on mail.sink.port the first time.
+     *
+     * @return The shared sink, or null if mail.sink.enabled is not true.
+     */
+    public static SmtpSink shared() {
+        if (!Boolean.parseBoolean(PropertiesLoader.getProperty("mail.sink.enabled", "false").trim())) {
+            return null;
+        }
+        if (shared == null) {
+            synchronized (SmtpSink.class) {
+                if (shared == null) {
+                    try {
+                        SmtpSink sink = new SmtpSink(Integer.parseInt(PropertiesLoader.getProperty("mail.sink.port", "2525").trim()));
+                        sink.start();
+                        shared = sink;
+                    } catch (IOException e) {
+                        throw new RuntimeException("Failed to start the SMTP sink", e);
+                    }
+                }
+            }
+        }
+        return shared;
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Starts accepting connections on a daemon thread; each session runs on a virtual thread.
+     */
+    public void start() {
+        Thread acceptor = new Thread(() -> {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    Thread.ofVirtual().name("smtp-session").start(() -> handleSession(socket));
+                } catch (IOException e) {
+                    if (!serverSocket.isClosed()) {
+                        log.warn("SMTP sink accept failed: {}", e.getMessage());
+                    }
+                }
+            }
+        }, "smtp-sink");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        log.info("SMTP sink listening on localhost:{}", getPort());
+    }
+
+    public void stop() {
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            log.warn("Failed to stop the SMTP sink: {}", e.getMessage());
+        }
+    }
+
+    private void handleSession(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             OutputStream out = socket.getOutputStream()) {
+            reply(out, "220 automation-smtp-sink ESMTP");
+            String from = null;
+            List<String> recipients = new ArrayList<>();
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase(Locale.ROOT) : line.toUpperCase(Locale.ROOT);
+                switch (command) {
+                    case "EHLO" -> reply(out, "250-automation-smtp-sink\r\n250-8BITMIME\r\n250 SMTPUTF8");
+                    case "HELO" -> reply(out, "250 automation-smtp-sink");
+                    case "MAIL" -> {
+                        from = address(line);
+                        recipients.clear();
+                        reply(out, "250 OK");
+                    }
+                    case "RCPT" -> {
+                        recipients.add(address(line));
+                        reply(out, "250 OK");
+                    }
+                    case "DATA" -> {
+                        if (recipients.isEmpty()) {
+                            reply(out, "503 RCPT first");
+                            break;
+                        }
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        mailbox.deliver(MailMessage.parse(from, List.copyOf(recipients), readData(in)));
+                        log.info("SMTP sink received a message for {}", recipients);
+                        recipients.clear();
+                        reply(out, "250 OK queued");
+                    }
+                    case "RSET" -> {
+                        from = null;
+                        recipients.clear();
+                        reply(out, "250 OK");
+                    }
+                    case "NOOP" -> reply(out, "250 OK");
+                    case "QUIT" -> {
+                        reply(out, "221 Bye");
+                        return;
+                    }
+                    default -> reply(out, "502 Command not implemented");
+                }
+            }
+        } catch (IOException e) {
+            log.warn("SMTP sink session failed: {}", e.getMessage());
+        }
+    }
+
+    private static String readData(BufferedReader in) throws IOException {
+        StringBuilder data = new StringBuilder();
+        String line;
+        while ((line = in.readLine()) != null && !line.equals(".")) {
+            data.append(line.startsWith(".") ? line.substring(1) : line).append("\r\n");
+        }
+        return data.toString();
+    }
+
+    private static String address(String line) {
+        int start = line.indexOf('<');
+        int end = line.indexOf('>', start + 1);
+        if (start >= 0 && end > start) {
+            return line.substring(start + 1, end);
+        }
+        return line.substring(line.indexOf(':') + 1).trim();
+    }
+
+    private static void reply(OutputStream out, String response) throws IOException {
+        out.write((response + "\r\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.automation.utils;
+
+import com.aventstack.extentreports.ExtentTest;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.chromium.HasCdp;
+
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cheap screenshots after test steps, for debugging. Chromium browsers capture through DevTools
+ * Page.captureScreenshot: only the viewport or one element, as JPEG or WebP, downscaled by the browser, which is
+ * several times faster than a full PNG from TakesScreenshot. Other browsers fall back to TakesScreenshot.
+ * Captures are rate-limited per test, and a test that has used up its capture time budget takes no more.
+ * The time the test thread spends capturing is recorded as a step of the test's results and reported per test
+ * when it finishes.
+ */
+@Slf4j
+public class StepCapture {
+
+    /**
+     * Step screenshot settings.
+     *
+     * @param enabled       Whether step screenshots are taken at all.
+     * @param format        jpeg, png or webp.
+     * @param quality       Quality 0-100 of jpeg and webp.
+     * @param scale         Output scale of the captured area, e.g. 0.5.
+     * @param minIntervalMs Minimum time between two step screenshots of a test.
+     * @param budgetMs      Capture time after which a test takes no more step screenshots.
+     */
+    public record Settings(boolean enabled, String format, int quality, double scale, long minIntervalMs, long budgetMs) {
+
+        public static Settings fromProperties() {
+            return new Settings(
+                    Boolean.parseBoolean(PropertiesLoader.getOverridableProperty("steps.screenshots.enabled", "true").trim()),
+                    PropertiesLoader.getProperty("steps.screenshots.format", "jpeg").trim().toLowerCase(Locale.ROOT),
+                    Integer.parseInt(PropertiesLoader.getProperty("steps.screenshots.quality", "60").trim()),
+                    Double.parseDouble(PropertiesLoader.getProperty("steps.screenshots.scale", "0.5").trim()),
+                    Long.parseLong(PropertiesLoader.getProperty("steps.screenshots.minIntervalMs", "1000").trim()),
+                    Long.parseLong(PropertiesLoader.getProperty("steps.screenshots.budgetMs", "1500").trim()));
+        }
+    }
+
+    /**
+     * Step screenshots of one test.
+     *
+     * @param captured  Screenshots taken.
+     * @param skipped   Screenshots skipped by the rate limit or the budget.
+     * @param overheadMs Time the test thread spent capturing.
+     */
+    public record Usage(int captured, int skipped, long overheadMs) {
+    }
+
+    private static final class Counters {
+        private int captured;
+        private int skipped;
+        private long overheadNanos;
+        private long lastCaptureNanos;
+        private boolean budgetReported;
+    }
+
+    // Page coordinates of the viewport, or of an element, in CSS pixels
+    private static final String CLIP_SCRIPT = """
+            const el = arguments[0];
+            if (el) {
+              const r = el.getBoundingClientRect();
+              return [r.left + window.scrollX, r.top + window.scrollY, r.width, r.height];
+            }
+            return [window.scrollX, window.scrollY, window.innerWidth, window.innerHeight];""";
+
+    private static volatile Settings settings;
+    private static volatile ScreenshotPipeline pipeline;
+    private static final ThreadLocal<Counters> COUNTERS = ThreadLocal.withInitial(Counters::new);
+
+    private StepCapture() {
+    }
+
+    /**
+     * Captures the viewport after a step and attaches it to the test, unless rate-limited.
+     *
+     * @param driver The test's browser.
+     * @param test   The test's report entry.
+     * @param step   Name of the step, e.g. "login form submitted".
+     * @return The stored screenshot, or null if none was taken.
+     */
+    public static CompletableFuture<Path> capture(WebDriver driver, ExtentTest test, String step) {
+        return capture(driver, test, step, null);
+    }
+
+    /**
+     * Captures one element after a step and attaches it to the test, unless rate-limited.
+     *
+     * @param driver  The test's browser.
+     * @param test    The test's report entry.
+     * @param step    Name of the step.
+     * @param element The element to capture, or null for the viewport.
+     * @return The stored screenshot, or null if none was taken.
+     */
+    public static CompletableFuture<Path> capture(WebDriver driver, ExtentTest test, String step, WebElement element) {
+        Settings current = getSettings();
+        if (!current.enabled() || driver == null || test == null) {
+            return null;
+        }
+        Counters counters = COUNTERS.get();
+        long start = System.nanoTime();
+        if (counters.overheadNanos >= TimeUnit.MILLISECONDS.toNanos(current.budgetMs())) {
+            counters.skipped++;
+            if (!counters.budgetReported) {
+                counters.budgetReported = true;
+                test.info("Step screenshot budget of " + current.budgetMs() + " ms used up, skipping further step screenshots");
+            }
+            return null;
+        }
+        if (counters.captured > 0 && start - counters.lastCaptureNanos < TimeUnit.MILLISECONDS.toNanos(current.minIntervalMs())) {
+            counters.skipped++;
+            return null;
+        }
+
+        byte[] image;
+        try {
+            image = driver instanceof HasCdp cdp
+                    ? captureWithCdp(cdp, (JavascriptExecutor) driver, element, current)
+                    : element != null ? element.getScreenshotAs(OutputType.BYTES) : ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+        } catch (RuntimeException e) {
+            log.warn("Step screenshot '{}' failed: {}", step, e.getMessage());
+            counters.overheadNanos += System.nanoTime() - start;
+            return null;
+        }
+        long now = System.nanoTime();
+        counters.captured++;
+        counters.overheadNanos += now - start;
+        counters.lastCaptureNanos = now;
+        ResultsSink.recordStep("stepScreenshot", now - start);
+
+        ScreenshotPipeline target = pipeline != null ? pipeline : ScreenshotPipeline.shared();
+        CompletableFuture<Path> stored = target.submit(image, test, "step: " + step);
+        ResultsSink.recordArtifact(stored.thenApply(Path::toString));
+        return stored;
+    }
+
+    /**
+     * Reports the step screenshots of the test that ran on the current thread and resets the counters.
+     *
+     * @param test The test's report entry, or null.
+     * @return What the test's step screenshots cost.
+     */
+    public static Usage finishTest(ExtentTest test) {
+        Counters counters = COUNTERS.get();
+        COUNTERS.remove();
+        Usage usage = new Usage(counters.captured, counters.skipped, TimeUnit.NANOSECONDS.toMillis(counters.overheadNanos));
+        if (test != null && counters.captured + counters.skipped > 0) {
+            test.info(String.format("Step screenshots: %d captured, %d skipped, %d ms overhead",
+                    usage.captured(), usage.skipped(), usage.overheadMs()));
+        }
+        return usage;
+    }
+
+    /**
+     * Builds the Page.captureScreenshot parameters for a clip in page coordinates.
+     *
+     * @param settings The capture settings.
+     * @param clip     x, y, width and height in CSS pixels.
+     * @return The CDP parameters.
+     */
+    public static Map<String, Object> buildCaptureParams(Settings settings, List<Number> clip) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("format", settings.format());
+        if (!settings.format().equals("png")) {
+            params.put("quality", settings.quality());
+        }
+        params.put("captureBeyondViewport", false);
+        params.put("clip", Map.of(
+                "x", clip.get(0).doubleValue(),
+                "y", clip.get(1).doubleValue(),
+                "width", Math.max(1, clip.get(2).doubleValue()),
+                "height", Math.max(1, clip.get(3).doubleValue()),
+                "scale", settings.scale()));
+        return params;
+    }
+
+    /**
+     * Replaces the settings read from the properties, e.g. to turn step screenshots off for a run.
+     */
+    public static void setSettings(Settings newSettings) {
+        settings = newSettings;
+    }
+
+    /**
+     * Stores step screenshots in the given pipeline instead of the shared one; null restores the shared one.
+     */
+    public static void setPipeline(ScreenshotPipeline newPipeline) {
+        pipeline = newPipeline;
+    }
+
+    private static Settings getSettings() {
+        if (settings == null) {
+            settings = Settings.fromProperties();
+        }
+        return settings;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static byte[] captureWithCdp(HasCdp cdp, JavascriptExecutor js, WebElement element, Settings settings) {
+        List<Number> clip = (List<Number>) js.executeScript(CLIP_SCRIPT, element);
+        Map<String, Object> result = cdp.executeCdpCommand("Page.captureScreenshot", buildCaptureParams(settings, clip));
+        return Base64.getDecoder().decode((String) result.get("data"));
+    }
+}
@@ -0,0 +1,292 @@
+package com.example.automation.utils;
+
+import com.aventstack.extentreports.ExtentTest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records where the time of a test goes: clicks, typing, waits, retry attempts and sleeps are timed spans on the
+ * test's thread. A span costs two System.nanoTime() calls and a few array stores; its label is only put together
+ * when the test finishes, from the constant detail and the subject (e.g. the locator) it was started with.
+ * A finished test gets a Gantt-style timeline in its report entry, and its spans are added to the run's
+ * per-step totals, from which the slowest steps of a suite are reported.
+ * Spans are only recorded on threads that started a test with {@link #startTest()}.
+ */
+public class StepTimeline {
+
+    /**
+     * What a span measures.
+     */
+    public enum Kind {
+        CLICK("click", "#4e79a7"),
+        TYPE("type", "#59a14f"),
+        WAIT("wait", "#f28e2b"),
+        RETRY("retry", "#b07aa1"),
+        SLEEP("sleep", "#e15759"),
+        STEP("step", "#76b7b2");
+
+        private final String label;
+        private final String color;
+
+        Kind(String label, String color) {
+            this.label = label;
+            this.color = color;
+        }
+    }
+
+    /**
+     * A finished span.
+     *
+     * @param kind          What the span measured.
+     * @param label         E.g. "wait clickable By.id: login".
+     * @param depth         Nesting level; 0 for spans not started inside another one.
+     * @param startNanos    Start, relative to the start of the test.
+     * @param durationNanos Duration; -1 if the span was never ended.
+     */
+    public record Span(Kind kind, String label, int depth, long startNanos, long durationNanos) {
+    }
+
+    /**
+     * The spans of a finished test.
+     *
+     * @param durationNanos Time from the start of the test to its end.
+     * @param spans         Spans in the order they were started.
+     * @param dropped       Spans not recorded because the test reached timeline.maxSpans.
+     */
+    public record Timeline(long durationNanos, List<Span> spans, int dropped) {
+    }
+
+    /**
+     * Run-wide totals of a step.
+     *
+     * @param step        The span label.
+     * @param count       How often the step ran.
+     * @param totalMs     Time spent in the step altogether.
+     * @param maxMs       Longest run of the step.
+     * @param slowestTest Test of the longest run.
+     */
+    public record StepStats(String step, long count, long totalMs, long maxMs, String slowestTest) {
+    }
+
+    // Spans of the running test, kept in parallel arrays so recording one allocates nothing
+    private static final class Spans {
+        private final long startNanos = System.nanoTime();
+        private long[] begins = new long[64];
+        private long[] ends = new long[64];
+        private int[] depths = new int[64];
+        private Kind[] kinds = new Kind[64];
+        private String[] details = new String[64];
+        private Object[] subjects = new Object[64];
+        private int size;
+        private int depth;
+        private int dropped;
+
+        private void grow() {
+            int capacity = begins.length * 2;
+            begins = Arrays.copyOf(begins, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            depths = Arrays.copyOf(depths, capacity);
+            kinds = Arrays.copyOf(kinds, capacity);
+            details = Arrays.copyOf(details, capacity);
+            subjects = Arrays.copyOf(subjects, capacity);
+        }
+    }
+
+    private static final class Totals {
+        private long count;
+        private long totalNanos;
+        private long maxNanos;
+        private String slowestTest;
+    }
+
+    private static final ThreadLocal<Spans> CURRENT = new ThreadLocal<>();
+    private static final Map<String, Totals> TOTALS = new ConcurrentHashMap<>();
+    private static volatile Boolean enabled;
+    private static volatile int maxSpans;
+
+    private StepTimeline() {
+    }
+
+    /**
+     * Starts the timeline of a test on the current thread, discarding any unfinished one.
+     */
+    public static void startTest() {
+        if (isEnabled()) {
+            CURRENT.set(new Spans());
+        }
+    }
+
+    /**
+     * Starts a span. Always end it in a finally block.
+     *
+     * @param kind    What the span measures.
+     * @param detail  A constant describing it further, e.g. "clickable", or null.
+     * @param subject What it acts on, e.g. a locator, or null; turned into text only when the test finishes.
+     * @return The span, to be passed to {@link #end(int)}; -1 if it is not recorded.
+     */
+    public static int begin(Kind kind, String detail, Object subject) {
+        Spans spans = CURRENT.get();
+        if (spans == null) {
+            return -1;
+        }
+        if (spans.size >= maxSpans) {
+            spans.dropped++;
+            return -1;
+        }
+        if (spans.size == spans.begins.length) {
+            spans.grow();
+        }
+        int span = spans.size++;
+        spans.kinds[span] = kind;
+        spans.details[span] = detail;
+        spans.subjects[span] = subject;
+        spans.depths[span] = spans.depth++;
+        spans.ends[span] = -1;
+        spans.begins[span] = System.nanoTime();
+        return span;
+    }
+
+    /**
+     * Ends a span started by {@link #begin}.
+     *
+     * @param span The span; -1 is ignored.
+     */
+    public static void end(int span) {
+        long now = System.nanoTime();
+        Spans spans = CURRENT.get();
+        if (span < 0 || spans == null || span >= spans.size) {
+            return;
+        }
+        spans.ends[span] = now;
+        spans.depth = spans.depths[span];
+    }
+
+    /**
+     * Finishes the timeline of the test on the current thread: adds its spans to the run's step totals and
+     * attaches it to the test's report entry.
+     *
+     * @param testName Name of the test, for the step totals.
+     * @param test     The test's report entry, or null.
+     * @return The timeline, or null if no test was started on this thread.
+     */
+    public static Timeline finishTest(String testName, ExtentTest test) {
+        Spans spans = CURRENT.get();
+        CURRENT.remove();
+        if (spans == null) {
+            return null;
+        }
+        long end = System.nanoTime();
+        List<Span> finished = new ArrayList<>(spans.size);
+        for (int i = 0; i < spans.size; i++) {
+            String label = label(spans.kinds[i], spans.details[i], spans.subjects[i]);
+            long duration = spans.ends[i] < 0 ? -1 : spans.ends[i] - spans.begins[i];
+            finished.add(new Span(spans.kinds[i], label, spans.depths[i], spans.begins[i] - spans.startNanos, duration));
+            if (duration >= 0) {
+                Totals totals = TOTALS.computeIfAbsent(label, l -> new Totals());
+                synchronized (totals) {
+                    totals.count++;
+                    totals.totalNanos += duration;
+                    if (duration > totals.maxNanos) {
+                        totals.maxNanos = duration;
+                        totals.slowestTest = testName;
+                    }
+                }
+            }
+        }
+        Timeline timeline = new Timeline(end - spans.startNanos, finished, spans.dropped);
+        if (test != null && !finished.isEmpty()) {
+            test.info(toHtml(timeline));
+        }
+        return timeline;
+    }
+
+    /**
+     * Returns the steps that took the most time altogether since the last call, and starts new totals.
+     *
+     * @param limit How many steps to return.
+     * @return The steps, slowest first.
+     */
+    public static List<StepStats> takeSlowestSteps(int limit) {
+        List<StepStats> steps = new ArrayList<>();
+        for (String step : List.copyOf(TOTALS.keySet())) {
+            Totals totals = TOTALS.remove(step);
+            if (totals != null) {
+                synchronized (totals) {
+                    steps.add(new StepStats(step, totals.count, TimeUnit.NANOSECONDS.toMillis(totals.totalNanos),
+                            TimeUnit.NANOSECONDS.toMillis(totals.maxNanos), totals.slowestTest));
+                }
+            }
+        }
+        steps.sort(Comparator.comparingLong(StepStats::totalMs).thenComparingLong(StepStats::maxMs).reversed());
+        return steps.subList(0, Math.min(limit, steps.size()));
+    }
+
+    /**
+     * Renders the slowest steps as an HTML table for the report.
+     */
+    public static String toHtml(List<StepStats> steps) {
+        StringBuilder html = new StringBuilder("<table class='table table-sm'><thead><tr><th>Step</th><th>Count</th>"
+                + "<th>Total ms</th><th>Avg ms</th><th>Max ms</th><th>Slowest in</th></tr></thead><tbody>");
+        for (StepStats step : steps) {
+            html.append("<tr><td>").append(escape(step.step())).append("</td><td>").append(step.count())
+                    .append("</td><td>").append(step.totalMs()).append("</td><td>").append(step.totalMs() / Math.max(1, step.count()))
+                    .append("</td><td>").append(step.maxMs()).append("</td><td>").append(escape(String.valueOf(step.slowestTest())))
+                    .append("</td></tr>");
+        }
+        return html.append("</tbody></table>").toString();
+    }
+
+    /**
+     * Renders a test's timeline as a Gantt chart: one row per span, its bar placed on the test's time axis.
+     */
+    public static String toHtml(Timeline timeline) {
+        double total = Math.max(1, timeline.durationNanos());
+        StringBuilder html = new StringBuilder("<div style='font-size:11px;line-height:14px'><b>Timeline</b> (")
+                .append(TimeUnit.NANOSECONDS.toMillis(timeline.durationNanos())).append(" ms)");
+        for (Span span : timeline.spans()) {
+            long duration = span.durationNanos() < 0 ? timeline.durationNanos() - span.startNanos() : span.durationNanos();
+            html.append("<div style='display:flex'><div style='width:40%;overflow:hidden;white-space:nowrap;padding-left:")
+                    .append(span.depth() * 10).append("px' title='").append(escape(span.label())).append("'>")
+                    .append(escape(span.label())).append("</div><div style='flex:1;position:relative;background:#eee;margin:2px 0'>")
+                    .append(String.format(Locale.ROOT, "<div style='position:absolute;left:%.2f%%;width:%.2f%%;min-width:1px;height:100%%;background:%s'></div>",
+                            100 * span.startNanos() / total, 100 * duration / total, span.kind().color))
+                    .append("</div><div style='width:70px;text-align:right'>")
+                    .append(span.durationNanos() < 0 ? "unfinished" : TimeUnit.NANOSECONDS.toMillis(duration) + " ms")
+                    .append("</div></div>");
+        }
+        if (timeline.dropped() > 0) {
+            html.append("<div>").append(timeline.dropped()).append(" more span(s) not recorded (timeline.maxSpans)</div>");
+        }
+        return html.append("</div>").toString();
+    }
+
+    private static boolean isEnabled() {
+        if (enabled == null) {
+            maxSpans = Integer.parseInt(PropertiesLoader.getProperty("timeline.maxSpans", "500").trim());
+            enabled = Boolean.parseBoolean(PropertiesLoader.getOverridableProperty("timeline.enabled", "true").trim());
+        }
+        return enabled;
+    }
+
+    private static String label(Kind kind, String detail, Object subject) {
+        StringBuilder label = new StringBuilder(kind.label);
+        if (detail != null && !detail.isEmpty()) {
+            label.append(' ').append(detail);
+        }
+        if (subject != null) {
+            label.append(' ').append(subject);
+        }
+        return label.toString();
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("'", "&#39;").replace("\"", "&quot;");
+    }
+}
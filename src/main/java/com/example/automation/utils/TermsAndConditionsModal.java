@@ -6,6 +6,7 @@ import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 
 import java.time.Duration;
+import java.util.List;
 
 @Slf4j
 public class TermsAndConditionsModal {
@@ -85,4 +86,13 @@ public class TermsAndConditionsModal {
             log.error("Failed to accept Terms and Conditions popup.");
         }
     }
+
+    /**
+     * Checks, without waiting, whether the TnC popup is open.
+     * @return True if the agreement checkbox is displayed
+     */
+    public boolean isDisplayed() {
+        List<WebElement> found = driver.findElements(checkBox);
+        return !found.isEmpty() && found.get(0).isDisplayed();
+    }
 }
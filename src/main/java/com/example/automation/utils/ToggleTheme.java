@@ -9,36 +9,63 @@ public class ToggleTheme {
     // Locator for the toggle theme button
     private static final By change_theme = By.xpath("//button[@aria-label='Toggle theme mode']//*[name()='svg']");
 
-    // ThreadLocal variable to track if the theme has been set for each thread
-    private static final ThreadLocal<Boolean> isThemeSet = ThreadLocal.withInitial(() -> false);
+    // Chakra UI marks the active color mode on the root element, and with a class on the body
+    private static final String CURRENT_THEME_SCRIPT =
+            "var theme = document.documentElement.getAttribute('data-theme');" +
+            "if (theme) { return theme; }" +
+            "var body = document.body;" +
+            "if (body && body.classList.contains('chakra-ui-dark')) { return 'dark'; }" +
+            "if (body && body.classList.contains('chakra-ui-light')) { return 'light'; }" +
+            "return null;";
 
     /**
      * Enables the dark theme using the provided WebDriver and WaitUtils.
+     * The toggle flips the theme, so it is only clicked while the page is not rendered dark.
      *
      * @param driver The WebDriver instance.
      * @param waitUtils The WaitUtils instance.
      */
     public static void enableDarkTheme(WebDriver driver, WaitUtils waitUtils) throws Exception {
-        // Ensure the theme is set only once per test thread
-        if (!isThemeSet.get()) {
-            try {
-                WebElement toggleTheme = waitUtils.waitForVisibilityShort(change_theme);
-                toggleTheme.click();
-                isThemeSet.set(true); // Mark theme as set for this thread
-                log.info("✅ Dark theme enabled successfully.");
-            } catch (ElementClickInterceptedException | TimeoutException | NoSuchElementException | StaleElementReferenceException e) {
-                driver.navigate().refresh();
-                Retry.retryOperation(() -> {
+        if (isDarkTheme(driver)) {
+            System.out.println("🔹 Dark theme is already enabled. Skipping toggle.");
+            return;
+        }
+        try {
+            WebElement toggleTheme = waitUtils.waitForVisibilityShort(change_theme);
+            toggleTheme.click();
+            log.info("✅ Dark theme enabled successfully.");
+        } catch (ElementClickInterceptedException | TimeoutException | NoSuchElementException | StaleElementReferenceException e) {
+            driver.navigate().refresh();
+            Retry.retryOperation(() -> {
+                if (!isDarkTheme(driver)) {
                     WebElement retryToggleTheme = waitUtils.waitForVisibilityShort(change_theme);
                     retryToggleTheme.click();
-                    return null;
-                }, 3, 1000, "Clicking theme change button");
-                isThemeSet.set(true);
-            } catch (Exception e) {
-                System.out.println("❌ Error changing theme: " + e.getMessage());
-            }
-        } else {
-            System.out.println("🔹 Dark theme is already set for this thread. Skipping toggle.");
+                }
+                return null;
+            }, 3, 1000, "Clicking theme change button");
+        } catch (Exception e) {
+            System.out.println("❌ Error changing theme: " + e.getMessage());
         }
     }
+
+    /**
+     * Returns the theme the page is rendered in.
+     *
+     * @param driver The WebDriver instance.
+     * @return "dark" or "light", or null if the page shows no theme (yet).
+     */
+    public static String getCurrentTheme(WebDriver driver) {
+        Object theme = ((JavascriptExecutor) driver).executeScript(CURRENT_THEME_SCRIPT);
+        return theme == null ? null : theme.toString();
+    }
+
+    /**
+     * Checks whether the page is rendered in the dark theme.
+     *
+     * @param driver The WebDriver instance.
+     * @return True if the dark theme is active.
+     */
+    public static boolean isDarkTheme(WebDriver driver) {
+        return "dark".equals(getCurrentTheme(driver));
+    }
 }
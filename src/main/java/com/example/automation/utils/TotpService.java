@@ -0,0 +1,113 @@
+package com.example.automation.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.binary.Base32;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * RFC 6238 TOTP codes (HMAC-SHA1, 30 s step, 6 digits) for the users of the active environment.
+ * Secrets are read from totp.secret.&lt;user&gt;, as a system property or in application-&lt;env&gt;.properties,
+ * and decoded once per user. Codes about to expire are not handed out: the caller waits for the next window.
+ */
+@Slf4j
+public class TotpService {
+
+    private static final long STEP_MILLIS = 30_000;
+    private static final int DIGITS = 6;
+    private static final int[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000};
+
+    private static final Map<String, SecretKeySpec> KEYS = new ConcurrentHashMap<>();
+
+    private TotpService() {
+    }
+
+    /**
+     * A code and how long it stays valid.
+     *
+     * @param code            The TOTP code.
+     * @param remainingMillis Time left in the code's window.
+     */
+    public record TotpCode(String code, long remainingMillis) {
+    }
+
+    /**
+     * Returns a code for the user that is valid for at least totp.minValiditySeconds (default 5),
+     * waiting for the next window if the current one is about to end.
+     *
+     * @param user The user the secret is registered for.
+     * @return The TOTP code.
+     */
+    public static String generate(String user) throws InterruptedException {
+        long minValidityMillis = Long.parseLong(PropertiesLoader.getProperty("totp.minValiditySeconds", "5").trim()) * 1000;
+        TotpCode current = current(user);
+        if (current.remainingMillis() >= minValidityMillis) {
+            return current.code();
+        }
+        log.info("TOTP for {} expires in {} ms, waiting for the next window", user, current.remainingMillis());
+        Sleeper.sleep(current.remainingMillis() + 50, "next TOTP window");
+        return current(user).code();
+    }
+
+    /**
+     * Returns the user's current code and the time left in its window, without waiting.
+     *
+     * @param user The user the secret is registered for.
+     * @return The current code.
+     */
+    public static TotpCode current(String user) {
+        long now = System.currentTimeMillis();
+        return new TotpCode(codeAt(keyFor(user), now), STEP_MILLIS - now % STEP_MILLIS);
+    }
+
+    /**
+     * Computes the code for a key at a point in time.
+     *
+     * @param key        The HMAC key.
+     * @param timeMillis Epoch milliseconds.
+     * @return The zero-padded code.
+     */
+    public static String codeAt(SecretKeySpec key, long timeMillis) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA1");
+            mac.init(key);
+            byte[] hash = mac.doFinal(ByteBuffer.allocate(Long.BYTES).putLong(timeMillis / STEP_MILLIS).array());
+            int offset = hash[hash.length - 1] & 0x0F;
+            int binary = ((hash[offset] & 0x7F) << 24) | ((hash[offset + 1] & 0xFF) << 16)
+                    | ((hash[offset + 2] & 0xFF) << 8) | (hash[offset + 3] & 0xFF);
+            return String.format("%0" + DIGITS + "d", binary % POWERS_OF_TEN[DIGITS]);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA1 is not available", e);
+        }
+    }
+
+    /**
+     * Builds an HMAC key from a Base32 secret.
+     *
+     * @param base32Secret The secret as shown by the authenticator setup.
+     * @return The key.
+     */
+    public static SecretKeySpec decodeSecret(String base32Secret) {
+        byte[] bytes = new Base32().decode(base32Secret.replace(" ", "").toUpperCase());
+        if (bytes.length == 0) {
+            throw new IllegalArgumentException("TOTP secret is not valid Base32");
+        }
+        return new SecretKeySpec(bytes, "HmacSHA1");
+    }
+
+    private static SecretKeySpec keyFor(String user) {
+        return KEYS.computeIfAbsent(user, u -> {
+            String property = "totp.secret." + u;
+            String secret = System.getProperty(property, PropertiesLoader.getProperty(property, ""));
+            if (secret.isBlank()) {
+                throw new IllegalArgumentException("No TOTP secret configured for " + u + " (" + property + ")");
+            }
+            return decodeSecret(secret.trim());
+        });
+    }
+}
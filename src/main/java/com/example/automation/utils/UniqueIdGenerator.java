@@ -0,0 +1,169 @@
+package com.example.automation.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Unique, lower-case alphanumeric ids for test data (emails, referral codes, names).
+ * An id is a fixed-length run prefix followed by a per-run counter:
+ * the JVM start second (7 base36 chars), a worker id (4 chars) and a monotonic counter.
+ * Within a JVM ids never repeat; two JVMs can only produce the same id if they start in the same second with the
+ * same worker id. The worker id is identity.workerId when set, otherwise it is derived (see {@link #workerId}):
+ * <ul>
+ *   <li>with run.id (set by the shard launcher), from a hash of run.id plus shard.index, so the forks of one run
+ *   never share a worker id (up to 36^4 = 1,679,616 shards); forks of two different runs starting in the same
+ *   second share one with a probability of 1 in 36^4 per pair;</li>
+ *   <li>without run.id, from the process id, so processes running at the same time on one host never share a worker
+ *   id while their ids are below 36^4; processes on different hosts may, with a probability of 1 in 36^4 per pair
+ *   if their pids are spread evenly; set identity.workerId to rule that out.</li>
+ * </ul>
+ * Ids are time-ordered across runs.
+ */
+public class UniqueIdGenerator {
+
+    private static final int TIME_LENGTH = 7;
+    private static final int WORKER_LENGTH = 4;
+    private static final long WORKER_IDS = 36L * 36 * 36 * 36;
+    private static final int MAX_COUNTER_LENGTH = 13; // Long.MAX_VALUE in base36
+    private static final char[] DIGITS = "0123456789abcdefghijklmnopqrstuvwxyz".toCharArray();
+
+    private static final char[] PREFIX = buildPrefix();
+    private static final AtomicLong COUNTER = new AtomicLong();
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> {
+        char[] buffer = new char[PREFIX.length + MAX_COUNTER_LENGTH];
+        System.arraycopy(PREFIX, 0, buffer, 0, PREFIX.length);
+        return buffer;
+    });
+
+    private UniqueIdGenerator() {
+    }
+
+    /**
+     * Returns the next id. Allocates only the returned string.
+     *
+     * @return A unique id, e.g. "0tj3k2qa7f00".
+     */
+    public static String next() {
+        long value = COUNTER.getAndIncrement();
+        char[] buffer = BUFFER.get();
+        int length = PREFIX.length;
+        int digits = 1;
+        for (long v = value / 36; v > 0; v /= 36) {
+            digits++;
+        }
+        for (int i = length + digits - 1; i >= length; i--) {
+            buffer[i] = DIGITS[(int) (value % 36)];
+            value /= 36;
+        }
+        return new String(buffer, 0, length + digits);
+    }
+
+    /**
+     * A pre-generated batch of ids for hot paths, refilled a batch at a time when used up.
+     */
+    public static final class Pool {
+
+        private record Batch(String[] ids, AtomicInteger next) {
+        }
+
+        private final int batchSize;
+        private volatile Batch batch;
+
+        private Pool(int batchSize) {
+            this.batchSize = batchSize;
+            this.batch = generate(batchSize);
+        }
+
+        /**
+         * Takes the next id from the pool.
+         *
+         * @return A unique id.
+         */
+        public String next() {
+            while (true) {
+                Batch current = batch;
+                int index = current.next().getAndIncrement();
+                if (index < current.ids().length) {
+                    return current.ids()[index];
+                }
+                refill(current);
+            }
+        }
+
+        private synchronized void refill(Batch exhausted) {
+            if (batch == exhausted) {
+                batch = generate(batchSize);
+            }
+        }
+
+        private static Batch generate(int size) {
+            String[] ids = new String[size];
+            for (int i = 0; i < size; i++) {
+                ids[i] = UniqueIdGenerator.next();
+            }
+            return new Batch(ids, new AtomicInteger());
+        }
+    }
+
+    /**
+     * Creates a pool of pre-generated ids.
+     *
+     * @param batchSize How many ids to generate at a time.
+     * @return The pool.
+     */
+    public static Pool newPool(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        return new Pool(batchSize);
+    }
+
+    private static char[] buildPrefix() {
+        char[] prefix = new char[TIME_LENGTH + WORKER_LENGTH];
+        encode(System.currentTimeMillis() / 1000, prefix, 0, TIME_LENGTH);
+
+        String workerId = PropertiesLoader.getProperty("identity.workerId", "").trim().toLowerCase(Locale.ROOT)
+                .replaceAll("[^a-z0-9]", "");
+        if (workerId.isEmpty()) {
+            workerId = workerId(PropertiesLoader.getOverridableProperty("run.id", "").trim(),
+                    Integer.parseInt(PropertiesLoader.getOverridableProperty("shard.index", "0").trim()),
+                    ProcessHandle.current().pid());
+        }
+        String padded = "0".repeat(WORKER_LENGTH) + workerId;
+        padded.getChars(padded.length() - WORKER_LENGTH, padded.length(), prefix, TIME_LENGTH);
+        return prefix;
+    }
+
+    /**
+     * Derives the worker id of a process that has no identity.workerId.
+     *
+     * @param runId      The run id shared by the forks of a run, or empty.
+     * @param shardIndex The fork's shard index, used with a run id.
+     * @param pid        The process id, used without a run id.
+     * @return The worker id, 4 base36 chars.
+     */
+    public static String workerId(String runId, int shardIndex, long pid) {
+        long value;
+        if (runId.isEmpty()) {
+            value = pid;
+        } else {
+            // A digest instead of String.hashCode(): similar run ids ("run-1", "run-2") must not map to neighbours,
+            // or shard 1 of one run would get the worker id of shard 0 of the other
+            long runHash = UUID.nameUUIDFromBytes(runId.getBytes(StandardCharsets.UTF_8)).getMostSignificantBits();
+            value = runHash + shardIndex;
+        }
+        char[] worker = new char[WORKER_LENGTH];
+        encode(Math.floorMod(value, WORKER_IDS), worker, 0, WORKER_LENGTH);
+        return new String(worker);
+    }
+
+    private static void encode(long value, char[] target, int offset, int length) {
+        for (int i = offset + length - 1; i >= offset; i--) {
+            target[i] = DIGITS[(int) (value % 36)];
+            value /= 36;
+        }
+    }
+}
@@ -68,10 +68,13 @@ public class WaitUtils {
      * @return The visible WebElement.
      */
     private WebElement waitForVisibility(By locator, WebDriverWait wait) {
+        int span = StepTimeline.begin(StepTimeline.Kind.WAIT, "visible", locator);
         try {
             return wait.until(ExpectedConditions.visibilityOfElementLocated(locator));
         } catch (TimeoutException e) {
             throw new RuntimeException("Element not visible: " + locator, e);
+        } finally {
+            StepTimeline.end(span);
         }
     }
 
@@ -103,10 +106,13 @@ public class WaitUtils {
      * @return True if the element is invisible, false otherwise.
      */
     private boolean waitForInvisibility(By locator, WebDriverWait wait) {
+        int span = StepTimeline.begin(StepTimeline.Kind.WAIT, "invisible", locator);
         try {
             return wait.until(ExpectedConditions.invisibilityOfElementLocated(locator));
         } catch (TimeoutException e) {
             throw new RuntimeException("Element did not become invisible: " + locator, e);
+        } finally {
+            StepTimeline.end(span);
         }
     }
 
@@ -138,10 +144,13 @@ public class WaitUtils {
      * @return The clickable WebElement.
      */
     private WebElement waitForClickability(By locator, WebDriverWait wait) {
+        int span = StepTimeline.begin(StepTimeline.Kind.WAIT, "clickable", locator);
         try {
             return wait.until(ExpectedConditions.elementToBeClickable(locator));
         } catch (TimeoutException e) {
             throw new RuntimeException("Element not clickable: " + locator, e);
+        } finally {
+            StepTimeline.end(span);
         }
     }
 
@@ -173,10 +182,13 @@ public class WaitUtils {
      * @return The WebElement.
      */
     private WebElement waitForPresence(By locator, WebDriverWait wait) {
+        int span = StepTimeline.begin(StepTimeline.Kind.WAIT, "present", locator);
         try {
             return wait.until(ExpectedConditions.presenceOfElementLocated(locator));
         } catch (TimeoutException e) {
             throw new RuntimeException("Element not present: " + locator, e);
+        } finally {
+            StepTimeline.end(span);
         }
     }
 }
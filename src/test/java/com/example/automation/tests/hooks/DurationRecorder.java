@@ -0,0 +1,88 @@
+package com.example.automation.tests.hooks;
+
+import com.example.automation.tests.utilities.DurationHistory;
+import com.example.automation.utils.ExtentReportManager;
+import lombok.extern.slf4j.Slf4j;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures each test including its @BeforeMethod/@AfterMethod setup, summed over data rows, and writes the
+ * durations to the report directory when the suite finishes. Unsharded runs also merge them into the duration
+ * history; sharded runs leave that to ShardReportMerger, once per run.
+ */
+@Slf4j
+public class DurationRecorder implements IInvokedMethodListener, ISuiteListener {
+
+    public static final String RUN_DURATIONS_FILE = "durations.properties";
+
+    private final Map<String, LongAdder> runNanos = new ConcurrentHashMap<>();
+    private final ThreadLocal<Long> startNanos = new ThreadLocal<>();
+    // Setup time of the next test on this thread, and the test the following teardown belongs to
+    private final ThreadLocal<Long> pendingSetupNanos = ThreadLocal.withInitial(() -> 0L);
+    private final ThreadLocal<String> lastTest = new ThreadLocal<>();
+
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult result) {
+        startNanos.set(System.nanoTime());
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult result) {
+        Long start = startNanos.get();
+        if (start == null) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        ITestNGMethod testMethod = method.getTestMethod();
+        if (method.isTestMethod()) {
+            String test = testMethod.getQualifiedName();
+            add(test, elapsed + pendingSetupNanos.get());
+            pendingSetupNanos.set(0L);
+            lastTest.set(test);
+        } else if (testMethod.isBeforeMethodConfiguration()) {
+            pendingSetupNanos.set(pendingSetupNanos.get() + elapsed);
+        } else if (testMethod.isAfterMethodConfiguration() && lastTest.get() != null) {
+            add(lastTest.get(), elapsed);
+        }
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (runNanos.isEmpty()) {
+            return;
+        }
+        Map<String, Long> runMillis = new TreeMap<>();
+        runNanos.forEach((test, nanos) -> runMillis.put(test, TimeUnit.NANOSECONDS.toMillis(nanos.sum())));
+
+        try {
+            Path reportDir = ExtentReportManager.getReportDir();
+            Files.createDirectories(reportDir);
+            DurationHistory.of(runMillis).save(reportDir.resolve(RUN_DURATIONS_FILE));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write the run's test durations", e);
+        }
+        if (ShardSelector.getShardCount() <= 1) {
+            DurationHistory.update(ShardSelector.getHistoryFile(), runMillis);
+            log.info("Updated the duration history {} with {} test(s)", ShardSelector.getHistoryFile(), runMillis.size());
+        }
+    }
+
+    private void add(String test, long nanos) {
+        runNanos.computeIfAbsent(test, t -> new LongAdder()).add(nanos);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.automation.tests.hooks;
+
+import com.example.automation.utils.PropertiesLoader;
+import lombok.extern.slf4j.Slf4j;
+import org.testng.IAlterSuiteListener;
+import org.testng.xml.XmlSuite;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Applies the parallel mode and thread count from test.parallel / test.threads (system properties override
+ * the properties file) to the suite. A &lt;test&gt; that sets its own parallel attribute keeps it.
+ * Data provider rows marked parallel use the same thread count.
+ */
+@Slf4j
+public class ParallelConfigurer implements IAlterSuiteListener {
+
+    private final String mode;
+    private final int threads;
+
+    /**
+     * Constructor for ParallelConfigurer, reading the configured mode and thread count.
+     */
+    public ParallelConfigurer() {
+        this(PropertiesLoader.getOverridableProperty("test.parallel", "none"),
+                Integer.parseInt(PropertiesLoader.getOverridableProperty("test.threads", "1").trim()));
+    }
+
+    /**
+     * @param mode    none, methods, classes or instances.
+     * @param threads Number of worker threads.
+     */
+    public ParallelConfigurer(String mode, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("test.threads must be at least 1, was " + threads);
+        }
+        this.mode = mode.trim().toLowerCase(Locale.ROOT);
+        this.threads = threads;
+    }
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        XmlSuite.ParallelMode parallel = switch (mode) {
+            case "none", "false" -> XmlSuite.ParallelMode.NONE;
+            case "methods" -> XmlSuite.ParallelMode.METHODS;
+            case "classes" -> XmlSuite.ParallelMode.CLASSES;
+            case "instances" -> XmlSuite.ParallelMode.INSTANCES;
+            default -> throw new IllegalArgumentException("Unsupported test.parallel '" + mode + "', use none, methods, classes or instances");
+        };
+        for (XmlSuite suite : suites) {
+            suite.setParallel(parallel);
+            suite.setThreadCount(threads);
+            suite.setDataProviderThreadCount(threads);
+            log.info("Suite '{}' runs with parallel={} on {} thread(s)", suite.getName(), parallel, threads);
+        }
+    }
+}
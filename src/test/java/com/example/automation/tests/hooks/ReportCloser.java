@@ -0,0 +1,16 @@
+package com.example.automation.tests.hooks;
+
+import com.example.automation.utils.ExtentReportManager;
+import org.testng.IExecutionListener;
+
+/**
+ * Writes the complete Extent report once TestNG has run every suite, after the suite listeners have added their
+ * summaries. A JVM shutdown hook does the same for runs without this listener.
+ */
+public class ReportCloser implements IExecutionListener {
+
+    @Override
+    public void onExecutionFinish() {
+        ExtentReportManager.closeReports();
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.automation.tests.hooks;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the browser state a test starts from, e.g. "signup-form" or "logged-in".
+ * {@link StateAwareScheduler} runs tests of the same state back to back, and BaseTest hands the browser
+ * of a passing test to the next test of the same state when the state is still intact, instead of rebuilding it.
+ * A method-level annotation overrides the class-level one.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface RequiresState {
+
+    /**
+     * @return The state name.
+     */
+    String value();
+}
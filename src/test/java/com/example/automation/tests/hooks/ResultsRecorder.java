@@ -0,0 +1,102 @@
+package com.example.automation.tests.hooks;
+
+import com.example.automation.utils.ResultsSink;
+import com.example.automation.utils.ScreenshotPipeline;
+import org.testng.IExecutionListener;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Appends a record per finished test to the fork's {@link ResultsSink}: status, duration, attempt, the setup steps
+ * timed on the test's thread and the screenshots it took. Closes the sink once TestNG has run every suite.
+ */
+public class ResultsRecorder implements ITestListener, IInvokedMethodListener, IExecutionListener {
+
+    private final Map<String, AtomicInteger> attempts = new ConcurrentHashMap<>();
+    private final ResultsSink sink;
+
+    /**
+     * Constructor for ResultsRecorder, writing to the fork's shared sink.
+     */
+    public ResultsRecorder() {
+        this(null);
+    }
+
+    /**
+     * @param sink The sink to write to instead of the fork's shared one, e.g. of a nested TestNG run; it is closed
+     *             once TestNG has run every suite.
+     */
+    public ResultsRecorder(ResultsSink sink) {
+        this.sink = sink;
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        record(result, "PASS");
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        record(result, "FAIL");
+    }
+
+    @Override
+    public void onTestFailedButWithinSuccessPercentage(ITestResult result) {
+        record(result, "FAIL");
+    }
+
+    @Override
+    public void onTestSkipped(ITestResult result) {
+        record(result, result.wasRetried() ? "RETRY" : "SKIP");
+    }
+
+    @Override
+    public void onTestFailedWithTimeout(ITestResult result) {
+        record(result, "FAIL");
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult result) {
+        // Steps of a teardown belong to no test
+        if (method.getTestMethod().isAfterMethodConfiguration()) {
+            ResultsSink.discardPending();
+        }
+    }
+
+    @Override
+    public void onExecutionFinish() {
+        ScreenshotPipeline.drainShared();
+        if (sink != null) {
+            sink.close();
+        } else {
+            ResultsSink.closeShared();
+        }
+    }
+
+    private void record(ITestResult result, String status) {
+        String test = result.getMethod().getQualifiedName();
+        List<String> parameters = Arrays.stream(result.getParameters()).map(String::valueOf).toList();
+        int attempt = attempts.computeIfAbsent(test + parameters, key -> new AtomicInteger()).incrementAndGet();
+        ResultsSink.TestData data = ResultsSink.takeTestData();
+        Throwable error = result.getThrowable();
+
+        ResultsSink sink = this.sink != null ? this.sink : ResultsSink.shared();
+        String startedAt = Instant.ofEpochMilli(result.getStartMillis()).toString();
+        String suite = result.getTestContext().getSuite().getName();
+        long durationMs = Math.max(0, result.getEndMillis() - result.getStartMillis());
+        String failure = error == null ? null : error.getClass().getSimpleName() + ": " + String.valueOf(error.getMessage()).lines().findFirst().orElse("");
+        // Screenshots are stored in the background; the record is written once their paths are known
+        data.artifactPaths().thenAccept(artifacts -> sink.writeTest(new ResultsSink.Record("test", sink.getRunId(),
+                sink.getFork(), sink.getEnv(), startedAt, suite, test, parameters, status, durationMs, attempt,
+                data.steps(), artifacts, failure, null, null)));
+    }
+}
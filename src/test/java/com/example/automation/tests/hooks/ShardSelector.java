@@ -0,0 +1,85 @@
+package com.example.automation.tests.hooks;
+
+import com.example.automation.tests.utilities.DurationHistory;
+import com.example.automation.tests.utilities.ShardPlanner;
+import com.example.automation.utils.PropertiesLoader;
+import lombok.extern.slf4j.Slf4j;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITestContext;
+import org.testng.ITestNGMethod;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Runs only this fork's share of the tests when shard.count is above 1. The tests are split into shard.count shards
+ * balanced by the duration history, and shard.index (0-based) selects the one to run. Tests of a class that require
+ * the same {@link RequiresState} stay in one shard so they can still reuse the state; tests without history count
+ * as the median test.
+ */
+@Slf4j
+public class ShardSelector implements IMethodInterceptor {
+
+    // Expected duration of a test when there is no history at all
+    private static final long DEFAULT_TEST_MILLIS = 30_000;
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        int count = getShardCount();
+        if (count <= 1 || methods.isEmpty()) {
+            return methods;
+        }
+        int index = Integer.parseInt(PropertiesLoader.getOverridableProperty("shard.index", "0").trim());
+        if (index < 0 || index >= count) {
+            throw new IllegalArgumentException("shard.index must be between 0 and " + (count - 1) + ", was " + index);
+        }
+
+        DurationHistory history = DurationHistory.load(getHistoryFile());
+        long fallbackMillis = history.median(DEFAULT_TEST_MILLIS);
+
+        Map<String, List<IMethodInstance>> units = new LinkedHashMap<>();
+        for (IMethodInstance instance : methods) {
+            units.computeIfAbsent(unitName(instance.getMethod()), name -> new ArrayList<>()).add(instance);
+        }
+        List<ShardPlanner.Unit<List<IMethodInstance>>> plannedUnits = new ArrayList<>();
+        units.forEach((name, instances) -> {
+            long millis = 0;
+            Set<String> tests = new LinkedHashSet<>();
+            instances.forEach(instance -> tests.add(instance.getMethod().getQualifiedName()));
+            for (String test : tests) {
+                long known = history.get(test);
+                millis += known >= 0 ? known : fallbackMillis;
+            }
+            plannedUnits.add(new ShardPlanner.Unit<>(name, millis, instances));
+        });
+
+        List<ShardPlanner.Shard<List<IMethodInstance>>> plan = ShardPlanner.plan(plannedUnits, count);
+        Set<IMethodInstance> selected = new HashSet<>();
+        plan.get(index).units().forEach(unit -> selected.addAll(unit.payload()));
+
+        List<String> loads = plan.stream().map(shard -> shard.millis() / 1000 + " s").toList();
+        log.info("'{}' shard {}/{}: {} of {} test(s), expected {} s (all shards: {})", context.getName(), index + 1, count,
+                selected.size(), methods.size(), plan.get(index).millis() / 1000, loads);
+        return methods.stream().filter(selected::contains).toList();
+    }
+
+    public static int getShardCount() {
+        return Integer.parseInt(PropertiesLoader.getOverridableProperty("shard.count", "1").trim());
+    }
+
+    public static Path getHistoryFile() {
+        return Path.of(PropertiesLoader.getOverridableProperty("test.durationHistory", "test-history/durations.properties").trim());
+    }
+
+    private static String unitName(ITestNGMethod method) {
+        String state = StateAwareScheduler.getRequiredState(method);
+        return method.getRealClass().getName() + "#" + (state != null ? "state:" + state : method.getMethodName());
+    }
+}
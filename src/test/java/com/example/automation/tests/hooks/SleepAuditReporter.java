@@ -0,0 +1,30 @@
+package com.example.automation.tests.hooks;
+
+import com.aventstack.extentreports.ExtentTest;
+import com.example.automation.utils.ExtentReportManager;
+import com.example.automation.utils.Sleeper;
+import lombok.extern.slf4j.Slf4j;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+
+/**
+ * Adds a "Fixed sleeps" entry to the report when a suite finishes: how much of the tests' wall-clock time went
+ * into fixed sleeps, per call site, as measured by {@link Sleeper}.
+ */
+@Slf4j
+public class SleepAuditReporter implements ISuiteListener {
+
+    @Override
+    public void onFinish(ISuite suite) {
+        Sleeper.Audit audit = Sleeper.takeAudit();
+        if (audit.sites().isEmpty()) {
+            return;
+        }
+        log.info("Fixed sleeps of suite {}: {} ms of {} ms of test time", suite.getName(), audit.sleptMs(), audit.testWallMs());
+        audit.sites().forEach(site -> log.info("  {}: {} x, {} ms slept, {} ms saved", site.site(), site.count(), site.sleptMs(), site.savedMs()));
+        ExtentTest report = ExtentReportManager.createTest("Fixed sleeps: " + suite.getName(),
+                "Wall-clock time spent in fixed sleeps, per call site");
+        report.info(Sleeper.toHtml(audit));
+        ExtentReportManager.endTest(report);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.automation.tests.hooks;
+
+import com.aventstack.extentreports.ExtentTest;
+import com.example.automation.utils.ExtentReportManager;
+import com.example.automation.utils.PropertiesLoader;
+import com.example.automation.utils.StepTimeline;
+import lombok.extern.slf4j.Slf4j;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+
+import java.util.List;
+
+/**
+ * Adds a "Slowest steps" entry to the report when a suite finishes: the steps of the suite's tests that took the
+ * most time altogether, from the timed spans {@link StepTimeline} recorded.
+ */
+@Slf4j
+public class SlowestStepsReporter implements ISuiteListener {
+
+    @Override
+    public void onFinish(ISuite suite) {
+        int limit = Integer.parseInt(PropertiesLoader.getProperty("timeline.topSteps", "20").trim());
+        List<StepTimeline.StepStats> steps = StepTimeline.takeSlowestSteps(limit);
+        if (steps.isEmpty()) {
+            return;
+        }
+        log.info("Slowest steps of suite {}:", suite.getName());
+        steps.forEach(step -> log.info("  {}: {} x, {} ms total, {} ms max", step.step(), step.count(), step.totalMs(), step.maxMs()));
+        ExtentTest report = ExtentReportManager.createTest("Slowest steps: " + suite.getName(),
+                "Steps of the suite's tests that took the most time altogether");
+        report.info(StepTimeline.toHtml(steps));
+        ExtentReportManager.endTest(report);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.automation.tests.hooks;
+
+import com.aventstack.extentreports.ExtentTest;
+import com.example.automation.utils.ExtentReportManager;
+import lombok.extern.slf4j.Slf4j;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestContext;
+import org.testng.ITestNGMethod;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Orders the tests of each class so that tests requiring the same {@link RequiresState} run back to back,
+ * letting BaseTest reuse a prepared browser state. Classes keep their order, state groups are ordered by their
+ * first test, and tests within a group keep their priority order. Reports the state reuse when the suite finishes.
+ */
+@Slf4j
+public class StateAwareScheduler implements IMethodInterceptor, ISuiteListener {
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        Map<Class<?>, Integer> classOrder = new HashMap<>();
+        Map<String, Integer> groupOrder = new HashMap<>();
+        Map<IMethodInstance, Integer> position = new HashMap<>();
+        for (IMethodInstance instance : methods) {
+            ITestNGMethod method = instance.getMethod();
+            classOrder.putIfAbsent(method.getRealClass(), classOrder.size());
+            groupOrder.putIfAbsent(groupKey(method), groupOrder.size());
+            position.put(instance, position.size());
+        }
+
+        List<IMethodInstance> ordered = new ArrayList<>(methods);
+        ordered.sort(Comparator
+                .comparing((IMethodInstance instance) -> classOrder.get(instance.getMethod().getRealClass()))
+                .thenComparing(instance -> groupOrder.get(groupKey(instance.getMethod())))
+                .thenComparing(position::get));
+
+        // TestNG runs independent methods by priority, so priorities must follow the new order
+        for (int i = 0; i < ordered.size(); i++) {
+            ordered.get(i).getMethod().setPriority(i);
+        }
+        return ordered;
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        String summary = StateReuseStats.getSummary();
+        if (summary == null) {
+            return;
+        }
+        log.info(summary);
+        ExtentTest report = ExtentReportManager.createTest("Browser state reuse", "Setup avoided by reusing prepared browser states");
+        summary.lines().skip(1).forEach(line -> report.info(line.trim()));
+        ExtentReportManager.endTest(report);
+    }
+
+    /**
+     * Returns the state a test requires: its method-level {@link RequiresState}, else its class-level one.
+     *
+     * @param method The test method.
+     * @return The state name, or null if none is declared.
+     */
+    public static String getRequiredState(ITestNGMethod method) {
+        Method javaMethod = method.getConstructorOrMethod().getMethod();
+        RequiresState state = javaMethod.getAnnotation(RequiresState.class);
+        if (state == null) {
+            Class<?> testClass = method.getRealClass();
+            state = testClass.getAnnotation(RequiresState.class);
+        }
+        return state != null ? state.value() : null;
+    }
+
+    private static String groupKey(ITestNGMethod method) {
+        String state = getRequiredState(method);
+        return method.getRealClass().getName() + "#" + (state != null ? state : "");
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.automation.tests.hooks;
+
+import com.example.automation.utils.SetupTimeStats;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Run-wide counts of browser states that were reused or rebuilt for tests declaring {@link RequiresState}.
+ */
+public class StateReuseStats {
+
+    private static final String SETUP_PHASE_PREFIX = "setup.state.";
+
+    private record Counts(LongAdder reused, LongAdder rebuilt) {
+    }
+
+    private static final Map<String, Counts> COUNTS = new ConcurrentHashMap<>();
+
+    private StateReuseStats() {
+    }
+
+    public static void recordReused(String state) {
+        counts(state).reused().increment();
+    }
+
+    public static void recordRebuilt(String state, long setupNanos) {
+        counts(state).rebuilt().increment();
+        SetupTimeStats.record(SETUP_PHASE_PREFIX + state, setupNanos);
+    }
+
+    /**
+     * Returns the average time building the state took in this run.
+     *
+     * @param state The state name.
+     * @return Average setup time in milliseconds, or -1 if the state was not built yet.
+     */
+    public static long averageSetupMs(String state) {
+        return SetupTimeStats.averageMs(SETUP_PHASE_PREFIX + state);
+    }
+
+    /**
+     * Summarises state reuse per state.
+     *
+     * @return One line per state, or null if no test declared a state.
+     */
+    public static String getSummary() {
+        if (COUNTS.isEmpty()) {
+            return null;
+        }
+        StringBuilder summary = new StringBuilder("Browser state reuse:");
+        long totalReused = 0;
+        long totalTests = 0;
+        long totalAvoidedMs = 0;
+        for (Map.Entry<String, Counts> entry : new TreeMap<>(COUNTS).entrySet()) {
+            long reused = entry.getValue().reused().sum();
+            long tests = reused + entry.getValue().rebuilt().sum();
+            long avoidedMs = reused * Math.max(0, averageSetupMs(entry.getKey()));
+            summary.append(String.format("%n  %s: %d/%d test(s) reused the state (%.0f%%), ~%d ms setup avoided",
+                    entry.getKey(), reused, tests, 100.0 * reused / tests, avoidedMs));
+            totalReused += reused;
+            totalTests += tests;
+            totalAvoidedMs += avoidedMs;
+        }
+        summary.append(String.format("%n  total: %d/%d reused (%.0f%%), ~%d ms setup avoided",
+                totalReused, totalTests, 100.0 * totalReused / totalTests, totalAvoidedMs));
+        return summary.toString();
+    }
+
+    private static Counts counts(String state) {
+        return COUNTS.computeIfAbsent(state, s -> new Counts(new LongAdder(), new LongAdder()));
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.automation.tests.stubs;
+
+import com.example.automation.config.Config;
+import com.example.automation.tests.testcases.BaseTest;
+import com.example.automation.tests.testdata.UserCredentials;
+import com.example.automation.tests.utilities.EnvironmentUtils;
+import com.example.automation.utils.GenerateEmail;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * BaseTest tests that look up the environment the way the browser tests do, but without opening a browser, run by a
+ * nested TestNG instance in ParallelEnvironmentTest. Setup and tests run on the worker threads, not on the thread
+ * that started the Spring context.
+ */
+@SpringBootTest
+public class EnvironmentLookupTests extends BaseTest {
+
+    public static final int TEST_COUNT = 5;
+    public static final Set<String> THREADS = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    private GenerateEmail generateEmail;
+
+    @BeforeMethod
+    public void setup() {
+        THREADS.add(Thread.currentThread().getName());
+        Assert.assertNotNull(EnvironmentUtils.getEmailForEnvironment());
+    }
+
+    @Test
+    public void environmentAndBaseUrl() {
+        Assert.assertEquals(Config.getEnvironment(), System.getProperty("spring.profiles.active").toLowerCase());
+        Assert.assertTrue(Config.getBaseUrl().startsWith("http"), Config.getBaseUrl());
+    }
+
+    @Test
+    public void accountPool() {
+        Assert.assertNotNull(EnvironmentUtils.getAccountPool());
+    }
+
+    @Test
+    public void credentials() {
+        String email = EnvironmentUtils.getEmailForEnvironment();
+        Assert.assertNotNull(EnvironmentUtils.getPasswordForEmailInEnvironment(email));
+    }
+
+    @Test
+    public void generatedEmail() {
+        Assert.assertTrue(generateEmail.generateEmail().contains(Config.getEnvironment()));
+    }
+
+    @Test(dataProvider = "userCredentials", dataProviderClass = UserCredentials.class)
+    public void dataProviderRow(String env, String email, String password) {
+        Assert.assertEquals(env, Config.getEnvironment());
+    }
+}
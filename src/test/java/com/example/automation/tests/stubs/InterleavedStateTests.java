@@ -0,0 +1,43 @@
+package com.example.automation.tests.stubs;
+
+import com.example.automation.tests.hooks.RequiresState;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Tests with interleaved states and priorities, run by a nested TestNG instance in StateAwareSchedulerTest.
+ */
+@RequiresState("signup-form")
+public class InterleavedStateTests {
+
+    public static final List<String> EXECUTED = new CopyOnWriteArrayList<>();
+
+    @Test(priority = 1)
+    public void signupA() {
+        EXECUTED.add("signupA");
+    }
+
+    @Test(priority = 2)
+    @RequiresState("logged-in")
+    public void walletA() {
+        EXECUTED.add("walletA");
+    }
+
+    @Test(priority = 3)
+    public void signupB() {
+        EXECUTED.add("signupB");
+    }
+
+    @Test(priority = 4)
+    @RequiresState("logged-in")
+    public void walletB() {
+        EXECUTED.add("walletB");
+    }
+
+    @Test(priority = 5)
+    public void signupC() {
+        EXECUTED.add("signupC");
+    }
+}
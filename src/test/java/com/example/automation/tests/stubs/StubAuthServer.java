@@ -0,0 +1,127 @@
+package com.example.automation.tests.stubs;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local stand-in for the auth API: password login, OTP verification and an authenticated probe endpoint.
+ * Runs on an ephemeral port so tests never depend on a real environment.
+ */
+@Slf4j
+public class StubAuthServer {
+
+    public static final String LOGIN_PATH = "/api/v1/auth/login";
+    public static final String OTP_PATH = "/api/v1/auth/verify-otp";
+    public static final String ME_PATH = "/api/v1/auth/me";
+    public static final String SESSION_COOKIE = "session";
+
+    private final Map<String, String> users;
+    private final String expectedOtp;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, String> pendingOtpTokens = new ConcurrentHashMap<>();
+    private final Set<String> sessions = ConcurrentHashMap.newKeySet();
+    private HttpServer server;
+
+    /**
+     * Constructor for StubAuthServer.
+     *
+     * @param users       Map of email to password.
+     * @param expectedOtp The OTP every user must enter.
+     */
+    public StubAuthServer(Map<String, String> users, String expectedOtp) {
+        this.users = users;
+        this.expectedOtp = expectedOtp;
+    }
+
+    /**
+     * Starts the server on a free local port.
+     */
+    public void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext(LOGIN_PATH, this::handleLogin);
+        server.createContext(OTP_PATH, this::handleOtp);
+        server.createContext(ME_PATH, this::handleMe);
+        server.createContext("/", exchange -> respond(exchange, 200, "text/html",
+                "<html><head><title>Stub</title></head><body><p>Stub app</p></body></html>"));
+        server.start();
+        log.info("Stub auth server started at {}", getBaseUrl());
+    }
+
+    /**
+     * Stops the server.
+     */
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    public String getBaseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Ends every active session, as if they had expired on the backend.
+     */
+    public void expireSessions() {
+        sessions.clear();
+    }
+
+    private void handleLogin(HttpExchange exchange) throws IOException {
+        JsonNode body = objectMapper.readTree(exchange.getRequestBody());
+        String email = body.path("email").asText();
+        if (!body.path("password").asText().equals(users.get(email))) {
+            respond(exchange, 401, "application/json", "{\"message\":\"Please enter correct credentials\"}");
+            return;
+        }
+        String otpToken = UUID.randomUUID().toString();
+        pendingOtpTokens.put(otpToken, email);
+        exchange.getResponseHeaders().add("Set-Cookie", "pre_auth=" + otpToken + "; Path=/; HttpOnly");
+        respond(exchange, 200, "application/json", "{\"otpRequired\":true,\"otpToken\":\"" + otpToken + "\"}");
+    }
+
+    private void handleOtp(HttpExchange exchange) throws IOException {
+        JsonNode body = objectMapper.readTree(exchange.getRequestBody());
+        String email = pendingOtpTokens.get(body.path("otpToken").asText());
+        if (email == null || !email.equals(body.path("email").asText()) || !expectedOtp.equals(body.path("otp").asText())) {
+            respond(exchange, 401, "application/json", "{\"message\":\"Invalid OTP\"}");
+            return;
+        }
+        pendingOtpTokens.remove(body.path("otpToken").asText());
+        String token = UUID.randomUUID().toString();
+        sessions.add(token);
+        exchange.getResponseHeaders().add("Set-Cookie", SESSION_COOKIE + "=" + token + "; Path=/; HttpOnly");
+        respond(exchange, 200, "application/json", "{\"token\":\"" + token + "\"}");
+    }
+
+    private void handleMe(HttpExchange exchange) throws IOException {
+        String cookies = String.join(";", exchange.getRequestHeaders().getOrDefault("Cookie", List.of()));
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        boolean authenticated = sessions.stream().anyMatch(token ->
+                cookies.contains(SESSION_COOKIE + "=" + token) || ("Bearer " + token).equals(authorization));
+        respond(exchange, authenticated ? 200 : 401, "application/json",
+                authenticated ? "{\"authenticated\":true}" : "{\"authenticated\":false}");
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
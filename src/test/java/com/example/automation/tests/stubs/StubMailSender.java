@@ -0,0 +1,56 @@
+package com.example.automation.tests.stubs;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Sends a message over plain SMTP, the way the backend's mail relay would, for exercising the SMTP sink.
+ */
+public class StubMailSender {
+
+    private StubMailSender() {
+    }
+
+    /**
+     * Delivers a raw RFC 5322 message to an SMTP server on localhost.
+     *
+     * @param port    The server port.
+     * @param from    Envelope sender.
+     * @param to      Envelope recipient.
+     * @param message Headers and body, lines separated by CRLF.
+     */
+    public static void send(int port, String from, String to, String message) throws IOException {
+        try (Socket socket = new Socket("localhost", port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             OutputStream out = socket.getOutputStream()) {
+            expect(in, "220");
+            command(out, in, "EHLO stub", "250");
+            command(out, in, "MAIL FROM:<" + from + ">", "250");
+            command(out, in, "RCPT TO:<" + to + ">", "250");
+            command(out, in, "DATA", "354");
+            String stuffed = message.replaceAll("(?m)^\\.", "..");
+            command(out, in, stuffed + (stuffed.endsWith("\r\n") ? "" : "\r\n") + ".", "250");
+            command(out, in, "QUIT", "221");
+        }
+    }
+
+    private static void command(OutputStream out, BufferedReader in, String line, String expectedCode) throws IOException {
+        out.write((line + "\r\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+        expect(in, expectedCode);
+    }
+
+    private static void expect(BufferedReader in, String expectedCode) throws IOException {
+        String line;
+        do {
+            line = in.readLine();
+            if (line == null || !line.startsWith(expectedCode)) {
+                throw new IOException("Expected " + expectedCode + " but got " + line);
+            }
+        } while (line.charAt(3) == '-');
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.automation.tests.stubs;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local stand-in for the web app with a fixed server latency per request, for benchmarking the test
+ * infrastructure without a real environment. Each page load starts a session whose id the form endpoint echoes.
+ */
+@Slf4j
+public class StubSite {
+
+    public static final String FORM_PATH = "/api/form";
+    public static final String SESSION_COOKIE = "sid";
+
+    private final long latencyMillis;
+    private final LongAdder requests = new LongAdder();
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * Constructor for StubSite.
+     *
+     * @param latencyMillis How long the server takes to answer each request.
+     */
+    public StubSite(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    /**
+     * Starts the server on a free local port; every request is handled on its own virtual thread.
+     */
+    public void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext(FORM_PATH, this::handleForm);
+        server.createContext("/", this::handlePage);
+        server.start();
+        log.info("Stub site started at {}", getBaseUrl());
+    }
+
+    /**
+     * Stops the server.
+     */
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    public String getBaseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    private void handlePage(HttpExchange exchange) throws IOException {
+        String session = UUID.randomUUID().toString();
+        exchange.getResponseHeaders().add("Set-Cookie", SESSION_COOKIE + "=" + session + "; Path=/");
+        respond(exchange, "text/html", "<html><head><title>Stub</title></head><body><form id='signup'></form></body></html>");
+    }
+
+    private void handleForm(HttpExchange exchange) throws IOException {
+        String cookies = String.join(";", exchange.getRequestHeaders().getOrDefault("Cookie", List.of()));
+        String session = cookies.replaceAll(".*" + SESSION_COOKIE + "=([^;]*).*", "$1");
+        respond(exchange, "application/json", "{\"session\":\"" + session + "\"}");
+    }
+
+    private void respond(HttpExchange exchange, String contentType, String body) throws IOException {
+        requests.increment();
+        try {
+            Thread.sleep(latencyMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.automation.tests.stubs;
+
+import com.aventstack.extentreports.ExtentTest;
+import com.example.automation.utils.AsyncReportWriter;
+import com.example.automation.utils.ResultsSink;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Factory;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Method;
+import java.net.CookieManager;
+import java.net.HttpCookie;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+/**
+ * Page-session tests against a {@link StubSite} in the style of BaseTest, run by a nested TestNG instance in
+ * ParallelExecutionBenchmarkTest. Each thread holds its own client (with its own cookies, like a browser) and loads
+ * the page in setup. As in BaseTest, every test gets its own entry in the report, logs its session to it, and times
+ * its setup as a results step on its thread; the benchmark checks each test's entry and record carry its own session.
+ */
+public class StubSiteSessionTests {
+
+    private static final int INSTANCES = 4;
+    public static final int TEST_COUNT = INSTANCES * 4;
+    public static final String OPEN_STEP = "page.open ";
+
+    private static volatile String baseUrl;
+    private static volatile AsyncReportWriter reportWriter;
+
+    private record Session(HttpClient client, CookieManager cookies, String id, ExtentTest test) {
+    }
+
+    private final ThreadLocal<Session> sessions = new ThreadLocal<>();
+
+    /**
+     * @param url    Base URL of the stub site.
+     * @param writer Report writer the tests add their entries to.
+     */
+    public static void setUp(String url, AsyncReportWriter writer) {
+        baseUrl = url;
+        reportWriter = writer;
+    }
+
+    @Factory
+    public static Object[] create() {
+        Object[] instances = new Object[INSTANCES];
+        for (int i = 0; i < INSTANCES; i++) {
+            instances[i] = new StubSiteSessionTests();
+        }
+        return instances;
+    }
+
+    @BeforeMethod
+    public void openPage(Method method) throws Exception {
+        long start = System.nanoTime();
+        CookieManager cookies = new CookieManager();
+        HttpClient client = HttpClient.newBuilder().cookieHandler(cookies).build();
+        load(client);
+        String id = sessionId(cookies);
+        ExtentTest test = reportWriter.createTest(method.getName(), "Stub site session");
+        test.info("Session " + id);
+        sessions.set(new Session(client, cookies, id, test));
+        ResultsSink.recordStep(OPEN_STEP + id, System.nanoTime() - start);
+    }
+
+    @Test
+    public void submitForm() throws Exception {
+        assertOwnSession();
+    }
+
+    @Test
+    public void submitFormTwice() throws Exception {
+        assertOwnSession();
+        assertOwnSession();
+    }
+
+    @Test
+    public void reloadAndSubmit() throws Exception {
+        Session session = sessions.get();
+        load(session.client());
+        String id = sessionId(session.cookies());
+        session.test().info("Reloaded into session " + id);
+        sessions.set(new Session(session.client(), session.cookies(), id, session.test()));
+        assertOwnSession();
+    }
+
+    @Test
+    public void validateForm() throws Exception {
+        assertOwnSession();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void closePage() {
+        Session session = sessions.get();
+        sessions.remove();
+        if (session != null) {
+            session.client().close();
+            reportWriter.testFinished(session.test());
+        }
+    }
+
+    private static void load(HttpClient client) throws Exception {
+        client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/")).build(), HttpResponse.BodyHandlers.discarding());
+    }
+
+    private static String sessionId(CookieManager cookies) {
+        return cookies.getCookieStore().getCookies().stream()
+                .filter(cookie -> cookie.getName().equals(StubSite.SESSION_COOKIE))
+                .map(HttpCookie::getValue).findFirst().orElseThrow();
+    }
+
+    private void assertOwnSession() throws Exception {
+        Session session = sessions.get();
+        String body = session.client().send(HttpRequest.newBuilder(URI.create(baseUrl + StubSite.FORM_PATH)).build(),
+                HttpResponse.BodyHandlers.ofString()).body();
+        Assert.assertEquals(body, "{\"session\":\"" + session.id() + "\"}", "Test talked to another test's session");
+        session.test().pass("Form answered for session " + session.id());
+    }
+}
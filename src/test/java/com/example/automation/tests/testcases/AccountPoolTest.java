@@ -0,0 +1,99 @@
+package com.example.automation.tests.testcases;
+
+import com.example.automation.utils.AccountPool;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AccountPoolTest {
+
+    private static final List<AccountPool.Account> ACCOUNTS = List.of(
+            new AccountPool.Account("pool1@yopmail.com", "Pass@1"),
+            new AccountPool.Account("pool2@yopmail.com", "Pass@2"),
+            new AccountPool.Account("pool3@yopmail.com", "Pass@3"));
+
+    @Test(description = "An account is never leased to two workers at the same time")
+    public void testLeasesAreExclusive() throws Exception {
+        AccountPool pool = new AccountPool(ACCOUNTS, Duration.ofMinutes(1), Duration.ZERO);
+        Set<String> inUse = ConcurrentHashMap.newKeySet();
+        AtomicInteger completed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            Future<?>[] futures = new Future<?>[8];
+            for (int t = 0; t < futures.length; t++) {
+                futures[t] = executor.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        try (AccountPool.AccountLease lease = pool.lease(Duration.ofSeconds(10))) {
+                            Assert.assertTrue(inUse.add(lease.email()), lease.email() + " leased twice");
+                            Thread.onSpinWait();
+                            inUse.remove(lease.email());
+                        }
+                        completed.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertEquals(completed.get(), 1600);
+        Assert.assertTrue(pool.getSummary().contains("1600 lease(s)"), pool.getSummary());
+    }
+
+    @Test(description = "An expired lease is taken over and the stale holder's return is ignored")
+    public void testExpiredLeaseIsReclaimed() throws Exception {
+        AccountPool pool = new AccountPool(ACCOUNTS.subList(0, 1), Duration.ofMillis(100), Duration.ZERO);
+        AccountPool.AccountLease stale = pool.lease(Duration.ZERO);
+        Assert.assertNull(pool.tryLease());
+
+        AccountPool.AccountLease fresh = pool.lease(Duration.ofSeconds(2));
+        Assert.assertEquals(fresh.email(), stale.email());
+        Assert.assertFalse(stale.renew());
+        stale.close();
+        Assert.assertNull(pool.tryLease(), "Stale holder returned an account it no longer held");
+        fresh.close();
+        Assert.assertTrue(pool.getSummary().contains("1 expired"), pool.getSummary());
+    }
+
+    @Test(description = "An account cools down after a failed login and waiting callers time out meanwhile")
+    public void testCooldownAfterFailedLogin() throws Exception {
+        AccountPool pool = new AccountPool(ACCOUNTS.subList(0, 1), Duration.ofMinutes(1), Duration.ofMillis(400));
+        try (AccountPool.AccountLease lease = pool.lease(Duration.ZERO)) {
+            lease.markLoginFailed();
+        }
+        Assert.assertThrows(TimeoutException.class, () -> pool.lease(Duration.ofMillis(100)));
+
+        try (AccountPool.AccountLease lease = pool.lease(Duration.ofSeconds(2))) {
+            Assert.assertEquals(lease.email(), "pool1@yopmail.com");
+        }
+        Assert.assertTrue(pool.getSummary().contains("1 cooldown(s), 1 timeout(s)"), pool.getSummary());
+    }
+
+    @Test(description = "A failed login reported on an expired lease does not cool down the account of its new holder")
+    public void testStaleFailedLoginDoesNotCoolDown() throws Exception {
+        AccountPool pool = new AccountPool(ACCOUNTS.subList(0, 1), Duration.ofMillis(100), Duration.ofMinutes(1));
+        AccountPool.AccountLease stale = pool.lease(Duration.ZERO);
+        AccountPool.AccountLease fresh = pool.lease(Duration.ofSeconds(2));
+
+        stale.markLoginFailed();
+        stale.close();
+        fresh.close();
+
+        AccountPool.AccountLease next = pool.tryLease();
+        Assert.assertNotNull(next, "Account cools down after a failure reported by a holder that had lost it. " + pool.getSummary());
+        next.close();
+        Assert.assertTrue(pool.getSummary().contains("0 cooldown(s)"), pool.getSummary());
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.automation.tests.testcases;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.reporter.JsonFormatter;
+import com.example.automation.utils.AsyncReportWriter;
+import com.example.automation.utils.ExtentReportManager;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+public class AsyncReportWriterTest {
+
+    @Test(description = "Tests finished on several threads all reach the final report, though most were spilled to disk")
+    public void testSpilledTestsAreMergedIntoFinalReport() throws Exception {
+        Path reportDir = Files.createTempDirectory("async-report");
+        Path archive = reportDir.resolve(ExtentReportManager.JSON_ARCHIVE);
+        AsyncReportWriter writer = AsyncReportWriter.start(reportDir, archive, report -> report.attachReporter(
+                ExtentReportManager.createSparkReporter(reportDir.resolve(ExtentReportManager.HTML_REPORT).toString()),
+                new JsonFormatter(archive.toString())), Duration.ofMillis(50), 5);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> finished = IntStream.range(0, 48).<Future<?>>mapToObj(i -> executor.submit(() -> {
+                ExtentTest test = writer.createTest("test" + i, "Test " + i);
+                test.info("step of test " + i);
+                test.pass("test " + i + " passed");
+                writer.testFinished(test);
+            })).toList();
+            for (Future<?> future : finished) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        writer.flush();
+        Assert.assertTrue(writer.getSpilledTests() >= 40, "Only " + writer.getSpilledTests() + " test(s) spilled");
+        Assert.assertTrue(Files.isDirectory(reportDir.resolve(AsyncReportWriter.SPILL_DIR)));
+        // The report in memory only holds the tests not yet spilled
+        Assert.assertTrue(new ObjectMapper().readTree(archive.toFile()).size() < 5);
+
+        writer.close();
+        writer.close();
+
+        JsonNode tests = new ObjectMapper().readTree(archive.toFile());
+        Set<String> names = new HashSet<>();
+        tests.forEach(test -> names.add(test.get("name").asText()));
+        Assert.assertEquals(names.size(), 48);
+        Assert.assertEquals(tests.size(), 48);
+        Assert.assertTrue(Files.size(reportDir.resolve(ExtentReportManager.HTML_REPORT)) > 0);
+        Assert.assertFalse(Files.exists(reportDir.resolve(AsyncReportWriter.SPILL_DIR)), "Spill files were not cleaned up");
+
+        // The final archive loads like any other run's archive
+        ExtentReports reloaded = new ExtentReports();
+        reloaded.createDomainFromJsonArchive(archive.toFile());
+    }
+
+    @Test(description = "Finishing a test returns without writing the report")
+    public void testFinishingTestDoesNotWriteReport() throws Exception {
+        Path reportDir = Files.createTempDirectory("async-report");
+        Path archive = reportDir.resolve(ExtentReportManager.JSON_ARCHIVE);
+        AsyncReportWriter writer = AsyncReportWriter.start(reportDir, archive,
+                report -> report.attachReporter(new JsonFormatter(archive.toString())), Duration.ofHours(1), 1_000);
+
+        ExtentTest test = writer.createTest("quick", "Quick test");
+        test.pass("done");
+        writer.testFinished(test);
+        Assert.assertFalse(Files.exists(archive), "Report was written when the test finished");
+
+        writer.close();
+        Assert.assertEquals(new ObjectMapper().readTree(archive.toFile()).size(), 1);
+    }
+}
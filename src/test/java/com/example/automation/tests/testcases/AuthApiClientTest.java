@@ -0,0 +1,67 @@
+package com.example.automation.tests.testcases;
+
+import com.example.automation.config.ApplicationProperties;
+import com.example.automation.drivers.AuthSession;
+import com.example.automation.tests.stubs.StubAuthServer;
+import com.example.automation.utils.AuthApiClient;
+import com.example.automation.utils.OTPUtil;
+import org.openqa.selenium.Cookie;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.Map;
+
+public class AuthApiClientTest {
+
+    private static final String EMAIL = "copt1@yopmail.com";
+    private static final String PASSWORD = "Pass@123456";
+
+    private StubAuthServer stubAuthServer;
+    private AuthApiClient authApiClient;
+
+    @BeforeClass
+    public void startStubServer() throws IOException {
+        stubAuthServer = new StubAuthServer(Map.of(EMAIL, PASSWORD), OTPUtil.NON_PROD_OTP);
+        stubAuthServer.start();
+        authApiClient = new AuthApiClient(stubAuthServer.getBaseUrl(), new ApplicationProperties.Auth());
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopStubServer() {
+        stubAuthServer.stop();
+    }
+
+    @Test(description = "Login over the auth API returns the session cookie and token")
+    public void testLoginReturnsSession() throws Exception {
+        AuthSession session = authApiClient.login(EMAIL, PASSWORD, () -> OTPUtil.NON_PROD_OTP);
+
+        Cookie sessionCookie = session.cookies().stream()
+                .filter(cookie -> cookie.getName().equals(StubAuthServer.SESSION_COOKIE))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("Session cookie not returned"));
+        Assert.assertEquals(sessionCookie.getDomain(), "localhost");
+        Assert.assertEquals(session.localStorage().get("token"), sessionCookie.getValue());
+    }
+
+    @Test(description = "Login over the auth API fails with a wrong password", expectedExceptions = IOException.class)
+    public void testLoginWithInvalidPassword() throws Exception {
+        authApiClient.login(EMAIL, "Pass@123456789", () -> OTPUtil.NON_PROD_OTP);
+    }
+
+    @Test(description = "Login over the auth API fails with a wrong OTP", expectedExceptions = IOException.class)
+    public void testLoginWithInvalidOtp() throws Exception {
+        authApiClient.login(EMAIL, PASSWORD, () -> "000000");
+    }
+
+    @Test(description = "The session probe accepts a live session and rejects it once the backend expires it")
+    public void testSessionProbe() throws Exception {
+        AuthSession session = authApiClient.login(EMAIL, PASSWORD, () -> OTPUtil.NON_PROD_OTP);
+        Assert.assertTrue(authApiClient.isSessionValid(session.cookies(), session.localStorage().get("token")));
+
+        stubAuthServer.expireSessions();
+        Assert.assertFalse(authApiClient.isSessionValid(session.cookies(), session.localStorage().get("token")));
+    }
+}
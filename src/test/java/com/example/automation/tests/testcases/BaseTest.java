@@ -2,20 +2,54 @@ package com.example.automation.tests.testcases;
 
 import com.aventstack.extentreports.ExtentTest;
 import com.example.automation.config.ApplicationProperties;
+import com.example.automation.config.Config;
 import com.example.automation.drivers.DriverManager;
+import com.example.automation.drivers.ScreencastRecorder;
+import com.example.automation.drivers.SessionSeeder;
+import com.example.automation.drivers.StorageStateManager;
+import com.example.automation.pages.LoginPage;
+import com.example.automation.tests.hooks.RequiresState;
+import com.example.automation.tests.hooks.StateAwareScheduler;
+import com.example.automation.tests.hooks.StateReuseStats;
+import com.example.automation.tests.utilities.EnvironmentUtils;
 import com.example.automation.utils.*;
 import lombok.extern.slf4j.Slf4j;
 import org.openqa.selenium.WebDriver;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.testng.AbstractTestNGSpringContextTests;
+import org.testng.ITestResult;
+import org.testng.annotations.AfterClass;
 import org.testng.annotations.AfterMethod;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
 @Slf4j
 public class BaseTest extends AbstractTestNGSpringContextTests {
 
-    protected WebDriver driver;
-    protected WaitUtils waitUtils;
-    protected ExtentTest test;
+    private static final String UI_CONSENT_PHASE = "ui.consent";
+    private static final String UI_THEME_PHASE = "ui.theme";
+
+    /**
+     * Per-test state of the test running on one thread, so test methods of an instance can run in parallel.
+     */
+    private static final class ThreadState {
+        private volatile WebDriver driver;
+        private volatile WaitUtils waitUtils;
+        private volatile ExtentTest test;
+        private volatile AccountPool.AccountLease accountLease;
+        // State the open browser was left in by the previous passing test, reusable by the next test requiring it
+        private volatile String preparedState;
+        // Report name of the running test, including data row parameters
+        private volatile String testName;
+    }
+
+    private final ThreadLocal<ThreadState> threadState = ThreadLocal.withInitial(ThreadState::new);
+    // Thread states whose browser is kept open for the next test, quit when the class finishes
+    private final Set<ThreadState> keptStates = ConcurrentHashMap.newKeySet();
 
     @Autowired
     protected DriverManager driverManager;
@@ -23,30 +57,217 @@ public class BaseTest extends AbstractTestNGSpringContextTests {
     @Autowired
     private ApplicationProperties appProps;
 
+    @Autowired
+    private SessionSeeder sessionSeeder;
+
+    @Autowired
+    private StorageStateManager storageStateManager;
+
     protected void initializeDriver(String testName, String description) throws Exception {
+        initializeDriver(testName, description, false);
+    }
+
+    /**
+     * @param viaUi Accept T&C and switch the theme by clicking through the UI instead of pre-seeding them,
+     *              for tests that exercise those paths.
+     */
+    protected void initializeDriver(String testName, String description, boolean viaUi) throws Exception {
+        startDriver();
+
+        openBaseUrl(testName, description, viaUi);
+    }
+
+    /**
+     * Starts the browser already logged in as the environment's user, authenticated over the auth API
+     * instead of the login UI. Login UI coverage stays in LoginTest.
+     */
+    protected void initializeAuthenticatedDriver(String testName, String description) throws Exception {
+        startDriver();
+
+        AccountPool.AccountLease accountLease = EnvironmentUtils.leaseAccount();
+        threadState.get().accountLease = accountLease;
+        String email = accountLease.email();
+        String password = accountLease.password();
+        try {
+            sessionSeeder.seedAuthenticatedSession(email, password);
+        } catch (Exception e) {
+            accountLease.markLoginFailed();
+            throw e;
+        }
+
+        openBaseUrl(testName, description, false);
+        getTest().info("Seeded authenticated session for " + email + " via the auth API.");
+    }
+
+    /**
+     * Starts the browser with the environment user's saved storage state. When there is no usable snapshot,
+     * the user logs in through the UI once and the resulting state is captured for the following tests.
+     */
+    protected void initializeDriverWithStorageState(String testName, String description) throws Exception {
+        startDriver();
+
+        AccountPool.AccountLease accountLease = EnvironmentUtils.leaseAccount();
+        threadState.get().accountLease = accountLease;
+        String email = accountLease.email();
+        String password = accountLease.password();
+        storageStateManager.restoreOrCapture(Config.getEnvironment(), email, () -> {
+            getDriver().get(appProps.getBaseUrl());
+            ChallengeBypass.apply(getDriver());
+            acceptTnc();
+            LoginPage loginPage = new LoginPage(getDriver());
+            loginPage.goToLoginPage();
+            loginPage.login(email, password);
+            loginPage.enterOtpOr2Fa();
+            if (!loginPage.isLoginSuccessful()) {
+                accountLease.markLoginFailed();
+                throw new IllegalStateException("UI login failed for " + email + ", storage state not captured");
+            }
+            return null;
+        });
+
+        openBaseUrl(testName, description, false);
+        getTest().info("Restored storage state for " + email + ".");
+    }
+
+    private void startDriver() {
         driverManager.initializeDriver();
-        driver = driverManager.getDriver();
+        ThreadState current = threadState.get();
+        current.driver = driverManager.getDriver();
+        current.waitUtils = new WaitUtils(current.driver, 5, 10);
+    }
 
+    private void openBaseUrl(String testName, String description, boolean viaUi) throws Exception {
         // Create test instance in Extent Report
-        test = ExtentReportManager.createTest(testName, description);
+        threadState.get().test = ExtentReportManager.createTest(testName, description);
+        threadState.get().testName = testName;
+        StepTimeline.startTest();
+        Sleeper.startTest();
 
-        // Navigate to Base URL
+        // Seed consent and theme before the first page load so their UI paths can be skipped
         String baseUrl = appProps.getBaseUrl();
-        driver.get(baseUrl);
+        boolean preseed = !viaUi && appProps.getPreseed().isEnabled();
+        long preseedStart = System.nanoTime();
+        boolean consentSeeded = preseed && driverManager.seedConsent(baseUrl);
+        boolean themeSeeded = preseed && driverManager.seedTheme(baseUrl);
+        long preseedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - preseedStart);
+
+        // Navigate to Base URL
+        getDriver().get(baseUrl);
         log.info("Navigating to Base URL: {}", baseUrl);
-        test.info("Navigating to Base URL: " + baseUrl);
+        getTest().info("Navigating to Base URL: " + baseUrl);
+        ChallengeBypass.apply(getDriver());
 
         // Accept Terms & Conditions popup
-        acceptTnc();
-        test.info("Accepted Terms and Conditions popup.");
+        if (consentSeeded) {
+            getTest().info("Terms and Conditions consent pre-seeded.");
+        } else {
+            long start = System.nanoTime();
+            acceptTnc();
+            SetupTimeStats.record(UI_CONSENT_PHASE, System.nanoTime() - start);
+            getTest().info("Accepted Terms and Conditions popup.");
+        }
+
+        // Enable Dark Theme, through the toggle if the seeded theme did not take effect
+        if (themeSeeded && !driverManager.isSeededThemeApplied()) {
+            themeSeeded = false;
+            getTest().warning("Pre-seeded theme was not applied, enabling it through the UI.");
+        }
+        if (themeSeeded) {
+            getTest().info("Dark theme pre-seeded.");
+        } else {
+            long start = System.nanoTime();
+            ToggleTheme.enableDarkTheme(getDriver(), getWaitUtils());
+            SetupTimeStats.record(UI_THEME_PHASE, System.nanoTime() - start);
+            getTest().info("Enabled dark theme.");
+        }
+
+        if (consentSeeded || themeSeeded) {
+            reportPreseedSavings(consentSeeded, themeSeeded, preseedMs);
+        }
+        captureStep("home page ready");
+    }
+
+    /**
+     * Reports the setup time saved by pre-seeding, measured against the UI paths' average duration in this run.
+     */
+    private void reportPreseedSavings(boolean consentSeeded, boolean themeSeeded, long preseedMs) {
+        long consentUiMs = consentSeeded ? SetupTimeStats.averageMs(UI_CONSENT_PHASE) : 0;
+        long themeUiMs = themeSeeded ? SetupTimeStats.averageMs(UI_THEME_PHASE) : 0;
+        String message;
+        if (consentUiMs < 0 || themeUiMs < 0) {
+            message = "Pre-seeded setup state in " + preseedMs + " ms (UI path not measured yet in this run, savings unknown).";
+        } else {
+            message = "Pre-seeded setup state in " + preseedMs + " ms, saving ~" + (consentUiMs + themeUiMs - preseedMs)
+                    + " ms against the UI path.";
+        }
+        log.info(message);
+        getTest().info(message);
+    }
+
+    /**
+     * Reuses the browser state left by the previous test when this test {@link RequiresState requires} the same state:
+     * the state is reset, then probed, and reused if it is as a fresh build would leave it. Otherwise the stale browser
+     * is quit and the caller builds the state, then reports it with {@link #recordStateSetup}.
+     *
+     * @return True if the state was reused.
+     */
+    protected boolean reuseState(ITestResult result, String testName, String description) {
+        String state = StateAwareScheduler.getRequiredState(result.getMethod());
+        if (state == null) {
+            return false;
+        }
+        ThreadState current = threadState.get();
+        if (current.driver == null || !state.equals(current.preparedState) || !resetState(state) || !isStateIntact(state)) {
+            if (current.driver != null && current.preparedState != null) {
+                log.info("Browser state '{}' cannot be reused for {}, rebuilding it", current.preparedState, testName);
+            }
+            quitDriver(current);
+            return false;
+        }
+        keptStates.remove(current);
+        current.preparedState = null;
+        current.test = ExtentReportManager.createTest(testName, description);
+        current.testName = testName;
+        StepTimeline.startTest();
+        Sleeper.startTest();
+        StateReuseStats.recordReused(state);
+        long setupMs = StateReuseStats.averageSetupMs(state);
+        getTest().info("Reusing browser state '" + state + "' of the previous test"
+                + (setupMs >= 0 ? ", saving ~" + setupMs + " ms of setup." : "."));
+        return true;
+    }
 
-        // Enable Dark Theme
-        ToggleTheme.enableDarkTheme(driver, new WaitUtils(driver, 5, 10));
-        test.info("Enabled dark theme.");
+    /**
+     * Records how long building a test's required state took, so tests reusing it can report the setup time they saved.
+     *
+     * @param startNanos System.nanoTime() at the start of the setup.
+     */
+    protected void recordStateSetup(ITestResult result, long startNanos) {
+        String state = StateAwareScheduler.getRequiredState(result.getMethod());
+        if (state != null) {
+            StateReuseStats.recordRebuilt(state, System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Checks, after {@link #resetState}, whether the open browser is in the given state as a fresh build would leave it,
+     * e.g. the form is open, empty and shows no validation message. Only called for states this class requires.
+     *
+     * @param state The state name.
+     * @return True if the state can be reused.
+     */
+    protected boolean isStateIntact(String state) {
+        return true;
     }
 
-    public void waitForSeconds(int timeInSeconds) throws InterruptedException {
-        Thread.sleep(timeInSeconds * 1000L);
+    /**
+     * Undoes what the previous test left behind in a reused state, e.g. clears the form fields.
+     *
+     * @param state The state name.
+     * @return False if the state could not be reset, e.g. the form is no longer open; it is then rebuilt.
+     */
+    protected boolean resetState(String state) {
+        return true;
     }
 
     /**
@@ -54,42 +275,163 @@ public class BaseTest extends AbstractTestNGSpringContextTests {
      */
     public void acceptTnc() throws Exception {
         Retry.retryOperation(() -> {
-            TermsAndConditionsModal tncModal = new TermsAndConditionsModal(driver, waitUtils);
+            TermsAndConditionsModal tncModal = new TermsAndConditionsModal(getDriver(), getWaitUtils());
             tncModal.acceptTermsAndConditionsPopup();
             return null;
         }, 2, 500, "Terms and Conditions Acceptance");
     }
 
     /**
-     * Captures failure details including a screenshot and logs.
+     * Captures failure details including a bundle of the page's DOM and logs, a screenshot and the screencast.
      *
      * @param e Exception that occurred
      */
     protected void captureFailureDetails(Exception e) throws Exception {
-        test.fail("Test failed due to an exception: " + e.getMessage());
-        ScreenshotUtil.captureScreenshot(driver, test, getMethodName());
+        getTest().fail("Test failed due to an exception: " + e.getMessage());
+        attachFailureBundle(e);
+        ScreenshotUtil.captureScreenshot(getDriver(), getTest(), getTestName());
+        attachScreencast();
         log.error("Test failed", e);
         throw e;
     }
 
     /**
-     * Retrieves the name of the currently executing method.
+     * Collects the DOM, URL, timings, console, network and WebDriver call logs of the failed page into one zip and links it.
+     */
+    private void attachFailureBundle(Exception e) {
+        Path bundle = FailureCollector.shared().collect(getDriver(), driverManager.getBrowserEventLog(),
+                driverManager.getCommandLog(), getTestName(), e);
+        if (bundle != null) {
+            getTest().info("Failure bundle (DOM, console, network, WebDriver calls): <a href='"
+                    + bundle.toAbsolutePath().toUri() + "'>" + bundle.getFileName() + "</a>");
+            ResultsSink.recordArtifact(bundle.toString());
+        }
+    }
+
+    /**
+     * Writes the last seconds of the browser's screencast as an animated GIF and attaches it, if one is recorded.
+     */
+    private void attachScreencast() {
+        ScreencastRecorder screencast = driverManager.getScreencast();
+        if (screencast == null) {
+            return;
+        }
+        String name = String.valueOf(getTestName()).replaceAll("[^A-Za-z0-9._-]+", "_");
+        Path file = Path.of(PropertiesLoader.getProperty("screencast.dir", "report/screencasts").trim())
+                .resolve(name + "_" + UniqueIdGenerator.next() + ".gif");
+        try {
+            if (screencast.writeGif(file) != null) {
+                getTest().info("Screencast of the last seconds before the failure: " + file.toAbsolutePath());
+                getTest().addScreenCaptureFromPath(file.toString());
+                ResultsSink.recordArtifact(file.toString());
+            }
+        } catch (IOException ex) {
+            log.warn("Failed to write the screencast {}: {}", file, ex.getMessage());
+        }
+    }
+
+    /**
+     * Attaches a cheap screenshot of the viewport after a major step, unless step screenshots are rate-limited.
      *
-     * @return The method name as a string.
+     * @param step Name of the step.
+     */
+    protected void captureStep(String step) {
+        StepCapture.capture(getDriver(), getTest(), step);
+    }
+
+    /**
+     * Returns the report name of the test running on the current thread.
      */
-    protected String getMethodName() {
-        return Thread.currentThread().getStackTrace()[2].getMethodName();
+    protected String getTestName() {
+        return threadState.get().testName;
     }
 
     /**
-     * Quits the current browser instance and flushes extent report after each class run
+     * Returns the browser of the test running on the current thread.
+     */
+    protected WebDriver getDriver() {
+        return threadState.get().driver;
+    }
+
+    protected WaitUtils getWaitUtils() {
+        return threadState.get().waitUtils;
+    }
+
+    /**
+     * Returns the report entry of the test running on the current thread.
+     */
+    protected ExtentTest getTest() {
+        return threadState.get().test;
+    }
+
+    /**
+     * Returns the account leased by the test running on the current thread, or null.
+     */
+    protected AccountPool.AccountLease getAccountLease() {
+        return threadState.get().accountLease;
+    }
+
+    /**
+     * Hands an account leased by a test to BaseTest, which returns it when the test's browser is quit.
+     */
+    protected void setAccountLease(AccountPool.AccountLease accountLease) {
+        threadState.get().accountLease = accountLease;
+    }
+
+    /**
+     * Quits the current browser instance and returns its leased test account, unless the next test can reuse its state, and hands its report entry to the report writer
      */
     @AfterMethod(alwaysRun = true)
-    public void tearDown() {
+    public void tearDown(ITestResult result) {
+        ThreadState current = threadState.get();
+        String state = StateAwareScheduler.getRequiredState(result.getMethod());
+        if (state != null && result.isSuccess() && current.driver != null) {
+            // A leased account stays with the browser that is logged in with it
+            current.preparedState = state;
+            keptStates.add(current);
+            current.test.info("Keeping browser state '" + state + "' for the next test");
+        } else {
+            quitDriver(current);
+        }
+        StepCapture.finishTest(current.test);
+        StepTimeline.finishTest(current.testName, current.test);
+        Sleeper.finishTest(current.test);
+        ExtentReportManager.endTest(current.test);
+        current.test = null;
+    }
+
+    /**
+     * Quits the browsers kept open for a state no further test of the class requires, on any worker thread.
+     */
+    @AfterClass(alwaysRun = true)
+    public void quitPreparedStates() {
+        quitDriver(threadState.get());
+        for (ThreadState kept : keptStates) {
+            quitDriver(kept);
+        }
+    }
+
+    private void quitDriver(ThreadState state) {
+        keptStates.remove(state);
+        state.preparedState = null;
+        WebDriver driver = state.driver;
         if (driver != null) {
-            driver.quit();
-            test.info("Driver quit successfully");
+            if (state == threadState.get()) {
+                driverManager.quitDriver();
+            } else {
+                driverManager.quitDriver(driver);
+            }
+            state.driver = null;
+            state.waitUtils = null;
+            if (state.test != null) {
+                state.test.info("Driver quit successfully");
+            }
+        }
+        AccountPool.AccountLease accountLease = state.accountLease;
+        if (accountLease != null) {
+            accountLease.close();
+            state.accountLease = null;
+            log.info(EnvironmentUtils.getAccountPool().getSummary());
         }
-        ExtentReportManager.flushReports();
     }
 }
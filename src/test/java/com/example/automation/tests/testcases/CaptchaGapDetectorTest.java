@@ -0,0 +1,64 @@
+package com.example.automation.tests.testcases;
+
+import com.example.automation.utils.CaptchaGapDetector;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+public class CaptchaGapDetectorTest {
+
+    private static final int WIDTH = 300;
+    private static final int HEIGHT = 160;
+    private static final int PIECE_SIZE = 44;
+    private static final int PIECE_TOP = 58;
+    private static final int PIECE_LEFT = 6;
+
+    @Test(description = "The gap is found by matching the piece's edges against the background")
+    public void testFindsGapWithPieceTemplate() {
+        int gapX = 187;
+        BufferedImage background = renderBackground(gapX, 42);
+        BufferedImage piece = background.getSubimage(PIECE_LEFT, PIECE_TOP, PIECE_SIZE, PIECE_SIZE);
+
+        int found = CaptchaGapDetector.findGapX(background, piece, PIECE_TOP, PIECE_LEFT + PIECE_SIZE);
+        Assert.assertTrue(Math.abs(found - gapX) <= 2, "Expected gap near " + gapX + " but found " + found);
+    }
+
+    @Test(description = "Without a piece image the strongest vertical edge is used")
+    public void testFindsGapWithoutPiece() {
+        int gapX = 141;
+        BufferedImage background = renderBackground(gapX, 7);
+
+        int found = CaptchaGapDetector.findGapX(background, null, PIECE_TOP, PIECE_LEFT + PIECE_SIZE);
+        Assert.assertTrue(Math.abs(found - gapX) <= 2, "Expected gap near " + gapX + " but found " + found);
+    }
+
+    /**
+     * Draws a smooth gradient background with a darkened, outlined gap and the piece
+     * (the same outline, lightened) at its start position.
+     */
+    private static BufferedImage renderBackground(int gapX, long seed) {
+        Random random = new Random(seed);
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                int shade = 90 + (x * 60 / WIDTH) + (y * 40 / HEIGHT) + random.nextInt(6);
+                image.setRGB(x, y, new Color(shade, shade + 10, Math.min(255, shade + 30)).getRGB());
+            }
+        }
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(new Color(30, 30, 30, 140));
+        graphics.fillRoundRect(gapX, PIECE_TOP, PIECE_SIZE, PIECE_SIZE, 12, 12);
+        graphics.setColor(Color.WHITE);
+        graphics.drawRoundRect(gapX, PIECE_TOP, PIECE_SIZE - 1, PIECE_SIZE - 1, 12, 12);
+        graphics.setColor(new Color(230, 230, 230, 160));
+        graphics.fillRoundRect(PIECE_LEFT, PIECE_TOP, PIECE_SIZE, PIECE_SIZE, 12, 12);
+        graphics.setColor(Color.WHITE);
+        graphics.drawRoundRect(PIECE_LEFT, PIECE_TOP, PIECE_SIZE - 1, PIECE_SIZE - 1, 12, 12);
+        graphics.dispose();
+        return image;
+    }
+}
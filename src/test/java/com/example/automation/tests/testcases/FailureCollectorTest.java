@@ -0,0 +1,174 @@
+package com.example.automation.tests.testcases;
+
+import com.example.automation.drivers.BrowserEventLog;
+import com.example.automation.drivers.CommandLog;
+import com.example.automation.utils.FailureCollector;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.chromium.HasCdp;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+public class FailureCollectorTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test(description = "A failure bundle holds the DOM, URL, timings, console, network and WebDriver call logs")
+    public void testBundleContainsAllArtifacts() throws Exception {
+        CommandLog commandLog = new CommandLog(10);
+        WebDriver driver = new EventFiringDecorator<>(commandLog).decorate(fakeBrowser(0));
+        Assert.assertTrue(driver instanceof HasCdp, "The command log must not hide the browser's DevTools");
+        driver.get("https://app.example.com/login");
+        WebElement password = (WebElement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{WebElement.class},
+                (proxy, method, args) -> null);
+        commandLog.afterAnyCall(password, WebElement.class.getMethod("sendKeys", CharSequence[].class),
+                new Object[]{new CharSequence[]{"s3cret!"}}, null);
+        commandLog.afterAnyCall(driver, JavascriptExecutor.class.getMethod("executeScript", String.class, Object[].class),
+                new Object[]{"arguments[0].value = arguments[1];", new Object[]{password, "482913"}}, null);
+        commandLog.afterAnyCall(driver, HasCdp.class.getMethod("executeCdpCommand", String.class, Map.class),
+                new Object[]{"Network.setExtraHTTPHeaders", Map.of("headers", Map.of("Authorization", "Bearer t0ken"))}, null);
+        WebDriver.Options options = (WebDriver.Options) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{WebDriver.Options.class}, (proxy, method, args) -> null);
+        commandLog.afterAnyCall(options, WebDriver.Options.class.getMethod("addCookie", Cookie.class),
+                new Object[]{new Cookie("session", "c00kie")}, null);
+
+        BrowserEventLog events = new BrowserEventLog(new BrowserEventLog.Settings(true, 10, 10));
+        events.onEvent("Runtime.consoleAPICalled", Map.of("type", "error", "timestamp", 1.7e12,
+                "args", List.of(Map.of("type", "string", "value", "Login failed:"), Map.of("type", "number", "value", 401))));
+        events.onEvent("Runtime.exceptionThrown", Map.of("timestamp", 1.7e12, "exceptionDetails", Map.of(
+                "text", "Uncaught", "url", "https://app.example.com/app.js", "lineNumber", 41,
+                "exception", Map.of("description", "TypeError: user is undefined"))));
+        events.onEvent("Network.requestWillBeSent", Map.of("requestId", "1", "type", "XHR", "wallTime", 1.7e9, "timestamp", 10.0,
+                "request", Map.of("method", "POST", "url", "https://app.example.com/api/login")));
+        events.onEvent("Network.responseReceived", Map.of("requestId", "1",
+                "response", Map.of("status", 401, "statusText", "Unauthorized", "mimeType", "application/json")));
+        events.onEvent("Network.loadingFinished", Map.of("requestId", "1", "timestamp", 10.25, "encodedDataLength", 312));
+        events.onEvent("Network.requestWillBeSent", Map.of("requestId", "2", "wallTime", 1.7e9, "timestamp", 10.3,
+                "request", Map.of("method", "GET", "url", "https://cdn.example.com/font.woff2")));
+        events.onEvent("Network.loadingFailed", Map.of("requestId", "2", "timestamp", 10.4, "errorText", "net::ERR_BLOCKED_BY_CLIENT"));
+
+        Path dir = Files.createTempDirectory("failures");
+        Path bundle = new FailureCollector(new FailureCollector.Settings(true, dir, 3000))
+                .collect(driver, events, commandLog, "LoginTest.testLogin[bad password]", new AssertionError("Login should succeed"));
+
+        Assert.assertTrue(bundle.startsWith(dir));
+        Assert.assertTrue(bundle.getFileName().toString().startsWith("LoginTest.testLogin_bad_password_"));
+        Map<String, String> files = unzip(bundle);
+        Assert.assertEquals(files.keySet(),
+                Set.of("manifest.json", "console.json", "network.har", "commands.log", "url.txt", "dom.html", "timings.json"));
+        Assert.assertEquals(files.get("url.txt"), "https://app.example.com/login");
+        Assert.assertTrue(files.get("dom.html").contains("<form id=\"login\">"));
+
+        JsonNode manifest = MAPPER.readTree(files.get("manifest.json"));
+        Assert.assertTrue(manifest.get("error").asText().startsWith("java.lang.AssertionError: Login should succeed"));
+        manifest.get("artifacts").forEach(artifact -> Assert.assertEquals(artifact.get("status").asText(), "ok", artifact.toString()));
+
+        JsonNode console = MAPPER.readTree(files.get("console.json"));
+        Assert.assertEquals(console.get(0).get("text").asText(), "Login failed: 401");
+        Assert.assertEquals(console.get(1).get("text").asText(), "TypeError: user is undefined");
+        Assert.assertEquals(console.get(1).get("source").asText(), "https://app.example.com/app.js:42");
+
+        JsonNode entries = MAPPER.readTree(files.get("network.har")).get("log").get("entries");
+        Assert.assertEquals(entries.size(), 2);
+        Assert.assertEquals(entries.get(0).get("response").get("status").asInt(), 401);
+        Assert.assertEquals(entries.get(0).get("time").asLong(), 250);
+        Assert.assertEquals(entries.get(1).get("_error").asText(), "net::ERR_BLOCKED_BY_CLIENT");
+
+        String commands = files.get("commands.log");
+        Assert.assertTrue(commands.contains("driver.get(https://app.example.com/login)"), commands);
+        Assert.assertTrue(commands.contains("element.sendKeys(<7 chars>)"), commands);
+        Assert.assertFalse(commands.contains("s3cret!"), "Typed text must not be logged");
+        Assert.assertTrue(commands.contains("driver.executeScript(<String 34 chars>, <Object[] 2 items>)"), commands);
+        Assert.assertTrue(commands.contains("driver.executeCdpCommand(<String 27 chars>, <Map 1 entries>)"), commands);
+        Assert.assertTrue(commands.contains("Options.addCookie(<Cookie>)"), commands);
+        for (String secret : List.of("482913", "t0ken", "c00kie", "Network.setExtraHTTPHeaders")) {
+            Assert.assertFalse(commands.contains(secret), "Script, DevTools and cookie arguments must not be logged: " + secret);
+        }
+    }
+
+    @Test(description = "Browser artifacts that are not collected within the time cap are left out of the bundle")
+    public void testSlowArtifactsAreCappedByTheTimeout() throws Exception {
+        Path dir = Files.createTempDirectory("failures");
+        long start = System.nanoTime();
+        Path bundle = new FailureCollector(new FailureCollector.Settings(true, dir, 300))
+                .collect(fakeBrowser(5_000), null, null, "slow", new RuntimeException("boom"));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        Assert.assertTrue(elapsedMs < 2_000, "Collecting took " + elapsedMs + " ms");
+        Map<String, String> files = unzip(bundle);
+        Assert.assertTrue(files.containsKey("url.txt"));
+        Assert.assertFalse(files.containsKey("dom.html"));
+        Map<String, String> statuses = new HashMap<>();
+        MAPPER.readTree(files.get("manifest.json")).get("artifacts")
+                .forEach(artifact -> statuses.put(artifact.get("name").asText(), artifact.get("status").asText()));
+        Assert.assertEquals(statuses.get("url.txt"), "ok");
+        Assert.assertEquals(statuses.get("dom.html"), "timed out");
+    }
+
+    @Test(description = "No bundle is written when failure bundles are disabled")
+    public void testDisabledCollectorWritesNothing() throws Exception {
+        Path dir = Files.createTempDirectory("failures");
+        Assert.assertNull(new FailureCollector(new FailureCollector.Settings(false, dir, 300))
+                .collect(fakeBrowser(0), null, null, "off", new RuntimeException("boom")));
+        try (var files = Files.list(dir)) {
+            Assert.assertEquals(files.count(), 0L);
+        }
+    }
+
+    // A Chromium browser on the login page whose page source takes pageSourceMillis
+    private WebDriver fakeBrowser(long pageSourceMillis) {
+        return (WebDriver) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{WebDriver.class, JavascriptExecutor.class, HasCdp.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "get" -> {
+                            return null;
+                        }
+                        case "getCurrentUrl" -> {
+                            return "https://app.example.com/login";
+                        }
+                        case "getPageSource" -> {
+                            Thread.sleep(pageSourceMillis);
+                            return "<html><body><form id=\"login\"></form></body></html>";
+                        }
+                        case "executeScript" -> {
+                            return "{\"navigation\":[],\"resources\":[]}";
+                        }
+                        case "hashCode" -> {
+                            return System.identityHashCode(proxy);
+                        }
+                        case "toString" -> {
+                            return "fake browser";
+                        }
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    private static Map<String, String> unzip(Path zip) throws Exception {
+        Map<String, String> files = new HashMap<>();
+        try (ZipInputStream in = new ZipInputStream(Files.newInputStream(zip))) {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                files.put(entry.getName(), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return files;
+    }
+}
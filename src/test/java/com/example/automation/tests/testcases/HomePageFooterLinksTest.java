@@ -3,6 +3,7 @@ package com.example.automation.tests.testcases;
 import com.example.automation.config.ApplicationProperties;
 import com.example.automation.drivers.DriverManager;
 import com.example.automation.pages.HomePage;
+import com.example.automation.utils.HttpStatusCodeChecker;
 import com.example.automation.utils.ScreenshotUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.openqa.selenium.WebElement;
@@ -24,7 +25,7 @@ public class HomePageFooterLinksTest extends BaseTest {
     @Autowired
     private ApplicationProperties appProps;
 
-    private HomePage homePage;
+    private final ThreadLocal<HomePage> homePages = new ThreadLocal<>();
 
     // ANSI escape codes for colors
     private static final String RESET = "\u001B[0m";  // Resets the text color
@@ -39,7 +40,7 @@ public class HomePageFooterLinksTest extends BaseTest {
 
         initializeDriver(testName, description);
 
-        homePage = new HomePage(driver);
+        homePages.set(new HomePage(getDriver()));
     }
 
     /**
@@ -48,28 +49,28 @@ public class HomePageFooterLinksTest extends BaseTest {
      */
     @Test(description = "Check the footer links for validity and responsiveness.")
     public void verifyHomePageFooterLinks() {
-        homePage = new HomePage(driver);
-        test.info("Starting footer links verification.");
+        homePages.set(new HomePage(getDriver()));
+        getTest().info("Starting footer links verification.");
 
         try {
-            List<WebElement> links = homePage.getFooterLinks();
+            List<WebElement> links = homePage().getFooterLinks();
             log.info("Total footer links found: {}", links.size());
-            test.info("Total footer links found: " + links.size());
+            getTest().info("Total footer links found: " + links.size());
 
             int[] counts = {0, 0, 0}; // {passed, failed, skipped}
             for (WebElement link : links) {
-                String result = homePage.validateLink(link, counts);
+                String result = homePage().validateLink(link, counts);
 
                 // Log and update test report based on the result
                 if (result.startsWith("PASSED")) {
                     log.info(GREEN + "{}" + RESET, result);
-                    test.pass(result);
+                    getTest().pass(result);
                 } else if (result.startsWith("FAILED")) {
                     log.warn(RED + "{}" + RESET, result);
-                    test.fail(result);
+                    getTest().fail(result);
                 } else if (result.startsWith("SKIPPED")) {
                     log.info(YELLOW + "{}" + RESET, result);
-                    test.warning(result);
+                    getTest().warning(result);
                 }
             }
 
@@ -79,16 +80,30 @@ public class HomePageFooterLinksTest extends BaseTest {
             log.info(RED + "FAILED: {}" + RESET, counts[1]);
             log.info(YELLOW + "SKIPPED: {}" + RESET, counts[2]);
 
+            homePage().getLinkTimingProfile().getHostSummary().forEach((host, summary) -> {
+                log.info("Timing - {}: {}", host, summary);
+                getTest().info("Timing - " + host + ": " + summary);
+            });
+            HttpStatusCodeChecker.getCircuitBreakerReport().values().forEach(summary -> {
+                log.info("Circuit breaker - {}", summary);
+                getTest().info("Circuit breaker - " + summary);
+            });
+            getTest().info("Latency saved by fast-failing unhealthy hosts: " + HttpStatusCodeChecker.getTotalSavedLatencyMs() + " ms");
+
             System.out.println("\n--- Broken Links ---");
-            for (String brokenLink: homePage.getBrokenLinks()) {
+            for (String brokenLink: homePage().getBrokenLinks()) {
                 System.out.println(RED + brokenLink + RESET);
             }
         } catch (Exception e) {
             String errorMessage = "Test failed due to an exception: " + e.getMessage();
             log.error(RED + "{}" + RESET, errorMessage);
-            test.fail(errorMessage);
-            ScreenshotUtil.captureScreenshot(driver, test, getMethodName());
+            getTest().fail(errorMessage);
+            ScreenshotUtil.captureScreenshot(getDriver(), getTest(), getTestName());
             throw e;
         }
     }
+
+    private HomePage homePage() {
+        return homePages.get();
+    }
 }
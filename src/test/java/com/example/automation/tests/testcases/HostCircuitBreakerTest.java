@@ -0,0 +1,72 @@
+package com.example.automation.tests.testcases;
+
+import com.example.automation.utils.CircuitOpenException;
+import com.example.automation.utils.HostCircuitBreaker;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class HostCircuitBreakerTest {
+
+    @Test(description = "The circuit opens after the threshold of consecutive failures and fast-fails while open")
+    public void testOpensAfterConsecutiveFailures() throws Exception {
+        HostCircuitBreaker breaker = new HostCircuitBreaker("example.com", 3, 60_000);
+        breaker.recordFailure(1_000_000);
+        breaker.recordFailure(1_000_000);
+        breaker.recordSuccess();
+        breaker.recordFailure(1_000_000);
+        breaker.recordFailure(1_000_000);
+        Assert.assertEquals(breaker.getState(), HostCircuitBreaker.State.CLOSED, "A success resets the failure count");
+
+        breaker.recordFailure(1_000_000);
+        Assert.assertEquals(breaker.getState(), HostCircuitBreaker.State.OPEN);
+        Assert.assertThrows(CircuitOpenException.class, breaker::acquirePermission);
+        Assert.assertTrue(breaker.getSummary().contains("trips=1"), breaker.getSummary());
+        Assert.assertTrue(breaker.getSummary().contains("fast-failed=1"), breaker.getSummary());
+    }
+
+    @Test(description = "Once the open period is over a single probe is let through; its outcome closes or reopens the circuit")
+    public void testHalfOpenProbe() throws Exception {
+        HostCircuitBreaker breaker = open(50);
+        Thread.sleep(80);
+
+        breaker.acquirePermission();
+        Assert.assertEquals(breaker.getState(), HostCircuitBreaker.State.HALF_OPEN);
+        Assert.assertThrows(CircuitOpenException.class, breaker::acquirePermission);
+        breaker.recordFailure(1_000_000);
+        Assert.assertEquals(breaker.getState(), HostCircuitBreaker.State.OPEN, "A failed probe reopens the circuit");
+
+        Thread.sleep(80);
+        breaker.acquirePermission();
+        breaker.recordSuccess();
+        Assert.assertEquals(breaker.getState(), HostCircuitBreaker.State.CLOSED);
+        breaker.acquirePermission();
+        breaker.acquirePermission();
+    }
+
+    @Test(description = "A probe permission handed back unused lets the next caller probe")
+    public void testReleasedProbeIsNotHeld() throws Exception {
+        HostCircuitBreaker breaker = open(50);
+        Thread.sleep(80);
+
+        breaker.acquirePermission();
+        breaker.releasePermission();
+        breaker.acquirePermission();
+        Assert.assertEquals(breaker.getState(), HostCircuitBreaker.State.HALF_OPEN);
+    }
+
+    @Test(description = "A success from a request sent before the circuit opened does not close it")
+    public void testLateSuccessWhileOpenIsIgnored() {
+        HostCircuitBreaker breaker = open(60_000);
+        breaker.recordSuccess();
+        Assert.assertEquals(breaker.getState(), HostCircuitBreaker.State.OPEN);
+        Assert.assertThrows(CircuitOpenException.class, breaker::acquirePermission);
+    }
+
+    private static HostCircuitBreaker open(long openDurationMs) {
+        HostCircuitBreaker breaker = new HostCircuitBreaker("example.com", 2, openDurationMs);
+        breaker.recordFailure(1_000_000);
+        breaker.recordFailure(1_000_000);
+        Assert.assertEquals(breaker.getState(), HostCircuitBreaker.State.OPEN);
+        return breaker;
+    }
+}
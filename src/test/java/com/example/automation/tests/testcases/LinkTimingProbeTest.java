@@ -0,0 +1,166 @@
+package com.example.automation.tests.testcases;
+
+import com.example.automation.utils.HttpStatusCodeChecker;
+import com.example.automation.utils.LatencyBudget;
+import com.example.automation.utils.LinkTiming;
+import com.example.automation.utils.LinkTimingProbe;
+import com.example.automation.utils.Percentiles;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+public class LinkTimingProbeTest {
+
+    private HttpServer server;
+    private String baseUrl;
+    private final Map<String, String> requestLines = new ConcurrentHashMap<>();
+
+    @BeforeClass
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/slow", exchange -> {
+            sleep(150);
+            respond(exchange, 200, "<html>ok</html>");
+        });
+        server.createContext("/old", exchange -> {
+            exchange.getResponseHeaders().add("Location", "/new");
+            respond(exchange, 302, "");
+        });
+        server.createContext("/new", exchange -> respond(exchange, 200, "<html>new</html>"));
+        server.createContext("/big", exchange -> {
+            // 40 MB sent over 2 s; only the first MB is read
+            exchange.sendResponseHeaders(200, 40L * 1024 * 1024);
+            byte[] chunk = new byte[1024 * 1024];
+            try (OutputStream out = exchange.getResponseBody()) {
+                for (int i = 0; i < 40; i++) {
+                    out.write(chunk);
+                    out.flush();
+                    sleep(50);
+                }
+            } catch (IOException e) {
+                // The probe hung up
+            }
+        });
+        // Proxied requests carry the absolute URL of the host they are meant for
+        server.createContext("/proxied", exchange -> {
+            requestLines.put(exchange.getRequestURI().toString(), exchange.getRequestMethod());
+            respond(exchange, 204, "");
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test(description = "A plain request is timed by phase: connect, no TLS, server time in the time to first byte")
+    public void testPhasesOfAPlainRequest() throws Exception {
+        LinkTimingProbe.Hop hop = LinkTimingProbe.fetch(URI.create(baseUrl + "/slow"));
+
+        Assert.assertEquals(hop.statusCode(), 200);
+        Assert.assertNull(hop.location());
+        Assert.assertTrue(hop.connectNanos() > 0, "connect " + hop.connectNanos());
+        Assert.assertEquals(hop.tlsNanos(), 0);
+        Assert.assertTrue(hop.ttfbNanos() >= TimeUnit.MILLISECONDS.toNanos(140), "ttfb " + hop.ttfbNanos());
+        Assert.assertTrue(hop.dnsNanos() >= 0 && hop.downloadNanos() >= 0);
+    }
+
+    @Test(description = "Redirects are followed hop by hop and every hop is part of the profile")
+    public void testRedirectChainIsWalkedHopByHop() throws Exception {
+        LinkTiming timing = HttpStatusCodeChecker.checkLink(baseUrl + "/old");
+
+        Assert.assertEquals(timing.statusCode(), 200);
+        Assert.assertTrue(timing.isRedirected());
+        Assert.assertEquals(timing.redirectChain(), List.of("302 " + baseUrl + "/old", "200 " + baseUrl + "/new"));
+    }
+
+    @Test(description = "A long body is cut off instead of being read to the end")
+    public void testLongBodyIsCutOff() throws Exception {
+        long start = System.nanoTime();
+        LinkTimingProbe.Hop hop = LinkTimingProbe.fetch(URI.create(baseUrl + "/big"));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        Assert.assertEquals(hop.statusCode(), 200);
+        Assert.assertTrue(elapsedMs < 1_000, "Reading took " + elapsedMs + " ms");
+    }
+
+    @Test(description = "Requests go through the proxy configured in the system properties")
+    public void testSystemProxyIsUsed() throws Exception {
+        Map<String, String> saved = new HashMap<>();
+        for (String key : List.of("http.proxyHost", "http.proxyPort", "http.nonProxyHosts")) {
+            saved.put(key, System.getProperty(key));
+        }
+        System.setProperty("http.proxyHost", "127.0.0.1");
+        System.setProperty("http.proxyPort", String.valueOf(server.getAddress().getPort()));
+        System.setProperty("http.nonProxyHosts", "");
+        try {
+            LinkTimingProbe.Hop hop = LinkTimingProbe.fetch(URI.create("http://links.example.invalid/proxied"));
+            Assert.assertEquals(hop.statusCode(), 204);
+            Assert.assertEquals(requestLines.get("http://links.example.invalid/proxied"), "GET");
+        } finally {
+            saved.forEach((key, value) -> {
+                if (value == null) {
+                    System.clearProperty(key);
+                } else {
+                    System.setProperty(key, value);
+                }
+            });
+        }
+    }
+
+    @Test(description = "Budgets are opt-in and report every limit a link exceeds")
+    public void testLatencyBudget() {
+        Assert.assertTrue(LatencyBudget.forUrl("https://bitdelta.com/en/about").isEmpty(), "No budget is declared by default");
+
+        LatencyBudget budget = new LatencyBudget(Pattern.compile(".*"), 1_000, 300);
+        LinkTiming fast = new LinkTiming("https://a.example/", 200, List.of("200 https://a.example/"), 10, 20, 30, 100, 40);
+        LinkTiming slow = new LinkTiming("https://a.example/", 200, List.of("200 https://a.example/"), 10, 20, 30, 900, 400);
+        Assert.assertEquals(budget.violations(fast), List.of());
+        Assert.assertEquals(budget.violations(slow), List.of("total 1360ms > 1000ms", "ttfb 900ms > 300ms"));
+        Assert.assertEquals(new LatencyBudget(Pattern.compile(".*"), 0, 0).violations(slow), List.of(), "0 is not enforced");
+    }
+
+    @Test(description = "Percentiles use the nearest rank")
+    public void testPercentiles() {
+        long[] values = {50, 10, 40, 30, 20, 100, 90, 80, 70, 60};
+        Assert.assertEquals(Percentiles.summarize(values), "p50=50 p90=90 p95=100 max=100");
+        Assert.assertEquals(Percentiles.of(new long[]{7}, 0), 7);
+        Assert.assertEquals(Percentiles.of(new long[0], 50), 0);
+        Assert.assertEquals(Percentiles.summarize(new long[0]), "p50=0 p90=0 p95=0 max=0");
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
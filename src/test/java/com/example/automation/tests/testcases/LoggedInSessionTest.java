@@ -0,0 +1,52 @@
+package com.example.automation.tests.testcases;
+
+import com.example.automation.pages.LoginPage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.testng.Assert;
+import org.testng.ITestResult;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@Slf4j
+@SpringBootTest
+public class LoggedInSessionTest extends BaseTest {
+
+    @BeforeMethod
+    public void setup(ITestResult result) throws Exception {
+        String testName = result.getMethod().getMethodName();
+        String description = result.getMethod().getDescription();
+
+        if (testName.equals("testRestoredStorageStateIsLoggedIn")) {
+            initializeDriverWithStorageState(testName, description);
+        } else {
+            initializeAuthenticatedDriver(testName, description);
+        }
+    }
+
+    @Test(description = "Verify that a session seeded over the auth API opens the app logged in")
+    public void testSeededSessionIsLoggedIn() throws Exception {
+        getTest().info("Test for starting logged in without the login UI");
+
+        try {
+            Assert.assertTrue(new LoginPage(getDriver()).isLoginSuccessful(), "Seeded session was not accepted by the app");
+            getTest().pass("Started logged in from the seeded session");
+
+        } catch (Exception e) {
+            captureFailureDetails(e);
+        }
+    }
+
+    @Test(description = "Verify that a restored storage state opens the app logged in")
+    public void testRestoredStorageStateIsLoggedIn() throws Exception {
+        getTest().info("Test for starting logged in from the saved storage state");
+
+        try {
+            Assert.assertTrue(new LoginPage(getDriver()).isLoginSuccessful(), "Restored storage state was not accepted by the app");
+            getTest().pass("Started logged in from the storage state");
+
+        } catch (Exception e) {
+            captureFailureDetails(e);
+        }
+    }
+}
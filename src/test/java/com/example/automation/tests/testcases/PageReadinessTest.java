@@ -0,0 +1,99 @@
+package com.example.automation.tests.testcases;
+
+import com.example.automation.drivers.NetworkActivity;
+import com.example.automation.utils.PageReadiness;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+import java.util.regex.Pattern;
+
+public class PageReadinessTest {
+
+    private static final PageReadiness.Settings SETTINGS = new PageReadiness.Settings(true, 100, 3_000, 10, "", "", 10_000);
+
+    @Test(description = "The page is ready once it has been quiet for the quiet window after its last request ended")
+    public void testReadyOnceTheNetworkIsQuiet() {
+        NetworkActivity network = new NetworkActivity(null, 10_000);
+        network.onEvent("Network.requestWillBeSent", request("1", "XHR", "https://app.example.com/api/profile"));
+        CompletableFuture<Void> response = CompletableFuture.runAsync(
+                () -> network.onEvent("Network.loadingFinished", Map.of("requestId", "1")),
+                CompletableFuture.delayedExecutor(200, TimeUnit.MILLISECONDS));
+
+        PageReadiness.Result result = PageReadiness.await(fakeBrowser(elapsed -> probe(true, 0, -1, 5)), network, SETTINGS);
+
+        response.join();
+        Assert.assertTrue(result.ready());
+        Assert.assertTrue(result.waitedMs() >= 280, "Ready after " + result.waitedMs() + " ms");
+        Assert.assertTrue(result.waitedMs() < 2_000, "Ready after " + result.waitedMs() + " ms");
+    }
+
+    @Test(description = "Without a request tracker, growing resource timings and long tasks keep the page busy")
+    public void testPageCountersAndLongTasksDelayReadiness() {
+        // Resources load for 100 ms, then a 150 ms long task (hydration) runs
+        PageReadiness.Result result = PageReadiness.await(fakeBrowser(elapsed -> probe(true, 0,
+                elapsed < 250 ? (elapsed < 100 ? -1 : 0) : elapsed - 250, Math.min(elapsed, 100) / 10)), null, SETTINGS);
+
+        Assert.assertTrue(result.ready());
+        Assert.assertTrue(result.waitedMs() >= 330, "Ready after " + result.waitedMs() + " ms");
+    }
+
+    @Test(description = "A page that never hydrates is reported as not ready once the timeout is up")
+    public void testNeverHydratedPageTimesOut() {
+        PageReadiness.Settings settings = new PageReadiness.Settings(true, 100, 300, 10, "#dashboard", "", 10_000);
+        PageReadiness.Result result = PageReadiness.await(fakeBrowser(elapsed -> probe(false, 0, -1, 5)), null, settings);
+
+        Assert.assertFalse(result.ready());
+        Assert.assertEquals(result.busy(), "hydration");
+        Assert.assertTrue(result.waitedMs() >= 300 && result.waitedMs() < 2_000, "Gave up after " + result.waitedMs() + " ms");
+        Assert.assertTrue(PageReadiness.await(fakeBrowser(elapsed -> probe(false, 0, -1, 5)), null,
+                new PageReadiness.Settings(false, 100, 300, 10, "", "", 10_000)).ready(), "Disabled readiness must not wait");
+    }
+
+    @Test(description = "WebSockets, event streams, ignored URLs and long polls do not count as in-flight requests")
+    public void testNetworkActivityIgnoresStreamsBeaconsAndLongPolls() throws Exception {
+        NetworkActivity network = new NetworkActivity(Pattern.compile("analytics|/beacon"), 100);
+        network.onEvent("Network.requestWillBeSent", request("1", "WebSocket", "wss://app.example.com/socket"));
+        network.onEvent("Network.requestWillBeSent", request("2", "EventSource", "https://app.example.com/events"));
+        network.onEvent("Network.requestWillBeSent", request("3", "Ping", "https://analytics.example.com/collect"));
+        Assert.assertEquals(network.inFlight(), 0);
+
+        network.onEvent("Network.requestWillBeSent", request("4", "Fetch", "https://app.example.com/api/login"));
+        Assert.assertEquals(network.inFlight(), 1);
+        long started = network.lastActivityNanos();
+        network.onEvent("Network.loadingFailed", Map.of("requestId", "4"));
+        Assert.assertEquals(network.inFlight(), 0);
+        Assert.assertTrue(network.lastActivityNanos() - started >= 0);
+
+        network.onEvent("Network.requestWillBeSent", request("5", "XHR", "https://app.example.com/api/poll"));
+        Assert.assertEquals(network.inFlight(), 1);
+        Thread.sleep(150);
+        Assert.assertEquals(network.inFlight(), 0, "A request open for longer than longRequestMs is a long poll");
+    }
+
+    private static Map<String, Object> request(String id, String type, String url) {
+        return Map.of("requestId", id, "type", type, "request", Map.of("method", "GET", "url", url));
+    }
+
+    private static Map<String, Object> probe(boolean hydrated, long inFlight, long sinceLongTaskMs, long resources) {
+        return Map.of("hydrated", hydrated, "inFlight", inFlight, "sinceLongTaskMs", sinceLongTaskMs, "resources", resources);
+    }
+
+    // A browser whose page reports the probe for the milliseconds since the wait started
+    private WebDriver fakeBrowser(LongFunction<Map<String, Object>> page) {
+        long start = System.nanoTime();
+        return (WebDriver) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{WebDriver.class, JavascriptExecutor.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "executeScript" -> page.apply(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "toString" -> "fake browser";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.automation.tests.testcases;
+
+import com.example.automation.tests.hooks.ParallelConfigurer;
+import com.example.automation.tests.stubs.EnvironmentLookupTests;
+import org.testng.Assert;
+import org.testng.TestListenerAdapter;
+import org.testng.TestNG;
+import org.testng.annotations.Test;
+
+public class ParallelEnvironmentTest {
+
+    @Test(description = "BaseTest tests running in parallel read the environment on every worker thread")
+    public void testEnvironmentIsVisibleOnEveryThread() {
+        String profile = System.getProperty("spring.profiles.active");
+        if (profile == null) {
+            System.setProperty("spring.profiles.active", "qa");
+        }
+        try {
+            EnvironmentLookupTests.THREADS.clear();
+
+            TestListenerAdapter results = new TestListenerAdapter();
+            TestNG testNG = new TestNG(false);
+            testNG.setTestClasses(new Class<?>[]{EnvironmentLookupTests.class});
+            testNG.addListener(new ParallelConfigurer("methods", 4));
+            testNG.addListener(results);
+            testNG.setVerbose(0);
+            testNG.run();
+
+            Assert.assertTrue(results.getFailedTests().isEmpty() && results.getConfigurationFailures().isEmpty(),
+                    "Tests failed: " + results.getFailedTests() + " " + results.getConfigurationFailures());
+            Assert.assertEquals(results.getPassedTests().size(), EnvironmentLookupTests.TEST_COUNT);
+            Assert.assertTrue(EnvironmentLookupTests.THREADS.size() > 1,
+                    "Tests did not run on several threads: " + EnvironmentLookupTests.THREADS);
+        } finally {
+            if (profile == null) {
+                System.clearProperty("spring.profiles.active");
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.automation.tests.testcases;
+
+import com.aventstack.extentreports.reporter.JsonFormatter;
+import com.example.automation.tests.hooks.ParallelConfigurer;
+import com.example.automation.tests.hooks.ResultsRecorder;
+import com.example.automation.tests.stubs.StubSite;
+import com.example.automation.tests.stubs.StubSiteSessionTests;
+import com.example.automation.utils.AsyncReportWriter;
+import com.example.automation.utils.ExtentReportManager;
+import com.example.automation.utils.ResultsSink;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.testng.Assert;
+import org.testng.TestListenerAdapter;
+import org.testng.TestNG;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how test throughput scales with the configured thread count, running page-session tests
+ * against a local stub site through the framework's report writer and results recorder, and checks that every
+ * parallel test keeps its own session and that its report entry and results record are attributed to it.
+ * ParallelEnvironmentTest runs BaseTest tests in parallel.
+ */
+@Slf4j
+public class ParallelExecutionBenchmarkTest {
+
+    private static final long LATENCY_MILLIS = 50;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private StubSite site;
+
+    @BeforeClass
+    public void startSite() throws Exception {
+        site = new StubSite(LATENCY_MILLIS);
+        site.start();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopSite() {
+        site.stop();
+    }
+
+    @Test(description = "Reports throughput per test.threads; every parallel test keeps its own session, report entry and results")
+    public void testThroughputScalesWithThreads() throws Exception {
+        run(1); // warm-up, so the 1-thread baseline is not slowed down by class loading and JIT
+
+        int[] threadCounts = {1, 2, 4, 8};
+        double[] testsPerSecond = new double[threadCounts.length];
+        StringBuilder table = new StringBuilder(String.format("%nthreads  tests  elapsed ms  tests/s  speedup"));
+        for (int i = 0; i < threadCounts.length; i++) {
+            long start = System.nanoTime();
+            int tests = run(threadCounts[i]);
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            testsPerSecond[i] = tests * 1000.0 / Math.max(1, elapsedMs);
+            table.append(String.format("%n%7d  %5d  %10d  %7.1f  %6.2fx",
+                    threadCounts[i], tests, elapsedMs, testsPerSecond[i], testsPerSecond[i] / testsPerSecond[0]));
+        }
+        // Reported, not asserted: the speedup depends on the cores of the machine running the suite
+        log.info("Parallel throughput against the stub site ({} ms per request):{}", LATENCY_MILLIS, table);
+    }
+
+    // Runs the stub tests on the given number of threads, checks their attribution and returns how many passed
+    private int run(int threads) throws Exception {
+        Path reportDir = Files.createTempDirectory("parallel-benchmark");
+        Path archive = reportDir.resolve(ExtentReportManager.JSON_ARCHIVE);
+        Path resultsFile = reportDir.resolve(ResultsSink.RESULTS_FILE);
+        AsyncReportWriter writer = AsyncReportWriter.start(reportDir, archive,
+                report -> report.attachReporter(new JsonFormatter(archive.toString())), Duration.ofHours(1), 1_000);
+        StubSiteSessionTests.setUp(site.getBaseUrl(), writer);
+
+        XmlSuite suite = new XmlSuite();
+        suite.setName("Parallel benchmark");
+        XmlTest test = new XmlTest(suite);
+        test.setName("Stub site sessions");
+        test.setXmlClasses(List.of(new XmlClass(StubSiteSessionTests.class)));
+
+        TestListenerAdapter results = new TestListenerAdapter();
+        TestNG testNG = new TestNG(false);
+        testNG.setXmlSuites(List.of(suite));
+        testNG.addListener(new ParallelConfigurer("methods", threads));
+        testNG.addListener(new ResultsRecorder(new ResultsSink(resultsFile, "benchmark", "fork-0", "qa")));
+        testNG.addListener(results);
+        testNG.setVerbose(0);
+        testNG.run();
+        writer.close();
+
+        Assert.assertTrue(results.getFailedTests().isEmpty() && results.getConfigurationFailures().isEmpty(),
+                "Tests failed with " + threads + " thread(s): " + results.getFailedTests());
+        Assert.assertEquals(results.getPassedTests().size(), StubSiteSessionTests.TEST_COUNT);
+        Set<String> reported = reportedSessions(archive);
+        for (String session : recordedSessions(resultsFile)) {
+            Assert.assertTrue(reported.contains(session),
+                    "Results record and report entry of " + threads + " thread(s) disagree on the session of " + session);
+        }
+        return results.getPassedTests().size();
+    }
+
+    // Test name and session of every session a report entry logged; a session logged by two entries fails
+    private static Set<String> reportedSessions(Path archive) throws Exception {
+        Set<String> sessions = new HashSet<>();
+        Set<String> ids = new HashSet<>();
+        int entries = 0;
+        for (JsonNode test : MAPPER.readTree(archive.toFile())) {
+            entries++;
+            Set<String> ownIds = new HashSet<>();
+            for (JsonNode entry : test.get("logs")) {
+                String details = entry.get("details").asText();
+                ownIds.add(details.substring(details.lastIndexOf(' ') + 1));
+            }
+            for (String id : ownIds) {
+                Assert.assertTrue(ids.add(id), "Session " + id + " was logged by several report entries");
+                sessions.add(test.get("name").asText() + " " + id);
+            }
+        }
+        Assert.assertEquals(entries, StubSiteSessionTests.TEST_COUNT);
+        return sessions;
+    }
+
+    // Test name and session of every results record, taken from the setup step timed on the test's thread
+    private static Set<String> recordedSessions(Path resultsFile) throws Exception {
+        Set<String> sessions = new HashSet<>();
+        for (String line : Files.readAllLines(resultsFile)) {
+            JsonNode record = MAPPER.readTree(line);
+            if (!record.get("event").asText().equals("test")) {
+                continue;
+            }
+            String name = record.get("test").asText();
+            JsonNode steps = record.path("steps");
+            Assert.assertEquals(steps.size(), 1, "Results record of " + name + " has the steps of other tests: " + steps);
+            String step = steps.get(0).get("name").asText();
+            Assert.assertTrue(step.startsWith(StubSiteSessionTests.OPEN_STEP), step);
+            sessions.add(name.substring(name.lastIndexOf('.') + 1) + " " + step.substring(StubSiteSessionTests.OPEN_STEP.length()));
+        }
+        Assert.assertEquals(sessions.size(), StubSiteSessionTests.TEST_COUNT);
+        return sessions;
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.automation.tests.testcases;
+
+import com.example.automation.tests.utilities.ResultsMerger;
+import com.example.automation.utils.ResultsSink;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.LongStream;
+
+public class ResultsSinkTest {
+
+    @BeforeMethod
+    public void discardSteps() {
+        // Other tests on this thread may have left steps for a test record they never wrote
+        ResultsSink.discardPending();
+    }
+
+    @Test(description = "Each fork writes one JSON line per event, flushed when the sink is closed")
+    public void testSinkWritesJsonLines() throws Exception {
+        Path file = Files.createTempDirectory("results").resolve(ResultsSink.RESULTS_FILE);
+        ResultsSink sink = new ResultsSink(file, "run1", "shard-0", "qa");
+        ResultsSink.recordStep("ui.consent", 1_500_000_000L);
+        ResultsSink.recordArtifact("report/screenshots/login.png");
+        ResultsSink.TestData data = ResultsSink.takeTestData();
+        sink.writeTest(testRecord(sink, "LoginTest.testLogin", List.of(), "PASS", 4_200, 1, data.steps(), data.artifactPaths().join()));
+        Assert.assertTrue(ResultsSink.takeTestData().steps().isEmpty(), "Steps of the previous test were kept");
+        sink.close();
+        sink.close();
+
+        List<String> lines = Files.readAllLines(file);
+        Assert.assertEquals(lines.size(), 3);
+        ObjectMapper mapper = new ObjectMapper();
+        Assert.assertEquals(mapper.readTree(lines.get(0)).get("event").asText(), "run-start");
+        JsonNode test = mapper.readTree(lines.get(1));
+        Assert.assertEquals(test.get("status").asText(), "PASS");
+        Assert.assertEquals(test.get("steps").get(0).get("millis").asLong(), 1_500);
+        Assert.assertEquals(test.get("artifacts").get(0).asText(), "report/screenshots/login.png");
+        Assert.assertFalse(test.has("error"), "Empty fields should be left out");
+        JsonNode end = mapper.readTree(lines.get(2));
+        Assert.assertEquals(end.get("event").asText(), "run-end");
+        Assert.assertEquals(end.get("statuses").get("PASS").asInt(), 1);
+    }
+
+    @Test(description = "Forks and shards merge into one summary with percentiles and flaky tests")
+    public void testMergeSummarisesForks() throws Exception {
+        Path root = Files.createTempDirectory("results");
+        try (ResultsSink shard0 = new ResultsSink(root.resolve("shard-0").resolve(ResultsSink.RESULTS_FILE), "run1", "shard-0", "qa")) {
+            for (int i = 1; i <= 100; i++) {
+                shard0.writeTest(testRecord(shard0, "SignUpTest.testPasswordRules", List.of("row" + i), "PASS", i * 10L, 1));
+            }
+        }
+        try (ResultsSink shard1 = new ResultsSink(root.resolve("shard-1").resolve(ResultsSink.RESULTS_FILE), "run1", "shard-1", "qa")) {
+            shard1.writeTest(testRecord(shard1, "LoginTest.testLogin", List.of(), "RETRY", 5_000, 1));
+            shard1.writeTest(testRecord(shard1, "LoginTest.testLogin", List.of(), "PASS", 3_000, 2));
+            shard1.writeTest(testRecord(shard1, "LoginTest.testLockout", List.of(), "FAIL", 2_000, 1));
+        }
+        // A fork killed mid-write leaves a truncated line
+        Files.writeString(root.resolve("shard-1").resolve(ResultsSink.RESULTS_FILE), "{\"event\":\"te", StandardOpenOption.APPEND);
+
+        ResultsMerger.Summary summary = ResultsMerger.merge(List.of(root), root);
+
+        Assert.assertEquals(summary.results(), 103);
+        Assert.assertEquals(summary.forks(), List.of("shard-0", "shard-1"));
+        Assert.assertEquals(summary.runIds(), List.of("run1"));
+        Assert.assertEquals(summary.statuses().get("PASS"), Integer.valueOf(101));
+        Assert.assertEquals(summary.statuses().get("FAIL"), Integer.valueOf(1));
+        Assert.assertEquals(summary.flaky(), List.of("LoginTest.testLogin"));
+        Assert.assertEquals(summary.durationMs().max(), 5_000);
+        Assert.assertEquals(summary.slowestFirst().get(0).test(), "LoginTest.testLogin");
+        Assert.assertEquals(summary.slowestFirst().get(0).durationMs().count(), 2);
+        Assert.assertTrue(Files.exists(root.resolve(ResultsMerger.SUMMARY_FILE)));
+
+        ResultsMerger.Percentiles rows = ResultsMerger.Percentiles.of(
+                LongStream.rangeClosed(1, 100).map(i -> i * 10).boxed().toList());
+        Assert.assertEquals(rows.p50(), 500);
+        Assert.assertEquals(rows.p95(), 950);
+        Assert.assertEquals(rows.p99(), 990);
+    }
+
+    private static ResultsSink.Record testRecord(ResultsSink sink, String test, List<String> parameters, String status,
+                                                 long durationMs, int attempt) {
+        return testRecord(sink, test, parameters, status, durationMs, attempt, List.of(), List.of());
+    }
+
+    private static ResultsSink.Record testRecord(ResultsSink sink, String test, List<String> parameters, String status,
+                                                 long durationMs, int attempt, List<ResultsSink.Step> steps, List<String> artifacts) {
+        return new ResultsSink.Record("test", sink.getRunId(), sink.getFork(), sink.getEnv(), "2026-01-01T00:00:00Z",
+                "All Tests", test, parameters, status, durationMs, attempt, steps, artifacts,
+                "FAIL".equals(status) ? "AssertionError: expected lockout" : null, null, null);
+    }
+}
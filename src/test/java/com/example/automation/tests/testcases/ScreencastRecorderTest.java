@@ -0,0 +1,74 @@
+package com.example.automation.tests.testcases;
+
+import com.example.automation.drivers.ScreencastRecorder;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+public class ScreencastRecorderTest {
+
+    @Test(description = "The ring keeps only the newest frames, and only those of the last seconds")
+    public void testRingKeepsRecentFrames() {
+        ScreencastRecorder recorder = new ScreencastRecorder(new ScreencastRecorder.Settings(true, 10, 5, 50, 800));
+        long now = System.nanoTime();
+        String frame = frame(Color.RED);
+
+        recorder.addFrame(frame, now - TimeUnit.SECONDS.toNanos(30));
+        Assert.assertEquals(recorder.frameCount(), 0, "Frames older than the window should not be kept");
+
+        for (int i = 0; i < 12; i++) {
+            recorder.addFrame(frame, now + i);
+        }
+        Assert.assertEquals(recorder.frameCount(), 5);
+    }
+
+    @Test(description = "The frames are written as an animated GIF only when asked")
+    public void testFramesAreWrittenAsGif() throws Exception {
+        ScreencastRecorder recorder = new ScreencastRecorder(new ScreencastRecorder.Settings(true, 10, 20, 50, 800));
+        Path file = Files.createTempDirectory("screencast").resolve("failure.gif");
+        Assert.assertNull(recorder.writeGif(file), "No GIF without frames");
+        Assert.assertFalse(Files.exists(file));
+
+        long now = System.nanoTime();
+        Color[] colors = {Color.RED, Color.GREEN, Color.BLUE};
+        for (int i = 0; i < colors.length; i++) {
+            recorder.addFrame(frame(colors[i]), now + TimeUnit.MILLISECONDS.toNanos(200L * i));
+        }
+        recorder.writeGif(file);
+
+        ImageReader reader = ImageIO.getImageReadersByFormatName("gif").next();
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            reader.setInput(in);
+            Assert.assertEquals(reader.getNumImages(true), 3);
+            Assert.assertEquals(reader.read(0).getWidth(), 160);
+        } finally {
+            reader.dispose();
+        }
+    }
+
+    private static String frame(Color color) {
+        try {
+            BufferedImage image = new BufferedImage(160, 90, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = image.createGraphics();
+            graphics.setColor(color);
+            graphics.fillRect(0, 0, 160, 90);
+            graphics.dispose();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(image, "jpg", out);
+            return Base64.getEncoder().encodeToString(out.toByteArray());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.automation.tests.testcases;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.model.Media;
+import com.example.automation.utils.ScreenshotPipeline;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+public class ScreenshotPipelineTest {
+
+    @Test(description = "Screenshots are stored compressed, once per distinct image, and attached to the report")
+    public void testScreenshotsAreCompressedAndDeduplicated() throws Exception {
+        Path store = Files.createTempDirectory("screenshots");
+        ScreenshotPipeline pipeline = new ScreenshotPipeline(store, "jpg", 0.8f, 2, 4, Duration.ofDays(7));
+        ExtentTest test = new ExtentReports().createTest("screenshots");
+        byte[] page = screenshot(0, true);
+
+        List<CompletableFuture<Path>> stored = Stream.of(page, screenshot(40, true), page).map(png -> pipeline.submit(png, test, "page")).toList();
+        pipeline.drain(Duration.ofSeconds(30));
+
+        Assert.assertEquals(stored.get(0).get(), stored.get(2).get(), "Identical screenshots should share a file");
+        Assert.assertNotEquals(stored.get(0).get(), stored.get(1).get());
+        Assert.assertEquals(storedFiles(store).size(), 2);
+        Assert.assertTrue(stored.get(0).get().toString().endsWith(".jpg"));
+        Assert.assertTrue(Files.size(stored.get(0).get()) < page.length,
+                "JPEG " + Files.size(stored.get(0).get()) + " bytes, PNG " + page.length + " bytes");
+        List<String> attached = test.getModel().getMedia().stream().map(Media::getPath).toList();
+        Assert.assertEquals(attached.size(), 3);
+        Assert.assertTrue(pipeline.getSummary().contains("1 de-duplicated"), pipeline.getSummary());
+    }
+
+    @Test(description = "Flat screenshots that PNG compresses better than JPEG are kept as PNG")
+    public void testFlatScreenshotsStayPng() throws Exception {
+        Path store = Files.createTempDirectory("screenshots");
+        ScreenshotPipeline pipeline = new ScreenshotPipeline(store, "jpg", 0.8f, 1, 1, Duration.ofDays(7));
+        byte[] page = screenshot(0, false);
+
+        Path stored = pipeline.submit(page, new ExtentReports().createTest("flat"), "flat").get();
+
+        Assert.assertTrue(stored.toString().endsWith(".png"), stored.toString());
+        Assert.assertEquals(Files.readAllBytes(stored), page);
+    }
+
+    @Test(description = "Stored screenshots unused for longer than the retention period are pruned, other files are kept")
+    public void testOldScreenshotsArePruned() throws Exception {
+        Path store = Files.createTempDirectory("screenshots");
+        Path old = Files.createDirectories(store.resolve("ab")).resolve("ab" + "0".repeat(62) + ".jpg");
+        Path recent = store.resolve("ab").resolve("ab" + "1".repeat(62) + ".jpg");
+        Path failure = store.resolve("captureFailureDetails_login.png");
+        for (Path file : List.of(old, recent, failure)) {
+            Files.write(file, new byte[]{1});
+        }
+        Files.setLastModifiedTime(old, FileTime.from(Instant.now().minus(Duration.ofDays(10))));
+        Files.setLastModifiedTime(failure, FileTime.from(Instant.now().minus(Duration.ofDays(10))));
+
+        new ScreenshotPipeline(store, "png", 1f, 1, 1, Duration.ofDays(7)).drain(Duration.ofSeconds(30));
+
+        Assert.assertEquals(storedFiles(store), List.of(recent, failure).stream().sorted().toList());
+    }
+
+    // A page-like image with text-like detail, on a photo-like background or a flat one
+    private static byte[] screenshot(int offset, boolean photo) throws Exception {
+        Random random = new Random(offset);
+        BufferedImage image = new BufferedImage(800, 600, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                boolean detail = (x + offset) % 37 < 3 && y % 23 < 15;
+                int background = photo ? (x / 4 + random.nextInt(24)) << 16 | (y / 3 + random.nextInt(24)) << 8 | 0x80 : 0xF0F4F8;
+                image.setRGB(x, y, detail ? 0x202020 : background);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private static List<Path> storedFiles(Path store) throws Exception {
+        try (Stream<Path> files = Files.walk(store)) {
+            return files.filter(Files::isRegularFile).sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.automation.tests.testcases;
+
+import com.example.automation.tests.utilities.DurationHistory;
+import com.example.automation.tests.utilities.ShardPlanner;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+public class ShardingTest {
+
+    @Test(description = "Shards are balanced by duration and every unit runs in exactly one shard")
+    public void testShardsAreBalanced() {
+        Random random = new Random(7);
+        List<ShardPlanner.Unit<String>> units = new ArrayList<>();
+        long total = 0;
+        long longest = 0;
+        for (int i = 0; i < 60; i++) {
+            long millis = 1_000 + random.nextInt(120_000);
+            units.add(new ShardPlanner.Unit<>("test" + i, millis, "test" + i));
+            total += millis;
+            longest = Math.max(longest, millis);
+        }
+
+        List<ShardPlanner.Shard<String>> plan = ShardPlanner.plan(units, 4);
+
+        Set<String> assigned = new HashSet<>();
+        long slowest = 0;
+        for (ShardPlanner.Shard<String> shard : plan) {
+            shard.units().forEach(unit -> Assert.assertTrue(assigned.add(unit.name()), unit.name() + " assigned twice"));
+            slowest = Math.max(slowest, shard.millis());
+        }
+        Assert.assertEquals(assigned.size(), units.size());
+        // Longest-first greedy assignment is never more than one unit above the ideal split
+        Assert.assertTrue(slowest <= total / 4 + longest, "Slowest shard " + slowest + " ms, ideal " + total / 4 + " ms");
+    }
+
+    @Test(description = "Every fork computes the same plan regardless of the order it lists the tests in")
+    public void testPlanIsDeterministic() {
+        List<ShardPlanner.Unit<String>> units = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            units.add(new ShardPlanner.Unit<>("test" + i, 5_000, "test" + i));
+        }
+        List<ShardPlanner.Unit<String>> reversed = new ArrayList<>(units);
+        Collections.reverse(reversed);
+
+        List<ShardPlanner.Shard<String>> plan = ShardPlanner.plan(units, 3);
+        List<ShardPlanner.Shard<String>> planOfReversed = ShardPlanner.plan(reversed, 3);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(names(planOfReversed.get(i)), names(plan.get(i)));
+        }
+    }
+
+    @Test(description = "Run durations move the history halfway, survive a save and load, and lock outside the history directory")
+    public void testHistoryUpdates() throws Exception {
+        Path file = Files.createTempDirectory("durations").resolve("durations.properties");
+        DurationHistory.update(file, Map.of("a.Test.one", 10_000L, "a.Test.two", 2_000L));
+        DurationHistory.update(file, Map.of("a.Test.one", 20_000L, "a.Test.three", 4_000L));
+
+        DurationHistory history = DurationHistory.load(file);
+        Assert.assertEquals(history.get("a.Test.one"), 15_000L);
+        Assert.assertEquals(history.get("a.Test.two"), 2_000L);
+        Assert.assertEquals(history.get("a.Test.three"), 4_000L);
+        Assert.assertEquals(history.get("a.Test.unknown"), -1L);
+        Assert.assertEquals(history.median(30_000), 4_000L);
+        Assert.assertFalse(Files.exists(file.resolveSibling("durations.properties.lock")), "Lock file left next to the history");
+    }
+
+    private static List<String> names(ShardPlanner.Shard<String> shard) {
+        return shard.units().stream().map(ShardPlanner.Unit::name).toList();
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.automation.tests.testcases;
 
 import com.example.automation.pages.SignupPage;
+import com.example.automation.tests.hooks.RequiresState;
 import com.example.automation.tests.testdata.PasswordValidationData;
 import com.example.automation.tests.utilities.EnvironmentUtils;
 import com.example.automation.utils.*;
@@ -12,55 +13,83 @@ import org.testng.ITestResult;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.util.Arrays;
+
 @Slf4j
 @SpringBootTest
 public class SignUpTest extends BaseTest {
 
+    // Home page with T&C accepted, dark theme on and the signup form open
+    static final String SIGNUP_FORM = "signup-form";
+
     @Autowired
     private GenerateEmail generateEmail;
 
-    private SignupPage signupPage;
+    private final ThreadLocal<SignupPage> signupPages = new ThreadLocal<>();
 
     @BeforeMethod
     public void setup(ITestResult result) throws Exception {
         String testName = result.getMethod().getMethodName();
         String description = result.getMethod().getDescription();
+        if (result.getParameters().length > 0) {
+            testName += " " + Arrays.toString(result.getParameters());
+        }
 
+        if (reuseState(result, testName, description)) {
+            return;
+        }
+
+        long start = System.nanoTime();
         initializeDriver(testName, description);
 
-        signupPage = new SignupPage(driver);
-        signupPage.goToSignupPage();
+        signupPages.set(new SignupPage(getDriver()));
+        signupPage().goToSignupPage();
+        recordStateSetup(result, start);
     }
 
+    @Override
+    protected boolean isStateIntact(String state) {
+        return signupPage().isFormPristine();
+    }
+
+    @Override
+    protected boolean resetState(String state) {
+        return signupPage().resetForm();
+    }
+
+    @RequiresState(SIGNUP_FORM)
     @Test(priority = 1, description = "Verify that the signup form doesnt submit with empty email and password fields")
     public void testWithEmptyEmailAndPassword() throws Exception {
-        test.info("Test for signup with empty form");
+        getTest().info("Test for signup with empty form");
 
         try {
             String email = "";
             String password = "";
-            signupPage.enterEmail(email);
-            signupPage.enterPassword(password);
+            signupPage().enterEmail(email);
+            signupPage().enterPassword(password);
             log.info("Clicking register button 10 times");
             for (int i = 1; i <= 10; i++) {
                 System.out.println("Register button is clicked : " + i + " times");
-                Thread.sleep(500);
-                signupPage.clickRegisterButton();
+                Sleeper.sleep(500, "between clicks");
+                signupPage().clickRegisterButton();
             }
+            captureStep("empty form submitted");
 
-            Assert.assertFalse(signupPage.isOtpOr2FaPageDisplayed(), "OTP/2FA page is displayed");
+            Assert.assertFalse(signupPage().isOtpOr2FaPageDisplayed(), "OTP/2FA page is displayed");
         } catch (Exception e) {
             captureFailureDetails(e);
         }
     }
 
+    @RequiresState(SIGNUP_FORM)
     @Test(priority = 2, groups = {"regression", "sanity"}, description = "Verify registration with invalid email")
     public void testSignUpWithInvalidEmail() throws Exception {
         try {
-            signupPage.enterEmail("abcd.com").enterPassword("Pass@12345").clickSignUpButton("abcd.com", "Pass@12345");
+            signupPage().enterEmail("abcd.com").enterPassword("Pass@12345").clickSignUpButton("abcd.com", "Pass@12345");
+            captureStep("invalid email submitted");
 
-            Assert.assertEquals(signupPage.getInvalidEmailErrorMessage(), "Email is not valid!");
-            test.pass("Invalid email validation passed");
+            Assert.assertEquals(signupPage().getInvalidEmailErrorMessage(), "Email is not valid!");
+            getTest().pass("Invalid email validation passed");
         } catch (Exception e) {
             captureFailureDetails(e);
         }
@@ -68,20 +97,21 @@ public class SignUpTest extends BaseTest {
 
     @Test(priority = 3, groups = {"regression"}, description = "Verify sign-up functionality with existing email")
     public void testSignUpWithExistingEmail() throws Exception {
-        test.info("Test for sign-up with existing email");
+        getTest().info("Test for sign-up with existing email");
         try {
             String existingEmail = EnvironmentUtils.getEmailForEnvironment();
             String password = "Pass@12345";
 
-            signupPage.enterEmail(existingEmail).enterPassword(password);
+            signupPage().enterEmail(existingEmail).enterPassword(password);
 
             for (int i = 1; i <= 5; i++) {
-                signupPage.clickRegisterButton();
+                signupPage().clickRegisterButton();
                 log.info("Register button clicked {} times", i);
             }
-            Assert.assertEquals(signupPage.getExistingEmailErrorMessage(), "Registration failed. Please try login.");
+            captureStep("existing email submitted");
+            Assert.assertEquals(signupPage().getExistingEmailErrorMessage(), "Registration failed. Please try login.");
 
-            test.pass("Sign-up with existing email verified successfully");
+            getTest().pass("Sign-up with existing email verified successfully");
         } catch (Exception e) {
             captureFailureDetails(e);
         }
@@ -89,18 +119,21 @@ public class SignUpTest extends BaseTest {
 
     @Test(priority = 4, groups = {"regression", "smoke"}, description = "Test for successful sign-up with valid(unique) email and password")
     public void testSignUpWithValidEmailAndPassword() throws Exception {
-        test.info("Test for successful sign-up with valid(unique) email and password");
+        getTest().info("Test for successful sign-up with valid(unique) email and password");
 
         try {
             String dynamicEmail = generateEmail.generateEmail();
             String password = "Pass@12345";
-            test.info("Generated email: " + dynamicEmail);
+            getTest().info("Generated email: " + dynamicEmail);
 
-            signupPage.signUp(dynamicEmail, password);
-            signupPage.enterOtpOr2Fa();
+            signupPage().signUp(dynamicEmail, password);
+            captureStep("signup submitted");
+            signupPage().enterOtpOr2Fa();
+            captureStep("OTP entered");
 
-            Assert.assertTrue(signupPage.isSignUpSuccessful(), "Registration not successful");
-            test.pass("Sign-up with valid email and password completed successfully");
+            Assert.assertTrue(signupPage().isSignUpSuccessful(), "Registration not successful");
+            captureStep("signed up");
+            getTest().pass("Sign-up with valid email and password completed successfully");
         } catch (Exception e) {
             captureFailureDetails(e);
         }
@@ -114,15 +147,15 @@ public class SignUpTest extends BaseTest {
         String password = "Pass@12345";
         log.info("Using country for signup: {}", country);
 
-        Thread.sleep(1000);
-        signupPage.selectCountry(country);
-        signupPage.signUp(email, password);
+        Sleeper.sleep(1000, "form settle");
+        signupPage().selectCountry(country);
+        signupPage().signUp(email, password);
 
         // Verify OTP/2FA
-        signupPage.enterOtpOr2Fa();
+        signupPage().enterOtpOr2Fa();
 
         // Verify if signup is successful\
-        Assert.assertTrue(signupPage.isSignUpSuccessful(), "Registration failed");
+        Assert.assertTrue(signupPage().isSignUpSuccessful(), "Registration failed");
         log.info("Registration successful");
         log.info("Signup completed With {} as country.", country);
     }
@@ -135,24 +168,25 @@ public class SignUpTest extends BaseTest {
         String password = "Pass@12345";
         log.info("Using referral code for signup: {}", referralCode);
 
-        Thread.sleep(1000);
-        signupPage.enterEmail(email)
+        Sleeper.sleep(1000, "form settle");
+        signupPage().enterEmail(email)
                 .enterPassword(password)
                 .expandReferralCodeField()
                 .enterReferralCode(referralCode)
                 .clickSignUpButton(email, password);
-        signupPage.acceptTnc();
-        signupPage.solveCaptcha();
-        signupPage.enterOtpOr2Fa();
+        signupPage().acceptTnc();
+        signupPage().solveCaptcha();
+        signupPage().enterOtpOr2Fa();
 
         // Verify if signup is successful
-        if(signupPage.isSignUpSuccessful()) {
+        if(signupPage().isSignUpSuccessful()) {
             log.info("Registration successful");
         }
 
         log.info("Signup completed With {} as referral code.", referralCode);
     }
 
+    @RequiresState(SIGNUP_FORM)
     @Test(priority = 7, groups = {"regression", "sanity"},
             description = "Verify registration with various invalid password formats",
             dataProvider = "passwordValidationDataProvider",
@@ -160,12 +194,12 @@ public class SignUpTest extends BaseTest {
     public void testDynamicPasswordValidationRules(String password, String expectedMessage) throws Exception {
          try {
             String email = generateEmail.generateEmail();
-            signupPage.enterEmail(email).showPassword();
+            signupPage().enterEmail(email).showPasswordIfHidden();
 
-            boolean validationFlag = signupPage.validatePassword(email, password, expectedMessage);
+            boolean validationFlag = signupPage().validatePassword(email, password, expectedMessage);
             Assert.assertTrue(validationFlag, "Password validation failed for: " + password);
 
-            test.pass("Password validation passed for: " + password);
+            getTest().pass("Password validation passed for: " + password);
         } catch (Exception e) {
             captureFailureDetails(e);
         }
@@ -177,10 +211,10 @@ public class SignUpTest extends BaseTest {
             String email = generateEmail.generateEmail();
             String password = "Pass@12345";
 
-            signupPage.corpSignUp(email, password);
+            signupPage().corpSignUp(email, password);
 
-            signupPage.enterOtpOr2Fa();
-            signupPage.isSignUpSuccessful();
+            signupPage().enterOtpOr2Fa();
+            signupPage().isSignUpSuccessful();
 
         } catch (Exception e) {
             captureFailureDetails(e);
@@ -194,15 +228,22 @@ public class SignUpTest extends BaseTest {
             String password = "Pass@12345";
             String country = "Germany";
 
-            signupPage.selectCountry(country);
-            signupPage.corpSignUp(email, password);
-            signupPage.enterOtpOr2Fa();
+            signupPage().selectCountry(country);
+            signupPage().corpSignUp(email, password);
+            captureStep("corporate signup submitted");
+            signupPage().enterOtpOr2Fa();
+            captureStep("OTP entered");
 
-            Assert.assertTrue(signupPage.isSignUpSuccessful(), "Registration failed, something went wrong");
+            Assert.assertTrue(signupPage().isSignUpSuccessful(), "Registration failed, something went wrong");
+            captureStep("signed up");
             log.info("Signup Test With Valid Credentials Completed Successfully.");
 
         } catch (Exception e) {
             captureFailureDetails(e);
         }
     }
+
+    private SignupPage signupPage() {
+        return signupPages.get();
+    }
 }
@@ -0,0 +1,98 @@
+package com.example.automation.tests.testcases;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.Status;
+import com.example.automation.utils.Sleeper;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class SleeperTest {
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown() {
+        Sleeper.finishTest(null);
+        Sleeper.setSettings(null);
+    }
+
+    @Test(description = "Sleeps are attributed to their reason and caller and to the test, and a test that mostly sleeps is flagged")
+    public void testSleepsAreAttributedPerTestAndCallSite() throws Exception {
+        Sleeper.setSettings(new Sleeper.Settings(false, 10, 10));
+        ExtentTest test = new ExtentReports().createTest("sleepy");
+        Sleeper.startTest();
+
+        Sleeper.sleep(40, "warm-up");
+        settle();
+        settle();
+
+        Sleeper.TestUsage usage = Sleeper.finishTest(test);
+        Assert.assertEquals(usage.sites().size(), 2);
+        Sleeper.SiteStats first = usage.sites().get(0);
+        Assert.assertEquals(first.site(), "settle (SleeperTest.settle)");
+        Assert.assertEquals(first.count(), 2);
+        Assert.assertTrue(first.sleptMs() >= 50, first.toString());
+        Assert.assertEquals(usage.sites().get(1).site(), "warm-up (SleeperTest.testSleepsAreAttributedPerTestAndCallSite)");
+        Assert.assertTrue(usage.sleptMs() >= 90 && usage.sleptMs() <= usage.wallMs(), usage.toString());
+        Assert.assertTrue(usage.sharePercent() > 50, usage.toString());
+        Assert.assertEquals(test.getStatus(), Status.WARNING, "A test sleeping for most of its time should be flagged");
+        Assert.assertTrue(test.getModel().getLogs().get(0).getDetails().startsWith("Fixed sleeps: "));
+    }
+
+    @Test(description = "In condition-replacement mode a sleep ends once its readiness check passes")
+    public void testConditionReplacementEndsSleepEarly() throws Exception {
+        Sleeper.setSettings(new Sleeper.Settings(true, 10, 10));
+        Sleeper.startTest();
+        long readyAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(50);
+
+        long start = System.nanoTime();
+        boolean early = Sleeper.sleep(2_000, "rendered", () -> {
+            if (System.nanoTime() < readyAt) {
+                throw new IllegalStateException("not rendered yet");
+            }
+            return true;
+        });
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        Assert.assertTrue(early);
+        Assert.assertTrue(elapsedMs >= 50 && elapsedMs < 1_000, elapsedMs + " ms");
+        Sleeper.TestUsage usage = Sleeper.finishTest(null);
+        Assert.assertTrue(usage.savedMs() >= 1_000, usage.toString());
+    }
+
+    @Test(description = "Without condition replacement a sleep always takes its full time")
+    public void testFixedSleepIgnoresReadinessCheck() throws Exception {
+        Sleeper.setSettings(new Sleeper.Settings(false, 10, 10));
+        long start = System.nanoTime();
+
+        Assert.assertFalse(Sleeper.sleep(100, "ready", () -> true));
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 100);
+    }
+
+    @Test(description = "The audit sums sleeps per call site across tests and starts over once taken")
+    public void testAuditSumsCallSites() throws Exception {
+        Sleeper.setSettings(new Sleeper.Settings(false, 10, 10));
+        Sleeper.takeAudit();
+        for (int i = 0; i < 2; i++) {
+            Sleeper.startTest();
+            settle();
+            Sleeper.finishTest(null);
+        }
+
+        Sleeper.Audit audit = Sleeper.takeAudit();
+        List<Sleeper.SiteStats> sites = audit.sites().stream().filter(site -> site.site().equals("settle (SleeperTest.settle)")).toList();
+        Assert.assertEquals(sites.size(), 1);
+        Assert.assertEquals(sites.get(0).count(), 2);
+        Assert.assertTrue(audit.testWallMs() >= sites.get(0).sleptMs());
+        String html = Sleeper.toHtml(audit);
+        Assert.assertTrue(html.contains(sites.get(0).site() + " &#9888;"), html);
+        Assert.assertTrue(Sleeper.takeAudit().sites().stream().noneMatch(site -> site.site().equals("settle (SleeperTest.settle)")));
+    }
+
+    private static void settle() throws InterruptedException {
+        Sleeper.sleep(25, "settle");
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.automation.tests.testcases;
+
+import com.example.automation.tests.stubs.StubMailSender;
+import com.example.automation.utils.MailMessage;
+import com.example.automation.utils.SmtpSink;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
+
+public class SmtpSinkTest {
+
+    private static final String FROM = "no-reply@bitdelta.test";
+
+    private SmtpSink smtpSink;
+
+    @BeforeClass
+    public void startSink() throws IOException {
+        smtpSink = new SmtpSink(0);
+        smtpSink.start();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopSink() {
+        smtpSink.stop();
+    }
+
+    @Test(description = "A waiting caller is woken up by the delivery and gets the OTP from the email")
+    public void testWaitsForOtpEmail() throws Exception {
+        String to = "waiter@yopmail.com";
+        Thread sender = Thread.ofVirtual().start(() -> {
+            try {
+                Thread.sleep(300);
+                StubMailSender.send(smtpSink.getPort(), FROM, to,
+                        "Subject: Verify your email\r\nContent-Type: text/plain\r\n\r\nYour verification code is 482913.\r\n");
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        long start = System.nanoTime();
+        String otp = smtpSink.getMailbox().takeOtp(to, Duration.ofSeconds(5));
+        sender.join();
+
+        Assert.assertEquals(otp, "482913");
+        Assert.assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 3000, "Waiter was not woken by the delivery");
+        Assert.assertTrue(smtpSink.getMailbox().getMessages(to).isEmpty(), "Taken message was not removed");
+    }
+
+    @Test(description = "Codes are found in base64 HTML parts of multipart emails, not in the CSS")
+    public void testParsesMultipartHtml() throws Exception {
+        String to = "Multipart@Yopmail.com";
+        String html = "<html><style>.a{color:#123456}</style><body><p>Your code: <b>731045</b></p></body></html>";
+        StubMailSender.send(smtpSink.getPort(), FROM, to,
+                "Subject: =?UTF-8?B?" + Base64.getEncoder().encodeToString("Código de verificación".getBytes(StandardCharsets.UTF_8)) + "?=\r\n"
+                        + "Content-Type: multipart/alternative; boundary=\"b1\"\r\n\r\n"
+                        + "--b1\r\nContent-Type: text/html; charset=UTF-8\r\nContent-Transfer-Encoding: base64\r\n\r\n"
+                        + Base64.getMimeEncoder().encodeToString(html.getBytes(StandardCharsets.UTF_8)) + "\r\n"
+                        + "--b1--\r\n");
+
+        MailMessage message = smtpSink.getMailbox().takeLatest(to, Duration.ofSeconds(5));
+        Assert.assertEquals(message.subject(), "Código de verificación");
+        Assert.assertEquals(smtpSink.getMailbox().getMessages(to).size(), 0);
+        Assert.assertEquals(message.findCode(Pattern.compile("\\b(\\d{6})\\b")), "731045");
+    }
+
+    @Test(description = "Waiting for an address that receives nothing times out", expectedExceptions = TimeoutException.class)
+    public void testTimesOut() throws Exception {
+        smtpSink.getMailbox().takeOtp("nobody@yopmail.com", Duration.ofMillis(300));
+    }
+}
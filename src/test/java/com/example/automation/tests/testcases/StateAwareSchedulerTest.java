@@ -0,0 +1,31 @@
+package com.example.automation.tests.testcases;
+
+import com.example.automation.tests.hooks.RequiresState;
+import com.example.automation.tests.hooks.StateAwareScheduler;
+import com.example.automation.tests.stubs.InterleavedStateTests;
+import org.testng.Assert;
+import org.testng.TestNG;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+public class StateAwareSchedulerTest {
+
+    @Test(description = "Tests requiring the same state run back to back, in priority order within the state")
+    public void testGroupsTestsByRequiredState() {
+        InterleavedStateTests.EXECUTED.clear();
+        TestNG testNG = new TestNG(false);
+        testNG.setTestClasses(new Class<?>[]{InterleavedStateTests.class});
+        testNG.addListener(new StateAwareScheduler());
+        testNG.setVerbose(0);
+        testNG.run();
+
+        Assert.assertEquals(InterleavedStateTests.EXECUTED, List.of("signupA", "signupB", "signupC", "walletA", "walletB"));
+    }
+
+    @Test(description = "A method-level state overrides the class-level one")
+    public void testMethodStateOverridesClassState() throws Exception {
+        Assert.assertEquals(InterleavedStateTests.class.getAnnotation(RequiresState.class).value(), "signup-form");
+        Assert.assertEquals(InterleavedStateTests.class.getMethod("walletA").getAnnotation(RequiresState.class).value(), "logged-in");
+    }
+}
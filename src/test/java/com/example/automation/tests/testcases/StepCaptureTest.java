@@ -0,0 +1,130 @@
+package com.example.automation.tests.testcases;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
+import com.example.automation.utils.ResultsSink;
+import com.example.automation.utils.ScreenshotPipeline;
+import com.example.automation.utils.StepCapture;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+public class StepCaptureTest {
+
+    private final List<Map<String, Object>> cdpCalls = new ArrayList<>();
+    private ScreenshotPipeline pipeline;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        cdpCalls.clear();
+        pipeline = new ScreenshotPipeline(Files.createTempDirectory("steps"), "jpg", 0.8f, 1, 4, Duration.ofDays(7));
+        StepCapture.setPipeline(pipeline);
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown() {
+        StepCapture.finishTest(null);
+        ResultsSink.discardPending();
+        StepCapture.setSettings(null);
+        StepCapture.setPipeline(null);
+    }
+
+    @Test(description = "Step screenshots clip the viewport and let the browser encode and downscale them")
+    public void testCaptureUsesClippedJpeg() throws Exception {
+        StepCapture.setSettings(new StepCapture.Settings(true, "jpeg", 55, 0.5, 0, 10_000));
+        ExtentTest test = new ExtentReports().createTest("steps");
+
+        StepCapture.capture(fakeChromium(0), test, "form opened").get();
+
+        Map<String, Object> params = cdpCalls.get(0);
+        Assert.assertEquals(params.get("format"), "jpeg");
+        Assert.assertEquals(params.get("quality"), 55);
+        Assert.assertEquals(params.get("captureBeyondViewport"), false);
+        Assert.assertEquals(params.get("clip"), Map.of("x", 0.0, "y", 200.0, "width", 1280.0, "height", 720.0, "scale", 0.5));
+        Assert.assertEquals(test.getModel().getMedia().size(), 1);
+        Assert.assertTrue(test.getModel().getMedia().get(0).getPath().endsWith(".jpg"));
+    }
+
+    @Test(description = "Step screenshots within the minimum interval are skipped")
+    public void testCapturesAreRateLimited() {
+        StepCapture.setSettings(new StepCapture.Settings(true, "jpeg", 60, 0.5, 60_000, 10_000));
+        ExtentTest test = new ExtentReports().createTest("steps");
+        WebDriver driver = fakeChromium(0);
+
+        for (int i = 0; i < 5; i++) {
+            StepCapture.capture(driver, test, "step " + i);
+        }
+        pipeline.drain(Duration.ofSeconds(10));
+
+        StepCapture.Usage usage = StepCapture.finishTest(test);
+        Assert.assertEquals(usage.captured(), 1);
+        Assert.assertEquals(usage.skipped(), 4);
+        Assert.assertEquals(cdpCalls.size(), 1);
+    }
+
+    @Test(description = "A test that used up its capture budget takes no more step screenshots, and the overhead is measured")
+    public void testCaptureBudgetStopsCapturing() {
+        StepCapture.setSettings(new StepCapture.Settings(true, "jpeg", 60, 0.5, 0, 100));
+        ExtentTest test = new ExtentReports().createTest("steps");
+        WebDriver driver = fakeChromium(40);
+
+        for (int i = 0; i < 10; i++) {
+            StepCapture.capture(driver, test, "step " + i);
+        }
+        pipeline.drain(Duration.ofSeconds(10));
+
+        StepCapture.Usage usage = StepCapture.finishTest(test);
+        Assert.assertEquals(usage.captured(), 3);
+        Assert.assertEquals(usage.skipped(), 7);
+        Assert.assertTrue(usage.overheadMs() >= 120, usage.overheadMs() + " ms");
+    }
+
+    // A Chromium browser scrolled down 200 px whose screenshots take captureMillis
+    private WebDriver fakeChromium(long captureMillis) {
+        String jpeg = Base64.getEncoder().encodeToString(tinyJpeg());
+        return (WebDriver) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{WebDriver.class, JavascriptExecutor.class, HasCdp.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "executeScript" -> {
+                            return List.of(0, 200, 1280, 720);
+                        }
+                        case "executeCdpCommand" -> {
+                            @SuppressWarnings("unchecked")
+                            Map<String, Object> params = (Map<String, Object>) args[1];
+                            cdpCalls.add(params);
+                            Thread.sleep(captureMillis);
+                            return Map.of("data", jpeg);
+                        }
+                        case "hashCode" -> {
+                            return System.identityHashCode(proxy);
+                        }
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    private static byte[] tinyJpeg() {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(new BufferedImage(64, 36, BufferedImage.TYPE_INT_RGB), "jpg", out);
+            return out.toByteArray();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
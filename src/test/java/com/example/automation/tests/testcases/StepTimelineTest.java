@@ -0,0 +1,82 @@
+package com.example.automation.tests.testcases;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
+import com.example.automation.utils.Retry;
+import com.example.automation.utils.Sleeper;
+import com.example.automation.utils.StepTimeline;
+import org.openqa.selenium.By;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class StepTimelineTest {
+
+    @Test(description = "Nested clicks, waits, retry attempts and sleeps are recorded as spans and drawn in the report")
+    public void testSpansAreRecordedAndDrawn() throws Exception {
+        ExtentTest test = new ExtentReports().createTest("timeline");
+        StepTimeline.startTest();
+
+        int click = StepTimeline.begin(StepTimeline.Kind.CLICK, null, By.id("login"));
+        int wait = StepTimeline.begin(StepTimeline.Kind.WAIT, "clickable", By.id("login"));
+        Thread.sleep(20);
+        StepTimeline.end(wait);
+        StepTimeline.end(click);
+        AtomicInteger attempts = new AtomicInteger();
+        Retry.retryOperation(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException("not yet");
+            }
+            return null;
+        }, 2, 30, "accept terms");
+
+        StepTimeline.Timeline timeline = StepTimeline.finishTest("timeline", test);
+        List<StepTimeline.Span> spans = timeline.spans();
+        Assert.assertEquals(spans.stream().map(StepTimeline.Span::label).toList(), List.of(
+                "click By.id: login", "wait clickable By.id: login", "retry accept terms", "sleep retry delay (Retry.retryOperation)", "retry accept terms"));
+        Assert.assertEquals(spans.stream().map(StepTimeline.Span::depth).toList(), List.of(0, 1, 0, 0, 0));
+        Assert.assertTrue(spans.get(1).durationNanos() >= TimeUnit.MILLISECONDS.toNanos(20));
+        Assert.assertTrue(spans.get(0).durationNanos() >= spans.get(1).durationNanos());
+        Assert.assertTrue(spans.get(3).durationNanos() >= TimeUnit.MILLISECONDS.toNanos(30));
+        Assert.assertTrue(spans.get(2).startNanos() >= spans.get(0).startNanos() + spans.get(0).durationNanos());
+
+        String html = test.getModel().getLogs().get(0).getDetails();
+        Assert.assertTrue(html.contains("Timeline"), html);
+        Assert.assertTrue(html.contains("click By.id: login"), html);
+        StepTimeline.takeSlowestSteps(100);
+    }
+
+    @Test(description = "Threads that did not start a test record nothing")
+    public void testNothingIsRecordedOutsideATest() throws Exception {
+        Assert.assertEquals(StepTimeline.begin(StepTimeline.Kind.CLICK, null, By.id("x")), -1);
+        StepTimeline.end(-1);
+        Sleeper.sleep(1, "outside");
+        Assert.assertNull(StepTimeline.finishTest("none", null));
+    }
+
+    @Test(description = "The slowest steps across tests are ranked by their total time and reset once taken")
+    public void testSlowestStepsAreAggregatedAcrossTests() throws Exception {
+        StepTimeline.takeSlowestSteps(100);
+        for (String name : List.of("first", "second")) {
+            StepTimeline.startTest();
+            Sleeper.sleep(name.equals("second") ? 60 : 20, "header settle");
+            int wait = StepTimeline.begin(StepTimeline.Kind.WAIT, "visible", By.id("otp"));
+            StepTimeline.end(wait);
+            StepTimeline.finishTest(name, null);
+        }
+
+        List<StepTimeline.StepStats> steps = StepTimeline.takeSlowestSteps(1);
+        Assert.assertEquals(steps.size(), 1);
+        StepTimeline.StepStats slowest = steps.get(0);
+        Assert.assertTrue(slowest.step().equals("sleep header settle (StepTimelineTest.testSlowestStepsAreAggregatedAcrossTests)"), slowest.step());
+        Assert.assertEquals(slowest.count(), 2);
+        Assert.assertTrue(slowest.totalMs() >= 80, slowest.toString());
+        Assert.assertTrue(slowest.maxMs() >= 60, slowest.toString());
+        Assert.assertEquals(slowest.slowestTest(), "second");
+        Assert.assertTrue(StepTimeline.toHtml(steps).contains("<td>" + slowest.step() + "</td>"));
+        Assert.assertTrue(StepTimeline.takeSlowestSteps(10).isEmpty(), "Totals start over once taken");
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.automation.tests.testcases;
+
+import com.example.automation.config.ApplicationProperties;
+import com.example.automation.drivers.AuthSession;
+import com.example.automation.drivers.DriverManager;
+import com.example.automation.drivers.StorageState;
+import com.example.automation.drivers.StorageStateManager;
+import com.example.automation.tests.stubs.StubAuthServer;
+import com.example.automation.utils.AuthApiClient;
+import com.example.automation.utils.OTPUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class StorageStateManagerTest {
+
+    private static final String EMAIL = "copt1@yopmail.com";
+    private static final String PASSWORD = "Pass@123456";
+
+    private StubAuthServer stubAuthServer;
+    private ApplicationProperties appProps;
+    private Path snapshotDir;
+    private FakeBrowser browser;
+    private StorageStateManager storageStateManager;
+
+    @BeforeClass
+    public void startStubServer() throws IOException {
+        stubAuthServer = new StubAuthServer(Map.of(EMAIL, PASSWORD), OTPUtil.NON_PROD_OTP);
+        stubAuthServer.start();
+        snapshotDir = Files.createTempDirectory("storage-state");
+
+        appProps = new ApplicationProperties();
+        appProps.setBaseUrl(stubAuthServer.getBaseUrl());
+        appProps.getSnapshot().setDir(snapshotDir.toString());
+        // Probe the snapshot on every restore, so a session expired on the backend is noticed at once
+        appProps.getSnapshot().setProbeIntervalSeconds(0);
+
+        DriverManager driverManager = new DriverManager() {
+            @Override
+            public WebDriver getDriver() {
+                return browser.driver();
+            }
+        };
+        storageStateManager = new StorageStateManager();
+        ReflectionTestUtils.setField(storageStateManager, "driverManager", driverManager);
+        ReflectionTestUtils.setField(storageStateManager, "appProps", appProps);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopStubServer() {
+        stubAuthServer.stop();
+    }
+
+    @Test(description = "The first session logs in through the UI and is captured; later sessions restore the snapshot")
+    public void testCapturesOnceThenRestores() throws Exception {
+        AtomicInteger logins = new AtomicInteger();
+
+        browser = new FakeBrowser();
+        storageStateManager.restoreOrCapture("capture", EMAIL, uiLogin(logins));
+        Assert.assertEquals(logins.get(), 1);
+        Assert.assertTrue(Files.exists(snapshot("capture")), "Snapshot not saved");
+        String token = browser.localStorage.get("token");
+
+        browser = new FakeBrowser();
+        storageStateManager.restoreOrCapture("capture", EMAIL, uiLogin(logins));
+        Assert.assertEquals(logins.get(), 1, "A valid snapshot must be restored without logging in again");
+        Assert.assertTrue(browser.cookies.stream().anyMatch(cookie -> cookie.getName().equals(StubAuthServer.SESSION_COOKIE)
+                && cookie.getValue().equals(token)), "Session cookie not restored: " + browser.cookies);
+        Assert.assertTrue(browser.scripts.stream().anyMatch(script -> script.contains(token)), "Token not seeded into localStorage");
+    }
+
+    @Test(description = "A snapshot whose session the auth probe rejects is captured again through the UI login")
+    public void testRejectedSnapshotIsRecaptured() throws Exception {
+        AtomicInteger logins = new AtomicInteger();
+        browser = new FakeBrowser();
+        storageStateManager.restoreOrCapture("probe", EMAIL, uiLogin(logins));
+        String token = browser.localStorage.get("token");
+
+        stubAuthServer.expireSessions();
+        browser = new FakeBrowser();
+        storageStateManager.restoreOrCapture("probe", EMAIL, uiLogin(logins));
+
+        Assert.assertEquals(logins.get(), 2);
+        Assert.assertTrue(browser.cookies.stream().noneMatch(cookie -> cookie.getValue().equals(token)),
+                "The rejected snapshot must not be restored");
+    }
+
+    @Test(description = "A snapshot older than the max age is captured again without asking the auth API")
+    public void testExpiredSnapshotIsRecaptured() throws Exception {
+        StorageState old = new StorageState(stubAuthServer.getBaseUrl(), 0, List.of(), Map.of("token", "old"), Map.of(), null);
+        new ObjectMapper().writeValue(snapshot("expiry").toFile(), old);
+        AtomicInteger logins = new AtomicInteger();
+
+        browser = new FakeBrowser();
+        storageStateManager.restoreOrCapture("expiry", EMAIL, uiLogin(logins));
+
+        Assert.assertEquals(logins.get(), 1);
+        Assert.assertNotEquals(new ObjectMapper().readValue(snapshot("expiry").toFile(),
+                StorageState.class).localStorage().get("token"), "old", "The expired snapshot must be replaced");
+    }
+
+    // Snapshots are saved per environment and user, with characters unsafe in file names replaced
+    private Path snapshot(String env) {
+        return snapshotDir.resolve(env + "_" + EMAIL.replace('@', '_') + ".json");
+    }
+
+    // Stands in for the UI login: logs in over the stub API and leaves the session in the browser, as the app would
+    private Callable<Void> uiLogin(AtomicInteger logins) {
+        return () -> {
+            logins.incrementAndGet();
+            AuthSession session = new AuthApiClient(appProps.getAuthApiUrl(), appProps.getAuth())
+                    .login(EMAIL, PASSWORD, () -> OTPUtil.NON_PROD_OTP);
+            browser.currentUrl = appProps.getBaseUrl() + "/dashboard";
+            browser.cookies.addAll(session.cookies());
+            browser.localStorage.putAll(session.localStorage());
+            return null;
+        };
+    }
+
+    // A browser keeping cookies and localStorage in memory and recording the scripts it runs
+    private static final class FakeBrowser {
+        private final Set<Cookie> cookies = new HashSet<>();
+        private final Map<String, String> localStorage = new HashMap<>();
+        private final List<String> scripts = new ArrayList<>();
+        private String currentUrl = "about:blank";
+
+        private WebDriver driver() {
+            WebDriver.Options options = (WebDriver.Options) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{WebDriver.Options.class}, (proxy, method, args) -> switch (method.getName()) {
+                        case "getCookies" -> Set.copyOf(cookies);
+                        case "addCookie" -> {
+                            cookies.add((Cookie) args[0]);
+                            yield null;
+                        }
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    });
+            return (WebDriver) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{WebDriver.class, JavascriptExecutor.class}, (proxy, method, args) -> switch (method.getName()) {
+                        case "getCurrentUrl" -> currentUrl;
+                        case "get" -> {
+                            currentUrl = (String) args[0];
+                            yield null;
+                        }
+                        case "manage" -> options;
+                        case "executeScript" -> {
+                            String script = (String) args[0];
+                            scripts.add(script);
+                            yield script.startsWith("function dump")
+                                    ? new ObjectMapper().writeValueAsString(Map.of("local", localStorage, "session", Map.of()))
+                                    : null;
+                        }
+                        case "executeAsyncScript" -> "[]";
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        case "toString" -> "fake browser";
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+    }
+}
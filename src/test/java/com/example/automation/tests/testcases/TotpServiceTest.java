@@ -0,0 +1,48 @@
+package com.example.automation.tests.testcases;
+
+import com.example.automation.utils.TotpService;
+import de.taimos.totp.TOTP;
+import org.apache.commons.codec.binary.Base32;
+import org.apache.commons.codec.binary.Hex;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+
+public class TotpServiceTest {
+
+    private static final String USER = "totp-test@example.com";
+    private static final String SECRET = "HZTEU5LTMFRG6PTTFQQT6ZBZHZ2FMORU";
+
+    @AfterClass(alwaysRun = true)
+    public void clearSecret() {
+        System.clearProperty("totp.secret." + USER);
+    }
+
+    @Test(description = "Codes match the RFC 6238 SHA1 test vectors")
+    public void testRfcVectors() {
+        SecretKeySpec key = new SecretKeySpec("12345678901234567890".getBytes(StandardCharsets.US_ASCII), "HmacSHA1");
+        Assert.assertEquals(TotpService.codeAt(key, 59_000L), "287082");
+        Assert.assertEquals(TotpService.codeAt(key, 1_111_111_109_000L), "081804");
+        Assert.assertEquals(TotpService.codeAt(key, 1_234_567_890_000L), "005924");
+        Assert.assertEquals(TotpService.codeAt(key, 2_000_000_000_000L), "279037");
+    }
+
+    @Test(description = "Registered secrets produce the same code as the previous TOTP library, with enough validity left")
+    public void testRegisteredSecret() throws Exception {
+        System.setProperty("totp.secret." + USER, SECRET);
+
+        String code = TotpService.generate(USER);
+        TotpService.TotpCode current = TotpService.current(USER);
+        Assert.assertEquals(code, current.code());
+        Assert.assertTrue(current.remainingMillis() >= 4_000, "Code handed out too close to the window end");
+        Assert.assertEquals(code, TOTP.getOTP(Hex.encodeHexString(new Base32().decode(SECRET))));
+    }
+
+    @Test(description = "Users without a registered secret are rejected", expectedExceptions = IllegalArgumentException.class)
+    public void testUnknownUser() {
+        TotpService.current("nobody@example.com");
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.automation.tests.testcases;
+
+import com.example.automation.utils.UniqueIdGenerator;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+public class UniqueIdGeneratorTest {
+
+    private static final int THREADS = 8;
+    private static final int IDS_PER_THREAD = 50_000;
+
+    @Test(description = "Ids generated concurrently are unique and alphanumeric")
+    public void testConcurrentIdsAreUnique() throws Exception {
+        assertUnique(UniqueIdGenerator::next);
+    }
+
+    @Test(description = "Ids taken concurrently from a pool are unique across refills")
+    public void testPoolIdsAreUnique() throws Exception {
+        UniqueIdGenerator.Pool pool = UniqueIdGenerator.newPool(1_000);
+        assertUnique(pool::next);
+    }
+
+    @Test(description = "Ids of one run share the run prefix and differ in the counter")
+    public void testIdsShareRunPrefix() {
+        String first = UniqueIdGenerator.next();
+        String second = UniqueIdGenerator.next();
+        Assert.assertEquals(first.substring(0, 11), second.substring(0, 11));
+        Assert.assertNotEquals(first, second);
+    }
+
+    @Test(description = "The forks of a run get distinct worker ids from run.id and shard.index; without run.id the pid is used")
+    public void testWorkerIdsAreDerivedFromRunAndShard() {
+        Set<String> workers = new HashSet<>();
+        for (int shard = 0; shard < 1_000; shard++) {
+            String worker = UniqueIdGenerator.workerId("nightly-42", shard, 1234);
+            Assert.assertTrue(worker.matches("[a-z0-9]{4}"), "Not a 4 char worker id: " + worker);
+            Assert.assertTrue(workers.add(worker), "Shard " + shard + " reuses worker id " + worker);
+        }
+        Assert.assertEquals(UniqueIdGenerator.workerId("nightly-42", 7, 1), UniqueIdGenerator.workerId("nightly-42", 7, 2),
+                "With a run id the worker id does not depend on the process");
+        Assert.assertNotEquals(UniqueIdGenerator.workerId("run-1", 1, 1), UniqueIdGenerator.workerId("run-2", 0, 1));
+        Assert.assertEquals(UniqueIdGenerator.workerId("", 0, 36 * 36 + 1), "0101");
+    }
+
+    private static void assertUnique(Supplier<String> ids) throws Exception {
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            Future<?>[] futures = new Future<?>[THREADS];
+            for (int t = 0; t < THREADS; t++) {
+                futures[t] = executor.submit(() -> {
+                    for (int i = 0; i < IDS_PER_THREAD; i++) {
+                        String id = ids.get();
+                        Assert.assertTrue(id.matches("[a-z0-9]+"), "Not alphanumeric: " + id);
+                        Assert.assertTrue(seen.add(id), "Duplicate id " + id);
+                    }
+                });
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertEquals(seen.size(), THREADS * IDS_PER_THREAD);
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.automation.tests.utilities;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-test durations of past runs, one "qualified.test.method = milliseconds" line per test.
+ * Each run moves a test's duration halfway towards its newest measurement, so one slow run does not skew shard plans.
+ */
+public class DurationHistory {
+
+    private static final double NEWEST_RUN_WEIGHT = 0.5;
+    // Lock files go to the build directory, not next to the history file, which is committed
+    private static final Path LOCK_DIR = Path.of("target", "locks");
+
+    private final Map<String, Long> durations;
+
+    private DurationHistory(Map<String, Long> durations) {
+        this.durations = durations;
+    }
+
+    /**
+     * Creates a history from known durations, e.g. the durations of a single run.
+     *
+     * @param durations Milliseconds per test.
+     * @return The history.
+     */
+    public static DurationHistory of(Map<String, Long> durations) {
+        return new DurationHistory(new TreeMap<>(durations));
+    }
+
+    /**
+     * Loads a history file.
+     *
+     * @param file The history file.
+     * @return The history, empty if the file does not exist.
+     */
+    public static DurationHistory load(Path file) {
+        Map<String, Long> durations = new TreeMap<>();
+        if (!Files.exists(file)) {
+            return new DurationHistory(durations);
+        }
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                int separator = line.indexOf('=');
+                if (line.isBlank() || line.startsWith("#") || separator < 0) {
+                    continue;
+                }
+                durations.put(line.substring(0, separator).trim(), Long.parseLong(line.substring(separator + 1).trim()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read duration history " + file, e);
+        }
+        return new DurationHistory(durations);
+    }
+
+    /**
+     * Merges a run's durations into the history file. Forks of one run can call this concurrently;
+     * the read-merge-write is guarded by a lock file under target/.
+     *
+     * @param file The history file.
+     * @param run  Milliseconds per test of the run.
+     */
+    public static void update(Path file, Map<String, Long> run) {
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Files.createDirectories(LOCK_DIR);
+            try (FileChannel lockChannel = FileChannel.open(LOCK_DIR.resolve(file.getFileName() + ".lock"),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                FileLock lock = lockChannel.lock();
+                try {
+                    DurationHistory history = load(file);
+                    history.record(run);
+                    history.save(file);
+                } finally {
+                    lock.release();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to update duration history " + file, e);
+        }
+    }
+
+    /**
+     * Returns the expected duration of a test.
+     *
+     * @param test The qualified test method name.
+     * @return Milliseconds, or -1 if the test has no history.
+     */
+    public long get(String test) {
+        return durations.getOrDefault(test, -1L);
+    }
+
+    /**
+     * Returns the durations.
+     *
+     * @return Milliseconds per test, sorted by test name.
+     */
+    public Map<String, Long> asMap() {
+        return Collections.unmodifiableMap(durations);
+    }
+
+    /**
+     * Returns the median duration of all tests with history, used for tests without history.
+     *
+     * @param defaultMillis The value to return when the history is empty.
+     * @return Milliseconds.
+     */
+    public long median(long defaultMillis) {
+        if (durations.isEmpty()) {
+            return defaultMillis;
+        }
+        List<Long> sorted = new ArrayList<>(durations.values());
+        Collections.sort(sorted);
+        return sorted.get(sorted.size() / 2);
+    }
+
+    /**
+     * Merges a run's durations into this history.
+     *
+     * @param run Milliseconds per test of the run.
+     */
+    public void record(Map<String, Long> run) {
+        run.forEach((test, millis) -> durations.merge(test, millis,
+                (previous, latest) -> Math.round(previous * (1 - NEWEST_RUN_WEIGHT) + latest * NEWEST_RUN_WEIGHT)));
+    }
+
+    /**
+     * Writes the history, sorted by test name so the file diffs cleanly.
+     *
+     * @param file The history file.
+     */
+    public void save(Path file) throws IOException {
+        StringBuilder content = new StringBuilder("# Test durations in ms, updated after each run and used to balance shards\n");
+        new TreeMap<>(durations).forEach((test, millis) -> content.append(test).append(" = ").append(millis).append('\n'));
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.writeString(temp, content, StandardCharsets.UTF_8);
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
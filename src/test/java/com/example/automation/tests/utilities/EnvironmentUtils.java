@@ -2,8 +2,50 @@ package com.example.automation.tests.utilities;
 
 import com.example.automation.config.Config;
 import com.example.automation.tests.testdata.UserCredentials;
+import com.example.automation.utils.AccountPool;
+import com.example.automation.utils.PropertiesLoader;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
 
 public class EnvironmentUtils {
+
+    private static final Map<String, AccountPool> ACCOUNT_POOLS = new ConcurrentHashMap<>();
+
+    /**
+     * Leases a test account of the current environment for the exclusive use of the calling test.
+     * Accounts come from accounts.N.email/password in application-&lt;env&gt;.properties, or from UserCredentials
+     * when none are configured; that is a single account per environment, so leasing tests then run one at a time.
+     * Close the lease (or let BaseTest's tearDown do it) to return the account.
+     *
+     * @return The lease.
+     * @throws TimeoutException If no account is free within accounts.leaseTimeoutSeconds.
+     */
+    public static AccountPool.AccountLease leaseAccount() throws TimeoutException {
+        Duration timeout = Duration.ofSeconds(Long.parseLong(PropertiesLoader.getProperty("accounts.leaseTimeoutSeconds", "120").trim()));
+        return getAccountPool().lease(timeout);
+    }
+
+    /**
+     * Returns the account pool of the current environment.
+     *
+     * @return The pool, created on first use.
+     */
+    public static AccountPool getAccountPool() {
+        return ACCOUNT_POOLS.computeIfAbsent(Config.getEnvironment(), env -> {
+            List<AccountPool.Account> accounts = AccountPool.accountsFromProperties();
+            if (accounts.isEmpty()) {
+                accounts = Arrays.stream(UserCredentials.userCredentialsDataProvider())
+                        .map(credentials -> new AccountPool.Account((String) credentials[1], (String) credentials[2]))
+                        .toList();
+            }
+            return AccountPool.withConfiguredTimes(accounts);
+        });
+    }
     /**
      * Gets the email for the current environment from the UserCredentials data provider.
      *
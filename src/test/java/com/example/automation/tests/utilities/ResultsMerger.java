@@ -0,0 +1,176 @@
+package com.example.automation.tests.utilities;
+
+import com.example.automation.utils.ExtentReportManager;
+import com.example.automation.utils.ResultsSink;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Combines the results.jsonl files of several forks and shards, local or copied from separate agents, into one
+ * results-summary.json: tests per status, flaky tests, and duration percentiles for the run, each test and each step.
+ * Usage: ResultsMerger [report dir or results file...]; without arguments, the shard dirs under report.dir/shards,
+ * or report.dir itself if the run was not sharded.
+ */
+@Slf4j
+public class ResultsMerger {
+
+    public static final String SUMMARY_FILE = "results-summary.json";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .enable(SerializationFeature.INDENT_OUTPUT);
+
+    /**
+     * Nearest-rank percentiles of durations in milliseconds.
+     */
+    public record Percentiles(int count, long p50, long p90, long p95, long p99, long max) {
+
+        public static Percentiles of(List<Long> values) {
+            if (values.isEmpty()) {
+                return new Percentiles(0, 0, 0, 0, 0, 0);
+            }
+            long[] sorted = values.stream().mapToLong(Long::longValue).sorted().toArray();
+            return new Percentiles(sorted.length, rank(sorted, 50), rank(sorted, 90), rank(sorted, 95), rank(sorted, 99),
+                    sorted[sorted.length - 1]);
+        }
+
+        private static long rank(long[] sorted, int percentile) {
+            return sorted[Math.max(0, (int) Math.ceil(percentile / 100.0 * sorted.length) - 1)];
+        }
+    }
+
+    /**
+     * Results of one test (one data row of a data-driven test) over all its attempts.
+     */
+    public record TestSummary(String test, List<String> parameters, Map<String, Integer> statuses, boolean flaky,
+                              Percentiles durationMs) {
+    }
+
+    /**
+     * The merged results of a run.
+     */
+    public record Summary(List<String> runIds, List<String> forks, int results, Map<String, Integer> statuses,
+                          List<String> flaky, Percentiles durationMs, Map<String, Percentiles> stepsMs,
+                          List<TestSummary> slowestFirst) {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path reportDir = ExtentReportManager.getReportDir();
+        List<Path> inputs = args.length > 0 ? Stream.of(args).map(Path::of).toList() : List.of();
+        if (inputs.isEmpty()) {
+            Path shardsRoot = reportDir.resolve(ShardReportMerger.SHARDS_DIR);
+            inputs = Files.isDirectory(shardsRoot) ? List.of(shardsRoot) : List.of(reportDir);
+        }
+        Summary summary = merge(inputs, reportDir);
+        log.info("{} result(s) from {} fork(s): {}, p95 {} ms", summary.results(), summary.forks().size(),
+                summary.statuses(), summary.durationMs().p95());
+    }
+
+    /**
+     * Reads the results files in or under the inputs and writes their summary to targetDir/results-summary.json.
+     *
+     * @param inputs    Results files, or directories searched for results.jsonl files.
+     * @param targetDir Directory of the summary.
+     * @return The summary.
+     */
+    public static Summary merge(List<Path> inputs, Path targetDir) throws IOException {
+        List<ResultsSink.Record> tests = new ArrayList<>();
+        Set<String> runIds = new LinkedHashSet<>();
+        Set<String> forks = new LinkedHashSet<>();
+        for (Path file : findResultsFiles(inputs)) {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    ResultsSink.Record record = MAPPER.readValue(line, ResultsSink.Record.class);
+                    runIds.add(record.runId());
+                    forks.add(record.fork());
+                    if ("test".equals(record.event())) {
+                        tests.add(record);
+                    }
+                }
+            } catch (IOException e) {
+                // A fork killed mid-write leaves a truncated last line; keep what was read
+                log.warn("Stopped reading {}: {}", file, e.getMessage());
+            }
+        }
+
+        Summary summary = summarise(List.copyOf(runIds), List.copyOf(forks), tests);
+        Files.createDirectories(targetDir);
+        MAPPER.writeValue(targetDir.resolve(SUMMARY_FILE).toFile(), summary);
+        return summary;
+    }
+
+    private static Summary summarise(List<String> runIds, List<String> forks, List<ResultsSink.Record> tests) {
+        Map<String, Integer> statuses = new TreeMap<>();
+        List<Long> durations = new ArrayList<>();
+        Map<String, List<Long>> stepDurations = new TreeMap<>();
+        Map<List<Object>, List<ResultsSink.Record>> byTest = new LinkedHashMap<>();
+        for (ResultsSink.Record test : tests) {
+            statuses.merge(test.status(), 1, Integer::sum);
+            durations.add(test.durationMs());
+            if (test.steps() != null) {
+                test.steps().forEach(step -> stepDurations.computeIfAbsent(step.name(), name -> new ArrayList<>()).add(step.millis()));
+            }
+            List<String> parameters = test.parameters() == null ? List.of() : test.parameters();
+            byTest.computeIfAbsent(List.of(test.test(), parameters), key -> new ArrayList<>()).add(test);
+        }
+
+        List<TestSummary> perTest = new ArrayList<>();
+        List<String> flaky = new ArrayList<>();
+        byTest.forEach((key, runs) -> {
+            Map<String, Integer> testStatuses = new TreeMap<>();
+            runs.forEach(run -> testStatuses.merge(run.status(), 1, Integer::sum));
+            boolean failedOnce = testStatuses.containsKey("FAIL") || testStatuses.containsKey("RETRY");
+            boolean isFlaky = failedOnce && testStatuses.containsKey("PASS");
+            ResultsSink.Record first = runs.get(0);
+            List<String> parameters = first.parameters() == null ? List.of() : first.parameters();
+            if (isFlaky) {
+                flaky.add(parameters.isEmpty() ? first.test() : first.test() + parameters);
+            }
+            perTest.add(new TestSummary(first.test(), parameters, testStatuses, isFlaky,
+                    Percentiles.of(runs.stream().map(ResultsSink.Record::durationMs).toList())));
+        });
+        perTest.sort(Comparator.comparingLong((TestSummary test) -> test.durationMs().p95()).reversed()
+                .thenComparing(TestSummary::test));
+
+        Map<String, Percentiles> steps = new TreeMap<>();
+        stepDurations.forEach((step, values) -> steps.put(step, Percentiles.of(values)));
+        return new Summary(runIds, forks, tests.size(), statuses, flaky, Percentiles.of(durations), steps, perTest);
+    }
+
+    private static List<Path> findResultsFiles(List<Path> inputs) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (Path input : inputs) {
+            if (Files.isRegularFile(input)) {
+                files.add(input);
+            } else if (Files.isDirectory(input)) {
+                try (Stream<Path> found = Files.walk(input)) {
+                    found.filter(path -> path.getFileName().toString().equals(ResultsSink.RESULTS_FILE)).sorted().forEach(files::add);
+                }
+            } else {
+                log.warn("No results at {}", input);
+            }
+        }
+        return files;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.automation.tests.utilities;
+
+import com.example.automation.utils.ExtentReportManager;
+import com.example.automation.utils.PropertiesLoader;
+import com.example.automation.utils.UniqueIdGenerator;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a TestNG suite as shard.count shards in parallel JVM forks on this machine, then merges their reports.
+ * Each fork writes its reports to report.dir/shards/shard-&lt;index&gt;. System properties starting with spring.,
+ * test. or env are passed on to the forks, and all forks share one run.id. Usage: ShardLauncher [suite.xml]; run
+ * via the "shards" Maven profile. Exits with the highest TestNG exit code of the forks.
+ */
+@Slf4j
+public class ShardLauncher {
+
+    private static final List<String> FORWARDED_PREFIXES = List.of("spring.", "test.", "env");
+
+    public static void main(String[] args) throws Exception {
+        String suite = args.length > 0 ? args[0] : "src/test/resources/testng.xml";
+        int count = Integer.parseInt(PropertiesLoader.getOverridableProperty("shard.count", "2").trim());
+        Path reportDir = ExtentReportManager.getReportDir();
+        String runId = PropertiesLoader.getOverridableProperty("run.id", "").trim();
+        if (runId.isEmpty()) {
+            runId = UniqueIdGenerator.next();
+        }
+
+        long start = System.nanoTime();
+        List<Process> forks = new ArrayList<>();
+        List<Path> shardDirs = new ArrayList<>();
+        for (int index = 0; index < count; index++) {
+            Path shardDir = reportDir.resolve(ShardReportMerger.SHARDS_DIR).resolve("shard-" + index);
+            Files.createDirectories(shardDir);
+            shardDirs.add(shardDir);
+            forks.add(startFork(suite, runId, index, count, shardDir));
+        }
+
+        int exitCode = 0;
+        for (int index = 0; index < count; index++) {
+            int forkExit = forks.get(index).waitFor();
+            log.info("Shard {}/{} finished with exit code {}, log: {}", index + 1, count, forkExit, shardDirs.get(index).resolve("console.log"));
+            exitCode = Math.max(exitCode, forkExit);
+        }
+        log.info("{} shard(s) finished in {} s", count, TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start));
+
+        ShardReportMerger.merge(shardDirs, reportDir);
+        System.exit(exitCode);
+    }
+
+    private static Process startFork(String suite, String runId, int index, int count, Path shardDir) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        System.getProperties().stringPropertyNames().stream()
+                .filter(key -> FORWARDED_PREFIXES.stream().anyMatch(key::startsWith))
+                .sorted()
+                .forEach(key -> command.add("-D" + key + "=" + System.getProperty(key)));
+        command.add("-Drun.id=" + runId);
+        command.add("-Dshard.count=" + count);
+        command.add("-Dshard.index=" + index);
+        command.add("-Dreport.dir=" + shardDir.toAbsolutePath());
+        command.add("org.testng.TestNG");
+        command.add("-d");
+        command.add(shardDir.resolve("testng").toString());
+        command.add(suite);
+
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(shardDir.resolve("console.log").toFile())
+                .start();
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.automation.tests.utilities;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Splits units of work into shards that finish at about the same time: units are taken longest first and each goes
+ * to the shard with the least expected time so far. Ties are broken by unit name, so every fork and agent computes
+ * the same plan from the same history.
+ */
+public class ShardPlanner {
+
+    /**
+     * A unit that must run in one shard, e.g. tests that reuse one browser state.
+     *
+     * @param name     Stable name of the unit.
+     * @param millis   Expected duration.
+     * @param payload  What the unit stands for, e.g. its test methods.
+     */
+    public record Unit<T>(String name, long millis, T payload) {
+    }
+
+    /**
+     * A shard of the plan.
+     *
+     * @param units  The units in the shard.
+     * @param millis Expected duration of the shard.
+     */
+    public record Shard<T>(List<Unit<T>> units, long millis) {
+    }
+
+    private ShardPlanner() {
+    }
+
+    /**
+     * Plans the shards.
+     *
+     * @param units  The units to distribute.
+     * @param shards Number of shards.
+     * @return The shards, indexed 0 to shards - 1.
+     */
+    public static <T> List<Shard<T>> plan(List<Unit<T>> units, int shards) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("Shard count must be at least 1, was " + shards);
+        }
+        List<Unit<T>> sorted = new ArrayList<>(units);
+        sorted.sort(Comparator.comparingLong((Unit<T> unit) -> unit.millis()).reversed().thenComparing(Unit::name));
+
+        List<List<Unit<T>>> assigned = new ArrayList<>();
+        long[] loads = new long[shards];
+        for (int i = 0; i < shards; i++) {
+            assigned.add(new ArrayList<>());
+        }
+        for (Unit<T> unit : sorted) {
+            int lightest = 0;
+            for (int i = 1; i < shards; i++) {
+                if (loads[i] < loads[lightest]) {
+                    lightest = i;
+                }
+            }
+            assigned.get(lightest).add(unit);
+            loads[lightest] += unit.millis();
+        }
+
+        List<Shard<T>> plan = new ArrayList<>();
+        for (int i = 0; i < shards; i++) {
+            plan.add(new Shard<>(assigned.get(i), loads[i]));
+        }
+        return plan;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.automation.tests.utilities;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.example.automation.tests.hooks.DurationRecorder;
+import com.example.automation.tests.hooks.ShardSelector;
+import com.example.automation.utils.ExtentReportManager;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Merges the report directories of a sharded run, from local forks or copied from separate agents, into one
+ * Extent report and one results summary, and merges their test durations into the duration history.
+ * Usage: ShardReportMerger [shard report dir...]; without arguments, every shard-* dir under report.dir/shards.
+ */
+@Slf4j
+public class ShardReportMerger {
+
+    public static final String SHARDS_DIR = "shards";
+
+    public static void main(String[] args) throws IOException {
+        Path reportDir = ExtentReportManager.getReportDir();
+        List<Path> shardDirs = args.length > 0
+                ? Stream.of(args).map(Path::of).toList()
+                : findShardDirs(reportDir.resolve(SHARDS_DIR));
+        merge(shardDirs, reportDir);
+    }
+
+    /**
+     * Merges the shards' reports into targetDir/ExtentReport.html and targetDir/results-summary.json, and their
+     * durations into the duration history.
+     *
+     * @param shardDirs The shards' report directories.
+     * @param targetDir Directory of the merged report.
+     */
+    public static void merge(List<Path> shardDirs, Path targetDir) throws IOException {
+        Files.createDirectories(targetDir);
+        ExtentReports merged = new ExtentReports();
+        merged.attachReporter(ExtentReportManager.createSparkReporter(targetDir.resolve(ExtentReportManager.HTML_REPORT).toString()));
+        int reports = 0;
+        for (Path shardDir : shardDirs) {
+            Path archive = shardDir.resolve(ExtentReportManager.JSON_ARCHIVE);
+            if (Files.exists(archive)) {
+                merged.createDomainFromJsonArchive(archive.toFile());
+                reports++;
+            } else {
+                log.warn("No report archive in {}, the shard did not finish or reported no tests", shardDir);
+            }
+            Path durations = shardDir.resolve(DurationRecorder.RUN_DURATIONS_FILE);
+            if (Files.exists(durations)) {
+                DurationHistory.update(ShardSelector.getHistoryFile(), DurationHistory.load(durations).asMap());
+            }
+        }
+        merged.flush();
+        log.info("Merged {} of {} shard report(s) into {}", reports, shardDirs.size(), targetDir.resolve(ExtentReportManager.HTML_REPORT));
+        ResultsMerger.merge(shardDirs, targetDir);
+    }
+
+    private static List<Path> findShardDirs(Path shardsRoot) throws IOException {
+        if (!Files.isDirectory(shardsRoot)) {
+            return List.of();
+        }
+        try (Stream<Path> dirs = Files.list(shardsRoot)) {
+            return dirs.filter(dir -> Files.isDirectory(dir) && dir.getFileName().toString().startsWith("shard-")).sorted().toList();
+        }
+    }
+}